@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.benchmark;
+
+import com.forecasting.models.Forecaster;
+import com.forecasting.models.dto.DataSet;
+import com.forecasting.models.dto.Model;
+import com.forecasting.models.exception.ModelInitializationException;
+import com.forecasting.models.models.ForecastModel;
+import com.forecasting.models.postprocess.Evaluator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Model weighting by the Evaluator and the end-to-end Forecaster
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ForecasterBenchmark {
+
+    private List<ForecastModel> trainedModels;
+
+    @Setup(Level.Trial)
+    public void setUp(SeriesState series) throws ModelInitializationException {
+        trainedModels = new ArrayList<ForecastModel>();
+        for (Model model : new Model[]{Model.TESA, Model.TESM, Model.DES, Model.SSES, Model.MOV, Model.FFT}) {
+            ForecastModel forecastModel = Models.create(model, series);
+            forecastModel.init(series.dataSet);
+            forecastModel.train();
+            forecastModel.forecast(series.futurePoints);
+            trainedModels.add(forecastModel);
+        }
+    }
+
+    @Benchmark
+    public List<ForecastModel> evaluate(SeriesState series) {
+        for (ForecastModel model : trainedModels)
+            model.setWeight(0d);
+        new Evaluator(trainedModels, series.validationPoints).evaluate();
+        return trainedModels;
+    }
+
+    @Benchmark
+    public DataSet forecaster(SeriesState series) throws Exception {
+        Forecaster forecaster = new Forecaster();
+        forecaster.init(series.dataSet);
+        return forecaster.forecast(series.trainPoints, series.validationPoints, series.futurePoints, series.seasonPeriod);
+    }
+}
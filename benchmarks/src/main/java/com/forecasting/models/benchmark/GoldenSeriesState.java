@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.benchmark;
+
+import com.forecasting.models.dto.DataSet;
+import com.forecasting.models.dto.IndependentVariable;
+import com.forecasting.models.dto.Observation;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Segments of a golden dataset csv, one "key,v1,v2,..." line per segment. The default path is relative to the
+ * benchmarks module.
+ */
+@State(Scope.Benchmark)
+public class GoldenSeriesState {
+
+    @Param({"../src/test/resources/golden_dataset.csv"})
+    public String file;
+
+    public double[][] series;
+    public DataSet[] dataSets;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<double[]> segments = new ArrayList<double[]>();
+        BufferedReader reader = new BufferedReader(new FileReader(file));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] tokens = line.split(",");
+                if (tokens.length < 2)
+                    continue;
+                double[] values = new double[tokens.length - 1];
+                for (int i = 1; i < tokens.length; i++)
+                    values[i - 1] = Double.parseDouble(tokens[i]);
+                segments.add(values);
+            }
+        } finally {
+            reader.close();
+        }
+        series = segments.toArray(new double[segments.size()][]);
+        dataSets = new DataSet[series.length];
+        for (int i = 0; i < series.length; i++)
+            dataSets[i] = toDataSet(series[i]);
+    }
+
+    private static DataSet toDataSet(double[] values) {
+        DataSet dataSet = new DataSet();
+        for (int i = 0; i < values.length; i++) {
+            Observation observation = new Observation();
+            observation.setIndependentValue(IndependentVariable.SLICE, i);
+            observation.setDependentValue(values[i]);
+            dataSet.add(observation);
+        }
+        return dataSet;
+    }
+}
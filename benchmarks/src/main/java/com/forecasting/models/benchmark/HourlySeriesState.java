@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * Synthetic hourly series with daily and weekly cycles, noise and a few spikes, long enough for trailing windows
+ * of a week of hours. The default length is 90 days.
+ */
+@State(Scope.Benchmark)
+public class HourlySeriesState {
+
+    @Param({"2160"})
+    public int length;
+
+    public double[] values;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        values = new double[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = 1000 + 300 * Math.sin(2 * Math.PI * i / 24) + 100 * Math.sin(2 * Math.PI * i / 168)
+                    + 40 * random.nextGaussian();
+            if (random.nextDouble() < 0.02)
+                values[i] *= 3;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.benchmark;
+
+import com.forecasting.models.dto.DataSet;
+import com.forecasting.models.dto.Model;
+import com.forecasting.models.exception.ModelInitializationException;
+import com.forecasting.models.models.ForecastModel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Training and forecasting of every forecast model on its own
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ModelBenchmark {
+
+    @Param({"TESA", "TESM", "DES", "SSES", "SES", "MOV", "CDGR", "FFT"})
+    public Model model;
+
+    private ForecastModel trained;
+
+    @Setup(Level.Trial)
+    public void setUp(SeriesState series) throws ModelInitializationException {
+        trained = Models.create(model, series);
+        trained.init(series.dataSet);
+        trained.train();
+    }
+
+    @Benchmark
+    public ForecastModel train(SeriesState series) throws ModelInitializationException {
+        ForecastModel forecastModel = Models.create(model, series);
+        forecastModel.init(series.dataSet);
+        forecastModel.train();
+        return forecastModel;
+    }
+
+    @Benchmark
+    public DataSet forecast(SeriesState series) {
+        trained.forecast(series.futurePoints);
+        return trained.getForecastDataSet();
+    }
+}
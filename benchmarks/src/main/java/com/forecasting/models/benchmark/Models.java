@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.benchmark;
+
+import com.forecasting.models.dto.Model;
+import com.forecasting.models.models.ForecastModel;
+import com.forecasting.models.models.impl.*;
+
+/**
+ * Creates forecast models with the arguments Forecaster uses
+ */
+final class Models {
+
+    private Models() {
+    }
+
+    static ForecastModel create(Model model, SeriesState series) {
+        switch (model) {
+            case TESA:
+                return new TripleExponentialSmoothingAdditiveModel(series.trainPoints, series.validationPoints, series.seasonPeriod);
+            case TESM:
+                return new TripleExponentialSmoothingMultiplicativeModel(series.trainPoints, series.validationPoints, series.seasonPeriod);
+            case DES:
+                return new DoubleExponentialSmoothingModel(series.trainPoints, series.validationPoints);
+            case SSES:
+                return new SeasonalSingleExponentialSmoothingModel(series.trainPoints, series.validationPoints, series.seasonPeriod);
+            case SES:
+                return new SingleExponentialSmoothingModel(series.trainPoints, series.validationPoints);
+            case MOV:
+                return new WeightedMovingAverageModel(null, 7, 1, series.trainPoints, series.validationPoints);
+            case CDGR:
+                return new CDGRModel(series.seasonPeriod, series.validationPoints);
+            case FFT:
+                return new FFTModelImproved(series.trainPoints, series.validationPoints, series.seasonPeriod, 5);
+            default:
+                throw new IllegalArgumentException("No benchmark for model " + model);
+        }
+    }
+}
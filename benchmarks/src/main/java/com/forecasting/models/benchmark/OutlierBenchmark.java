@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.benchmark;
+
+import com.forecasting.models.preprocess.OutlierDetector;
+import com.forecasting.models.preprocess.impl.AbstractOutlierFilter;
+import com.forecasting.models.preprocess.impl.HampelFilter;
+import com.forecasting.models.preprocess.impl.RollingMedianFilter;
+import com.forecasting.models.preprocess.impl.RollingOutlierFilter;
+import com.forecasting.models.preprocess.impl.SeasonalMedianFilter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outlier filters over every segment of the golden dataset, one operation cleans all segments. The detector the
+ * forecasters use is measured through its DataSet API, the filters in place on a copy of each segment.
+ *
+ * The golden segments are shorter than a week of hours, so the rolling median is also measured on a long hourly
+ * series against a baseline that sorts a copy of the window at every point.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class OutlierBenchmark {
+
+    @Param({"7", "14", "168"})
+    public int window;
+
+    @Benchmark
+    public int outlierDetector(GoldenSeriesState golden) {
+        int points = 0;
+        OutlierDetector detector = new OutlierDetector(400);
+        for (int i = 0; i < golden.dataSets.length; i++)
+            points += detector.removeOutlier(golden.dataSets[i], window).size();
+        return points;
+    }
+
+    @Benchmark
+    public int rollingMeanFilter(GoldenSeriesState golden) {
+        return filter(new RollingOutlierFilter(400, window), golden);
+    }
+
+    @Benchmark
+    public int rollingMedianFilter(GoldenSeriesState golden) {
+        return filter(new RollingMedianFilter(400, window), golden);
+    }
+
+    @Benchmark
+    public int sortedMedianFilter(GoldenSeriesState golden) {
+        return filter(new SortedMedianFilter(400, window), golden);
+    }
+
+    @Benchmark
+    public int rollingMedianFilterHourly(HourlySeriesState hourly) {
+        return new RollingMedianFilter(400, window).filter(hourly.values.clone());
+    }
+
+    @Benchmark
+    public int sortedMedianFilterHourly(HourlySeriesState hourly) {
+        return new SortedMedianFilter(400, window).filter(hourly.values.clone());
+    }
+
+    @Benchmark
+    public int hampelFilter(GoldenSeriesState golden) {
+        return filter(new HampelFilter(window, 3), golden);
+    }
+
+    @Benchmark
+    public int seasonalMedianFilter(GoldenSeriesState golden) {
+        return filter(new SeasonalMedianFilter(7, window / 7 + 1, 3), golden);
+    }
+
+    private static int filter(AbstractOutlierFilter filter, GoldenSeriesState golden) {
+        int outliers = 0;
+        for (int i = 0; i < golden.series.length; i++) {
+            filter.reset();
+            outliers += filter.filter(golden.series[i].clone());
+        }
+        return outliers;
+    }
+
+    /**
+     * RollingMedianFilter rule with the median taken by sorting a copy of the window, O(window log window) per point
+     */
+    private static class SortedMedianFilter extends AbstractOutlierFilter {
+
+        private final double threshold;
+        private final double[] window;
+        private final double[] sorted;
+        private int size, next;
+
+        SortedMedianFilter(double threshold, int window) {
+            this.threshold = 1 + threshold / 100;
+            this.window = new double[window];
+            this.sorted = new double[window];
+        }
+
+        @Override
+        public double accept(double value) {
+            if (Double.isNaN(value))
+                return value;
+            double cleaned = value;
+            if (size == window.length) {
+                System.arraycopy(window, 0, sorted, 0, size);
+                Arrays.sort(sorted);
+                double median = size % 2 == 1 ? sorted[size / 2] : (sorted[size / 2 - 1] + sorted[size / 2]) / 2;
+                if (median * threshold < value || median > threshold * value) {
+                    cleaned = median;
+                    outliers++;
+                }
+            }
+            window[next] = value;
+            next = (next + 1) % window.length;
+            if (size < window.length)
+                size++;
+            return cleaned;
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            size = 0;
+            next = 0;
+        }
+    }
+}
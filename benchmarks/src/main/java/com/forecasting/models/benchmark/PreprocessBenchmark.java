@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.benchmark;
+
+import com.forecasting.models.dto.DataSet;
+import com.forecasting.models.models.impl.FFTModelImproved;
+import com.forecasting.models.preprocess.OutlierDetector;
+import com.forecasting.models.preprocess.SeasonalityCalculator;
+import com.forecasting.models.preprocess.SeasonalityCalculatorUsingAutoCorrelation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outlier removal, seasonality detection and FFT analysis
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PreprocessBenchmark {
+
+    private FFTModelImproved fftModel;
+    private double[] fftInput;      // Mean centred series zero padded to twice its length, as the model transforms it
+
+    @Setup(Level.Trial)
+    public void setUp(SeriesState series) {
+        fftModel = new FFTModelImproved(series.trainPoints, series.validationPoints, series.seasonPeriod, 5);
+        int length = series.values.length;
+        double sum = 0;
+        for (double value : series.values)
+            sum += value;
+        fftInput = new double[2 * length];
+        for (int i = 0; i < length; i++)
+            fftInput[i] = series.values[i] - sum / length;
+    }
+
+    @Benchmark
+    public DataSet removeOutlier(SeriesState series) {
+        return new OutlierDetector(400).removeOutlier(series.dataSet, series.seasonPeriod);
+    }
+
+    @Benchmark
+    public int seasonalityUsingAutoCorrelation(SeriesState series) {
+        return new SeasonalityCalculatorUsingAutoCorrelation().computeSeasonality(series.dataSet);
+    }
+
+    @Benchmark
+    public double[] seasonality(SeriesState series) {
+        return new SeasonalityCalculator().computeSeasonality(series.dataSet);
+    }
+
+    /**
+     * The analysis transforms its input in place, each call gets a copy so every iteration sees the same series
+     */
+    @Benchmark
+    public double[] fftAnalysis() {
+        return fftModel.doFFTanalysis(fftInput.clone());
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.benchmark;
+
+import com.forecasting.models.dto.DataSet;
+import com.forecasting.models.dto.IndependentVariable;
+import com.forecasting.models.dto.Observation;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * Synthetic series shared by the benchmarks - level, trend, one seasonal cycle, noise and a few spikes for the
+ * outlier detector. The last validationPoints observations are used for validation, as in the golden datasets.
+ */
+@State(Scope.Benchmark)
+public class SeriesState {
+
+    @Param({"42", "126", "365"})
+    public int length;
+
+    @Param({"7"})
+    public int seasonPeriod;
+
+    public int trainPoints;
+    public int validationPoints;
+    public int futurePoints;
+    public double[] values;
+    public DataSet dataSet;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        validationPoints = Math.min(2 * seasonPeriod, length / 3);
+        trainPoints = length - validationPoints;
+        futurePoints = seasonPeriod;
+
+        Random random = new Random(42);
+        values = new double[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = 1000 + 2 * i + 150 * Math.sin(2 * Math.PI * i / seasonPeriod) + 40 * random.nextGaussian();
+            if (random.nextDouble() < 0.02)
+                values[i] *= 3;
+        }
+        dataSet = toDataSet(values);
+    }
+
+    private static DataSet toDataSet(double[] values) {
+        DataSet dataSet = new DataSet();
+        for (int i = 0; i < values.length; i++) {
+            Observation observation = new Observation();
+            observation.setIndependentValue(IndependentVariable.SLICE, i);
+            observation.setDependentValue(values[i]);
+            dataSet.add(observation);
+        }
+        return dataSet;
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models;
+
+import com.forecasting.models.dto.ColumnarDataSet;
+import com.forecasting.models.dto.DataSet;
+import com.forecasting.models.dto.Model;
+import com.forecasting.models.metrics.ForecastMetricsListener;
+import com.forecasting.models.models.impl.ParameterPriors;
+import com.forecasting.models.optimizer.ParameterOptimizer;
+import com.forecasting.models.utils.Deadline;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Forecasts many keyed time series at once. Segments are split in chunks and forecasted on a pool of worker
+ * threads, every worker reuses its own Forecaster so no state is shared between segments running in parallel. The
+ * forecaster is dropped once the worker finishes its chunk, so a caller's pool does not keep it after the batch.
+ */
+public class BatchForecaster {
+
+    private static Logger logger = Logger.getLogger(BatchForecaster.class.getName());
+
+    private final List<Model> modelList;
+    private final int trainPoints;
+    private final int validationPoints;
+    private final int futurePoints;
+    private final int seasonPeriod;
+
+    @Getter
+    @Setter
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    @Getter
+    @Setter
+    private int chunkSize = 16;                     // Segments handed to a worker at a time
+    @Getter
+    @Setter
+    private int progressInterval = 1000;            // Report progress every progressInterval segments
+    @Getter
+    @Setter
+    private BatchProgressListener progressListener;
+    @Getter
+    @Setter
+    private ExecutorService executorService;        // Optional, a pool of parallelism threads is created per batch otherwise
+
+    @Getter
+    @Setter
+    private ParameterOptimizer parameterOptimizer;  // Optional, replaces the decay constant grid search of the models
+    @Getter
+    @Setter
+    private Map<String, ParameterPriors> parameterPriors;   // Optional concurrent map, decay constants by segment
+                                                            // searched around and replaced by the ones found
+
+    @Getter
+    @Setter
+    private ForecastMetricsListener metricsListener;    // Optional and thread safe, receives the stages of every segment,
+                                                        // a MetricsAggregator gives histograms of the whole batch
+
+    @Getter
+    @Setter
+    private long segmentTimeBudget;                 // Milliseconds per segment, unbounded when 0
+    @Getter
+    @Setter
+    private long batchTimeBudget;                   // Milliseconds for the whole batch, unbounded when 0. Segments
+                                                    // started after it only run the cheap models
+
+    @Getter
+    private Map<String, Throwable> failedSegments = new ConcurrentHashMap<String, Throwable>();
+    @Getter
+    private long executionTime;
+    @Getter
+    private double throughput;                      // Segments per second of the last batch
+
+    private final ThreadLocal<Forecaster> forecasters = new ThreadLocal<Forecaster>() {
+        @Override
+        protected Forecaster initialValue() {
+            return modelList == null ? new Forecaster() : new Forecaster(modelList);
+        }
+    };
+
+    /**
+     * Constructor, runs all models
+     *
+     * @param trainPoints
+     * @param validationPoints
+     * @param futurePoints
+     * @param seasonPeriod
+     */
+    public BatchForecaster(int trainPoints, int validationPoints, int futurePoints, int seasonPeriod) {
+        this(null, trainPoints, validationPoints, futurePoints, seasonPeriod);
+    }
+
+    /**
+     * Constructor with specified models
+     *
+     * @param modelList
+     * @param trainPoints
+     * @param validationPoints
+     * @param futurePoints
+     * @param seasonPeriod
+     */
+    public BatchForecaster(List<Model> modelList, int trainPoints, int validationPoints, int futurePoints, int seasonPeriod) {
+        this.modelList = modelList;
+        this.trainPoints = trainPoints;
+        this.validationPoints = validationPoints;
+        this.futurePoints = futurePoints;
+        this.seasonPeriod = seasonPeriod;
+    }
+
+    /**
+     * Forecasts every time series of the map
+     *
+     * @param timeSeriesMap
+     * @return forecast keyed by segment, failed segments are left out and recorded in failedSegments
+     * @throws InterruptedException
+     */
+    public Map<String, DataSet> forecast(Map<String, DataSet> timeSeriesMap) throws InterruptedException {
+        return forecast(timeSeriesMap.entrySet().iterator(), timeSeriesMap.size());
+    }
+
+    /**
+     * Forecasts primitive series, as loaded by SegmentCsvLoader. Series are converted to DataSets a chunk at a time
+     * as the workers take them, not all upfront
+     *
+     * @param series
+     * @return forecast keyed by segment, failed segments are left out and recorded in failedSegments
+     * @throws InterruptedException
+     */
+    public Map<String, DataSet> forecastSeries(Map<String, double[]> series) throws InterruptedException {
+        final Iterator<Map.Entry<String, double[]>> it = series.entrySet().iterator();
+        return forecast(new Iterator<Map.Entry<String, DataSet>>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public Map.Entry<String, DataSet> next() {
+                Map.Entry<String, double[]> entry = it.next();
+                return new AbstractMap.SimpleImmutableEntry<String, DataSet>(entry.getKey(), new ColumnarDataSet(entry.getValue()).toDataSet());
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        }, series.size());
+    }
+
+    /**
+     * Forecasts a stream of keyed time series, at most a few chunks per worker are read ahead of the workers
+     *
+     * @param timeSeries
+     * @return forecast keyed by segment, failed segments are left out and recorded in failedSegments
+     * @throws InterruptedException
+     */
+    public Map<String, DataSet> forecast(Iterator<Map.Entry<String, DataSet>> timeSeries) throws InterruptedException {
+        return forecast(timeSeries, -1);
+    }
+
+    private Map<String, DataSet> forecast(Iterator<Map.Entry<String, DataSet>> timeSeries, final int totalSegments) throws InterruptedException {
+
+        long start = System.currentTimeMillis();
+        failedSegments.clear();
+
+        final Map<String, DataSet> forecastMap = new ConcurrentHashMap<String, DataSet>();
+        final AtomicInteger completed = new AtomicInteger();
+        final Semaphore pendingChunks = new Semaphore(parallelism * 2);
+        final long startNanos = System.nanoTime();
+        final Deadline batchDeadline = batchTimeBudget > 0 ? Deadline.after(batchTimeBudget, TimeUnit.MILLISECONDS) : null;
+
+        boolean ownExecutor = executorService == null;
+        ExecutorService executor = ownExecutor ? Executors.newFixedThreadPool(parallelism) : executorService;
+        List<Future<?>> futures = new LinkedList<Future<?>>();
+
+        try {
+            while (timeSeries.hasNext()) {
+                final List<Map.Entry<String, DataSet>> chunk = new ArrayList<Map.Entry<String, DataSet>>(chunkSize);
+                while (timeSeries.hasNext() && chunk.size() < chunkSize)
+                    chunk.add(timeSeries.next());
+
+                pendingChunks.acquire();
+                futures.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            for (Map.Entry<String, DataSet> entry : chunk) {
+                                forecastSegment(entry.getKey(), entry.getValue(), forecastMap, batchDeadline);
+                                int done = completed.incrementAndGet();
+                                if (progressListener != null && done % progressInterval == 0)
+                                    reportProgress(done, totalSegments, startNanos);
+                            }
+                        } finally {
+                            forecasters.remove();
+                            pendingChunks.release();
+                        }
+                    }
+                }));
+                removeCompleted(futures);
+            }
+
+            for (Future<?> future : futures)
+                future.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch worker failed", e.getCause());
+        } catch (InterruptedException e) {
+            for (Future<?> future : futures)
+                future.cancel(true);
+            throw e;
+        } finally {
+            if (ownExecutor)
+                executor.shutdownNow();
+        }
+
+        executionTime = System.currentTimeMillis() - start;
+        throughput = segmentsPerSecond(completed.get(), startNanos);
+        if (progressListener != null)
+            reportProgress(completed.get(), totalSegments, startNanos);
+        logger.info(String.format("Forecasted %s segments in %s ms, %s failed", completed.get(), executionTime, failedSegments.size()));
+        return forecastMap;
+    }
+
+    /**
+     * Forecasts a single segment with the forecaster of the current worker thread
+     *
+     * @param key
+     * @param dataSet
+     * @param forecastMap
+     * @param batchDeadline null without a batch time budget
+     */
+    private void forecastSegment(String key, DataSet dataSet, Map<String, DataSet> forecastMap, Deadline batchDeadline) {
+        Forecaster forecaster = forecasters.get();
+        try {
+            forecaster.init(dataSet);
+            forecaster.setParameterOptimizer(parameterOptimizer);
+            forecaster.setMetricsListener(metricsListener);
+            forecaster.setDeadline(Deadline.earliest(batchDeadline,
+                    segmentTimeBudget > 0 ? Deadline.after(segmentTimeBudget, TimeUnit.MILLISECONDS) : null));
+            forecaster.setParameterPriors(parameterPriors == null ? null : parameterPriors.get(key));
+            forecastMap.put(key, forecaster.forecast(trainPoints, validationPoints, futurePoints, seasonPeriod));
+            if (parameterPriors != null)
+                parameterPriors.put(key, ParameterPriors.of(forecaster.getAllModels()));
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Forecast failed for segment " + key, e);
+            failedSegments.put(key, e);
+        }
+    }
+
+    private void reportProgress(int done, int totalSegments, long startNanos) {
+        progressListener.onProgress(done, failedSegments.size(), totalSegments, segmentsPerSecond(done, startNanos));
+    }
+
+    private double segmentsPerSecond(int done, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        return elapsed == 0 ? 0 : done * 1e9 / elapsed;
+    }
+
+    private void removeCompleted(List<Future<?>> futures) throws ExecutionException, InterruptedException {
+        Iterator<Future<?>> it = futures.iterator();
+        while (it.hasNext()) {
+            Future<?> future = it.next();
+            if (!future.isDone())
+                break;
+            future.get();
+            it.remove();
+        }
+    }
+}
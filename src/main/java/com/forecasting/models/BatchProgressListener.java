@@ -0,0 +1,35 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models;
+
+/**
+ * Receives progress of a running BatchForecaster
+ */
+public interface BatchProgressListener {
+
+    /**
+     * Called periodically from the worker threads and once after the batch completes
+     *
+     * @param completedSegments segments forecasted so far, including failed ones
+     * @param failedSegments    segments that could not be forecasted
+     * @param totalSegments     total segments in the batch, -1 if the input is a stream of unknown size
+     * @param segmentsPerSecond throughput since the batch started
+     */
+    public void onProgress(int completedSegments, int failedSegments, int totalSegments, double segmentsPerSecond);
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models;
+
+import com.forecasting.models.dto.ColumnarDataSet;
+import com.forecasting.models.dto.DataSet;
+import com.forecasting.models.dto.Model;
+import com.forecasting.models.models.ForecastModel;
+import com.forecasting.models.models.impl.AbstractForecastModel;
+import com.forecasting.models.models.impl.EnsembleModel;
+import com.forecasting.models.models.impl.ParameterPriors;
+import com.forecasting.models.utils.AccuracyIndicators;
+
+import java.util.Collections;
+
+/**
+ * Immutable result of fitting one model: forecast with its bounds, accuracy indicators, ensemble weight and the
+ * decay constants found. Getters return copies, so a result can be handed to any thread.
+ */
+public final class FittedModel {
+
+    private final String name;
+    private final ColumnarDataSet forecast;
+    private final AccuracyIndicators accuracyIndicators;
+    private final double weight;
+    private final float[] parameters;           // Decay constants of TESA, TESM, DES, SES and SSES, null otherwise
+    private final long parameterEvaluations;
+
+    private FittedModel(String name, ColumnarDataSet forecast, AccuracyIndicators accuracyIndicators, double weight,
+                        float[] parameters, long parameterEvaluations) {
+        this.name = name;
+        this.forecast = forecast;
+        this.accuracyIndicators = accuracyIndicators;
+        this.weight = weight;
+        this.parameters = parameters;
+        this.parameterEvaluations = parameterEvaluations;
+    }
+
+    /**
+     * Copies the result out of a trained and forecasted model
+     *
+     * @param model
+     * @return
+     */
+    public static FittedModel of(ForecastModel model) {
+        float[] parameters = null;
+        if (!(model instanceof EnsembleModel)) {
+            ParameterPriors priors = ParameterPriors.of(Collections.singletonList(model));
+            for (Model type : Model.values())
+                if (parameters == null)
+                    parameters = priors.getParameters(type);
+        }
+        return new FittedModel(model.getModelName(), ColumnarDataSet.fromDataSet(model.getForecastDataSet()),
+                model.getAccuracyIndicators().copy(), model.getWeight(), parameters,
+                model instanceof AbstractForecastModel ? ((AbstractForecastModel) model).getParameterEvaluations() : 0);
+    }
+
+    public String getModelName() {
+        return name;
+    }
+
+    /**
+     * New DataSet of the forecast
+     *
+     * @return
+     */
+    public DataSet getForecastDataSet() {
+        return forecast.toDataSet();
+    }
+
+    public double[] getForecastValues() {
+        return forecast.getValues().clone();
+    }
+
+    public double[] getLowerBounds() {
+        return forecast.getLowerValues().clone();
+    }
+
+    public double[] getUpperBounds() {
+        return forecast.getUpperValues().clone();
+    }
+
+    public AccuracyIndicators getAccuracyIndicators() {
+        return accuracyIndicators.copy();
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    public float[] getParameters() {
+        return parameters == null ? null : parameters.clone();
+    }
+
+    public long getParameterEvaluations() {
+        return parameterEvaluations;
+    }
+
+    @Override
+    public String toString() {
+        return name + " AI[" + accuracyIndicators + "]";
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models;
+
+import com.forecasting.models.dto.DataSet;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable result of one ForecastSpec call: the model chosen by the competition and every model that finished
+ */
+public final class ForecastResult {
+
+    private final FittedModel finalModel;
+    private final List<FittedModel> allModels;
+    private final List<String> failedModels;
+    private final List<String> skippedModels;
+    private final long executionTime;           // Milliseconds
+
+    ForecastResult(FittedModel finalModel, List<FittedModel> allModels, List<String> failedModels, List<String> skippedModels,
+                   long executionTime) {
+        this.finalModel = finalModel;
+        this.allModels = Collections.unmodifiableList(allModels);
+        this.failedModels = Collections.unmodifiableList(failedModels);
+        this.skippedModels = Collections.unmodifiableList(skippedModels);
+        this.executionTime = executionTime;
+    }
+
+    /**
+     * New DataSet of the final forecast
+     *
+     * @return
+     */
+    public DataSet getForecastDataSet() {
+        return finalModel.getForecastDataSet();
+    }
+
+    public FittedModel getFinalModel() {
+        return finalModel;
+    }
+
+    public List<FittedModel> getAllModels() {
+        return allModels;
+    }
+
+    public List<String> getFailedModels() {
+        return failedModels;
+    }
+
+    public List<String> getSkippedModels() {
+        return skippedModels;
+    }
+
+    public long getExecutionTime() {
+        return executionTime;
+    }
+}
@@ -0,0 +1,365 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models;
+
+import com.forecasting.models.dto.DataSet;
+import com.forecasting.models.dto.Model;
+import com.forecasting.models.exception.ModelNotFoundException;
+import com.forecasting.models.metrics.ForecastMetricsListener;
+import com.forecasting.models.metrics.Stage;
+import com.forecasting.models.metrics.StageTimer;
+import com.forecasting.models.models.CompetitionModel;
+import com.forecasting.models.models.ForecastModel;
+import com.forecasting.models.models.impl.AuctionCompetitionModel;
+import com.forecasting.models.models.impl.EnsembleCompetitionModel;
+import com.forecasting.models.models.impl.ParameterPriors;
+import com.forecasting.models.optimizer.ParameterOptimizer;
+import com.forecasting.models.preprocess.OutlierDetector;
+import com.forecasting.models.preprocess.impl.RollingOutlierFilter;
+import com.forecasting.models.utils.Deadline;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Immutable configuration of a forecast run: the models, the competition and the outlier removal. Every call
+ * builds its own models, executor and competition, so one spec serves concurrent calls without locking.
+ * Forecaster and MultiSeasonalForecaster build their runs from a spec.
+ */
+public final class ForecastSpec {
+
+    private final List<ModelSpec> models;
+    private final Model competition;                    // ENSEMBLE or AUCTION
+    private final int validationPoints;
+    private final int futurePoints;
+    private final int seasonPeriod;                     // Season length the metrics are reported under
+    private final int outlierThreshold;
+    private final int outlierPeriod;
+    private final ParameterOptimizer parameterOptimizer;    // Optional, shared by the calls
+    private final ForecastMetricsListener metricsListener;  // Optional and thread safe
+    private final int validationHorizons;               // Steps ahead scored from each validation origin
+    private final ForkJoinPool validationPool;          // Optional, shared by the calls
+
+    /**
+     * Constructor
+     *
+     * @param models
+     * @param competition      ENSEMBLE or AUCTION, used when there is more than one model
+     * @param validationPoints
+     * @param futurePoints
+     * @param seasonPeriod
+     * @param outlierThreshold threshold of the OutlierDetector
+     * @param outlierPeriod    period outliers are detected over
+     */
+    public ForecastSpec(List<ModelSpec> models, Model competition, int validationPoints, int futurePoints, int seasonPeriod,
+                        int outlierThreshold, int outlierPeriod) {
+        this(models, competition, validationPoints, futurePoints, seasonPeriod, outlierThreshold, outlierPeriod, null, null, 1, null);
+    }
+
+    private ForecastSpec(List<ModelSpec> models, Model competition, int validationPoints, int futurePoints, int seasonPeriod,
+                         int outlierThreshold, int outlierPeriod, ParameterOptimizer parameterOptimizer,
+                         ForecastMetricsListener metricsListener, int validationHorizons, ForkJoinPool validationPool) {
+        if (models.isEmpty())
+            throw new IllegalArgumentException("No model in forecast spec");
+        if (competition != Model.ENSEMBLE && competition != Model.AUCTION)
+            throw new IllegalArgumentException("Invalid competition model " + competition);
+        this.models = Collections.unmodifiableList(new ArrayList<ModelSpec>(models));
+        this.competition = competition;
+        this.validationPoints = validationPoints;
+        this.futurePoints = futurePoints;
+        this.seasonPeriod = seasonPeriod;
+        this.outlierThreshold = outlierThreshold;
+        this.outlierPeriod = outlierPeriod;
+        this.parameterOptimizer = parameterOptimizer;
+        this.metricsListener = metricsListener;
+        this.validationHorizons = validationHorizons;
+        this.validationPool = validationPool;
+    }
+
+    /**
+     * Models and competition Forecaster runs
+     *
+     * @param modelList        all models when null
+     * @param trainPoints
+     * @param validationPoints
+     * @param futurePoints
+     * @param seasonPeriod     -1 when the series is not seasonal
+     * @return
+     * @throws ModelNotFoundException if neither ENSEMBLE nor AUCTION is in the model list
+     */
+    public static ForecastSpec of(List<Model> modelList, int trainPoints, int validationPoints, int futurePoints,
+                                  int seasonPeriod) throws ModelNotFoundException {
+        boolean all = modelList == null;
+        boolean seasonal = seasonPeriod != -1;
+        List<ModelSpec> models = new ArrayList<ModelSpec>();
+        if (all || modelList.contains(Model.MOV))
+            models.add(new ModelSpec(Model.MOV, trainPoints, validationPoints, 7));
+        if ((all || modelList.contains(Model.TESA)) && seasonal)
+            models.add(new ModelSpec(Model.TESA, trainPoints, validationPoints, seasonPeriod));
+        if (all || modelList.contains(Model.SSES))
+            models.add(new ModelSpec(Model.SSES, trainPoints, validationPoints, 7));
+        if ((all || modelList.contains(Model.DES)) && seasonal)
+            models.add(new ModelSpec(Model.DES, trainPoints, validationPoints, seasonPeriod));
+        if ((all || modelList.contains(Model.TESM)) && seasonal)
+            models.add(new ModelSpec(Model.TESM, trainPoints, validationPoints, seasonPeriod));
+        if (all || modelList.contains(Model.FFT))
+            models.add(new ModelSpec(Model.FFT, trainPoints, validationPoints, seasonal ? seasonPeriod : 7));
+        return new ForecastSpec(models, competition(modelList), validationPoints, futurePoints, seasonPeriod, 400, 7);
+    }
+
+    /**
+     * Models and competition OnlineForecaster runs, the ones that support online updates
+     *
+     * @param modelList        all models when null
+     * @param trainPoints
+     * @param validationPoints
+     * @param futurePoints
+     * @param seasonPeriod     -1 when the series is not seasonal
+     * @return
+     * @throws ModelNotFoundException if neither ENSEMBLE nor AUCTION is in the model list
+     */
+    public static ForecastSpec online(List<Model> modelList, int trainPoints, int validationPoints, int futurePoints,
+                                      int seasonPeriod) throws ModelNotFoundException {
+        boolean all = modelList == null;
+        boolean seasonal = seasonPeriod != -1;
+        List<ModelSpec> models = new ArrayList<ModelSpec>();
+        if (all || modelList.contains(Model.MOV))
+            models.add(new ModelSpec(Model.MOV, trainPoints, validationPoints, 7));
+        if ((all || modelList.contains(Model.TESA)) && seasonal)
+            models.add(new ModelSpec(Model.TESA, trainPoints, validationPoints, seasonPeriod));
+        if ((all || modelList.contains(Model.DES)) && seasonal)
+            models.add(new ModelSpec(Model.DES, trainPoints, validationPoints, seasonPeriod));
+        if ((all || modelList.contains(Model.TESM)) && seasonal)
+            models.add(new ModelSpec(Model.TESM, trainPoints, validationPoints, seasonPeriod));
+        if (all || modelList.contains(Model.SES))
+            models.add(new ModelSpec(Model.SES, trainPoints, validationPoints, seasonPeriod));
+        return new ForecastSpec(models, competition(modelList), validationPoints, futurePoints, seasonPeriod, 400, 7);
+    }
+
+    /**
+     * Models and competition MultiSeasonalForecaster runs
+     *
+     * @param modelList        all models when null
+     * @param trainPoints
+     * @param validationPoints
+     * @param futurePoints
+     * @param periodicity1
+     * @param periodicity2     -1 without a second season
+     * @return
+     * @throws ModelNotFoundException if neither ENSEMBLE nor AUCTION is in the model list
+     */
+    public static ForecastSpec multiSeasonal(List<Model> modelList, int trainPoints, int validationPoints, int futurePoints,
+                                             int periodicity1, int periodicity2) throws ModelNotFoundException {
+        boolean all = modelList == null;
+        List<ModelSpec> models = new ArrayList<ModelSpec>();
+        if (all || modelList.contains(Model.MOV))
+            models.add(new ModelSpec(Model.MOV, trainPoints, validationPoints, periodicity1));
+        if (all || modelList.contains(Model.TESA))
+            models.add(new ModelSpec(Model.TESA, trainPoints, validationPoints, periodicity1));
+        if (all || modelList.contains(Model.TESM))
+            models.add(new ModelSpec(Model.TESM, trainPoints, validationPoints, periodicity1));
+        if ((all || modelList.contains(Model.MSTESA)) && periodicity2 != -1)
+            models.add(new ModelSpec(Model.MSTESA, trainPoints, validationPoints, periodicity1, periodicity2));
+        if ((all || modelList.contains(Model.MSTESM)) && periodicity2 != -1)
+            models.add(new ModelSpec(Model.MSTESM, trainPoints, validationPoints, periodicity1, periodicity2));
+        if (all || modelList.contains(Model.SSES))
+            models.add(new ModelSpec(Model.SSES, trainPoints, validationPoints, periodicity1));
+        if (all || modelList.contains(Model.DES))
+            models.add(new ModelSpec(Model.DES, trainPoints, validationPoints, periodicity1));
+        if (all || modelList.contains(Model.FFT))
+            models.add(new ModelSpec(Model.FFT, trainPoints, validationPoints, periodicity1));
+        return new ForecastSpec(models, competition(modelList), validationPoints, futurePoints, periodicity1, 500, periodicity1);
+    }
+
+    private static Model competition(List<Model> modelList) throws ModelNotFoundException {
+        if (modelList == null || modelList.contains(Model.ENSEMBLE))
+            return Model.ENSEMBLE;
+        if (modelList.contains(Model.AUCTION))
+            return Model.AUCTION;
+        throw new ModelNotFoundException(" No competition Model Found, Provide either Ensemble Or Auction");
+    }
+
+    /**
+     * Same spec with a parameter optimizer for the models that have none of their own
+     *
+     * @param parameterOptimizer
+     * @return
+     */
+    public ForecastSpec withParameterOptimizer(ParameterOptimizer parameterOptimizer) {
+        return new ForecastSpec(models, competition, validationPoints, futurePoints, seasonPeriod, outlierThreshold,
+                outlierPeriod, parameterOptimizer, metricsListener, validationHorizons, validationPool);
+    }
+
+    /**
+     * Same spec reporting the stages of every call to a thread safe listener
+     *
+     * @param metricsListener
+     * @return
+     */
+    public ForecastSpec withMetricsListener(ForecastMetricsListener metricsListener) {
+        return new ForecastSpec(models, competition, validationPoints, futurePoints, seasonPeriod, outlierThreshold,
+                outlierPeriod, parameterOptimizer, metricsListener, validationHorizons, validationPool);
+    }
+
+    /**
+     * Same spec validating every origin over the given number of steps ahead, the ensemble weighting the models
+     * of each forecast step by their error at that horizon
+     *
+     * @param validationHorizons 1 for one-step-ahead validation
+     * @return
+     */
+    public ForecastSpec withValidationHorizons(int validationHorizons) {
+        if (validationHorizons <= 0)
+            throw new IllegalArgumentException("Invalid validation horizons " + validationHorizons);
+        return new ForecastSpec(models, competition, validationPoints, futurePoints, seasonPeriod, outlierThreshold,
+                outlierPeriod, parameterOptimizer, metricsListener, validationHorizons, validationPool);
+    }
+
+    /**
+     * Same spec validating the independent origins of FFT, MOV and CDGR concurrently on the pool, which may be
+     * shared by concurrent calls
+     *
+     * @param validationPool
+     * @return
+     */
+    public ForecastSpec withValidationPool(ForkJoinPool validationPool) {
+        return new ForecastSpec(models, competition, validationPoints, futurePoints, seasonPeriod, outlierThreshold,
+                outlierPeriod, parameterOptimizer, metricsListener, validationHorizons, validationPool);
+    }
+
+    /**
+     * Forecasts the series, which is not modified
+     *
+     * @param series
+     * @return
+     * @throws Exception
+     */
+    public ForecastResult forecast(DataSet series) throws Exception {
+        return forecast(series, null, null);
+    }
+
+    /**
+     * Forecasts the series, which is not modified
+     *
+     * @param series
+     * @param deadline optional, see ModelExecutor
+     * @param priors   optional, decay constants of a previous run to search around
+     * @return
+     * @throws Exception
+     */
+    public ForecastResult forecast(DataSet series, Deadline deadline, ParameterPriors priors) throws Exception {
+        long start = System.currentTimeMillis();
+        ModelExecutor executor = newExecutor(removeOutliers(series), null, deadline, priors);
+        executor.runModels();
+
+        List<FittedModel> fittedModels = new ArrayList<FittedModel>(executor.getAllModels().size());
+        FittedModel finalModel = null;
+        for (ForecastModel model : executor.getAllModels()) {
+            FittedModel fitted = FittedModel.of(model);
+            fittedModels.add(fitted);
+            if (model == executor.getFinalModel())
+                finalModel = fitted;
+        }
+        if (finalModel == null)
+            finalModel = FittedModel.of(executor.getFinalModel());
+        return new ForecastResult(finalModel, fittedModels, new ArrayList<String>(executor.getFailedModels().keySet()),
+                executor.getSkippedModels(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Streaming filter applying the outlier rule of removeOutliers to the points that follow the series
+     *
+     * @return
+     */
+    RollingOutlierFilter newOutlierFilter() {
+        return new RollingOutlierFilter(outlierThreshold, outlierPeriod);
+    }
+
+    /**
+     * Series without outliers, reported as the outlier removal stage
+     *
+     * @param series
+     * @return
+     */
+    DataSet removeOutliers(DataSet series) {
+        StageTimer timer = StageTimer.start(metricsListener);
+        DataSet cleaned = new OutlierDetector(outlierThreshold).removeOutlier(series, outlierPeriod);
+        timer.stop(Stage.OUTLIER_REMOVAL, OutlierDetector.class.getSimpleName(), seasonPeriod, 0);
+        return cleaned;
+    }
+
+    /**
+     * Executor with new models of the spec and a new competition
+     *
+     * @param series          outliers removed
+     * @param executorService optional, trains the models concurrently
+     * @param deadline
+     * @param priors
+     * @return
+     */
+    ModelExecutor newExecutor(DataSet series, ExecutorService executorService, Deadline deadline, ParameterPriors priors) {
+        ModelExecutor executor = new ModelExecutor(executorService);
+        executor.setParameterOptimizer(parameterOptimizer);
+        executor.setParameterPriors(priors);
+        executor.setForecastPoints(futurePoints);
+        executor.setMetricsListener(metricsListener);
+        executor.setSeasonPeriod(seasonPeriod);
+        executor.setDeadline(deadline);
+        executor.setValidationHorizons(validationHorizons);
+        executor.setValidationPool(validationPool);
+        executor.setTimeSeries(series);
+        for (ModelSpec model : models)
+            executor.addModel(model.newModel());
+        CompetitionModel competitionModel;
+        if (competition == Model.ENSEMBLE) {
+            EnsembleCompetitionModel ensemble = new EnsembleCompetitionModel(validationPoints, futurePoints);
+            ensemble.setHorizonWeighted(validationHorizons > 1);
+            competitionModel = ensemble;
+        } else competitionModel = new AuctionCompetitionModel();
+        executor.setCompetitionModel(competitionModel);
+        return executor;
+    }
+
+    public List<ModelSpec> getModels() {
+        return models;
+    }
+
+    public Model getCompetition() {
+        return competition;
+    }
+
+    public int getFuturePoints() {
+        return futurePoints;
+    }
+
+    public int getSeasonPeriod() {
+        return seasonPeriod;
+    }
+
+    public ForkJoinPool getValidationPool() {
+        return validationPool;
+    }
+
+    public int getValidationHorizons() {
+        return validationHorizons;
+    }
+}
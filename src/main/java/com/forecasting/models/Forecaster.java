@@ -20,13 +20,16 @@ package com.forecasting.models;
 
 import com.forecasting.models.dto.DataSet;
 import com.forecasting.models.dto.Model;
-import com.forecasting.models.exception.ModelNotFoundException;
+import com.forecasting.models.metrics.ForecastMetricsListener;
 import com.forecasting.models.models.ForecastModel;
-import com.forecasting.models.models.impl.*;
-import com.forecasting.models.preprocess.OutlierDetector;
+import com.forecasting.models.models.impl.ParameterPriors;
+import com.forecasting.models.optimizer.ParameterOptimizer;
+import com.forecasting.models.utils.Deadline;
 import lombok.Data;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 
 @Data
 public class Forecaster {
@@ -36,6 +39,14 @@ public class Forecaster {
     Long executionTime;
     ForecastModel finalModel;
     List<ForecastModel> allModels;
+    List<String> skippedModels;             // Models not run because the deadline had passed
+    ExecutorService executorService;    // Optional, trains the models concurrently when set
+    ParameterOptimizer parameterOptimizer;  // Optional, replaces the decay constant grid search of the models
+    ForecastMetricsListener metricsListener;    // Optional, receives the timing of every stage
+    Deadline deadline;                      // Optional, expensive models are skipped or stop searching once it passes
+    ForkJoinPool validationPool;            // Optional, validates the origins of FFT, MOV and CDGR concurrently
+    ParameterPriors parameterPriors;        // Optional, decay constants of a previous run to search around
+    int validationHorizons = 1;             // Steps ahead scored from each validation origin
 
     boolean runAllModels;
 
@@ -67,68 +78,15 @@ public class Forecaster {
 
         Long start = System.currentTimeMillis();
 
-        ModelExecutor executor = new ModelExecutor();
-        executor.setForecastPoints(futurePoints);
-        OutlierDetector detector = new OutlierDetector(400);
-        timeSeries = detector.removeOutlier(timeSeries, 7);
-        executor.setTimeSeries(timeSeries);
-
-
-        if (runAllModels || modelList.contains(Model.MOV)) {
-            int step = 1;
-            ForecastModel model;
-            if (seasonPeriod == -1)
-                model = new WeightedMovingAverageModel(null, 7, step, trainPoints, validationPoints);
-            else
-                model = new WeightedMovingAverageModel(null, 7, step, trainPoints, validationPoints);
-            executor.addModel(model);
-        }
-
-        if ((runAllModels || modelList.contains(Model.TESA)) && seasonPeriod != -1) {
-            ForecastModel model = new TripleExponentialSmoothingAdditiveModel(trainPoints, validationPoints, seasonPeriod);
-            executor.addModel(model);
-        }
-
-        if (runAllModels || modelList.contains(Model.SSES)) {
-            ForecastModel model;
-            if (seasonPeriod == -1)
-                model = new SeasonalSingleExponentialSmoothingModel(trainPoints, validationPoints, 7);
-            else
-                model = new SeasonalSingleExponentialSmoothingModel(trainPoints, validationPoints, 7);
-            executor.addModel(model);
-        }
-
-        if ((runAllModels || modelList.contains(Model.DES)) && seasonPeriod != -1) {
-            ForecastModel model = new DoubleExponentialSmoothingModel(trainPoints, validationPoints);
-            executor.addModel(model);
-        }
-
-
-        if ((runAllModels || modelList.contains(Model.TESM)) && seasonPeriod != -1) {
-            ForecastModel model = new TripleExponentialSmoothingMultiplicativeModel(trainPoints, validationPoints, seasonPeriod);
-            executor.addModel(model);
-        }
-
-        if (runAllModels || modelList.contains(Model.FFT)) {
-
-            ForecastModel model;
-            int threshold = 5;
-            if (seasonPeriod == -1)
-                model = new FFTModelImproved(trainPoints, validationPoints, 7, threshold);
-            else
-                model = new FFTModelImproved(trainPoints, validationPoints, seasonPeriod, threshold);
-            executor.addModel(model);
-        }
-
-        if (runAllModels || modelList.contains(Model.ENSEMBLE))
-            executor.setCompetitionModel(new EnsembleCompetitionModel(validationPoints, futurePoints));
-        else if (modelList.contains(Model.AUCTION))
-            executor.setCompetitionModel(new AuctionCompetitionModel());
-        else throw new ModelNotFoundException(" No competition Model Found, Provide either Ensemble Or Auction");
-
+        ForecastSpec spec = ForecastSpec.of(runAllModels ? null : modelList, trainPoints, validationPoints, futurePoints,
+                seasonPeriod).withParameterOptimizer(parameterOptimizer).withMetricsListener(metricsListener)
+                .withValidationHorizons(validationHorizons).withValidationPool(validationPool);
+        timeSeries = spec.removeOutliers(timeSeries);
+        ModelExecutor executor = spec.newExecutor(timeSeries, executorService, deadline, parameterPriors);
         executor.runModels();
         finalModel = executor.getFinalModel();
         allModels = executor.getAllModels();
+        skippedModels = executor.getSkippedModels();
         Long end = System.currentTimeMillis();
         executionTime = end - start;
         return finalModel.getForecastDataSet();
@@ -19,17 +19,33 @@
 package com.forecasting.models;
 
 import com.forecasting.models.dto.Model;
+import com.forecasting.models.metrics.ForecastMetricsListener;
+import com.forecasting.models.metrics.Stage;
+import com.forecasting.models.metrics.StageTimer;
 import com.forecasting.models.exception.ModelInitializationException;
 import com.forecasting.models.exception.ModelNotFoundException;
 import com.forecasting.models.dto.DataSet;
 import com.forecasting.models.models.CompetitionModel;
 import com.forecasting.models.models.ForecastModel;
+import com.forecasting.models.models.impl.AbstractForecastModel;
+import com.forecasting.models.models.impl.ParameterPriors;
+import com.forecasting.models.optimizer.ParameterOptimizer;
 import com.forecasting.models.preprocess.PreprocessModel;
+import com.forecasting.models.utils.Deadline;
 import lombok.Data;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -42,11 +58,39 @@ public class ModelExecutor {
     private int forecastPoints;
     private DataSet timeSeries;
     private CompetitionModel competitionModel;
+    private ExecutorService executorService;     // Models are trained sequentially when no executor is provided
+    private ParameterOptimizer parameterOptimizer;   // Optional, used by the models that have no optimizer of their own
+    private ParameterPriors parameterPriors;         // Optional, decay constants of a previous run to search around
+    private ForecastMetricsListener metricsListener; // Optional, receives the timing of every stage
+    private int seasonPeriod = -1;                   // Season length the metrics are reported under
+    private Deadline deadline;                       // Optional, cheap models run first, expensive ones are skipped
+                                                     // or stop their search when it passes
+    private int validationHorizons = 1;              // Steps ahead the models score from each validation origin
+    private ForkJoinPool validationPool;             // Optional, validates independent origins concurrently
+    private Map<String, Throwable> failedModels = new LinkedHashMap<String, Throwable>();
+    private List<String> skippedModels = new ArrayList<String>();    // Not started because the deadline had passed
     private static Logger logger = Logger.getLogger(ModelExecutor.class.getName());
 
+    private static final EnumSet<Model> CHEAP_MODELS = EnumSet.of(Model.MOV, Model.SES, Model.CDGR);
+    private static final Comparator<ForecastModel> CHEAP_FIRST = new Comparator<ForecastModel>() {
+        @Override
+        public int compare(ForecastModel first, ForecastModel second) {
+            return (isCheap(first) ? 0 : 1) - (isCheap(second) ? 0 : 1);
+        }
+    };
+
     public ModelExecutor() {
     }
 
+    /**
+     * Constructor for concurrent execution, every forecast model is trained on the given executor
+     *
+     * @param executorService
+     */
+    public ModelExecutor(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+
     /**
      * Add forecast model to executor
      *
@@ -80,37 +124,164 @@ public class ModelExecutor {
 
         if (preprocessModels.size() > 0)
             for (PreprocessModel model : preprocessModels) {
+                StageTimer timer = StageTimer.start(metricsListener);
                 model.init(timeSeries);
                 timeSeries = model.transform();
+                timer.stop(Stage.PREPROCESS, model.getClass().getSimpleName(), seasonPeriod, 0);
             }
 
-        for (ForecastModel model : models) {
-            model.init(timeSeries);
-            model.train();
-            model.forecast(forecastPoints);
-        }
+        if (deadline != null)
+            Collections.sort(models, CHEAP_FIRST);
+
+        if (executorService == null)
+            runModelsSequentially();
+        else
+            runModelsConcurrently();
+
         if (preprocessModels.size() > 0) {
             Collections.reverse(preprocessModels);
 
             for (PreprocessModel preprocessModel : preprocessModels) {
 
+                StageTimer timer = StageTimer.start(metricsListener);
                 DataSet dataSet;
                 for (ForecastModel model : models) {
                     dataSet = preprocessModel.reverseTransform(model.getForecastDataSet());
                     model.setForecastDataSet(dataSet);
                 }
+                timer.stop(Stage.REVERSE_TRANSFORM, preprocessModel.getClass().getSimpleName(), seasonPeriod, 0);
             }
         }
 
         if (models.size() > 1) {
+            StageTimer timer = StageTimer.start(metricsListener);
             competitionModel.addModels(models);
             competitionModel.run();
             finalModel = competitionModel.getFinalModel();
+            timer.stop(Stage.COMPETITION, competitionModel.getClass().getSimpleName(), seasonPeriod, 0);
             if (finalModel.getModelName().equals(Model.ENSEMBLE.toString()))
                 models.add(finalModel);
         } else finalModel = models.get(0);
     }
 
+    /**
+     * Init, train and forecast a single model. Past the deadline only the first model and cheap models are run
+     *
+     * @param model
+     * @param first
+     * @return false if the model was skipped
+     * @throws ModelInitializationException
+     */
+    private boolean runModel(ForecastModel model, boolean first) throws ModelInitializationException {
+        if (deadline != null && !first && !isCheap(model) && deadline.expired())
+            return false;
+        if (deadline != null && model instanceof AbstractForecastModel)
+            ((AbstractForecastModel) model).setDeadline(deadline);
+        if (parameterOptimizer != null && model instanceof AbstractForecastModel
+                && ((AbstractForecastModel) model).getParameterOptimizer() == null)
+            ((AbstractForecastModel) model).setParameterOptimizer(parameterOptimizer);
+        if (validationPool != null && model instanceof AbstractForecastModel
+                && ((AbstractForecastModel) model).getValidationPool() == null)
+            ((AbstractForecastModel) model).setValidationPool(validationPool);
+        if (validationHorizons > 1 && model instanceof AbstractForecastModel)
+            ((AbstractForecastModel) model).setValidationHorizons(validationHorizons);
+        if (parameterPriors != null)
+            parameterPriors.apply(model);
+        StageTimer timer = StageTimer.start(metricsListener);
+        model.init(timeSeries);
+        model.train();
+        if (model instanceof AbstractForecastModel)
+            timer.stop(Stage.TRAIN, model.getModelName(), seasonPeriod, ((AbstractForecastModel) model).getParameterEvaluations(),
+                    ((AbstractForecastModel) model).getAbandonedEvaluations());
+        else
+            timer.stop(Stage.TRAIN, model.getModelName(), seasonPeriod, 0);
+
+        timer = StageTimer.start(metricsListener);
+        model.forecast(forecastPoints);
+        timer.stop(Stage.FORECAST, model.getModelName(), seasonPeriod, 0);
+        return true;
+    }
+
+    /**
+     * Model names may carry a suffix, as MOV-step-1 does
+     */
+    private static boolean isCheap(ForecastModel model) {
+        for (Model cheap : CHEAP_MODELS)
+            if (model.getModelName().startsWith(cheap.toString()))
+                return true;
+        return false;
+    }
+
+    /**
+     * Runs the models one after the other on the calling thread. A model that fails is logged, recorded in
+     * failedModels and left out of the competition, the first model to complete is run past the deadline.
+     *
+     * @throws ModelInitializationException if every model failed
+     */
+    private void runModelsSequentially() throws ModelInitializationException {
+
+        List<ForecastModel> completedModels = new ArrayList<ForecastModel>(models.size());
+        for (ForecastModel model : models) {
+            try {
+                if (runModel(model, completedModels.isEmpty()))
+                    completedModels.add(model);
+                else
+                    skippedModels.add(model.getModelName());
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Model " + model.getModelName() + " failed, excluding it from competition", e);
+                failedModels.put(model.getModelName(), e);
+            }
+        }
+
+        if (completedModels.size() == 0)
+            throw new ModelInitializationException("All models failed : " + failedModels.keySet());
+        models = completedModels;
+    }
+
+    /**
+     * Runs all models on the executor and waits for them. A model that fails is logged, recorded in
+     * failedModels and left out of the competition instead of aborting the remaining models.
+     *
+     * @throws ModelInitializationException if every model failed or the calling thread was interrupted
+     */
+    private void runModelsConcurrently() throws ModelInitializationException {
+
+        List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>(models.size());
+        for (int i = 0; i < models.size(); i++) {
+            final ForecastModel model = models.get(i);
+            final boolean first = i == 0;
+            futures.add(executorService.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    return runModel(model, first);
+                }
+            }));
+        }
+
+        List<ForecastModel> completedModels = new ArrayList<ForecastModel>(models.size());
+        for (int i = 0; i < models.size(); i++) {
+            ForecastModel model = models.get(i);
+            try {
+                if (futures.get(i).get())
+                    completedModels.add(model);
+                else
+                    skippedModels.add(model.getModelName());
+            } catch (ExecutionException e) {
+                logger.log(Level.WARNING, "Model " + model.getModelName() + " failed, excluding it from competition", e.getCause());
+                failedModels.put(model.getModelName(), e.getCause());
+            } catch (InterruptedException e) {
+                for (Future<Boolean> future : futures)
+                    future.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new ModelInitializationException("Interrupted while waiting for models to complete");
+            }
+        }
+
+        if (completedModels.size() == 0)
+            throw new ModelInitializationException("All models failed : " + failedModels.keySet());
+        models = completedModels;
+    }
+
     /**
      * @return
      */
@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models;
+
+import com.forecasting.models.dto.DataSet;
+import com.forecasting.models.dto.Model;
+import com.forecasting.models.exception.ModelInitializationException;
+import com.forecasting.models.experimental.TESAMultipleSeasonalityModel;
+import com.forecasting.models.experimental.TESMMultipleSeasonalityModel;
+import com.forecasting.models.models.ForecastModel;
+import com.forecasting.models.models.impl.*;
+import com.forecasting.models.optimizer.ParameterOptimizer;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Immutable configuration of a forecast model: type, season lengths, train and validation points and optionally
+ * fixed decay constants or a parameter optimizer. Models keep per run state in fields, so a spec creates a new
+ * model for every fit and one spec can be shared by any number of threads.
+ */
+public final class ModelSpec {
+
+    public static final int FFT_THRESHOLD = 5;
+
+    private static final Map<Model, Integer> PARAMETER_COUNTS = new EnumMap<Model, Integer>(Model.class);
+
+    static {
+        PARAMETER_COUNTS.put(Model.TESA, 3);
+        PARAMETER_COUNTS.put(Model.TESM, 3);
+        PARAMETER_COUNTS.put(Model.DES, 2);
+        PARAMETER_COUNTS.put(Model.MSTESA, 4);
+        PARAMETER_COUNTS.put(Model.MSTESM, 4);
+    }
+
+    private final Model type;
+    private final int trainPoints;
+    private final int validationPoints;
+    private final int seasonPeriod;
+    private final int secondSeasonPeriod;           // MSTESA and MSTESM only
+    private final float[] parameters;               // Fixed decay constants, searched when null
+    private final ParameterOptimizer parameterOptimizer;    // Optional, optimizers keep no state between searches
+
+    /**
+     * Constructor
+     *
+     * @param type             MOV, SES, SSES, DES, TESA, TESM, FFT or CDGR
+     * @param trainPoints
+     * @param validationPoints
+     * @param seasonPeriod     slices of MOV, growth period of CDGR
+     */
+    public ModelSpec(Model type, int trainPoints, int validationPoints, int seasonPeriod) {
+        this(type, trainPoints, validationPoints, seasonPeriod, -1, null, null);
+    }
+
+    /**
+     * Constructor for the multiple seasonality models
+     *
+     * @param type               MSTESA or MSTESM
+     * @param trainPoints
+     * @param validationPoints
+     * @param seasonPeriod
+     * @param secondSeasonPeriod
+     */
+    public ModelSpec(Model type, int trainPoints, int validationPoints, int seasonPeriod, int secondSeasonPeriod) {
+        this(type, trainPoints, validationPoints, seasonPeriod, secondSeasonPeriod, null, null);
+    }
+
+    private ModelSpec(Model type, int trainPoints, int validationPoints, int seasonPeriod, int secondSeasonPeriod,
+                      float[] parameters, ParameterOptimizer parameterOptimizer) {
+        switch (type) {
+            case MOV:
+            case SES:
+            case SSES:
+            case DES:
+            case TESA:
+            case TESM:
+            case FFT:
+            case CDGR:
+                break;
+            case MSTESA:
+            case MSTESM:
+                if (secondSeasonPeriod <= 0)
+                    throw new IllegalArgumentException(type + " needs a second season period");
+                break;
+            default:
+                throw new IllegalArgumentException("No spec for model " + type);
+        }
+        this.type = type;
+        this.trainPoints = trainPoints;
+        this.validationPoints = validationPoints;
+        this.seasonPeriod = seasonPeriod;
+        this.secondSeasonPeriod = secondSeasonPeriod;
+        this.parameters = parameters;
+        this.parameterOptimizer = parameterOptimizer;
+    }
+
+    /**
+     * Same spec with fixed decay constants, in the order of the model constructor
+     *
+     * @param parameters
+     * @return
+     */
+    public ModelSpec withParameters(float... parameters) {
+        Integer count = PARAMETER_COUNTS.get(type);
+        if (count == null || count != parameters.length)
+            throw new IllegalArgumentException(type + " does not take " + parameters.length + " decay constants");
+        return new ModelSpec(type, trainPoints, validationPoints, seasonPeriod, secondSeasonPeriod, parameters.clone(), parameterOptimizer);
+    }
+
+    /**
+     * Same spec searching the decay constants with the given optimizer
+     *
+     * @param parameterOptimizer
+     * @return
+     */
+    public ModelSpec withParameterOptimizer(ParameterOptimizer parameterOptimizer) {
+        return new ModelSpec(type, trainPoints, validationPoints, seasonPeriod, secondSeasonPeriod, parameters, parameterOptimizer);
+    }
+
+    /**
+     * New untrained model of this spec
+     *
+     * @return
+     */
+    public ForecastModel newModel() {
+        AbstractForecastModel model;
+        float[] p = parameters;
+        switch (type) {
+            case MOV:
+                model = new WeightedMovingAverageModel(null, seasonPeriod, 1, trainPoints, validationPoints);
+                break;
+            case SES:
+                model = new SingleExponentialSmoothingModel(trainPoints, validationPoints);
+                break;
+            case SSES:
+                model = new SeasonalSingleExponentialSmoothingModel(trainPoints, validationPoints, seasonPeriod);
+                break;
+            case DES:
+                model = p == null ? new DoubleExponentialSmoothingModel(trainPoints, validationPoints)
+                        : new DoubleExponentialSmoothingModel(trainPoints, validationPoints, p[0], p[1]);
+                break;
+            case TESA:
+                model = p == null ? new TripleExponentialSmoothingAdditiveModel(trainPoints, validationPoints, seasonPeriod)
+                        : new TripleExponentialSmoothingAdditiveModel(trainPoints, validationPoints, seasonPeriod, p[0], p[1], p[2]);
+                break;
+            case TESM:
+                model = p == null ? new TripleExponentialSmoothingMultiplicativeModel(trainPoints, validationPoints, seasonPeriod)
+                        : new TripleExponentialSmoothingMultiplicativeModel(trainPoints, validationPoints, seasonPeriod, p[0], p[1], p[2]);
+                break;
+            case FFT:
+                model = new FFTModelImproved(trainPoints, validationPoints, seasonPeriod, FFT_THRESHOLD);
+                break;
+            case CDGR:
+                model = new CDGRModel(seasonPeriod, validationPoints);
+                break;
+            case MSTESA:
+                model = p == null ? new TESAMultipleSeasonalityModel(trainPoints, validationPoints, seasonPeriod, secondSeasonPeriod)
+                        : new TESAMultipleSeasonalityModel(trainPoints, validationPoints, seasonPeriod, secondSeasonPeriod, p[0], p[1], p[2], p[3]);
+                break;
+            default:
+                model = p == null ? new TESMMultipleSeasonalityModel(trainPoints, validationPoints, seasonPeriod, secondSeasonPeriod)
+                        : new TESMMultipleSeasonalityModel(trainPoints, validationPoints, seasonPeriod, secondSeasonPeriod, p[0], p[1], p[2], p[3]);
+        }
+        if (parameterOptimizer != null)
+            model.setParameterOptimizer(parameterOptimizer);
+        return model;
+    }
+
+    /**
+     * Trains a new model on the series and forecasts, the series is not modified
+     *
+     * @param series
+     * @param futurePoints
+     * @return
+     * @throws ModelInitializationException
+     */
+    public FittedModel fit(DataSet series, int futurePoints) throws ModelInitializationException {
+        ForecastModel model = newModel();
+        model.init(series);
+        model.train();
+        model.forecast(futurePoints);
+        return FittedModel.of(model);
+    }
+
+    public Model getType() {
+        return type;
+    }
+
+    public int getTrainPoints() {
+        return trainPoints;
+    }
+
+    public int getValidationPoints() {
+        return validationPoints;
+    }
+
+    public int getSeasonPeriod() {
+        return seasonPeriod;
+    }
+
+    public int getSecondSeasonPeriod() {
+        return secondSeasonPeriod;
+    }
+
+    public float[] getParameters() {
+        return parameters == null ? null : parameters.clone();
+    }
+
+    public ParameterOptimizer getParameterOptimizer() {
+        return parameterOptimizer;
+    }
+
+    @Override
+    public String toString() {
+        return type + "(train=" + trainPoints + ", validation=" + validationPoints + ", season=" + seasonPeriod
+                + (secondSeasonPeriod > 0 ? "/" + secondSeasonPeriod : "") + ")";
+    }
+}
@@ -20,15 +20,15 @@ package com.forecasting.models;
 
 import com.forecasting.models.dto.DataSet;
 import com.forecasting.models.dto.Model;
-import com.forecasting.models.exception.ModelNotFoundException;
-import com.forecasting.models.experimental.TESAMultipleSeasonalityModel;
-import com.forecasting.models.experimental.TESMMultipleSeasonalityModel;
+import com.forecasting.models.metrics.ForecastMetricsListener;
 import com.forecasting.models.models.ForecastModel;
-import com.forecasting.models.models.impl.*;
-import com.forecasting.models.preprocess.OutlierDetector;
+import com.forecasting.models.optimizer.ParameterOptimizer;
+import com.forecasting.models.utils.Deadline;
 import lombok.Data;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 
 @Data
 public class MultiSeasonalForecaster {
@@ -38,6 +38,12 @@ public class MultiSeasonalForecaster {
     Long executionTime;
     ForecastModel finalModel;
     List<ForecastModel> allModels;
+    List<String> skippedModels;             // Models not run because the deadline had passed
+    ExecutorService executorService;    // Optional, trains the models concurrently when set
+    ParameterOptimizer parameterOptimizer;  // Optional, replaces the decay constant grid search of the models
+    ForecastMetricsListener metricsListener;    // Optional, receives the timing of every stage
+    Deadline deadline;                      // Optional, expensive models are skipped or stop searching once it passes
+    ForkJoinPool validationPool;            // Optional, validates the origins of FFT, MOV and CDGR concurrently
 
     boolean runAllModels;
 
@@ -70,64 +76,15 @@ public class MultiSeasonalForecaster {
 
         Long start = System.currentTimeMillis();
 
-        ModelExecutor executor = new ModelExecutor();
-        executor.setForecastPoints(futurePoints);
-        OutlierDetector detector = new OutlierDetector(500);
-        timeSeries = detector.removeOutlier(timeSeries, periodicity1);
-        executor.setTimeSeries(timeSeries);
-
-
-        if (runAllModels || modelList.contains(Model.MOV)) {
-            int step = 1;
-            ForecastModel model = new WeightedMovingAverageModel(null, periodicity1, step, trainPoints, validationPoints);
-            executor.addModel(model);
-        }
-
-        if (runAllModels || modelList.contains(Model.TESA)) {
-            ForecastModel model = new TripleExponentialSmoothingAdditiveModel(trainPoints, validationPoints, periodicity1);
-            executor.addModel(model);
-        }
-
-        if (runAllModels || modelList.contains(Model.TESM)) {
-            ForecastModel model = new TripleExponentialSmoothingMultiplicativeModel(trainPoints, validationPoints, periodicity1);
-            executor.addModel(model);
-        }
-
-        if ((runAllModels || modelList.contains(Model.MSTESA)) && periodicity2 != -1) {
-            ForecastModel model = new TESAMultipleSeasonalityModel(trainPoints, validationPoints, periodicity1, periodicity2);
-            executor.addModel(model);
-        }
-
-        if ((runAllModels || modelList.contains(Model.MSTESM)) && periodicity2 != -1) {
-            ForecastModel model = new TESMMultipleSeasonalityModel(trainPoints, validationPoints, periodicity1, periodicity2);
-            executor.addModel(model);
-        }
-
-        if (runAllModels || modelList.contains(Model.SSES)) {
-            ForecastModel model = new SeasonalSingleExponentialSmoothingModel(trainPoints, validationPoints, periodicity1);
-            executor.addModel(model);
-        }
-
-        if (runAllModels || modelList.contains(Model.DES)) {
-            ForecastModel model = new DoubleExponentialSmoothingModel(trainPoints, validationPoints);
-            executor.addModel(model);
-        }
-
-        if (runAllModels || modelList.contains(Model.FFT)) {
-            int threshold = 5;
-            ForecastModel model = new FFTModelImproved(trainPoints, validationPoints, periodicity1, threshold);
-            executor.addModel(model);
-        }
-
-        if (runAllModels || modelList.contains(Model.ENSEMBLE))
-            executor.setCompetitionModel(new EnsembleCompetitionModel(validationPoints, futurePoints));
-        else if (modelList.contains(Model.AUCTION))
-            executor.setCompetitionModel(new AuctionCompetitionModel());
-        else throw new ModelNotFoundException(" No competition Model Found, Provide either Ensemble Or Auction");
-
+        ForecastSpec spec = ForecastSpec.multiSeasonal(runAllModels ? null : modelList, trainPoints, validationPoints,
+                futurePoints, periodicity1, periodicity2).withParameterOptimizer(parameterOptimizer)
+                .withMetricsListener(metricsListener).withValidationPool(validationPool);
+        timeSeries = spec.removeOutliers(timeSeries);
+        ModelExecutor executor = spec.newExecutor(timeSeries, executorService, deadline, null);
         executor.runModels();
         finalModel = executor.getFinalModel();
         allModels = executor.getAllModels();
+        skippedModels = executor.getSkippedModels();
         Long end = System.currentTimeMillis();
         executionTime = end - start;
         return finalModel.getForecastDataSet();
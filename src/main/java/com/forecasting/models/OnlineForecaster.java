@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models;
+
+import com.forecasting.models.dto.DataSet;
+import com.forecasting.models.dto.IndependentVariable;
+import com.forecasting.models.dto.Model;
+import com.forecasting.models.dto.Observation;
+import com.forecasting.models.exception.ModelInitializationException;
+import com.forecasting.models.metrics.ForecastMetricsListener;
+import com.forecasting.models.models.ForecastModel;
+import com.forecasting.models.models.OnlineForecastModel;
+import com.forecasting.models.models.impl.ParameterPriors;
+import com.forecasting.models.optimizer.ParameterOptimizer;
+import com.forecasting.models.postprocess.DriftDetector;
+import com.forecasting.models.preprocess.impl.RollingOutlierFilter;
+import lombok.Data;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Forecaster that is trained once and then kept up to date one observation at a time. {@link #update(double)} adds
+ * the observation to the fitted state of every model and recombines their forecasts, in constant time in the length
+ * of the series. Observations go through the outlier rule the history is cleaned with before training, so a spike
+ * does not reach the smoothed level; the history keeps the raw values. Outlier removal, model training and the parameter search run again over the whole history only
+ * every retrainInterval observations or when the drift detector flags the one step errors.
+ *
+ * Runs the models that support online updates: MOV, TESA, TESM, DES and SES, the seasonal ones only when a season
+ * period is given. Other models in the model list are ignored.
+ */
+@Data
+public class OnlineForecaster {
+
+    List<Model> modelList;
+    DataSet timeSeries;                     // Series the models were last trained on, outliers removed
+    Long executionTime;                     // Time of the last training
+    ForecastModel finalModel;
+    List<ForecastModel> allModels;
+    ParameterOptimizer parameterOptimizer;  // Optional, replaces the decay constant grid search of the models
+    ForecastMetricsListener metricsListener;    // Optional, receives the timing of every training stage
+    boolean warmStart;                      // Retrains search around the decay constants of the previous training
+    int retrainInterval;                    // Observations between trainings, only on drift when 0
+    DriftDetector driftDetector;            // Optional, trains again when the one step errors drift
+    int retrains;                           // Trainings since the first one
+
+    boolean runAllModels;
+
+    private double[] series = new double[0];
+    private int size;
+    private int trainPoints;
+    private int validationPoints;
+    private int futurePoints;
+    private int seasonPeriod;
+    private int updatesSinceTraining;
+    private RollingOutlierFilter outlierFilter;     // Primed with the last cleaned points of the training series
+
+    public OnlineForecaster(List<Model> modelList) {
+        this.modelList = modelList;
+        runAllModels = false;
+    }
+
+    public OnlineForecaster() {
+        runAllModels = true;
+    }
+
+    public void init(DataSet observations) {
+        series = observations.toArray();
+        size = series.length;
+        finalModel = null;
+        retrains = 0;
+        updatesSinceTraining = 0;
+        if (driftDetector != null)
+            driftDetector.reset();
+    }
+
+    /**
+     * Trains the models on the series and generates the first forecast
+     *
+     * @param trainPoints
+     * @param validationPoints
+     * @param futurePoints
+     * @param seasonPeriod
+     * @return
+     * @throws Exception
+     */
+    public DataSet forecast(int trainPoints, int validationPoints, int futurePoints, int seasonPeriod) throws Exception {
+        this.trainPoints = trainPoints;
+        this.validationPoints = validationPoints;
+        this.futurePoints = futurePoints;
+        this.seasonPeriod = seasonPeriod;
+        train();
+        return finalModel.getForecastDataSet();
+    }
+
+    /**
+     * Adds the next observation and returns the forecast of the points following it
+     *
+     * @param value
+     * @return
+     * @throws Exception
+     */
+    public DataSet update(double value) throws Exception {
+        if (finalModel == null)
+            throw new ModelInitializationException("Online forecaster is not trained, call forecast first");
+
+        double cleaned = outlierFilter.accept(value);
+        double error = cleaned - nextForecast();
+        append(value);
+        updatesSinceTraining++;
+
+        boolean drift = driftDetector != null && driftDetector.add(error);
+        if (drift || (retrainInterval > 0 && updatesSinceTraining >= retrainInterval)) {
+            trainPoints += updatesSinceTraining;
+            retrains++;
+            train();
+        } else {
+            for (ForecastModel model : allModels)
+                if (model instanceof OnlineForecastModel)
+                    ((OnlineForecastModel) model).update(cleaned);
+            if (!(finalModel instanceof OnlineForecastModel))
+                finalModel.forecast(futurePoints);
+        }
+        return finalModel.getForecastDataSet();
+    }
+
+    /**
+     * Observations seen so far, including the ones added by update
+     *
+     * @return
+     */
+    public DataSet getHistory() {
+        DataSet dataSet = new DataSet();
+        for (int i = 0; i < size; i++) {
+            Observation observation = new Observation();
+            observation.setIndependentValue(IndependentVariable.SLICE, i);
+            observation.setDependentValue(series[i]);
+            dataSet.add(observation);
+        }
+        return dataSet;
+    }
+
+    private void train() throws Exception {
+
+        Long start = System.currentTimeMillis();
+
+        ForecastSpec spec = ForecastSpec.online(runAllModels ? null : modelList, trainPoints, validationPoints, futurePoints,
+                seasonPeriod).withParameterOptimizer(parameterOptimizer).withMetricsListener(metricsListener);
+        timeSeries = spec.removeOutliers(getHistory());
+        outlierFilter = spec.newOutlierFilter();
+        double[] points = timeSeries.toArray();
+        for (int i = Math.max(0, points.length - outlierFilter.getCycle()); i < points.length; i++)
+            outlierFilter.accept(points[i]);
+        ModelExecutor executor = spec.newExecutor(timeSeries, null, null,
+                warmStart && allModels != null ? ParameterPriors.of(allModels) : null);
+        executor.runModels();
+        finalModel = executor.getFinalModel();
+        allModels = executor.getAllModels();
+        updatesSinceTraining = 0;
+        if (driftDetector != null)
+            driftDetector.reset();
+        executionTime = System.currentTimeMillis() - start;
+    }
+
+    /**
+     * Forecast of the next point made before it was observed, NaN when nothing was forecasted
+     *
+     * @return
+     */
+    private double nextForecast() {
+        DataSet forecast = finalModel.getForecastDataSet();
+        if (forecast == null || forecast.size() == 0)
+            return Double.NaN;
+        return forecast.getDataPoints().first().getDependentValue();
+    }
+
+    private void append(double value) {
+        if (size == series.length)
+            series = Arrays.copyOf(series, Math.max(16, 2 * size));
+        series[size++] = value;
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.dto;
+
+import com.forecasting.models.models.DataPoint;
+
+import java.io.Serializable;
+
+/**
+ * Time series stored as primitive columns - slice index, dependent value and its lower and upper bounds.
+ * Gives O(1) positional access and zero-copy views over a range of the series, views share the columns
+ * with the series they were created from.
+ */
+public class ColumnarDataSet implements Serializable {
+
+    private final int[] slices;
+    private final double[] values;
+    private final double[] lowerValues;
+    private final double[] upperValues;
+    private final int offset;
+    private final int length;
+
+    /**
+     * Constructor, slices are numbered from 0 and bounds are set to zero
+     *
+     * @param values
+     */
+    public ColumnarDataSet(double[] values) {
+        this(new int[values.length], values, new double[values.length], new double[values.length], 0, values.length);
+        for (int i = 0; i < length; i++)
+            slices[i] = i;
+    }
+
+    /**
+     * Constructor with all columns, columns are not copied
+     *
+     * @param slices
+     * @param values
+     * @param lowerValues
+     * @param upperValues
+     */
+    public ColumnarDataSet(int[] slices, double[] values, double[] lowerValues, double[] upperValues) {
+        this(slices, values, lowerValues, upperValues, 0, values.length);
+        if (slices.length != values.length || lowerValues.length != values.length || upperValues.length != values.length)
+            throw new IllegalArgumentException("Columns of a ColumnarDataSet should be of same length");
+    }
+
+    private ColumnarDataSet(int[] slices, double[] values, double[] lowerValues, double[] upperValues, int offset, int length) {
+        this.slices = slices;
+        this.values = values;
+        this.lowerValues = lowerValues;
+        this.upperValues = upperValues;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Copies a DataSet into columns, in slice order
+     *
+     * @param dataSet
+     * @return
+     */
+    public static ColumnarDataSet fromDataSet(DataSet dataSet) {
+        int size = dataSet.size(), i = 0;
+        int[] slices = new int[size];
+        double[] values = new double[size];
+        double[] lowerValues = new double[size];
+        double[] upperValues = new double[size];
+        for (DataPoint point : dataSet.getDataPoints()) {
+            slices[i] = point.getIndependentValue(IndependentVariable.SLICE);
+            values[i] = point.getDependentValue();
+            lowerValues[i] = point.getLowerDependentValue();
+            upperValues[i] = point.getUpperDependentValue();
+            i++;
+        }
+        return new ColumnarDataSet(slices, values, lowerValues, upperValues);
+    }
+
+    /**
+     * Creates a DataSet of Observations from the columns
+     *
+     * @return
+     */
+    public DataSet toDataSet() {
+        DataSet dataSet = new DataSet();
+        Observation observation;
+        for (int i = 0; i < length; i++) {
+            observation = new Observation();
+            observation.setIndependentValue(IndependentVariable.SLICE, slices[offset + i]);
+            observation.setDependentValue(values[offset + i]);
+            observation.setLowerDependentValue(lowerValues[offset + i]);
+            observation.setUpperDependentValue(upperValues[offset + i]);
+            dataSet.add(observation);
+        }
+        return dataSet;
+    }
+
+    /**
+     * Zero-copy view over [from, to) of this series
+     *
+     * @param from inclusive
+     * @param to   exclusive
+     * @return
+     */
+    public ColumnarDataSet slice(int from, int to) {
+        if (from < 0 || to > length || from > to)
+            throw new IndexOutOfBoundsException("Invalid slice [" + from + "," + to + ") of series with " + length + " points");
+        return new ColumnarDataSet(slices, values, lowerValues, upperValues, offset + from, to - from);
+    }
+
+    public int size() {
+        return length;
+    }
+
+    public double get(int index) {
+        return values[position(index)];
+    }
+
+    public void set(int index, double value) {
+        values[position(index)] = value;
+    }
+
+    public double getLower(int index) {
+        return lowerValues[position(index)];
+    }
+
+    public double getUpper(int index) {
+        return upperValues[position(index)];
+    }
+
+    public void setBounds(int index, double lowerValue, double upperValue) {
+        int position = position(index);
+        lowerValues[position] = lowerValue;
+        upperValues[position] = upperValue;
+    }
+
+    public int getSlice(int index) {
+        return slices[position(index)];
+    }
+
+    /**
+     * Copy of the dependent values, same as DataSet.toArray()
+     *
+     * @return
+     */
+    public double[] toArray() {
+        double[] array = new double[length];
+        System.arraycopy(values, offset, array, 0, length);
+        return array;
+    }
+
+    /**
+     * Backing array of the dependent values, shared with all views. Values of this series start at getOffset()
+     *
+     * @return
+     */
+    public double[] getValues() {
+        return values;
+    }
+
+    public double[] getLowerValues() {
+        return lowerValues;
+    }
+
+    public double[] getUpperValues() {
+        return upperValues;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    private int position(int index) {
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException("Index " + index + " out of series with " + length + " points");
+        return offset + index;
+    }
+}
@@ -31,6 +31,8 @@ public class Observation implements DataPoint, Comparable, Serializable {
     private double lowerDependentValue;     // Stores the lower bound of the forecasted value, not significant for input time series
     private double upperDependentValue;     // Stores the upper bound of the forecasted value, not significant for input time series
     private Hashtable<IndependentVariable, Integer> independentValues;
+    private int slice;                      // Copy of the SLICE value, compareTo runs on every insertion into a DataSet
+    private boolean sliceSet;
 
     /**
      * Constructor
@@ -49,12 +51,24 @@ public class Observation implements DataPoint, Comparable, Serializable {
 
     public void setIndependentValue(IndependentVariable name, Integer value) {
         independentValues.put(name, value);
+        if (name == IndependentVariable.SLICE) {
+            slice = value;
+            sliceSet = true;
+        }
     }
 
     public int getIndependentValue(IndependentVariable name) {
+        if (name == IndependentVariable.SLICE)
+            return slice();
         return independentValues.get(name);
     }
 
+    private int slice() {
+        if (!sliceSet)
+            throw new NullPointerException("SLICE value is not set");
+        return slice;
+    }
+
 
     public double getLowerDependentValue() {
         return lowerDependentValue;
@@ -106,8 +120,8 @@ public class Observation implements DataPoint, Comparable, Serializable {
     @Override
     public int compareTo(Object o) {
         Observation that = (Observation) o;
-        double thisTime = this.getIndependentValue(IndependentVariable.SLICE);
-        double thatTime = that.getIndependentValue(IndependentVariable.SLICE);
+        int thisTime = this.slice();
+        int thatTime = that.slice();
         if (thisTime > thatTime) {
             return 1;
         } else if (thisTime < thatTime) {
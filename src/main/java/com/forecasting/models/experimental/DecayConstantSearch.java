@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.experimental;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * Exhaustive search of the four decay constants of the multiple seasonality models, split over a fork-join pool
+ * by contiguous ranges of the grid, the first constant varying slowest. A pass may be abandoned as soon as its
+ * running mean squared error exceeds the least error any range has seen so far. The running sum only grows, so an
+ * abandoned point could not have been selected, and the result is the point the sequential search keeps: the first
+ * point with the least error, or the first point of the grid when its error is NaN. The first point always runs to
+ * the end, as it does in the sequential search.
+ */
+abstract class DecayConstantSearch {
+
+    static final double ABANDONED = -1;     // No pass ends with a negative error, +Inf and NaN are real errors
+    private static final int LEAF_POINTS = 100;
+
+    private final float[] values;
+    private final int size;
+    private final DoubleAccumulator bound = new DoubleAccumulator(new DoubleBinaryOperator() {
+        public double applyAsDouble(double left, double right) {
+            return Math.min(left, right);
+        }
+    }, Double.POSITIVE_INFINITY);
+    private final LongAdder abandoned = new LongAdder();
+
+    /**
+     * Constructor
+     *
+     * @param values grid values of each constant
+     */
+    DecayConstantSearch(float[] values) {
+        this.values = values;
+        this.size = values.length * values.length * values.length * values.length;
+    }
+
+    /**
+     * Mean squared error of a training pass with the given constants, called concurrently. The pass may return
+     * ABANDONED once exceeds(squaredErrorSum, length, bound) holds for its running sum.
+     *
+     * @param alpha
+     * @param beta
+     * @param gamma
+     * @param delta
+     * @param bound least error seen so far
+     * @return
+     */
+    protected abstract double error(float alpha, float beta, float gamma, float delta, double bound);
+
+    /**
+     * Whether a running sum of squared errors is already worse than bound, computed as ModelUtil.computeMSE does
+     *
+     * @param squaredErrorSum
+     * @param length
+     * @param bound
+     * @return
+     */
+    static boolean exceeds(double squaredErrorSum, int length, double bound) {
+        return squaredErrorSum / length > bound;
+    }
+
+    /**
+     * Searches the grid
+     *
+     * @param pool common pool when null
+     * @return alpha, beta, gamma and delta
+     */
+    float[] search(ForkJoinPool pool) {
+        Best best = (pool == null ? ForkJoinPool.commonPool() : pool).invoke(new Range(0, size));
+        return point(best.index);
+    }
+
+    /**
+     * Number of grid points whose training pass ran to the end, the rest were abandoned
+     *
+     * @return
+     */
+    int getEvaluations() {
+        return size - getAbandoned();
+    }
+
+    /**
+     * Number of grid points whose training pass was abandoned, depends on the order the ranges ran in
+     *
+     * @return
+     */
+    int getAbandoned() {
+        return abandoned.intValue();
+    }
+
+    private float[] point(int index) {
+        int n = values.length;
+        return new float[]{values[index / (n * n * n)], values[index / (n * n) % n], values[index / n % n], values[index % n]};
+    }
+
+    private static class Best {
+        private final int index;
+        private final double error;
+
+        Best(int index, double error) {
+            this.index = index;
+            this.error = error;
+        }
+
+        /**
+         * Sequential selection over this range followed by a later one, a NaN error of the first grid point is kept
+         */
+        Best then(Best later) {
+            if (later == null || Double.isNaN(error) || !(later.error < error))
+                return this;
+            return later;
+        }
+    }
+
+    private class Range extends RecursiveTask<Best> {
+        private final int from, to;
+
+        Range(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Best compute() {
+            if (to - from > LEAF_POINTS) {
+                int middle = (from + to) >>> 1;
+                Range left = new Range(from, middle);
+                left.fork();
+                Best right = new Range(middle, to).compute();
+                Best first = left.join();
+                return first == null ? right : first.then(right);
+            }
+            Best best = null;
+            float[] point;
+            double error;
+            for (int index = from; index < to; index++) {
+                point = point(index);
+                error = error(point[0], point[1], point[2], point[3], index == 0 ? Double.POSITIVE_INFINITY : bound.get());
+                if (error == ABANDONED) {
+                    abandoned.increment();
+                    continue;
+                }
+                if (Double.isNaN(error)) {
+                    if (index == 0)
+                        best = new Best(index, error);
+                    continue;
+                }
+                bound.accumulate(error);
+                if (best == null || (!Double.isNaN(best.error) && error < best.error))
+                    best = new Best(index, error);
+            }
+            return best;
+        }
+    }
+}
@@ -24,11 +24,17 @@ import com.forecasting.models.dto.Model;
 import com.forecasting.models.dto.Observation;
 import com.forecasting.models.postprocess.BiasnessHandler;
 import com.forecasting.models.utils.ModelUtil;
+import com.forecasting.models.utils.TrainingContext;
 import com.forecasting.models.exception.ModelInitializationException;
 import com.forecasting.models.models.impl.AbstractForecastModel;
+import com.forecasting.models.models.impl.WalkForwardValidator;
+import com.forecasting.models.optimizer.GridSearchOptimizer;
+import com.forecasting.models.optimizer.ParameterObjective;
 import com.forecasting.models.postprocess.ErrorBoundsHandler;
 import lombok.Data;
 
+import java.util.concurrent.ForkJoinPool;
+
 @Data
 public class TESMMultipleSeasonalityModel extends AbstractForecastModel {
 
@@ -47,6 +53,9 @@ public class TESMMultipleSeasonalityModel extends AbstractForecastModel {
     private double min_mse_error;
     private double train_error;
     private int seasonality1, seasonality2;
+    private ForkJoinPool searchPool;    // Splits the decay constant search, common pool when null
+
+    private static final GridSearchOptimizer DECAY_CONSTANTS_GRID = new GridSearchOptimizer(0.1f, 1f);
 
     /**
      * Constructor with  initializeCoefficients flag
@@ -99,10 +108,13 @@ public class TESMMultipleSeasonalityModel extends AbstractForecastModel {
      * compute accuracy indicator and find optimum decay constants
      */
     public void train() {
-        double[][] valMatrix = new double[validationPoints][2];
         actual = observations.toArray();
-        for (int point = 0; point < validationPoints; point++)
-            populateForecastMatrix(point, valMatrix);
+        WalkForwardValidator validator = WalkForwardValidator.expanding(trainPoints, validationPoints);
+        double[][] valMatrix = validator.validate(new WalkForwardValidator.Fold() {
+            public void validate(int point, int startPoint, int endPoint, double[] row) {
+                populateForecastMatrix(point, startPoint, endPoint, row);
+            }
+        });
 
         double biasness = BiasnessHandler.handle(valMatrix);
         accuracyIndicators.setBias(biasness);
@@ -113,20 +125,54 @@ public class TESMMultipleSeasonalityModel extends AbstractForecastModel {
      * Populate forecast matrix on validation points to be used for accuracy indicator computation
      *
      * @param point
-     * @param valMatrix
+     * @param startPoint
+     * @param endPoint
+     * @param row        actual value and forecast of the point
      */
-    void populateForecastMatrix(int point, double[][] valMatrix) {
+    void populateForecastMatrix(int point, final int startPoint, final int endPoint, final double[] row) {
         min_mse_error = -1;
-        int startPoint = 0;
-        int endPoint = trainPoints + point;
-        if (findDecayConstants)
-            for (float alpha = 0f; alpha <= 1f; alpha += 0.1f)
-                for (float beta = 0f; beta <= 1f; beta += 0.1f)
-                    for (float gamma = 0f; gamma <= 1f; gamma += 0.1f)
-                        for (float delta = 0f; delta <= 1f; delta += 0.1f)
-                            initializeAndTrainModel(alpha, beta, gamma, delta, startPoint, endPoint, valMatrix);
+        if (findDecayConstants && budgetExhausted(point > 0))
+            initializeAndTrainModel(optAlpha, optBeta, optGamma, optDelta, startPoint, endPoint, row);
+        else if (findDecayConstants && parameterOptimizer == null && warmStart(4, DECAY_CONSTANTS_GRID) == null) {
+            float[] best = searchDecayConstants(startPoint, endPoint);
+            initializeAndTrainModel(best[0], best[1], best[2], best[3], startPoint, endPoint, row);
+        } else if (findDecayConstants)
+            optimizeParameters(new ParameterObjective() {
+                public double value(float[] parameters) {
+                    initializeAndTrainModel(parameters[0], parameters[1], parameters[2], parameters[3], startPoint, endPoint, row);
+                    return train_error;
+                }
+            }, 4, DECAY_CONSTANTS_GRID);
         else
-            initializeAndTrainModel(optAlpha, optBeta, optGamma, optDelta, startPoint, endPoint, valMatrix);
+            initializeAndTrainModel(optAlpha, optBeta, optGamma, optDelta, startPoint, endPoint, row);
+    }
+
+    /**
+     * Exhaustive grid search of the decay constants on searchPool, same point as evaluating the grid in order
+     *
+     * @param startPoint
+     * @param endPoint
+     * @return
+     */
+    private float[] searchDecayConstants(final int startPoint, final int endPoint) {
+        final int length = endPoint - startPoint;
+        final double[] initialSeasonality1 = initializeSeasonality1(startPoint, endPoint, new double[seasonality1]);
+        final double[] initialSeasonality2 = initializeSeasonality2(startPoint, endPoint, new double[seasonality2]);
+        DecayConstantSearch search = new DecayConstantSearch(DECAY_CONSTANTS_GRID.getValues()) {
+            protected double error(float alpha, float beta, float gamma, float delta, double bound) {
+                TrainingContext context = TrainingContext.get();
+                double[] seasonalComponent1 = context.seasonalComponent(seasonality1);
+                double[] seasonalComponent2 = context.secondSeasonalComponent(seasonality2);
+                System.arraycopy(initialSeasonality1, 0, seasonalComponent1, 0, seasonality1);
+                System.arraycopy(initialSeasonality2, 0, seasonalComponent2, 0, seasonality2);
+                return train(alpha, beta, gamma, delta, startPoint, endPoint, bound, seasonalComponent1, seasonalComponent2,
+                        context.actuals(length + 1), context.forecasts(length + 1));
+            }
+        };
+        float[] best = search.search(searchPool);
+        parameterEvaluations += search.getEvaluations();
+        abandonedEvaluations += search.getAbandoned();
+        return best;
     }
 
     /**
@@ -137,33 +183,66 @@ public class TESMMultipleSeasonalityModel extends AbstractForecastModel {
      * @param gamma
      * @param startPoint
      * @param endPoint
-     * @param valMatrix
+     * @param row actual value and forecast at endPoint, set when the MSE is the least so far
      */
-    public void initializeAndTrainModel(float alpha, float beta, float gamma, float delta, int startPoint, int endPoint, double[][] valMatrix) {
+    public void initializeAndTrainModel(float alpha, float beta, float gamma, float delta, int startPoint, int endPoint, double[] row) {
 
-        double[][] trainMatrix = new double[endPoint - startPoint][2];
+        TrainingContext context = TrainingContext.get();
+        int length = endPoint - startPoint;
+        double[] trainActual = context.actuals(length + 1);
+        double[] trainForecast = context.forecasts(length + 1);
 
-        double trend = initializeTrend(startPoint);
-        double permanent = initializePermanentComponent(startPoint);
-//        double[] seasonalComponent1 = new double[seasonality1];
-//        double[] seasonalComponent2 = new double[seasonality2];
+        double[] seasonalComponent1 = initializeSeasonality1(startPoint, endPoint, context.seasonalComponent(seasonality1));
+        double[] seasonalComponent2 = initializeSeasonality2(startPoint, endPoint, context.secondSeasonalComponent(seasonality2));
+
+        train_error = train(alpha, beta, gamma, delta, startPoint, endPoint, Double.POSITIVE_INFINITY, seasonalComponent1, seasonalComponent2,
+                trainActual, trainForecast);
+        if (min_mse_error > train_error || min_mse_error == -1) {
+            min_mse_error = train_error;
+            optAlpha = alpha;
+            optBeta = beta;
+            optGamma = gamma;
+            optDelta = delta;
+            row[0] = trainActual[length];
+            row[1] = trainForecast[length];
+            errorBound = ErrorBoundsHandler.computeErrorBoundInterval(trainActual, trainForecast, length);
+        }
+    }
 
-//        for (int i = 0; i < seasonalComponent1.length; i++)
-//            seasonalComponent1[i] = 1;
-//        for (int i = 0; i < seasonalComponent2.length; i++)
-//            seasonalComponent2[i] = 1;
+    /**
+     * Smooths the training points, filling the actual and forecasted value of each training point and of endPoint
+     * at index length. Does not change the model and may run concurrently.
+     *
+     * @param alpha
+     * @param beta
+     * @param gamma
+     * @param delta
+     * @param startPoint
+     * @param endPoint
+     * @param bound      the pass is abandoned once its error exceeds bound
+     * @param seasonalComponent1 initial seasonality, smoothed in place
+     * @param seasonalComponent2 initial seasonality, smoothed in place
+     * @param trainActual
+     * @param trainForecast
+     * @return MSE of the training points, DecayConstantSearch.ABANDONED when abandoned
+     */
+    private double train(float alpha, float beta, float gamma, float delta, int startPoint, int endPoint, double bound,
+                         double[] seasonalComponent1, double[] seasonalComponent2, double[] trainActual, double[] trainForecast) {
 
-        double[] seasonalComponent1 = initializeSeasonality1(startPoint, endPoint);
-        double[] seasonalComponent2 = initializeSeasonality2(startPoint, endPoint);
+        int length = endPoint - startPoint;
+
+        double trend = initializeTrend(startPoint);
+        double permanent = initializePermanentComponent(startPoint);
 
         double lastPermanent;
         double forecast;
 
-        trainMatrix[0][0] = actual[startPoint];
-        trainMatrix[0][1] = permanent;
+        trainActual[0] = actual[startPoint];
+        trainForecast[0] = permanent;
         int idx1, idx2;
 
-        double actualValue = 0d, forecastValue = 0d;
+        double error = trainActual[0] - trainForecast[0];
+        double squaredErrorSum = error * error;
 
         for (int i = startPoint + 1; i < endPoint + 1; i++) {
             idx1 = (i - startPoint) % seasonality1;
@@ -172,8 +251,12 @@ public class TESMMultipleSeasonalityModel extends AbstractForecastModel {
             forecast = seasonalComponent1[idx1] * seasonalComponent2[idx2] * (permanent + trend);
 
             if (i < endPoint) {
-                trainMatrix[i - startPoint][0] = actual[i];
-                trainMatrix[i - startPoint][1] = forecast;
+                trainActual[i - startPoint] = actual[i];
+                trainForecast[i - startPoint] = forecast;
+                error = actual[i] - forecast;
+                squaredErrorSum += error * error;
+                if (DecayConstantSearch.exceeds(squaredErrorSum, length, bound))
+                    return DecayConstantSearch.ABANDONED;
             }
 
             lastPermanent = permanent;
@@ -183,22 +266,11 @@ public class TESMMultipleSeasonalityModel extends AbstractForecastModel {
             seasonalComponent2[idx2] = (delta * (actual[i] / (permanent * seasonalComponent1[idx1]))) + ((1 - delta) * seasonalComponent2[idx2]);
 
             if (i == endPoint) {
-                actualValue = actual[i];
-                forecastValue = forecast;
+                trainActual[length] = actual[i];
+                trainForecast[length] = forecast;
             }
         }
-
-        train_error = ModelUtil.computeMSE(trainMatrix);
-        if (min_mse_error > train_error || min_mse_error == -1) {
-            min_mse_error = train_error;
-            optAlpha = alpha;
-            optBeta = beta;
-            optGamma=gamma;
-            optDelta = delta;
-            valMatrix[endPoint-trainPoints][0] = actualValue;
-            valMatrix[endPoint-trainPoints][1] = forecastValue;
-            errorBound = ErrorBoundsHandler.computeErrorBoundInterval(trainMatrix);
-        }
+        return squaredErrorSum / length;
     }
 
     /**
@@ -212,8 +284,8 @@ public class TESMMultipleSeasonalityModel extends AbstractForecastModel {
         double trend = initializeTrend(startPoint);
         double lastPermanent, permanent = initializePermanentComponent(startPoint);
 
-        double[] seasonalComponent1 = initializeSeasonality1(startPoint, endPoint);
-        double[] seasonalComponent2 = initializeSeasonality2(startPoint, endPoint);
+        double[] seasonalComponent1 = initializeSeasonality1(startPoint, endPoint, new double[seasonality1]);
+        double[] seasonalComponent2 = initializeSeasonality2(startPoint, endPoint, new double[seasonality2]);
 
         for (int i = startPoint + 1; i < endPoint; i++) {
 
@@ -262,21 +334,23 @@ public class TESMMultipleSeasonalityModel extends AbstractForecastModel {
      *
      * @param startPoint
      * @param endPoint
+     * @param seasonalComponent
      * @return
      */
-    private double[] initializeSeasonality1(int startPoint, int endPoint) {
-        double[] seasonalComponent = new double[seasonality1];
-        double[] cycle = new double[(endPoint - startPoint) / seasonality1];
-        for (int i = 0; i < cycle.length; i++) {
+    private double[] initializeSeasonality1(int startPoint, int endPoint, double[] seasonalComponent) {
+        int cycles = (endPoint - startPoint) / seasonality1;
+        double[] cycle = TrainingContext.get().cycles(cycles);
+        for (int i = 0; i < cycles; i++) {
+            cycle[i] = 0d;
             for (int j = 0; j < seasonality1; j++)
                 cycle[i] += actual[i * seasonality1 + j];
             cycle[i] = cycle[i] / seasonality1;
         }
         for (int index = 0; index < seasonality1; index++) {
-            Double value = 0d;
-            for (int iter = 0; iter < cycle.length; iter++)
+            double value = 0d;
+            for (int iter = 0; iter < cycles; iter++)
                 value += actual[startPoint + index + iter * seasonality1] / cycle[iter];
-            seasonalComponent[index] = value / ((endPoint - startPoint) / seasonality1);
+            seasonalComponent[index] = value / cycles;
         }
         return seasonalComponent;
     }
@@ -286,21 +360,23 @@ public class TESMMultipleSeasonalityModel extends AbstractForecastModel {
      *
      * @param startPoint
      * @param endPoint
+     * @param seasonalComponent
      * @return
      */
-    private double[] initializeSeasonality2(int startPoint, int endPoint) {
-        double[] seasonalComponent = new double[seasonality2];
-        double[] cycle = new double[(endPoint - startPoint) / seasonality2];
-        for (int i = 0; i < cycle.length; i++) {
+    private double[] initializeSeasonality2(int startPoint, int endPoint, double[] seasonalComponent) {
+        int cycles = (endPoint - startPoint) / seasonality2;
+        double[] cycle = TrainingContext.get().cycles(cycles);
+        for (int i = 0; i < cycles; i++) {
+            cycle[i] = 0d;
             for (int j = 0; j < seasonality1; j++)
                 cycle[i] += actual[i * seasonality2 + j];
             cycle[i] = cycle[i] / seasonality2;
         }
         for (int index = 0; index < seasonality2; index++) {
-            Double value = 0d;
-            for (int iter = 0; iter < cycle.length; iter++)
+            double value = 0d;
+            for (int iter = 0; iter < cycles; iter++)
                 value += actual[startPoint + index + iter * seasonality2] / cycle[iter];
-            seasonalComponent[index] = value / ((endPoint - startPoint) / seasonality2);
+            seasonalComponent[index] = value / cycles;
         }
         return seasonalComponent;
     }
@@ -312,7 +388,7 @@ public class TESMMultipleSeasonalityModel extends AbstractForecastModel {
      * @return
      */
     private double initializeTrend(int startPoint) {
-        Double sum = 0d;
+        double sum = 0d;
         for (int i = startPoint; i < startPoint + seasonality1; i++)
             sum = sum + ((actual[seasonality1 + i] - actual[i]) / seasonality1);
         return sum / seasonality1;
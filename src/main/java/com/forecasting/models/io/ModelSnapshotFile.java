@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.io;
+
+import com.forecasting.models.models.ForecastModel;
+import com.forecasting.models.models.impl.ModelSnapshotCodec;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * File of fitted model snapshots keyed by series id, so a worker can restore the models of thousands of series
+ * instead of training them. The file is a header, magic number, format version and number of entries, followed by
+ * one entry per series, the id as an unsigned short length and UTF-8 bytes and then the model record described in
+ * {@link ModelSnapshotCodec}. Files are read through a read-only memory mapping.
+ */
+public final class ModelSnapshotFile {
+
+    public static final int MAGIC = 0x464d534e;
+    public static final short VERSION = 3;      // 2 adds the horizon errors and weights, 3 CDGR and MSTESA/MSTESM
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private ModelSnapshotFile() {
+    }
+
+    /**
+     * Writes the snapshots of the given trained and forecasted models
+     *
+     * @param file
+     * @param models models by series id, usually the final model of each series
+     * @throws IOException
+     * @throws IllegalArgumentException if an id is longer than 65535 UTF-8 bytes
+     */
+    public static void write(File file, Map<String, ? extends ForecastModel> models) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+        try {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(models.size());
+            for (Map.Entry<String, ? extends ForecastModel> entry : models.entrySet()) {
+                byte[] id = entry.getKey().getBytes(UTF8);
+                if (id.length > 0xffff)
+                    throw new IllegalArgumentException("Series id longer than 65535 bytes");
+                out.writeShort(id.length);
+                out.write(id);
+                ModelSnapshotCodec.write(entry.getValue(), out);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Restores the models of a snapshot file. Entries of models this version does not know are skipped.
+     *
+     * @param file
+     * @return models by series id in file order
+     * @throws IOException if the file is not a snapshot file or was written by a newer version
+     */
+    public static Map<String, ForecastModel> read(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IOException("Snapshot file larger than 2GB : " + file);
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.remaining() < 10 || buffer.getInt() != MAGIC)
+                throw new IOException("Not a model snapshot file : " + file);
+            short version = buffer.getShort();
+            if (version > VERSION)
+                throw new IOException("Unsupported snapshot version " + version + " : " + file);
+
+            int count = buffer.getInt();
+            Map<String, ForecastModel> models = new LinkedHashMap<String, ForecastModel>(Math.max(16, 2 * count));
+            for (int i = 0; i < count; i++) {
+                byte[] id = new byte[buffer.getShort() & 0xffff];
+                buffer.get(id);
+                ForecastModel model = ModelSnapshotCodec.read(buffer, version);
+                if (model != null)
+                    models.put(new String(id, UTF8), model);
+            }
+            return models;
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.io;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads segment files of "key,v1,v2,..." lines into primitive series keyed by segment. The file is split in
+ * chunks ending on a line boundary, every chunk is memory mapped and parsed on its own thread, and values are
+ * parsed straight from the mapped bytes. Only the keys are decoded into Strings.
+ * <p/>
+ * Values parse to the same double as Double.parseDouble, which is still used for the rare values the fast path
+ * cannot round exactly (more than 15 significant digits, large exponents, NaN or Infinity). As with
+ * String.split, empty values at the end of a line are ignored. Keys keep the order of the file, and a key that is
+ * repeated keeps the series of its last line.
+ */
+public class SegmentCsvLoader {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final Charset LATIN1 = Charset.forName("ISO-8859-1");
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    private static final int EXACT_DIGITS = 15;       // Significands up to 10^15 are exact doubles
+
+    @Getter
+    @Setter
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    @Getter
+    @Setter
+    private long chunkSize = 32L << 20;                // Bytes mapped and parsed by a task, extended to the end of line
+    @Getter
+    @Setter
+    private ExecutorService executorService;           // Optional, a pool of parallelism threads is created per load otherwise
+
+    /**
+     * Loads every segment of the file
+     *
+     * @param file
+     * @return series keyed by segment, in file order
+     * @throws IOException
+     * @throws NumberFormatException on a value that is not a number
+     */
+    public Map<String, double[]> load(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            final FileChannel channel = randomAccessFile.getChannel();
+            List<long[]> chunks = split(channel);
+            if (chunks.size() == 1 && executorService == null)
+                return parse(map(channel, chunks.get(0)));
+
+            boolean ownExecutor = executorService == null;
+            ExecutorService executor = ownExecutor ? Executors.newFixedThreadPool(parallelism) : executorService;
+            List<Future<Map<String, double[]>>> futures = new ArrayList<Future<Map<String, double[]>>>(chunks.size());
+            try {
+                for (final long[] chunk : chunks)
+                    futures.add(executor.submit(new Callable<Map<String, double[]>>() {
+                        @Override
+                        public Map<String, double[]> call() throws IOException {
+                            return parse(map(channel, chunk));
+                        }
+                    }));
+
+                Map<String, double[]> series = new LinkedHashMap<String, double[]>();
+                for (Future<Map<String, double[]>> future : futures)
+                    for (Map.Entry<String, double[]> entry : future.get().entrySet()) {
+                        series.remove(entry.getKey());
+                        series.put(entry.getKey(), entry.getValue());
+                    }
+                return series;
+            } catch (InterruptedException e) {
+                for (Future<Map<String, double[]>> future : futures)
+                    future.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while loading " + file, e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException)
+                    throw (IOException) e.getCause();
+                if (e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) e.getCause();
+                throw new IOException("Failed to load " + file, e.getCause());
+            } finally {
+                if (ownExecutor)
+                    executor.shutdownNow();
+            }
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long[] chunk) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, chunk[0], chunk[1] - chunk[0]);
+    }
+
+    /**
+     * Splits the file in [start, end) ranges of about chunkSize bytes, every range but the last ends after a newline.
+     * An empty file is a single empty range
+     *
+     * @param channel
+     * @return
+     * @throws IOException
+     */
+    private List<long[]> split(FileChannel channel) throws IOException {
+        long size = channel.size(), start = 0, end;
+        List<long[]> chunks = new ArrayList<long[]>();
+        if (size == 0)
+            chunks.add(new long[]{0, 0});
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        while (start < size) {
+            end = Math.min(size, start + Math.max(1, chunkSize));
+            while (end < size) {
+                buffer.clear();
+                int read = channel.read(buffer, end);
+                int newline = -1;
+                for (int i = 0; i < read && newline < 0; i++)
+                    if (buffer.get(i) == '\n')
+                        newline = i;
+                end = newline < 0 ? end + Math.max(read, 0) : end + newline + 1;
+                if (newline >= 0)
+                    break;
+            }
+            if (end - start > Integer.MAX_VALUE)
+                throw new IOException("Line longer than " + Integer.MAX_VALUE + " bytes at offset " + start);
+            chunks.add(new long[]{start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * Parses the lines of a chunk
+     *
+     * @param buffer
+     * @return
+     */
+    static Map<String, double[]> parse(ByteBuffer buffer) {
+        Map<String, double[]> series = new LinkedHashMap<String, double[]>();
+        double[] values = new double[1024];
+        int limit = buffer.limit(), position = 0, end, lineEnd, count, emptyValues;
+        while (position < limit) {
+            end = position;
+            while (end < limit && buffer.get(end) != '\n')
+                end++;
+            lineEnd = end > position && buffer.get(end - 1) == '\r' ? end - 1 : end;
+
+            int comma = position;
+            while (comma < lineEnd && buffer.get(comma) != ',')
+                comma++;
+            if (lineEnd > position) {
+                count = 0;
+                emptyValues = 0;
+                for (int from = comma + 1, to; from <= lineEnd; from = to + 1) {
+                    to = from;
+                    while (to < lineEnd && buffer.get(to) != ',')
+                        to++;
+                    if (isBlank(buffer, from, to)) {
+                        emptyValues++;
+                        continue;
+                    }
+                    if (emptyValues > 0)
+                        throw new NumberFormatException("Empty value in line of segment " + decode(buffer, position, comma, UTF8));
+                    if (count == values.length)
+                        values = Arrays.copyOf(values, count * 2);
+                    values[count++] = parseDouble(buffer, from, to);
+                }
+                String key = decode(buffer, position, comma, UTF8);
+                series.remove(key);
+                series.put(key, Arrays.copyOf(values, count));
+            }
+            position = end + 1;
+        }
+        return series;
+    }
+
+    /**
+     * Parses the decimal number in bytes [from, to) of the buffer. Numbers with at most 15 significant digits and a
+     * decimal exponent within +/-22 are computed with a single correctly rounded multiplication or division of two
+     * exact doubles, others are handed to Double.parseDouble
+     *
+     * @param buffer
+     * @param from
+     * @param to
+     * @return
+     * @throws NumberFormatException
+     */
+    public static double parseDouble(ByteBuffer buffer, int from, int to) {
+        while (from < to && (buffer.get(from) & 0xFF) <= ' ')
+            from++;
+        while (to > from && (buffer.get(to - 1) & 0xFF) <= ' ')
+            to--;
+
+        int i = from, digits = 0, exponent = 0, b;
+        boolean negative = false, anyDigit = false;
+        long significand = 0;
+        if (i < to && (buffer.get(i) == '-' || buffer.get(i) == '+'))
+            negative = buffer.get(i++) == '-';
+        for (; i < to && (b = buffer.get(i) - '0') >= 0 && b <= 9; i++) {
+            anyDigit = true;
+            if (significand == 0 && b == 0)
+                continue;
+            if (++digits > EXACT_DIGITS)
+                return fallback(buffer, from, to);
+            significand = significand * 10 + b;
+        }
+        if (i < to && buffer.get(i) == '.')
+            for (i++; i < to && (b = buffer.get(i) - '0') >= 0 && b <= 9; i++) {
+                anyDigit = true;
+                exponent--;
+                if (significand == 0 && b == 0)
+                    continue;
+                if (++digits > EXACT_DIGITS)
+                    return fallback(buffer, from, to);
+                significand = significand * 10 + b;
+            }
+        if (!anyDigit)
+            return fallback(buffer, from, to);
+        if (i < to && (buffer.get(i) == 'e' || buffer.get(i) == 'E')) {
+            int exponentValue = 0, exponentStart;
+            boolean negativeExponent = false;
+            i++;
+            if (i < to && (buffer.get(i) == '-' || buffer.get(i) == '+'))
+                negativeExponent = buffer.get(i++) == '-';
+            exponentStart = i;
+            for (; i < to && (b = buffer.get(i) - '0') >= 0 && b <= 9 && exponentValue < 1000; i++)
+                exponentValue = exponentValue * 10 + b;
+            if (i == exponentStart)
+                return fallback(buffer, from, to);
+            exponent += negativeExponent ? -exponentValue : exponentValue;
+        }
+        if (i != to)
+            return fallback(buffer, from, to);
+
+        double value;
+        if (significand == 0)
+            value = 0d;
+        else if (exponent >= 0 && exponent < POWERS_OF_TEN.length)
+            value = significand * POWERS_OF_TEN[exponent];
+        else if (exponent < 0 && -exponent < POWERS_OF_TEN.length)
+            value = significand / POWERS_OF_TEN[-exponent];
+        else
+            return fallback(buffer, from, to);
+        return negative ? -value : value;
+    }
+
+    private static double fallback(ByteBuffer buffer, int from, int to) {
+        return Double.parseDouble(decode(buffer, from, to, LATIN1));
+    }
+
+    private static boolean isBlank(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++)
+            if ((buffer.get(i) & 0xFF) > ' ')
+                return false;
+        return true;
+    }
+
+    private static String decode(ByteBuffer buffer, int from, int to, Charset charset) {
+        byte[] bytes = new byte[to - from];
+        for (int i = from; i < to; i++)
+            bytes[i - from] = buffer.get(i);
+        return new String(bytes, charset);
+    }
+}
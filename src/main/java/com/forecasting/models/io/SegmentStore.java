@@ -0,0 +1,444 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.io;
+
+import com.forecasting.models.dto.ColumnarDataSet;
+import com.forecasting.models.dto.DataSet;
+import com.forecasting.models.utils.AccuracyIndicators;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Columnar binary store of many keyed series and forecasts, so a subset of segments can be read or re-run
+ * without parsing the whole input. The file is a header (magic number, format version and location of the key
+ * index) followed by one block per record and the indexes. A block holds the columns of a record one after the
+ * other as little-endian doubles, values then for forecasts lower and upper bounds, followed by accuracy metrics.
+ * <p/>
+ * Records are only ever appended, flush writes a new index after them and only then points the header to it, so
+ * a failed append leaves the previous contents readable. A key written again is replaced in the index, its old
+ * block and old indexes stay in the file as dead space. Lookups return views of a read-only
+ * memory mapping of the file, the doubles are not copied.
+ */
+public class SegmentStore implements Closeable {
+
+    public static final int MAGIC = 0x46535347;
+    public static final short VERSION = 1;
+
+    private static final int HEADER_SIZE = 24;   // magic, version, 2 spare, index offset, index length, 4 spare
+    private static final int INDEX_POINTER = 8;
+    private static final byte SERIES = 0;
+    private static final byte FORECAST = 1;
+    private static final int METRICS = 9;   // bias, MAPE, MSE, MAD, SAE, AIC, BIC, KLIC and directional error
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final File file;
+    private final RandomAccessFile randomAccessFile;
+    private final FileChannel channel;
+    private final boolean readOnly;
+    private final Map<String, Entry> series = new LinkedHashMap<String, Entry>();
+    private final Map<String, Entry> forecasts = new LinkedHashMap<String, Entry>();
+    private long end;                       // End of the last block or index written
+    private boolean dirty;                  // Records appended since the last index
+    private MappedByteBuffer mapping;       // Whole file, null until needed or when the file exceeds 2GB
+
+    private SegmentStore(File file, boolean readOnly) throws IOException {
+        this.file = file;
+        this.readOnly = readOnly;
+        this.randomAccessFile = new RandomAccessFile(file, readOnly ? "r" : "rw");
+        this.channel = randomAccessFile.getChannel();
+        try {
+            if (channel.size() == 0 && !readOnly)
+                create();
+            else
+                readIndex();
+        } catch (IOException e) {
+            randomAccessFile.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a store for reading and appending, an empty or missing file is initialized
+     *
+     * @param file
+     * @return
+     * @throws IOException if the file is not a segment store or was written by a newer version
+     */
+    public static SegmentStore open(File file) throws IOException {
+        return new SegmentStore(file, false);
+    }
+
+    /**
+     * Opens an existing store for reading only
+     *
+     * @param file
+     * @return
+     * @throws IOException if the file is not a segment store or was written by a newer version
+     */
+    public static SegmentStore openReadOnly(File file) throws IOException {
+        return new SegmentStore(file, true);
+    }
+
+    /**
+     * Appends the series of a segment
+     *
+     * @param key
+     * @param values
+     * @throws IOException
+     */
+    public synchronized void putSeries(String key, double[] values) throws IOException {
+        checkKey(key);
+        series.put(key, append(new double[][]{values}, values.length, 0, null));
+    }
+
+    /**
+     * Appends the forecast of a segment with its bounds and the accuracy indicators of the model that made it
+     *
+     * @param key
+     * @param forecast
+     * @param indicators null when not known
+     * @throws IOException
+     */
+    public void putForecast(String key, DataSet forecast, AccuracyIndicators indicators) throws IOException {
+        putForecast(key, ColumnarDataSet.fromDataSet(forecast), indicators);
+    }
+
+    /**
+     * Appends the forecast of a segment with its bounds and the accuracy indicators of the model that made it. Slices
+     * are stored as the first slice, the following points are read back with consecutive slices
+     *
+     * @param key
+     * @param forecast
+     * @param indicators null when not known
+     * @throws IOException
+     */
+    public synchronized void putForecast(String key, ColumnarDataSet forecast, AccuracyIndicators indicators) throws IOException {
+        checkKey(key);
+        int points = forecast.size(), offset = forecast.getOffset();
+        double[][] columns = {forecast.getValues(), forecast.getLowerValues(), forecast.getUpperValues()};
+        double[] metrics = indicators == null ? null : new double[]{indicators.getBias(), indicators.getMAPE(),
+                indicators.getMSE(), indicators.getMAD(), indicators.getSAE(), indicators.getAIC(), indicators.getBic(),
+                indicators.getKlic(), indicators.getDirectionalError()};
+        Entry entry = append(columns, points, offset, metrics);
+        entry.firstSlice = points == 0 ? 0 : forecast.getSlice(0);
+        forecasts.put(key, entry);
+    }
+
+    /**
+     * Values of a segment's series
+     *
+     * @param key
+     * @return read-only view of the file, null if the segment has no series
+     * @throws IOException
+     */
+    public synchronized DoubleBuffer getSeries(String key) throws IOException {
+        Entry entry = series.get(key);
+        return entry == null ? null : column(entry, 0);
+    }
+
+    /**
+     * Forecasted values of a segment
+     *
+     * @param key
+     * @return read-only view of the file, null if the segment has no forecast
+     * @throws IOException
+     */
+    public synchronized DoubleBuffer getForecast(String key) throws IOException {
+        Entry entry = forecasts.get(key);
+        return entry == null ? null : column(entry, 0);
+    }
+
+    public synchronized DoubleBuffer getLowerBounds(String key) throws IOException {
+        Entry entry = forecasts.get(key);
+        return entry == null ? null : column(entry, 1);
+    }
+
+    public synchronized DoubleBuffer getUpperBounds(String key) throws IOException {
+        Entry entry = forecasts.get(key);
+        return entry == null ? null : column(entry, 2);
+    }
+
+    /**
+     * Copy of a segment's forecast with bounds and slices
+     *
+     * @param key
+     * @return null if the segment has no forecast
+     * @throws IOException
+     */
+    public synchronized ColumnarDataSet getForecastDataSet(String key) throws IOException {
+        Entry entry = forecasts.get(key);
+        if (entry == null)
+            return null;
+        int[] slices = new int[entry.points];
+        double[] values = new double[entry.points], lowerValues = new double[entry.points], upperValues = new double[entry.points];
+        for (int i = 0; i < entry.points; i++)
+            slices[i] = entry.firstSlice + i;
+        column(entry, 0).get(values);
+        column(entry, 1).get(lowerValues);
+        column(entry, 2).get(upperValues);
+        return new ColumnarDataSet(slices, values, lowerValues, upperValues);
+    }
+
+    /**
+     * Accuracy indicators stored with a segment's forecast, validation errors and directional error matrix are not
+     * stored
+     *
+     * @param key
+     * @return null if the segment has no forecast or it was stored without indicators
+     * @throws IOException
+     */
+    public synchronized AccuracyIndicators getAccuracyIndicators(String key) throws IOException {
+        Entry entry = forecasts.get(key);
+        if (entry == null || entry.metrics == 0)
+            return null;
+        DoubleBuffer metrics = region(entry.offset + 8L * entry.columns * entry.points, 8L * entry.metrics).asDoubleBuffer();
+        AccuracyIndicators indicators = new AccuracyIndicators();
+        indicators.setBias(metrics.get());
+        indicators.setMAPE(metrics.get());
+        indicators.setMSE(metrics.get());
+        indicators.setMAD(metrics.get());
+        indicators.setSAE(metrics.get());
+        indicators.setAIC(metrics.get());
+        indicators.setBic(metrics.get());
+        indicators.setKlic(metrics.get());
+        indicators.setDirectionalError(metrics.get());
+        return indicators;
+    }
+
+    public synchronized Set<String> getSeriesKeys() {
+        return Collections.unmodifiableSet(series.keySet());
+    }
+
+    public synchronized Set<String> getForecastKeys() {
+        return Collections.unmodifiableSet(forecasts.keySet());
+    }
+
+    /**
+     * Writes the index of all records appended so far, records appended after the last flush are lost if the store
+     * is not flushed or closed
+     *
+     * @throws IOException
+     */
+    public synchronized void flush() throws IOException {
+        if (readOnly || !dirty)
+            return;
+        int length = 4;
+        for (Map<String, Entry> index : indexes())
+            for (String key : index.keySet())
+                length += key.getBytes(UTF8).length + 21;
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(series.size() + forecasts.size());
+        for (Map<String, Entry> index : indexes())
+            for (Map.Entry<String, Entry> record : index.entrySet()) {
+                byte[] key = record.getKey().getBytes(UTF8);
+                Entry entry = record.getValue();
+                buffer.put(index == series ? SERIES : FORECAST);
+                buffer.putShort((short) key.length);
+                buffer.put(key);
+                buffer.putLong(entry.offset);
+                buffer.putInt(entry.points);
+                buffer.putInt(entry.firstSlice);
+                buffer.put((byte) entry.columns);
+                buffer.put((byte) entry.metrics);
+            }
+        long indexOffset = align(end);
+        buffer.flip();
+        write(buffer, indexOffset);
+        channel.force(false);
+
+        ByteBuffer pointer = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+        pointer.putLong(indexOffset);
+        pointer.putInt(length);
+        pointer.flip();
+        write(pointer, INDEX_POINTER);
+        channel.force(false);
+        end = indexOffset + length;
+        dirty = false;
+    }
+
+    /**
+     * Flushes and closes the file, views returned before stay readable
+     *
+     * @throws IOException
+     */
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    private void create() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC);
+        header.putShort(VERSION);
+        header.rewind();
+        write(header, 0);
+        end = HEADER_SIZE;
+        dirty = true;
+    }
+
+    private void readIndex() throws IOException {
+        long size = channel.size();
+        if (size < HEADER_SIZE)
+            throw new IOException("Not a segment store : " + file);
+        ByteBuffer header = read(0, HEADER_SIZE);
+        if (header.getInt() != MAGIC)
+            throw new IOException("Not a segment store : " + file);
+        short version = header.getShort();
+        if (version > VERSION)
+            throw new IOException("Unsupported segment store version " + version + " : " + file);
+
+        header.getShort();
+        long indexOffset = header.getLong();
+        int length = header.getInt();
+        end = size;
+        if (indexOffset == 0)
+            return;
+        if (indexOffset < HEADER_SIZE || indexOffset + length > size)
+            throw new IOException("Segment store index is corrupt : " + file);
+
+        ByteBuffer index = read(indexOffset, length);
+        int count = index.getInt();
+        for (int i = 0; i < count; i++) {
+            byte kind = index.get();
+            byte[] key = new byte[index.getShort() & 0xffff];
+            index.get(key);
+            Entry entry = new Entry(index.getLong(), index.getInt());
+            entry.firstSlice = index.getInt();
+            entry.columns = index.get();
+            entry.metrics = index.get();
+            (kind == SERIES ? series : forecasts).put(new String(key, UTF8), entry);
+        }
+    }
+
+    /**
+     * Writes a block of equal length columns and metrics at the end of the file
+     *
+     * @param columns
+     * @param points
+     * @param offset  position of the first point in every column
+     * @param metrics null for none
+     * @return
+     * @throws IOException
+     */
+    private Entry append(double[][] columns, int points, int offset, double[] metrics) throws IOException {
+        if (readOnly)
+            throw new IllegalStateException("Segment store is open read only : " + file);
+        int metricCount = metrics == null ? 0 : METRICS;
+        ByteBuffer block = ByteBuffer.allocate(8 * (columns.length * points + metricCount)).order(ByteOrder.LITTLE_ENDIAN);
+        DoubleBuffer doubles = block.asDoubleBuffer();
+        for (double[] column : columns)
+            doubles.put(column, offset, points);
+        if (metrics != null)
+            doubles.put(metrics);
+
+        Entry entry = new Entry(align(end), points);
+        entry.columns = columns.length;
+        entry.metrics = metricCount;
+        write(block, entry.offset);
+        end = entry.offset + block.capacity();
+        dirty = true;
+        return entry;
+    }
+
+    private DoubleBuffer column(Entry entry, int column) throws IOException {
+        return region(entry.offset + 8L * column * entry.points, 8L * entry.points).asDoubleBuffer();
+    }
+
+    /**
+     * Little-endian view of [position, position + length) of the file
+     *
+     * @param position
+     * @param length
+     * @return
+     * @throws IOException
+     */
+    private ByteBuffer region(long position, long length) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE)
+            return channel.map(FileChannel.MapMode.READ_ONLY, position, length).order(ByteOrder.LITTLE_ENDIAN);
+        if (mapping == null || mapping.capacity() < position + length)
+            mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        ByteBuffer view = mapping.duplicate();
+        view.limit((int) (position + length));
+        view.position((int) position);
+        return view.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining())
+            if (channel.read(buffer, position + buffer.position()) < 0)
+                throw new IOException("Unexpected end of segment store : " + file);
+        buffer.flip();
+        return buffer;
+    }
+
+    private void write(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining())
+            position += channel.write(buffer, position);
+    }
+
+    private List<Map<String, Entry>> indexes() {
+        return Arrays.<Map<String, Entry>>asList(series, forecasts);
+    }
+
+    private static void checkKey(String key) {
+        if (key.getBytes(UTF8).length > 0xffff)
+            throw new IllegalArgumentException("Segment key longer than 65535 bytes");
+    }
+
+    private static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    /**
+     * Location of a record in the file
+     */
+    private static class Entry {
+
+        final long offset;
+        final int points;
+        int firstSlice;
+        int columns;
+        int metrics;
+
+        Entry(long offset, int points) {
+            this.offset = offset;
+            this.points = points;
+        }
+    }
+}
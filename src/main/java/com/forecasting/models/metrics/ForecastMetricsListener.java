@@ -0,0 +1,33 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.metrics;
+
+/**
+ * Receives the timing of every stage of a forecast run. Models trained concurrently report from the executor
+ * threads, so implementations shared by concurrent runs must be thread safe.
+ */
+public interface ForecastMetricsListener {
+
+    /**
+     * Called on the thread that ran the stage, once it completed
+     *
+     * @param metrics
+     */
+    public void stageCompleted(StageMetrics metrics);
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread safe listener aggregating stages by stage, model and season length, so one aggregator can be shared by
+ * all the segments of a batch. Aggregators of separate batches or processes can be merged.
+ */
+public class MetricsAggregator implements ForecastMetricsListener {
+
+    private final ConcurrentMap<String, StageStatistics> statistics = new ConcurrentHashMap<String, StageStatistics>();
+
+    public void stageCompleted(StageMetrics metrics) {
+        statistics(key(metrics.getStage(), metrics.getName(), metrics.getSeasonPeriod())).record(metrics);
+    }
+
+    /**
+     * Aggregation key of a stage
+     *
+     * @param stage
+     * @param name
+     * @param seasonPeriod
+     * @return
+     */
+    public static String key(Stage stage, String name, int seasonPeriod) {
+        return stage + "/" + name + "/" + seasonPeriod;
+    }
+
+    /**
+     * Statistics of a key, null if the stage was never reported
+     *
+     * @param stage
+     * @param name
+     * @param seasonPeriod
+     * @return
+     */
+    public StageStatistics getStatistics(Stage stage, String name, int seasonPeriod) {
+        return statistics.get(key(stage, name, seasonPeriod));
+    }
+
+    /**
+     * All statistics sorted by key
+     *
+     * @return
+     */
+    public Map<String, StageStatistics> getStatistics() {
+        return Collections.unmodifiableMap(new TreeMap<String, StageStatistics>(statistics));
+    }
+
+    /**
+     * Adds the statistics of another aggregator
+     *
+     * @param other
+     */
+    public void merge(MetricsAggregator other) {
+        for (Map.Entry<String, StageStatistics> entry : other.statistics.entrySet())
+            statistics(entry.getKey()).merge(entry.getValue());
+    }
+
+    public void clear() {
+        statistics.clear();
+    }
+
+    private StageStatistics statistics(String key) {
+        StageStatistics stageStatistics = statistics.get(key);
+        if (stageStatistics == null) {
+            StageStatistics created = new StageStatistics();
+            stageStatistics = statistics.putIfAbsent(key, created);
+            if (stageStatistics == null)
+                stageStatistics = created;
+        }
+        return stageStatistics;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, StageStatistics> entry : getStatistics().entrySet())
+            builder.append(entry.getKey()).append(' ').append(entry.getValue()).append('\n');
+        return builder.toString();
+    }
+
+    /**
+     * Latency and allocation histograms and evaluation counts of one key
+     */
+    public static class StageStatistics {
+
+        private final LatencyHistogram nanos = new LatencyHistogram();
+        private final LatencyHistogram allocatedBytes = new LatencyHistogram();
+        private final AtomicLong parameterEvaluations = new AtomicLong();
+        private final AtomicLong abandonedEvaluations = new AtomicLong();
+
+        void record(StageMetrics metrics) {
+            nanos.record(metrics.getNanos());
+            if (metrics.getAllocatedBytes() >= 0)
+                allocatedBytes.record(metrics.getAllocatedBytes());
+            parameterEvaluations.addAndGet(metrics.getParameterEvaluations());
+            abandonedEvaluations.addAndGet(metrics.getAbandonedEvaluations());
+        }
+
+        void merge(StageStatistics other) {
+            nanos.merge(other.nanos);
+            allocatedBytes.merge(other.allocatedBytes);
+            parameterEvaluations.addAndGet(other.parameterEvaluations.get());
+            abandonedEvaluations.addAndGet(other.abandonedEvaluations.get());
+        }
+
+        public LatencyHistogram getNanos() {
+            return nanos;
+        }
+
+        public LatencyHistogram getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        public long getParameterEvaluations() {
+            return parameterEvaluations.get();
+        }
+
+        public long getAbandonedEvaluations() {
+            return abandonedEvaluations.get();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("nanos[%s] bytes[%s] evaluations=%s abandoned=%s", nanos, allocatedBytes, getParameterEvaluations(),
+                    getAbandonedEvaluations());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.metrics;
+
+import lombok.Getter;
+
+/**
+ * Measurement of a single stage
+ */
+@Getter
+public class StageMetrics {
+
+    private final Stage stage;
+    private final String name;                  // Model or preprocess model that ran the stage
+    private final int seasonPeriod;             // Season length of the run, -1 when not seasonal
+    private final long nanos;
+    private final long allocatedBytes;          // Allocated by the thread that ran the stage, -1 when not supported
+    private final long parameterEvaluations;    // Decay constant sets evaluated, train stage only
+    private final long abandonedEvaluations;    // Decay constant sets whose pass was pruned, not counted above
+
+    public StageMetrics(Stage stage, String name, int seasonPeriod, long nanos, long allocatedBytes, long parameterEvaluations) {
+        this(stage, name, seasonPeriod, nanos, allocatedBytes, parameterEvaluations, 0);
+    }
+
+    public StageMetrics(Stage stage, String name, int seasonPeriod, long nanos, long allocatedBytes, long parameterEvaluations,
+                        long abandonedEvaluations) {
+        this.stage = stage;
+        this.name = name;
+        this.seasonPeriod = seasonPeriod;
+        this.nanos = nanos;
+        this.allocatedBytes = allocatedBytes;
+        this.parameterEvaluations = parameterEvaluations;
+        this.abandonedEvaluations = abandonedEvaluations;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s season=%s %sns %sB evaluations=%s abandoned=%s", stage, name, seasonPeriod, nanos, allocatedBytes,
+                parameterEvaluations, abandonedEvaluations);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures a stage on the current thread and reports it to a listener. Allocated bytes are read from the
+ * HotSpot thread allocation counter and only cover the current thread, work the stage hands to other threads
+ * is timed but not counted.
+ */
+public class StageTimer {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean ALLOCATION_SUPPORTED = allocationSupported();
+    private static final StageTimer DISABLED = new StageTimer(null);
+
+    private final ForecastMetricsListener listener;
+    private final long startNanos;
+    private final long startAllocated;
+
+    private StageTimer(ForecastMetricsListener listener) {
+        this.listener = listener;
+        this.startAllocated = listener == null ? 0 : allocatedBytes();
+        this.startNanos = listener == null ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Starts measuring, nothing is measured or reported when listener is null
+     *
+     * @param listener
+     * @return
+     */
+    public static StageTimer start(ForecastMetricsListener listener) {
+        return listener == null ? DISABLED : new StageTimer(listener);
+    }
+
+    /**
+     * Reports the stage
+     *
+     * @param stage
+     * @param name
+     * @param seasonPeriod
+     * @param parameterEvaluations
+     */
+    public void stop(Stage stage, String name, int seasonPeriod, long parameterEvaluations) {
+        stop(stage, name, seasonPeriod, parameterEvaluations, 0);
+    }
+
+    /**
+     * Reports the stage with the evaluations its search pruned
+     *
+     * @param stage
+     * @param name
+     * @param seasonPeriod
+     * @param parameterEvaluations
+     * @param abandonedEvaluations
+     */
+    public void stop(Stage stage, String name, int seasonPeriod, long parameterEvaluations, long abandonedEvaluations) {
+        if (listener == null)
+            return;
+        long nanos = System.nanoTime() - startNanos;
+        long allocated = ALLOCATION_SUPPORTED ? allocatedBytes() - startAllocated : -1;
+        listener.stageCompleted(new StageMetrics(stage, name, seasonPeriod, nanos, allocated, parameterEvaluations,
+                abandonedEvaluations));
+    }
+
+    /**
+     * Bytes allocated by the current thread so far, -1 when the JVM does not track it
+     *
+     * @return
+     */
+    public static long allocatedBytes() {
+        if (!ALLOCATION_SUPPORTED)
+            return -1;
+        return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static boolean allocationSupported() {
+        try {
+            if (!(THREADS instanceof com.sun.management.ThreadMXBean))
+                return false;
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+            if (!threads.isThreadAllocatedMemorySupported())
+                return false;
+            if (!threads.isThreadAllocatedMemoryEnabled())
+                threads.setThreadAllocatedMemoryEnabled(true);
+            return true;
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+}
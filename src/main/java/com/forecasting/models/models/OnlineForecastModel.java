@@ -0,0 +1,34 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.models;
+
+/**
+ * Forecast model that keeps its fitted state after forecasting, so new observations can be added without training
+ * again
+ */
+public interface OnlineForecastModel extends ForecastModel {
+
+    /**
+     * Adds the next observation to the fitted state with the parameters found in training and regenerates the
+     * forecast data set for as many points as the last forecast. Constant time in the length of the series.
+     *
+     * @param value
+     */
+    public void update(double value);
+}
@@ -21,13 +21,21 @@ package com.forecasting.models.models.impl;
 import com.forecasting.models.dto.DataSet;
 import com.forecasting.models.dto.Model;
 import com.forecasting.models.models.ForecastModel;
+import com.forecasting.models.optimizer.GridSearchOptimizer;
+import com.forecasting.models.optimizer.OptimizationResult;
+import com.forecasting.models.optimizer.ParameterObjective;
+import com.forecasting.models.optimizer.ParameterOptimizer;
+import com.forecasting.models.optimizer.WarmStartOptimizer;
 import com.forecasting.models.utils.AccuracyIndicators;
+import com.forecasting.models.utils.Deadline;
 import com.forecasting.models.exception.ModelInitializationException;
 
+import java.util.concurrent.ForkJoinPool;
+
 public abstract class AbstractForecastModel implements ForecastModel {
 
     protected boolean initialized = false;
-    protected static double TOLERANCE = 0.00000001;
+    protected static final double TOLERANCE = 0.00000001;
 
     protected int validationPoints;
     protected int trainPoints;
@@ -40,6 +48,16 @@ public abstract class AbstractForecastModel implements ForecastModel {
     protected double weight = 0d;
     protected double errorBound;
     protected AccuracyIndicators accuracyIndicators=new AccuracyIndicators();
+    protected ParameterOptimizer parameterOptimizer;    // Searches the decay constants, model's own grid when null
+    protected long parameterEvaluations;                // Parameter sets evaluated since init
+    protected long abandonedEvaluations;                // Parameter sets whose pass was pruned, not in the above
+    protected float[] priorParameters;                  // Decay constants of a previous run, searched around when set
+    protected double priorError = Double.NaN;           // Validation MSE of the prior, NaN when unknown
+    protected Deadline deadline;                        // Optional, the search stops at the best parameters so far
+    protected boolean searchStopped;                    // Whether the deadline cut the search short since init
+    private float[] lastParameters;                     // Optimum of the last completed or stopped search
+    protected ForkJoinPool validationPool;              // Optional, runs independent validation origins concurrently
+    protected int validationHorizons = 1;               // Steps ahead forecast from each validation origin
 
     /**
      * Intialize with observations
@@ -50,6 +68,10 @@ public abstract class AbstractForecastModel implements ForecastModel {
         if (observations == null)
             throw new ModelInitializationException("Time series data is null");
         this.observations = observations;
+        parameterEvaluations = 0;
+        abandonedEvaluations = 0;
+        searchStopped = false;
+        lastParameters = null;
         initialized = true;
     }
 
@@ -88,5 +110,192 @@ public abstract class AbstractForecastModel implements ForecastModel {
         return  this.observations;
     }
 
+    public ParameterOptimizer getParameterOptimizer() {
+        return parameterOptimizer;
+    }
+
+    public void setParameterOptimizer(ParameterOptimizer parameterOptimizer) {
+        this.parameterOptimizer = parameterOptimizer;
+    }
+
+    public long getParameterEvaluations() {
+        return parameterEvaluations;
+    }
+
+    public long getAbandonedEvaluations() {
+        return abandonedEvaluations;
+    }
 
+    public Deadline getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(Deadline deadline) {
+        this.deadline = deadline;
+    }
+
+    public boolean isSearchStopped() {
+        return searchStopped;
+    }
+
+    public ForkJoinPool getValidationPool() {
+        return validationPool;
+    }
+
+    /**
+     * Pool the models whose validation origins are independent (FFT, MOV, CDGR) validate them in, in order when null.
+     * The smoothing models carry their search state from one origin to the next and always validate in order
+     *
+     * @param validationPool
+     */
+    public void setValidationPool(ForkJoinPool validationPool) {
+        this.validationPool = validationPool;
+    }
+
+    public int getValidationHorizons() {
+        return validationHorizons;
+    }
+
+    /**
+     * Steps ahead each validation origin forecasts. Above one the accuracy indicators carry the origins x horizons
+     * errors and the MAPE of each horizon, from the state every origin is validated with
+     *
+     * @param validationHorizons
+     */
+    public void setValidationHorizons(int validationHorizons) {
+        this.validationHorizons = validationHorizons;
+    }
+
+    public float[] getPriorParameters() {
+        return priorParameters;
+    }
+
+    public double getPriorError() {
+        return priorError;
+    }
+
+    /**
+     * Seeds the decay constant search with the optimum of a previous run, only its neighbourhood is searched
+     * unless the optimum has moved. Null parameters restore the full search
+     *
+     * @param parameters
+     * @param error validation MSE of the previous run, NaN when unknown
+     */
+    public void setPrior(float[] parameters, double error) {
+        this.priorParameters = parameters == null ? null : parameters.clone();
+        this.priorError = error;
+    }
+
+    /**
+     * Minimizes the objective with the configured optimizer, or with the given grid when none is configured.
+     * With a prior of the same dimension the search starts around the prior and falls back to the optimizer.
+     * Once the deadline has passed the search stops at its best point so far, and later searches only evaluate
+     * the optimum of the previous one
+     *
+     * @param objective
+     * @param dimension
+     * @param grid
+     * @return
+     */
+    protected OptimizationResult optimizeParameters(ParameterObjective objective, int dimension, ParameterOptimizer grid) {
+        if (budgetExhausted(lastParameters != null && lastParameters.length == dimension)) {
+            parameterEvaluations++;
+            return new OptimizationResult(lastParameters.clone(), objective.value(lastParameters.clone()), 1);
+        }
+        ParameterOptimizer optimizer = parameterOptimizer == null ? grid : parameterOptimizer;
+        WarmStartOptimizer warmStart = warmStart(dimension, grid);
+        OptimizationResult result;
+        if (deadline == null)
+            result = (warmStart == null ? optimizer : warmStart).optimize(objective, dimension);
+        else {
+            BudgetedObjective budgeted = new BudgetedObjective(objective, deadline);
+            try {
+                result = (warmStart == null ? optimizer : warmStart).optimize(budgeted, dimension);
+            } catch (BudgetedObjective.Expired e) {
+                searchStopped = true;
+                result = new OptimizationResult(budgeted.best, budgeted.bestValue, budgeted.evaluations);
+            }
+            lastParameters = result.getParameters();
+        }
+        parameterEvaluations += result.getEvaluations();
+        return result;
+    }
+
+    /**
+     * Whether the deadline has passed and the model can do without further search, as it already found decay
+     * constants for an earlier validation point. Records that the search was stopped
+     *
+     * @param searched
+     * @return
+     */
+    protected boolean budgetExhausted(boolean searched) {
+        if (deadline == null || !searched || !deadline.expired())
+            return false;
+        searchStopped = true;
+        return true;
+    }
+
+    /**
+     * Optimizer searching around the prior with the step of the grid, null when there is no prior of this dimension
+     *
+     * @param dimension
+     * @param grid
+     * @return
+     */
+    protected WarmStartOptimizer warmStart(int dimension, ParameterOptimizer grid) {
+        if (priorParameters == null || priorParameters.length != dimension)
+            return null;
+        float step = grid instanceof GridSearchOptimizer ? ((GridSearchOptimizer) grid).getStep() : 0.1f;
+        return new WarmStartOptimizer(priorParameters, Double.NaN, step, parameterOptimizer == null ? grid : parameterOptimizer);
+    }
+
+    /**
+     * Whether a warm started training has a validation MSE worse than the prior error by more than the tolerance of
+     * WarmStartOptimizer. The prior is then dropped, so the model is trained again with the full search. Never
+     * retrains past the deadline
+     *
+     * @return
+     */
+    protected boolean priorDegraded() {
+        if (priorParameters == null || Double.isNaN(priorError) || (deadline != null && deadline.expired())
+                || !(accuracyIndicators.getMSE() > priorError * (1 + WarmStartOptimizer.DEFAULT_TOLERANCE)))
+            return false;
+        priorParameters = null;
+        return true;
+    }
+
+    /**
+     * Objective that keeps its best point and ends the search once the deadline has passed, after at least one
+     * evaluation
+     */
+    private static class BudgetedObjective implements ParameterObjective {
+
+        private final ParameterObjective objective;
+        private final Deadline deadline;
+        private float[] best;
+        private double bestValue = Double.NaN;
+        private int evaluations;
+
+        BudgetedObjective(ParameterObjective objective, Deadline deadline) {
+            this.objective = objective;
+            this.deadline = deadline;
+        }
+
+        public double value(float[] parameters) {
+            if (evaluations > 0 && deadline.expired())
+                throw new Expired();
+            double value = objective.value(parameters);
+            if (evaluations++ == 0 || bestValue > value || Double.isNaN(bestValue)) {
+                bestValue = value;
+                best = parameters.clone();
+            }
+            return value;
+        }
+
+        private static class Expired extends RuntimeException {
+            Expired() {
+                super("Parameter search deadline passed", null, false, false);
+            }
+        }
+    }
 }
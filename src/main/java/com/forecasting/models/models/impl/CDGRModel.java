@@ -67,20 +67,21 @@ public class CDGRModel extends AbstractForecastModel {
      */
     public void train() {
 
-        int i = 0;
-        double value1, value2, growth, forecast;
-        double[][] valMatrix = new double[validationPoints][2];
         actual = observations.toArray();
-
-        for (int pos = actual.length - validationPoints, j = 0; pos < actual.length; pos++) {
-            value1 = actual[pos - 1];
-            value2 = actual[pos - 1 - growthPeriod];
-            growth = Math.pow(value1 / value2, 1.0d / growthPeriod) - 1;
-            forecast = value1 * (1 + growth);
-            valMatrix[j][0] = actual[pos];
-            valMatrix[j][1] = forecast;
-            j++;
-        }
+        WalkForwardValidator validator = WalkForwardValidator.rolling(actual.length - validationPoints, validationPoints,
+                growthPeriod + 1).withHorizons(validationHorizons);
+        double[][] valMatrix = validator.validate(new WalkForwardValidator.Fold() {
+            public void validate(int point, int startPoint, int endPoint, double[] row) {
+                row[0] = actual[endPoint];
+                // Later horizons grow the forecasts of the earlier ones past the origin, as forecast does
+                for (int i = endPoint; i < endPoint + row.length - 1; i++) {
+                    double value1 = (i - 1) < endPoint ? actual[i - 1] : row[i - endPoint];
+                    double value2 = (i - 1 - growthPeriod) < endPoint ? actual[i - 1 - growthPeriod] : row[i - growthPeriod - endPoint];
+                    double growth = Math.pow(value1 / value2, 1.0d / growthPeriod) - 1;
+                    row[1 + i - endPoint] = value1 * (1 + growth);
+                }
+            }
+        }, validationPool);
         BiasnessHandler.handle(valMatrix);
         double biasness = BiasnessHandler.handle(valMatrix);
         accuracyIndicators.setBias(biasness);
@@ -23,14 +23,19 @@ import com.forecasting.models.dto.IndependentVariable;
 import com.forecasting.models.dto.Model;
 import com.forecasting.models.dto.Observation;
 import com.forecasting.models.models.DataPoint;
+import com.forecasting.models.models.OnlineForecastModel;
+import com.forecasting.models.optimizer.GridSearchOptimizer;
+import com.forecasting.models.optimizer.ParameterObjective;
+import com.forecasting.models.optimizer.ParameterOptimizer;
 import com.forecasting.models.postprocess.BiasnessHandler;
 import com.forecasting.models.postprocess.ErrorBoundsHandler;
 import com.forecasting.models.utils.ModelUtil;
+import com.forecasting.models.utils.TrainingContext;
 import com.forecasting.models.exception.ModelInitializationException;
 import lombok.Data;
 
 @Data
-public class DoubleExponentialSmoothingModel extends AbstractForecastModel {
+public class DoubleExponentialSmoothingModel extends AbstractForecastModel implements OnlineForecastModel {
 
     //Data parameters
     double[] actual;
@@ -41,10 +46,16 @@ public class DoubleExponentialSmoothingModel extends AbstractForecastModel {
     private final int dof = 2; // degrees of freedom for calculation of bic,aic
     private boolean findDecayConstants;
 
+    private static final ParameterOptimizer DECAY_CONSTANTS_GRID = new GridSearchOptimizer(0.1f, 1.01f);
+
     //Accuracy parameters
     private double min_mse_error;
     private double train_error;
 
+    //Online state, smoothed up to the last observation once forecast
+    private SmoothingState state;
+    private int futurePoints;
+
     /**
      * Constructor with  initializeCoefficients flag
      *
@@ -90,32 +101,40 @@ public class DoubleExponentialSmoothingModel extends AbstractForecastModel {
      * compute accuracy indicator and find optimum decay constants
      */
     public void train() {
-        double[][] valMatrix = new double[validationPoints][2];
+        state = null;
         actual = observations.toArray();
-        for (int point = 0; point < validationPoints; point++)
-            populateForecastMatrix(point, valMatrix);
+        WalkForwardValidator validator = WalkForwardValidator.expanding(trainPoints, validationPoints).withHorizons(validationHorizons);
+        double[][] valMatrix = validator.validate(new WalkForwardValidator.Fold() {
+            public void validate(int point, int startPoint, int endPoint, double[] row) {
+                populateForecastMatrix(startPoint, endPoint, row);
+            }
+        });
 
         double biasness = BiasnessHandler.handleOffset(valMatrix);
         accuracyIndicators.setBias(biasness);
         ModelUtil.computeAccuracyIndicators(accuracyIndicators, null, valMatrix, dof);
+        if (findDecayConstants && priorDegraded())
+            train();
     }
 
     /**
      * Populate forecast matrix on validation points to be used for accuracy indicator computation
      *
-     * @param point
-     * @param valMatrix
+     * @param startPoint
+     * @param endPoint
+     * @param row        actual value and forecast of the point
      */
-    void populateForecastMatrix(int point, double[][] valMatrix) {
+    void populateForecastMatrix(final int startPoint, final int endPoint, final double[] row) {
         min_mse_error = Double.MAX_VALUE;
-        int startPoint = 0;
-        int endPoint = trainPoints + point;
         if (findDecayConstants)
-            for (float alpha = 0f; alpha <= 1.01f; alpha += 0.1f)
-                for (float beta = 0f; beta <= 1.01f; beta += 0.1f)
-                    initializeAndTrainModel(alpha, beta, startPoint, endPoint, valMatrix);
+            optimizeParameters(new ParameterObjective() {
+                public double value(float[] parameters) {
+                    initializeAndTrainModel(parameters[0], parameters[1], startPoint, endPoint, row);
+                    return train_error;
+                }
+            }, 2, DECAY_CONSTANTS_GRID);
         else
-            initializeAndTrainModel(optAlpha, optBeta, startPoint, endPoint, valMatrix);
+            initializeAndTrainModel(optAlpha, optBeta, startPoint, endPoint, row);
     }
 
     /**
@@ -125,11 +144,15 @@ public class DoubleExponentialSmoothingModel extends AbstractForecastModel {
      * @param beta
      * @param startPoint
      * @param endPoint
-     * @param forecastMat
+     * @param row actual value and forecast at endPoint followed by the forecasts of the later horizons, set when
+     *            the MSE is the least so far
      */
-    public void initializeAndTrainModel(float alpha, float beta, int startPoint, int endPoint, double[][] forecastMat) {
+    public void initializeAndTrainModel(float alpha, float beta, int startPoint, int endPoint, double[] row) {
 
-        double[][] trainMatrix = new double[endPoint - startPoint][2];
+        TrainingContext context = TrainingContext.get();
+        int length = endPoint - startPoint;
+        double[] trainActual = context.actuals(length);
+        double[] trainForecast = context.forecasts(length);
 
         double trend = initializeTrend(startPoint);
         double permanent = initializePermanentComponent(startPoint, trend);
@@ -137,50 +160,50 @@ public class DoubleExponentialSmoothingModel extends AbstractForecastModel {
         double forecast;
 
         double actualValue = 0d, forecastValue = 0d;
+        double originPermanent = 0d, originTrend = 0d;     // State endPoint is forecast from
 
         for (int i = startPoint; i < endPoint + 1; i++) {
             forecast = permanent + trend;
             if (i < endPoint) {
-                trainMatrix[i - startPoint][0] = actual[i];
-                trainMatrix[i - startPoint][1] = forecast;
+                trainActual[i - startPoint] = actual[i];
+                trainForecast[i - startPoint] = forecast;
+            } else {
+                actualValue = actual[i];
+                forecastValue = forecast;
+                originPermanent = permanent;
+                originTrend = trend;
             }
             lastPermanent = permanent;
             permanent = (alpha * actual[i]) + (1 - alpha) * (lastPermanent + trend);
             trend = (beta * (permanent - lastPermanent)) + ((1 - beta) * trend);
-            if (i == endPoint) {
-                actualValue = actual[i];
-                forecastValue = forecast;
-            }
         }
 
-        train_error = ModelUtil.computeMSE(trainMatrix);
+        train_error = ModelUtil.computeMSE(trainActual, trainForecast, length);
 
         if (min_mse_error > train_error) {
             min_mse_error = train_error;
             optAlpha = alpha;
             optBeta = beta;
-            forecastMat[endPoint - trainPoints][0] = actualValue;
-            forecastMat[endPoint - trainPoints][1] = forecastValue;
-            errorBound = ErrorBoundsHandler.computeErrorBoundInterval(trainMatrix);
-            ModelUtil.computeAccuracyIndicators(accuracyIndicators, trainMatrix, null, dof);
+            row[0] = actualValue;
+            row[1] = forecastValue;
+            for (int k = 1; k < row.length - 1; k++)
+                row[1 + k] = originPermanent + (k + 1) * originTrend;
+            errorBound = ErrorBoundsHandler.computeErrorBoundInterval(trainActual, trainForecast, length);
+            ModelUtil.computeAccuracyIndicators(accuracyIndicators, trainActual, trainForecast, length, dof);
         }
     }
 
     public void forecast(int numFuturePoints) {
 
-        int startPoint = 0, endPoint = actual.length;
-        double trend = initializeTrend(startPoint);
-        double permanent = initializePermanentComponent(startPoint, trend);
-        double lastPermanent;
+        if (state == null)
+            state = smooth();
+        futurePoints = numFuturePoints;
 
-        for (int i = startPoint + 1; i < endPoint; i++) {
-            lastPermanent = permanent;
-            permanent = (optAlpha * actual[i]) + (1 - optAlpha) * (lastPermanent + trend);
-            trend = (optBeta * (permanent - lastPermanent)) + ((1 - optBeta) * trend);
-        }
+        double trend = state.getTrend();
+        double permanent = state.getPermanent();
 
         forecastDataSet = new DataSet();
-        startPoint = actual.length;
+        int startPoint = state.getPoints();
         DataPoint observation;
         double forecastValue, adjustedValue, lowerBound, upperBound;
 
@@ -210,6 +233,45 @@ public class DoubleExponentialSmoothingModel extends AbstractForecastModel {
         }
     }
 
+    public void update(double value) {
+        if (state == null)
+            state = smooth();
+        smooth(state, value);
+        forecast(futurePoints);
+    }
+
+    /**
+     * Smooths the whole series with the optimum decay constants
+     *
+     * @return
+     */
+    private SmoothingState smooth() {
+        SmoothingState state = new SmoothingState();
+        state.setTrend(initializeTrend(0));
+        state.setPermanent(initializePermanentComponent(0, state.getTrend()));
+        state.setPoints(1);
+        for (int i = 1; i < actual.length; i++)
+            smooth(state, actual[i]);
+        return state;
+    }
+
+    /**
+     * Smooths the next observation into the state
+     *
+     * @param state
+     * @param value
+     */
+    private void smooth(SmoothingState state, double value) {
+        double lastPermanent = state.getPermanent();
+        double trend = state.getTrend();
+        double permanent = (optAlpha * value) + (1 - optAlpha) * (lastPermanent + trend);
+        trend = (optBeta * (permanent - lastPermanent)) + ((1 - optBeta) * trend);
+
+        state.setPermanent(permanent);
+        state.setTrend(trend);
+        state.setPoints(state.getPoints() + 1);
+    }
+
     /**
      * Initialize Trend
      *
@@ -217,7 +279,7 @@ public class DoubleExponentialSmoothingModel extends AbstractForecastModel {
      * @return
      */
     private double initializeTrend(int startPoint) {
-        Double sum = 0d;
+        double sum = 0d;
         for (int i = startPoint + 1; i <= startPoint + 3; i++)
             sum = sum + ((actual[i] - actual[i - 1]));
         return sum / 3;
@@ -40,6 +40,8 @@ public class EnsembleCompetitionModel implements CompetitionModel {
     private int validationPoints;
     @Setter
     private int numfuturePoints;
+    @Setter
+    private boolean horizonWeighted;    // Weights each forecast step by the models' error at that validation horizon
     @Getter
     private ForecastModel finalModel;
 
@@ -66,7 +68,7 @@ public class EnsembleCompetitionModel implements CompetitionModel {
     @Override
     public void run() throws ModelNotFoundException, ModelInitializationException {
             DataSet observations = models.get(0).getTimeSeriesDataSet();
-            ForecastModel forecastModel = new EnsembleModel(models, validationPoints);
+            ForecastModel forecastModel = new EnsembleModel(models, validationPoints, horizonWeighted);
             forecastModel.init(observations);
             forecastModel.train();
             forecastModel.forecast(numfuturePoints);
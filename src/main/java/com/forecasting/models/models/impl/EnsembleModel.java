@@ -37,6 +37,8 @@ public class EnsembleModel extends AbstractForecastModel {
 
     int validationPoints;
     List<ForecastModel> models;
+    boolean horizonWeighted;
+    double[][] horizonWeights;      // Weight of each model (rows) at each validated horizon, null for one weight
 
     /**
      * Constructor
@@ -45,8 +47,21 @@ public class EnsembleModel extends AbstractForecastModel {
      * @param validationPoints
      */
     public EnsembleModel(List<ForecastModel> models, int validationPoints) {
+        this(models, validationPoints, false);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param models
+     * @param validationPoints
+     * @param horizonWeighted  weights the forecast steps by the error of the models at the same validation horizon,
+     *                         when every model was validated over more than one horizon
+     */
+    public EnsembleModel(List<ForecastModel> models, int validationPoints, boolean horizonWeighted) {
         this.models = models;
         this.validationPoints = validationPoints;
+        this.horizonWeighted = horizonWeighted;
         model = Model.ENSEMBLE;
     }
 
@@ -57,7 +72,9 @@ public class EnsembleModel extends AbstractForecastModel {
     @Override
     public void train()
     {
-        new Evaluator(models,validationPoints).evaluate();
+        Evaluator evaluator = new Evaluator(models, validationPoints);
+        evaluator.evaluate();
+        horizonWeights = horizonWeighted ? evaluator.evaluateHorizons() : null;
     }
 
 
@@ -139,8 +156,10 @@ public class EnsembleModel extends AbstractForecastModel {
         double[][] wtforecast;
         double wtMape = 0d;
 
+        int m = 0;
         for (ForecastModel model : models) {
-            wtforecast = getWeightedForecast(model.getForecastDataSet().getDataPoints(), model.getWeight());
+            wtforecast = getWeightedForecast(model.getForecastDataSet().getDataPoints(), model.getWeight(),
+                    horizonWeights == null ? null : horizonWeights[m++]);
             wtMape += model.getAccuracyIndicators().getMAPE() * model.getWeight();
             for (int i = 0; i < numfuturePoints; i++) {
                 forecast[i][0] += wtforecast[i][0];
@@ -164,11 +183,22 @@ public class EnsembleModel extends AbstractForecastModel {
     }
 
 
-    private double[][] getWeightedForecast(Set<DataPoint> dataPoints, double weight) {
+    /**
+     * Forecast of a model scaled by its weight, or by its weight at each horizon, steps past the validated
+     * horizons taking the weight of the last one
+     *
+     * @param dataPoints
+     * @param weight
+     * @param horizonWeights null to weight every step the same
+     * @return
+     */
+    private double[][] getWeightedForecast(Set<DataPoint> dataPoints, double weight, double[] horizonWeights) {
 
         int i = 0;
         double[][] output = new double[dataPoints.size()][3];
         for (DataPoint dataPoint : dataPoints) {
+            if (horizonWeights != null)
+                weight = horizonWeights[Math.min(i, horizonWeights.length - 1)];
             output[i][0] = dataPoint.getDependentValue() * weight;
             output[i][1] = dataPoint.getLowerDependentValue() * weight;
             output[i][2] = dataPoint.getUpperDependentValue() * weight;
@@ -25,8 +25,10 @@ import com.forecasting.models.dto.Observation;
 import com.forecasting.models.models.DataPoint;
 import com.forecasting.models.postprocess.BiasnessHandler;
 import com.forecasting.models.postprocess.ErrorBoundsHandler;
+import com.forecasting.models.utils.FFTPlanCache;
 import com.forecasting.models.utils.ModelConstants;
 import com.forecasting.models.utils.ModelUtil;
+import com.forecasting.models.utils.SortUtil;
 import com.forecasting.models.exception.ModelInitializationException;
 import edu.emory.mathcs.jtransforms.fft.DoubleFFT_1D;
 
@@ -193,36 +195,22 @@ public class FFTModel extends AbstractForecastModel {
      */
     public double[] doFFTanalysis(double[] points) {
 
-        DoubleFFT_1D fft = new DoubleFFT_1D(points.length / 2);
+        DoubleFFT_1D fft = FFTPlanCache.plan(points.length / 2);
         fft.realForwardFull(points);
-        List<MagnitudeObj> magnitudeList = new ArrayList<MagnitudeObj>();
-        MagnitudeObj magnitude;
-
-        for (int i = 0; i < points.length / 2; i++) {
-            if (i == 0) {
-                magnitude = new MagnitudeObj();
-                magnitude.setIndex(i);
-                magnitude.setRealIndex(i);
-                magnitude.setImgIndex(i);
-                magnitude.setValue(points[i]);
-            } else {
-                magnitude = new MagnitudeObj();
-                magnitude.setIndex(i);
-                magnitude.setRealIndex(2 * i + 1);
-                magnitude.setImgIndex(2 * i);
-                magnitude.setValue(Math.sqrt(Math.pow(points[2 * i + 1], 2) + Math.pow(points[2 * i], 2)));
-            }
-            magnitudeList.add(magnitude);
-        }
-        insertionSort(magnitudeList);
+        int n = points.length / 2;
+        double[] magnitudes = new double[n];
+        magnitudes[0] = points[0];
+        for (int i = 1; i < n; i++)
+            magnitudes[i] = Math.sqrt(Math.pow(points[2 * i + 1], 2) + Math.pow(points[2 * i], 2));
+        int[] order = SortUtil.descendingOrder(magnitudes, n);
 
         int index = -1;
         double maxDiff = -1;
         double diff;
 
-        for (int i = 0; i < magnitudeList.size() - 1; i++) {
+        for (int i = 0; i < n - 1; i++) {
 
-            diff = magnitudeList.get(i).getValue() - magnitudeList.get(i + 1).getValue();
+            diff = magnitudes[order[i]] - magnitudes[order[i + 1]];
             if (diff > maxDiff) {
                 maxDiff = diff;
                 index = i;
@@ -234,13 +222,15 @@ public class FFTModel extends AbstractForecastModel {
                 index = 5;
         }
 
-        magnitudeList = magnitudeList.subList(index + 1, magnitudeList.size());
-
-        for (int i = 0; i < magnitudeList.size(); i++) {
-            magnitude = magnitudeList.get(i);
-
-            points[magnitude.getRealIndex()] = 0;
-            points[magnitude.getImgIndex()] = 0;
+        // zero the frequencies below the cutoff, frequency k > 0 is stored at 2k (real) and 2k + 1 (imaginary)
+        for (int i = index + 1; i < n; i++) {
+            int frequency = order[i];
+            if (frequency == 0) {
+                points[0] = 0;
+            } else {
+                points[2 * frequency + 1] = 0;
+                points[2 * frequency] = 0;
+            }
         }
         fft.realInverse(points, true);
         double[] outputArray = new double[points.length / 2];
@@ -279,18 +269,27 @@ public class FFTModel extends AbstractForecastModel {
         return forecastedValue;
     }
 
+    /**
+     * Sorts the magnitudes by descending value, equal values keep their order
+     *
+     * @param objList
+     * @deprecated the model sorts an index array with {@link SortUtil#descendingOrder(double[], int)}
+     */
+    @Deprecated
     public void insertionSort(List<MagnitudeObj> objList) {
-        for (int i = 0; i < objList.size(); i++) {
-            int j = i;
-            MagnitudeObj B = objList.get(i);
-            while ((j > 0) && (objList.get(j - 1).getValue() < B.getValue())) {
-                objList.set(j, objList.get(j - 1));
-                j--;
-            }
-            objList.set(j, B);
-        }
+        double[] values = new double[objList.size()];
+        for (int i = 0; i < values.length; i++)
+            values[i] = objList.get(i).getValue();
+        int[] order = SortUtil.descendingOrder(values, values.length);
+        List<MagnitudeObj> copy = new ArrayList<MagnitudeObj>(objList);
+        for (int i = 0; i < order.length; i++)
+            objList.set(i, copy.get(order[i]));
     }
 
+    /**
+     * @deprecated the model keeps the magnitudes in a double[]
+     */
+    @Deprecated
     public class MagnitudeObj {
         int index;
         int realIndex;
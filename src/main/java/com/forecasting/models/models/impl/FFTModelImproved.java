@@ -23,7 +23,9 @@ import com.forecasting.models.dto.IndependentVariable;
 import com.forecasting.models.dto.Model;
 import com.forecasting.models.dto.Observation;
 import com.forecasting.models.models.DataPoint;
+import com.forecasting.models.utils.FFTPlanCache;
 import com.forecasting.models.utils.ModelUtil;
+import com.forecasting.models.utils.SortUtil;
 import com.forecasting.models.exception.ModelInitializationException;
 import com.forecasting.models.postprocess.BiasnessHandler;
 import com.forecasting.models.preprocess.SeasonalityCalculatorUsingAutoCorrelation;
@@ -44,7 +46,6 @@ public class FFTModelImproved extends AbstractForecastModel {
     private Integer threshold;
 
     //post processing attributes
-    private double mean;
     private int dof;
 
     /**
@@ -78,24 +79,14 @@ public class FFTModelImproved extends AbstractForecastModel {
     @Override
     public void train() {
 
-        int startPoint;
-        int endPoint;
-        double[] timeSeries;
-        double actualValue, forecastValue;
-        double[][] valMatrix = new double[validationPoints][2];
         ts = observations.toArray();
-        for (int i = 0; i < validationPoints; i++) {
-            startPoint = 0;
-            endPoint = trainPoints + i;
-            timeSeries = new double[endPoint];
-            for (int j = startPoint; j < endPoint; j++)
-                timeSeries[j] = ts[j];
-
-            actualValue = ts[endPoint];
-            forecastValue = getForecast(timeSeries);
-            valMatrix[i][0] = actualValue;
-            valMatrix[i][1] = forecastValue;
-        }
+        WalkForwardValidator validator = WalkForwardValidator.expanding(trainPoints, validationPoints).withHorizons(validationHorizons);
+        double[][] valMatrix = validator.validate(new WalkForwardValidator.Fold() {
+            public void validate(int point, int startPoint, int endPoint, double[] row) {
+                row[0] = ts[endPoint];
+                forecastHorizons(ts, endPoint, row);
+            }
+        }, validationPool);
 
         double biasness = BiasnessHandler.handleOffset(valMatrix);
         accuracyIndicators.setBias(biasness);
@@ -107,15 +98,15 @@ public class FFTModelImproved extends AbstractForecastModel {
      */
     public void forecast(int futurePoints) {
 
-        double[] timeSeries = ts.clone();
         DataPoint observation;
         double forecastValue, lowerBound, upperBound, adjustedValue;
         forecastDataSet = new DataSet();
 
-        double[] tsArray = transform(timeSeries);
+        double[] tsArray = new double[ts.length * 2];
+        double mean = transform(ts, ts.length, tsArray);
         double[] outputArray = doFFTanalysis(tsArray);
         int cyclePeriod = new SeasonalityCalculatorUsingAutoCorrelation().findCyclePeriod(outputArray);
-        reverseTransform(outputArray);
+        reverseTransform(outputArray, mean);
 
         if (cyclePeriod == 1)
             cyclePeriod = seasonalPeriod;
@@ -154,55 +145,91 @@ public class FFTModelImproved extends AbstractForecastModel {
      */
 
     public double getForecast(double[] timeSeries) {
+        return getForecast(timeSeries, timeSeries.length);
+    }
 
-        double[] tsArray = transform(timeSeries);
-        double[] outputArray = doFFTanalysis(tsArray);
+    /**
+     * Forecast from the first length points of the series
+     *
+     * @param timeSeries
+     * @param length
+     * @return
+     */
+    private double getForecast(double[] timeSeries, int length) {
+        double[] row = new double[2];
+        forecastHorizons(timeSeries, length, row);
+        return row[1];
+    }
+
+    /**
+     * Forecasts the points after the first length points of the series into row from 1, one transform for all of
+     * them. The transform runs in the thread's pooled work array
+     *
+     * @param timeSeries
+     * @param length
+     * @param row
+     */
+    private void forecastHorizons(double[] timeSeries, int length, double[] row) {
+
+        double[] tsArray = FFTPlanCache.workArray(2 * length);
+        double mean = transform(timeSeries, length, tsArray);
+        double[] outputArray = doFFTanalysis(tsArray, length);
 
         int cyclePeriod = new SeasonalityCalculatorUsingAutoCorrelation().findCyclePeriod(outputArray);
 
         if (cyclePeriod == 1)
             cyclePeriod = seasonalPeriod;
 
-        reverseTransform(outputArray);
-        return outputArray[outputArray.length - cyclePeriod];
+        reverseTransform(outputArray, mean);
+        for (int k = 0; k < row.length - 1; k++)
+            row[1 + k] = outputArray[outputArray.length - cyclePeriod + k % cyclePeriod];
+    }
+
+    /**
+     * Series the model forecasts from, for the snapshot codec
+     *
+     * @return
+     */
+    double[] getSeries() {
+        return ts;
+    }
+
+    void setSeries(double[] ts) {
+        this.ts = ts;
+    }
+
+    Integer getThreshold() {
+        return threshold;
     }
 
     public void sort(double array[][]) {
-        int size = array.length;
-        for (int i = 1; i < size; i++) {
-            int j = i;
-            double index = array[i][0];
-            double B = array[i][1];
-            while ((j > 0) && (array[j - 1][1] < B)) {
-                array[j][0] = array[j - 1][0];
-                array[j][1] = array[j - 1][1];
-                j--;
-            }
-            array[j][0] = index;
-            array[j][1] = B;
-        }
+        SortUtil.sortRowsDescending(array, 1);
     }
 
     /**
+     * Writes the mean centered first length points of data into meanCenteredTS, zero padded to twice the length
+     *
      * @param data
-     * @return
+     * @param length
+     * @param meanCenteredTS
+     * @return mean of the points, added back by reverseTransform
      */
-    private double[] transform(double[] data) {
-        double[] meanCenteredTS = new double[data.length * 2];
+    private double transform(double[] data, int length, double[] meanCenteredTS) {
         double sum = 0l;
-        for (int i = 0; i < data.length; i++)
+        for (int i = 0; i < length; i++)
             sum += data[i];
-        mean = sum / data.length;
-        for (int i = 0; i < data.length; i++)
+        double mean = sum / length;
+        for (int i = 0; i < length; i++)
             meanCenteredTS[i] = data[i] - mean;
-
-        return meanCenteredTS;
+        Arrays.fill(meanCenteredTS, length, 2 * length, 0d);
+        return mean;
     }
 
     /**
      * @param data
+     * @param mean
      */
-    private void reverseTransform(double[] data) {
+    private void reverseTransform(double[] data, double mean) {
         for (int i = 0; i < data.length; i++)
             data[i] = data[i] + mean;
     }
@@ -212,37 +239,31 @@ public class FFTModelImproved extends AbstractForecastModel {
      * @return
      */
     public double[] doFFTanalysis(double[] points) {
+        return doFFTanalysis(points, points.length / 2);
+    }
 
-        DoubleFFT_1D fft = new DoubleFFT_1D(points.length / 2);
+    /**
+     * @param points input of size 2 * n, may be longer
+     * @param n      number of points in the series
+     * @return
+     */
+    private double[] doFFTanalysis(double[] points, int n) {
+
+        DoubleFFT_1D fft = FFTPlanCache.plan(n);
         fft.realForwardFull(points);
-        List<MagnitudeObj> magnitudeList = new ArrayList<MagnitudeObj>();
-        MagnitudeObj magnitude;
-
-        for (int i = 0; i < points.length / 2; i++) {
-            if (i == 0) {
-                magnitude = new MagnitudeObj();
-                magnitude.setIndex(i);
-                magnitude.setRealIndex(i);
-                magnitude.setImgIndex(i);
-                magnitude.setValue(points[i]);
-            } else {
-                magnitude = new MagnitudeObj();
-                magnitude.setIndex(i);
-                magnitude.setRealIndex(2 * i + 1);
-                magnitude.setImgIndex(2 * i);
-                magnitude.setValue(Math.sqrt(Math.pow(points[2 * i + 1], 2) + Math.pow(points[2 * i], 2)));
-            }
-            magnitudeList.add(magnitude);
-        }
-        insertionSort(magnitudeList);
+        double[] magnitudes = new double[n];
+        magnitudes[0] = points[0];
+        for (int i = 1; i < n; i++)
+            magnitudes[i] = Math.sqrt(Math.pow(points[2 * i + 1], 2) + Math.pow(points[2 * i], 2));
+        int[] order = SortUtil.descendingOrder(magnitudes, n);
 
         int index = -1;
         double diff;
 
-        for (int i = 0; i < magnitudeList.size() - 1; i++) {
+        for (int i = 0; i < n - 1; i++) {
 
             double maxDiff = -1;
-            diff = magnitudeList.get(i).getValue() - magnitudeList.get(i + 1).getValue();
+            diff = magnitudes[order[i]] - magnitudes[order[i + 1]];
             if (diff > maxDiff) {
                 maxDiff = diff;
                 index = i;
@@ -252,35 +273,46 @@ public class FFTModelImproved extends AbstractForecastModel {
         if (index < 5)
             index = 5;
 
-        magnitudeList = magnitudeList.subList(index + 1, magnitudeList.size());
-
-        for (int i = 0; i < magnitudeList.size(); i++) {
-            magnitude = magnitudeList.get(i);
-
-            points[magnitude.getRealIndex()] = 0;
-            points[magnitude.getImgIndex()] = 0;
+        // zero the frequencies below the cutoff, frequency k > 0 is stored at 2k (real) and 2k + 1 (imaginary)
+        for (int i = index + 1; i < n; i++) {
+            int frequency = order[i];
+            if (frequency == 0) {
+                points[0] = 0;
+            } else {
+                points[2 * frequency + 1] = 0;
+                points[2 * frequency] = 0;
+            }
         }
         fft.realInverse(points, true);
 
-        double[] outputArray = new double[points.length / 2];
-        for (int i = 0; i < points.length / 2; i++) {
+        double[] outputArray = new double[n];
+        for (int i = 0; i < n; i++) {
             outputArray[i] = points[i];
         }
         return outputArray;
     }
 
+    /**
+     * Sorts the magnitudes by descending value, equal values keep their order
+     *
+     * @param objList
+     * @deprecated the model sorts an index array with {@link SortUtil#descendingOrder(double[], int)}
+     */
+    @Deprecated
     public void insertionSort(List<MagnitudeObj> objList) {
-        for (int i = 0; i < objList.size(); i++) {
-            int j = i;
-            MagnitudeObj B = objList.get(i);
-            while ((j > 0) && (objList.get(j - 1).getValue() < B.getValue())) {
-                objList.set(j, objList.get(j - 1));
-                j--;
-            }
-            objList.set(j, B);
-        }
+        double[] values = new double[objList.size()];
+        for (int i = 0; i < values.length; i++)
+            values[i] = objList.get(i).getValue();
+        int[] order = SortUtil.descendingOrder(values, values.length);
+        List<MagnitudeObj> copy = new ArrayList<MagnitudeObj>(objList);
+        for (int i = 0; i < order.length; i++)
+            objList.set(i, copy.get(order[i]));
     }
 
+    /**
+     * @deprecated the model keeps the magnitudes in a double[]
+     */
+    @Deprecated
     public class MagnitudeObj {
         int index;
         int realIndex;
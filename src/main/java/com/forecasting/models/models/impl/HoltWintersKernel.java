@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.models.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Triple exponential smoothing of one series for many sets of decay constants at once. The smoothing state
+ * (permanent component, trend, seasonal vector and running squared error) of all triples is kept in parallel
+ * arrays, seasonal components of the same seasonal index next to each other, and every observation is applied
+ * to a block of triples in one tight loop. The block loop has no dependency between triples, so the JIT can
+ * unroll and vectorize it, and each observation is read once per block instead of once per triple.
+ * <p/>
+ * The state is extended one observation at a time, so walk forward validation smooths every observation once
+ * instead of rerunning the series from the start for every validation point. Arithmetic is done in the same
+ * order as the scalar models, so the squared errors are identical.
+ */
+class HoltWintersKernel {
+
+    private static final int BLOCK_SIZE = 256;
+
+    private final float[] alpha;
+    private final float[] beta;
+    private final float[] gamma;
+    private final boolean multiplicative;
+    private final int seasonalPeriod;
+    private final int size;
+
+    private final double[] permanent;
+    private final double[] trend;
+    private final double[] seasonalComponent;   // seasonalComponent[index * size + triple]
+    private final double[] squaredErrorSum;
+    private int point;                          // Next observation to be smoothed, same for all triples
+
+    HoltWintersKernel(float[] alpha, float[] beta, float[] gamma, int seasonalPeriod, boolean multiplicative) {
+        this.alpha = alpha;
+        this.beta = beta;
+        this.gamma = gamma;
+        this.seasonalPeriod = seasonalPeriod;
+        this.multiplicative = multiplicative;
+        this.size = alpha.length;
+        this.permanent = new double[size];
+        this.trend = new double[size];
+        this.seasonalComponent = new double[seasonalPeriod * size];
+        this.squaredErrorSum = new double[size];
+    }
+
+    /**
+     * Restarts smoothing of all triples from the first observation with the given initial components
+     *
+     * @param actual
+     * @param initialPermanent
+     * @param initialTrend
+     * @param initialSeasonality
+     */
+    void reset(double[] actual, double initialPermanent, double initialTrend, double[] initialSeasonality) {
+        double initialError = (actual[0] - initialPermanent) * (actual[0] - initialPermanent);
+        for (int k = 0; k < size; k++) {
+            permanent[k] = initialPermanent;
+            trend[k] = initialTrend;
+            squaredErrorSum[k] = initialError;
+        }
+        for (int index = 0; index < seasonalPeriod; index++)
+            for (int k = 0; k < size; k++)
+                seasonalComponent[index * size + k] = initialSeasonality[index];
+        point = 1;
+    }
+
+    /**
+     * Smooths the observations up to endPoint (exclusive) for all triples, adding their one step ahead squared errors
+     *
+     * @param actual
+     * @param endPoint
+     */
+    void extend(double[] actual, int endPoint) {
+        if (point >= endPoint)
+            return;
+        for (int from = 0; from < size; from += BLOCK_SIZE) {
+            int to = Math.min(size, from + BLOCK_SIZE);
+            for (int i = point; i < endPoint; i++) {
+                if (multiplicative)
+                    smoothMultiplicative(actual[i], (i % seasonalPeriod) * size, from, to);
+                else
+                    smoothAdditive(actual[i], (i % seasonalPeriod) * size, from, to);
+            }
+        }
+        point = endPoint;
+    }
+
+    private void smoothAdditive(double value, int offset, int from, int to) {
+        double error, lastPermanent, season;
+        for (int k = from; k < to; k++) {
+            season = seasonalComponent[offset + k];
+            error = value - (season + permanent[k] + trend[k]);
+            squaredErrorSum[k] += error * error;
+
+            lastPermanent = permanent[k];
+            permanent[k] = (alpha[k] * (value - season)) + (1 - alpha[k]) * (lastPermanent + trend[k]);
+            trend[k] = (beta[k] * (permanent[k] - lastPermanent)) + ((1 - beta[k]) * trend[k]);
+            seasonalComponent[offset + k] = (gamma[k] * (value - permanent[k])) + ((1 - gamma[k]) * season);
+        }
+    }
+
+    private void smoothMultiplicative(double value, int offset, int from, int to) {
+        double error, lastPermanent, season;
+        for (int k = from; k < to; k++) {
+            season = seasonalComponent[offset + k];
+            error = value - season * (permanent[k] + trend[k]);
+            squaredErrorSum[k] += error * error;
+
+            lastPermanent = permanent[k];
+            permanent[k] = (alpha[k] * (value / season)) + (1 - alpha[k]) * (lastPermanent + trend[k]);
+            trend[k] = (beta[k] * (permanent[k] - lastPermanent)) + ((1 - beta[k]) * trend[k]);
+            seasonalComponent[offset + k] = (gamma[k] * (value / permanent[k])) + ((1 - gamma[k]) * season);
+        }
+    }
+
+    /**
+     * Index of the triple with least MSE over the observations smoothed so far, the first one on ties
+     *
+     * @return
+     */
+    int best() {
+        int best = -1;
+        double minError = -1, error;
+        for (int k = 0; k < size; k++) {
+            error = squaredErrorSum[k] / point;
+            if (minError > error || minError == -1) {
+                minError = error;
+                best = k;
+            }
+        }
+        return best;
+    }
+
+    int size() {
+        return size;
+    }
+
+    float getAlpha(int triple) {
+        return alpha[triple];
+    }
+
+    float getBeta(int triple) {
+        return beta[triple];
+    }
+
+    float getGamma(int triple) {
+        return gamma[triple];
+    }
+
+    /**
+     * Mean squared error of a triple over the observations smoothed so far
+     *
+     * @param triple
+     * @return
+     */
+    double error(int triple) {
+        return squaredErrorSum[triple] / point;
+    }
+
+    /**
+     * Whether reset has been called since construction
+     *
+     * @return
+     */
+    boolean started() {
+        return point > 0;
+    }
+
+    /**
+     * Number of observations smoothed so far
+     *
+     * @return
+     */
+    int points() {
+        return point;
+    }
+
+    /**
+     * Kernel for the 0.1 step grid of decay constants, triples in the order the models search them
+     *
+     * @param seasonalPeriod
+     * @param multiplicative
+     * @return
+     */
+    static HoltWintersKernel grid(int seasonalPeriod, boolean multiplicative) {
+        List<float[]> triples = new ArrayList<float[]>();
+        for (float alpha = 0f; alpha <= 1.01f; alpha += 0.1f)
+            for (float beta = 0f; beta <= 1.01f; beta += 0.1f)
+                for (float gamma = 0f; gamma <= 1.01f; gamma += 0.1f)
+                    triples.add(new float[]{alpha, beta, gamma});
+        return of(triples, seasonalPeriod, multiplicative);
+    }
+
+    /**
+     * Kernel for the given triples, in that order
+     *
+     * @param triples
+     * @param seasonalPeriod
+     * @param multiplicative
+     * @return
+     */
+    static HoltWintersKernel of(List<float[]> triples, int seasonalPeriod, boolean multiplicative) {
+        float[] alpha = new float[triples.size()], beta = new float[triples.size()], gamma = new float[triples.size()];
+        for (int k = 0; k < alpha.length; k++) {
+            alpha[k] = triples.get(k)[0];
+            beta[k] = triples.get(k)[1];
+            gamma[k] = triples.get(k)[2];
+        }
+        return new HoltWintersKernel(alpha, beta, gamma, seasonalPeriod, multiplicative);
+    }
+}
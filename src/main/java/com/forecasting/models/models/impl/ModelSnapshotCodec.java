@@ -0,0 +1,449 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.models.impl;
+
+import com.forecasting.models.dto.Model;
+import com.forecasting.models.experimental.TESAMultipleSeasonalityModel;
+import com.forecasting.models.experimental.TESMMultipleSeasonalityModel;
+import com.forecasting.models.io.ModelSnapshotFile;
+import com.forecasting.models.models.ForecastModel;
+import com.forecasting.models.utils.AccuracyIndicators;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Binary snapshot of a fitted model: its decay constants, smoothing state, error bound, accuracy indicators and
+ * ensemble weight, everything forecast() needs without the series or training. Big endian, one record per model:
+ *
+ * <pre>
+ * int    length of the rest of the record
+ * short  unsigned length of the model name, then its UTF-8 bytes (Model enum name)
+ * int    trainPoints, validationPoints, seasonalPeriod, number of forecast points
+ * double weight, errorBound, bias, MAPE, MSE, MAD, SAE, AIC, BIC, KLIC, directional error
+ * array  validation errors, directional error matrix
+ * matrix horizon errors, then the horizon MAPE array (version 2)
+ * ...    model specific fields
+ * </pre>
+ * Arrays are an int length, -1 for null, followed by the elements, matrices an int number of rows, -1 for null,
+ * followed by an array per row. An ensemble stores the number of members followed by a record per member, then
+ * whether it weights by horizon as a byte and its horizon weights matrix (version 2). Readers skip records of models
+ * they do not know using the length.
+ *
+ * Supported models are TESA, TESM, DES, SES, SSES, MOV, FFT (FFTModelImproved), CDGR, MSTESA, MSTESM (version 3)
+ * and ENSEMBLE. CDGR keeps the last growthPeriod + 1 points of its series. The multiple seasonality models smooth
+ * the whole series again in forecast(), so they keep all of it. Restored models forecast again for the stored
+ * number of points, and the online ones accept update().
+ */
+public final class ModelSnapshotCodec {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private ModelSnapshotCodec() {
+    }
+
+    /**
+     * Writes the snapshot record of a trained and forecasted model
+     *
+     * @param forecastModel
+     * @param out
+     * @throws IOException
+     */
+    public static void write(ForecastModel forecastModel, DataOutput out) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream record = new DataOutputStream(bytes);
+        writeRecord(forecastModel, record);
+        record.flush();
+        out.writeInt(bytes.size());
+        out.write(bytes.toByteArray());
+    }
+
+    /**
+     * Reads the next record from the buffer
+     *
+     * @param buffer
+     * @return restored model, null if the record holds a model this version does not know
+     */
+    public static ForecastModel read(ByteBuffer buffer) {
+        return read(buffer, ModelSnapshotFile.VERSION);
+    }
+
+    /**
+     * Reads the next record from the buffer, written in the given format version
+     *
+     * @param buffer
+     * @param version
+     * @return restored model, null if the record holds a model this version does not know
+     */
+    public static ForecastModel read(ByteBuffer buffer, short version) {
+        int length = buffer.getInt();
+        int end = buffer.position() + length;
+        String name = readString(buffer);
+        Model type;
+        try {
+            type = Model.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            buffer.position(end);
+            return null;
+        }
+
+        int trainPoints = buffer.getInt();
+        int validationPoints = buffer.getInt();
+        int seasonalPeriod = buffer.getInt();
+        int futurePoints = buffer.getInt();
+        double weight = buffer.getDouble();
+        double errorBound = buffer.getDouble();
+        AccuracyIndicators indicators = readIndicators(buffer, version);
+
+        AbstractForecastModel model;
+        switch (type) {
+            case TESA: {
+                TripleExponentialSmoothingAdditiveModel tesa = new TripleExponentialSmoothingAdditiveModel(trainPoints,
+                        validationPoints, seasonalPeriod, buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+                tesa.setState(readState(buffer));
+                model = tesa;
+                break;
+            }
+            case TESM: {
+                TripleExponentialSmoothingMultiplicativeModel tesm = new TripleExponentialSmoothingMultiplicativeModel(trainPoints,
+                        validationPoints, seasonalPeriod, buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+                tesm.setState(readState(buffer));
+                model = tesm;
+                break;
+            }
+            case DES: {
+                DoubleExponentialSmoothingModel des = new DoubleExponentialSmoothingModel(trainPoints, validationPoints,
+                        buffer.getFloat(), buffer.getFloat());
+                des.setState(readState(buffer));
+                model = des;
+                break;
+            }
+            case SES: {
+                SingleExponentialSmoothingModel ses = new SingleExponentialSmoothingModel(trainPoints, validationPoints);
+                ses.setOptAlpha(buffer.getFloat());
+                ses.setState(readState(buffer));
+                model = ses;
+                break;
+            }
+            case SSES: {
+                SeasonalSingleExponentialSmoothingModel sses = new SeasonalSingleExponentialSmoothingModel(trainPoints,
+                        validationPoints, seasonalPeriod);
+                sses.setOptGamma(buffer.getFloat());
+                sses.setState(readState(buffer));
+                model = sses;
+                break;
+            }
+            case MOV: {
+                int slices = buffer.getInt();
+                int step = buffer.getInt();
+                WeightedMovingAverageModel mov = new WeightedMovingAverageModel(readFloats(buffer), slices, step,
+                        trainPoints, validationPoints);
+                mov.setErrorBound(buffer.getDouble());
+                mov.setPoints(buffer.getInt());
+                mov.setWindow(readDoubles(buffer));
+                model = mov;
+                break;
+            }
+            case FFT: {
+                int threshold = buffer.getInt();
+                FFTModelImproved fft = new FFTModelImproved(trainPoints, validationPoints, seasonalPeriod, threshold);
+                fft.setSeries(readDoubles(buffer));
+                model = fft;
+                break;
+            }
+            case CDGR: {
+                CDGRModel cdgr = new CDGRModel(buffer.getInt(), validationPoints);
+                cdgr.setActual(readDoubles(buffer));
+                model = cdgr;
+                break;
+            }
+            case MSTESA: {
+                TESAMultipleSeasonalityModel mstesa = new TESAMultipleSeasonalityModel(trainPoints, validationPoints,
+                        buffer.getInt(), buffer.getInt(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+                mstesa.setActual(readDoubles(buffer));
+                model = mstesa;
+                break;
+            }
+            case MSTESM: {
+                TESMMultipleSeasonalityModel mstesm = new TESMMultipleSeasonalityModel(trainPoints, validationPoints,
+                        buffer.getInt(), buffer.getInt(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+                mstesm.setActual(readDoubles(buffer));
+                model = mstesm;
+                break;
+            }
+            case ENSEMBLE: {
+                int count = buffer.getInt();
+                List<ForecastModel> members = new ArrayList<ForecastModel>(count);
+                for (int i = 0; i < count; i++) {
+                    ForecastModel member = read(buffer, version);
+                    if (member != null)
+                        members.add(member);
+                }
+                EnsembleModel ensemble = new EnsembleModel(members, validationPoints, version >= 2 && buffer.get() != 0);
+                if (version >= 2)
+                    ensemble.horizonWeights = readMatrix(buffer);
+                model = ensemble;
+                break;
+            }
+            default:
+                buffer.position(end);
+                return null;
+        }
+
+        model.weight = weight;
+        model.errorBound = errorBound;
+        model.accuracyIndicators = indicators;
+        if (futurePoints > 0)
+            model.forecast(futurePoints);
+        buffer.position(end);
+        return model;
+    }
+
+    private static void writeRecord(ForecastModel forecastModel, DataOutputStream out) throws IOException {
+        if (!(forecastModel instanceof AbstractForecastModel))
+            throw new IllegalArgumentException("Snapshot not supported for " + forecastModel.getModelName());
+        AbstractForecastModel model = (AbstractForecastModel) forecastModel;
+
+        writeString(out, model.model.name());
+        out.writeInt(model.trainPoints);
+        out.writeInt(model.validationPoints);
+        out.writeInt(model.seasonalPeriod);
+        out.writeInt(model.forecastDataSet == null ? 0 : model.forecastDataSet.size());
+        out.writeDouble(model.weight);
+        out.writeDouble(model.errorBound);
+        writeIndicators(out, model.accuracyIndicators);
+
+        if (model instanceof TripleExponentialSmoothingAdditiveModel) {
+            TripleExponentialSmoothingAdditiveModel tesa = (TripleExponentialSmoothingAdditiveModel) model;
+            out.writeFloat(tesa.getOptAlpha());
+            out.writeFloat(tesa.getOptBeta());
+            out.writeFloat(tesa.getOptGamma());
+            writeState(out, tesa.getState());
+        } else if (model instanceof TripleExponentialSmoothingMultiplicativeModel) {
+            TripleExponentialSmoothingMultiplicativeModel tesm = (TripleExponentialSmoothingMultiplicativeModel) model;
+            out.writeFloat(tesm.getOptAlpha());
+            out.writeFloat(tesm.getOptBeta());
+            out.writeFloat(tesm.getOptGamma());
+            writeState(out, tesm.getState());
+        } else if (model instanceof DoubleExponentialSmoothingModel) {
+            DoubleExponentialSmoothingModel des = (DoubleExponentialSmoothingModel) model;
+            out.writeFloat(des.getOptAlpha());
+            out.writeFloat(des.getOptBeta());
+            writeState(out, des.getState());
+        } else if (model instanceof SingleExponentialSmoothingModel) {
+            SingleExponentialSmoothingModel ses = (SingleExponentialSmoothingModel) model;
+            out.writeFloat(ses.getOptAlpha());
+            writeState(out, ses.getState());
+        } else if (model instanceof SeasonalSingleExponentialSmoothingModel) {
+            SeasonalSingleExponentialSmoothingModel sses = (SeasonalSingleExponentialSmoothingModel) model;
+            out.writeFloat(sses.getOptGamma());
+            writeState(out, sses.getState());
+        } else if (model instanceof WeightedMovingAverageModel) {
+            WeightedMovingAverageModel mov = (WeightedMovingAverageModel) model;
+            if (mov.getWindow() == null)
+                throw new IllegalStateException("MOV must be forecasted before taking a snapshot");
+            out.writeInt(mov.getSlices());
+            out.writeInt(mov.getStep());
+            writeFloats(out, mov.getWeights());
+            out.writeDouble(mov.getErrorBound());
+            out.writeInt(mov.getPoints());
+            writeDoubles(out, mov.getWindow());
+        } else if (model instanceof FFTModelImproved) {
+            FFTModelImproved fft = (FFTModelImproved) model;
+            out.writeInt(fft.getThreshold() == null ? 5 : fft.getThreshold());
+            writeDoubles(out, fft.getSeries());
+        } else if (model instanceof CDGRModel) {
+            CDGRModel cdgr = (CDGRModel) model;
+            double[] actual = requireSeries(cdgr.getActual());
+            out.writeInt(cdgr.getGrowthPeriod());
+            writeDoubles(out, Arrays.copyOfRange(actual, Math.max(0, actual.length - cdgr.getGrowthPeriod() - 1), actual.length));
+        } else if (model instanceof TESAMultipleSeasonalityModel) {
+            TESAMultipleSeasonalityModel mstesa = (TESAMultipleSeasonalityModel) model;
+            out.writeInt(mstesa.getSeasonality1());
+            out.writeInt(mstesa.getSeasonality2());
+            out.writeFloat(mstesa.getOptAlpha());
+            out.writeFloat(mstesa.getOptBeta());
+            out.writeFloat(mstesa.getOptGamma());
+            out.writeFloat(mstesa.getOptDelta());
+            writeDoubles(out, requireSeries(mstesa.getActual()));
+        } else if (model instanceof TESMMultipleSeasonalityModel) {
+            TESMMultipleSeasonalityModel mstesm = (TESMMultipleSeasonalityModel) model;
+            out.writeInt(mstesm.getSeasonality1());
+            out.writeInt(mstesm.getSeasonality2());
+            out.writeFloat(mstesm.getOptAlpha());
+            out.writeFloat(mstesm.getOptBeta());
+            out.writeFloat(mstesm.getOptGamma());
+            out.writeFloat(mstesm.getOptDelta());
+            writeDoubles(out, requireSeries(mstesm.getActual()));
+        } else if (model instanceof EnsembleModel) {
+            // the executor adds the ensemble to the list of models it combines, it is not a member of itself
+            List<ForecastModel> members = new ArrayList<ForecastModel>();
+            for (ForecastModel member : ((EnsembleModel) model).models)
+                if (!(member instanceof EnsembleModel))
+                    members.add(member);
+            out.writeInt(members.size());
+            for (ForecastModel member : members)
+                write(member, out);
+            out.writeBoolean(((EnsembleModel) model).horizonWeighted);
+            writeMatrix(out, ((EnsembleModel) model).horizonWeights);
+        } else
+            throw new IllegalArgumentException("Snapshot not supported for " + model.getModelName());
+    }
+
+    private static double[] requireSeries(double[] actual) {
+        if (actual == null)
+            throw new IllegalStateException("Model must be trained before taking a snapshot");
+        return actual;
+    }
+
+    private static void writeState(DataOutput out, SmoothingState state) throws IOException {
+        if (state == null)
+            throw new IllegalStateException("Model must be forecasted before taking a snapshot");
+        out.writeDouble(state.getPermanent());
+        out.writeDouble(state.getTrend());
+        out.writeInt(state.getPoints());
+        writeDoubles(out, state.getSeasonalComponent());
+    }
+
+    private static SmoothingState readState(ByteBuffer buffer) {
+        SmoothingState state = new SmoothingState();
+        state.setPermanent(buffer.getDouble());
+        state.setTrend(buffer.getDouble());
+        state.setPoints(buffer.getInt());
+        state.setSeasonalComponent(readDoubles(buffer));
+        return state;
+    }
+
+    private static void writeIndicators(DataOutput out, AccuracyIndicators indicators) throws IOException {
+        out.writeDouble(indicators.getBias());
+        out.writeDouble(indicators.getMAPE());
+        out.writeDouble(indicators.getMSE());
+        out.writeDouble(indicators.getMAD());
+        out.writeDouble(indicators.getSAE());
+        out.writeDouble(indicators.getAIC());
+        out.writeDouble(indicators.getBic());
+        out.writeDouble(indicators.getKlic());
+        out.writeDouble(indicators.getDirectionalError());
+        writeDoubles(out, indicators.getValidationErrors());
+        writeDoubles(out, indicators.getDirectionalErrorMatrix());
+        writeMatrix(out, indicators.getHorizonErrors());
+        writeDoubles(out, indicators.getHorizonMAPE());
+    }
+
+    private static AccuracyIndicators readIndicators(ByteBuffer buffer, short version) {
+        AccuracyIndicators indicators = new AccuracyIndicators();
+        indicators.setBias(buffer.getDouble());
+        indicators.setMAPE(buffer.getDouble());
+        indicators.setMSE(buffer.getDouble());
+        indicators.setMAD(buffer.getDouble());
+        indicators.setSAE(buffer.getDouble());
+        indicators.setAIC(buffer.getDouble());
+        indicators.setBic(buffer.getDouble());
+        indicators.setKlic(buffer.getDouble());
+        indicators.setDirectionalError(buffer.getDouble());
+        indicators.setValidationErrors(readDoubles(buffer));
+        indicators.setDirectionalErrorMatrix(readDoubles(buffer));
+        if (version >= 2) {
+            indicators.setHorizonErrors(readMatrix(buffer));
+            indicators.setHorizonMAPE(readDoubles(buffer));
+        }
+        return indicators;
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(UTF8);
+        if (bytes.length > 0xffff)
+            throw new IllegalArgumentException("Snapshot string longer than 65535 bytes");
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xffff];
+        buffer.get(bytes);
+        return new String(bytes, UTF8);
+    }
+
+    private static void writeDoubles(DataOutput out, double[] values) throws IOException {
+        if (values == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(values.length);
+        for (double value : values)
+            out.writeDouble(value);
+    }
+
+    private static double[] readDoubles(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0)
+            return null;
+        double[] values = new double[length];
+        buffer.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + 8 * length);
+        return values;
+    }
+
+    private static void writeMatrix(DataOutput out, double[][] values) throws IOException {
+        if (values == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(values.length);
+        for (double[] row : values)
+            writeDoubles(out, row);
+    }
+
+    private static double[][] readMatrix(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0)
+            return null;
+        double[][] values = new double[length][];
+        for (int i = 0; i < length; i++)
+            values[i] = readDoubles(buffer);
+        return values;
+    }
+
+    private static void writeFloats(DataOutput out, float[] values) throws IOException {
+        if (values == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(values.length);
+        for (float value : values)
+            out.writeFloat(value);
+    }
+
+    private static float[] readFloats(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0)
+            return null;
+        float[] values = new float[length];
+        buffer.asFloatBuffer().get(values);
+        buffer.position(buffer.position() + 4 * length);
+        return values;
+    }
+}
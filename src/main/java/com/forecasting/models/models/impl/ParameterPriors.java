@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.models.impl;
+
+import com.forecasting.models.dto.Model;
+import com.forecasting.models.models.ForecastModel;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Decay constants found for one series by a previous run, keyed by model type, with the validation MSE they had.
+ * Applied to the models of the next run they restrict the decay constant search to the neighbourhood of the
+ * previous optimum, see AbstractForecastModel.setPrior
+ */
+public class ParameterPriors {
+
+    private final Map<Model, float[]> parameters = new EnumMap<Model, float[]>(Model.class);
+    private final Map<Model, Double> errors = new EnumMap<Model, Double>(Model.class);
+
+    /**
+     * Priors of the fitted TESA, TESM, DES, SES and SSES models, members of an ensemble included. Models can be
+     * those of a previous run or restored from a snapshot
+     *
+     * @param models
+     * @return
+     */
+    public static ParameterPriors of(Collection<? extends ForecastModel> models) {
+        ParameterPriors priors = new ParameterPriors();
+        for (ForecastModel model : models)
+            priors.add(model);
+        return priors;
+    }
+
+    private void add(ForecastModel model) {
+        if (model instanceof TripleExponentialSmoothingAdditiveModel) {
+            TripleExponentialSmoothingAdditiveModel tesa = (TripleExponentialSmoothingAdditiveModel) model;
+            put(Model.TESA, new float[]{tesa.getOptAlpha(), tesa.getOptBeta(), tesa.getOptGamma()}, tesa.getAccuracyIndicators().getMSE());
+        } else if (model instanceof TripleExponentialSmoothingMultiplicativeModel) {
+            TripleExponentialSmoothingMultiplicativeModel tesm = (TripleExponentialSmoothingMultiplicativeModel) model;
+            put(Model.TESM, new float[]{tesm.getOptAlpha(), tesm.getOptBeta(), tesm.getOptGamma()}, tesm.getAccuracyIndicators().getMSE());
+        } else if (model instanceof DoubleExponentialSmoothingModel) {
+            DoubleExponentialSmoothingModel des = (DoubleExponentialSmoothingModel) model;
+            put(Model.DES, new float[]{des.getOptAlpha(), des.getOptBeta()}, des.getAccuracyIndicators().getMSE());
+        } else if (model instanceof SingleExponentialSmoothingModel) {
+            SingleExponentialSmoothingModel ses = (SingleExponentialSmoothingModel) model;
+            put(Model.SES, new float[]{ses.getOptAlpha()}, ses.getAccuracyIndicators().getMSE());
+        } else if (model instanceof SeasonalSingleExponentialSmoothingModel) {
+            SeasonalSingleExponentialSmoothingModel sses = (SeasonalSingleExponentialSmoothingModel) model;
+            put(Model.SSES, new float[]{sses.getOptGamma()}, sses.getAccuracyIndicators().getMSE());
+        } else if (model instanceof EnsembleModel && ((EnsembleModel) model).models != null) {
+            for (ForecastModel member : ((EnsembleModel) model).models)
+                if (!(member instanceof EnsembleModel))
+                    add(member);
+        }
+    }
+
+    /**
+     * Sets the prior of a model type
+     *
+     * @param model
+     * @param parameters
+     * @param error      validation MSE of the parameters, NaN when unknown
+     */
+    public void put(Model model, float[] parameters, double error) {
+        this.parameters.put(model, parameters.clone());
+        this.errors.put(model, error);
+    }
+
+    public float[] getParameters(Model model) {
+        float[] prior = parameters.get(model);
+        return prior == null ? null : prior.clone();
+    }
+
+    public double getError(Model model) {
+        Double error = errors.get(model);
+        return error == null ? Double.NaN : error;
+    }
+
+    public boolean isEmpty() {
+        return parameters.isEmpty();
+    }
+
+    /**
+     * Seeds the search of the model with the prior of its type, models without one are left unchanged
+     *
+     * @param model
+     */
+    public void apply(ForecastModel model) {
+        if (!(model instanceof AbstractForecastModel))
+            return;
+        AbstractForecastModel forecastModel = (AbstractForecastModel) model;
+        if (forecastModel.model != null && parameters.containsKey(forecastModel.model))
+            forecastModel.setPrior(parameters.get(forecastModel.model), getError(forecastModel.model));
+    }
+}
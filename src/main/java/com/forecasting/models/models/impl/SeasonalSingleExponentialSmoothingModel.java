@@ -25,9 +25,15 @@ import com.forecasting.models.dto.Observation;
 import com.forecasting.models.postprocess.BiasnessHandler;
 import com.forecasting.models.postprocess.ErrorBoundsHandler;
 import com.forecasting.models.utils.ModelUtil;
+import com.forecasting.models.utils.TrainingContext;
+import com.forecasting.models.optimizer.GridSearchOptimizer;
+import com.forecasting.models.optimizer.ParameterObjective;
+import com.forecasting.models.optimizer.ParameterOptimizer;
 import com.forecasting.models.exception.ModelInitializationException;
 import lombok.Data;
 
+import java.util.Arrays;
+
 /**
  * Substitute for Moving Average Weekly and TESA with Zero initialization
  */
@@ -39,6 +45,11 @@ public class SeasonalSingleExponentialSmoothingModel extends AbstractForecastMod
     private float optGamma;
     private final int dof=1;
 
+    //Fitted state, smoothed up to the last observation once forecast
+    private SmoothingState state;
+
+    private static final ParameterOptimizer DECAY_CONSTANTS_GRID = new GridSearchOptimizer(0.01f, 1.00001f);
+
 
     public void init(DataSet observations) throws ModelInitializationException {
         super.init(observations);
@@ -57,29 +68,36 @@ public class SeasonalSingleExponentialSmoothingModel extends AbstractForecastMod
     @Override
     public void train() {
 
-        double[][] valMatrix = new double[validationPoints][2];
+        state = null;
         actual = observations.toArray();
-
-        for (int point = 0; point < validationPoints; point++)
-            populateForecastMatrix(point, valMatrix);
+        WalkForwardValidator validator = WalkForwardValidator.rolling(trainPoints, validationPoints, trainPoints).withHorizons(validationHorizons);
+        double[][] valMatrix = validator.validate(new WalkForwardValidator.Fold() {
+            public void validate(int point, int startPoint, int endPoint, double[] row) {
+                populateForecastMatrix(startPoint, endPoint, row);
+            }
+        });
 
         double biasness = BiasnessHandler.handleOffset(valMatrix);
         accuracyIndicators.setBias(biasness);
         ModelUtil.computeAccuracyIndicators(accuracyIndicators,null,valMatrix,dof);
+        if (priorDegraded())
+            train();
 
     }
 
     /**
      * Learns best decay coeffcient for seasonality  on a specific point
-      * @param point
-     * @param valMatrix
+     * @param startPoint
+     * @param endPoint
+     * @param row        actual value and forecast of the point
      */
-    private void populateForecastMatrix(int point, double[][] valMatrix) {
+    private void populateForecastMatrix(final int startPoint, final int endPoint, final double[] row) {
         min_mse_error = Double.MAX_VALUE;
-        int startPoint = point;
-        int endPoint = trainPoints + point;
-        for (float gamma = 0f; gamma <= 1.00001f; gamma += 0.01f)
-            initializeAndtrain(gamma, startPoint, endPoint, valMatrix);
+        optimizeParameters(new ParameterObjective() {
+            public double value(float[] parameters) {
+                return initializeAndtrain(parameters[0], startPoint, endPoint, row);
+            }
+        }, 1, DECAY_CONSTANTS_GRID);
     }
 
     /**
@@ -87,40 +105,52 @@ public class SeasonalSingleExponentialSmoothingModel extends AbstractForecastMod
      * @param gamma
      * @param startPoint
      * @param endPoint
-     * @param valMatrix
+     * @param row actual value and forecast at endPoint followed by the forecasts of the later horizons, set when
+     *            the MSE is the least so far
+     * @return MSE on the training points
      */
-    private void initializeAndtrain(float gamma, int startPoint, int endPoint, double[][] valMatrix) {
+    private double initializeAndtrain(float gamma, int startPoint, int endPoint, double[] row) {
         int index;
         double forecast,train_error,forecastValue=0,actualValue=0;
-        double[][] trainMatrix = new double[trainPoints][2];
+        TrainingContext context = TrainingContext.get();
+        double[] trainActual = context.actuals(trainPoints);
+        double[] trainForecast = context.forecasts(trainPoints);
+        // Points before startPoint+validationPoints+2 are not fitted and count as zero error
+        int fitted = Math.min(validationPoints + 2, trainPoints);
+        Arrays.fill(trainActual, 0, fitted, 0d);
+        Arrays.fill(trainForecast, 0, fitted, 0d);
 //        double[] seasonalComponent = new double[actual.length];
 
-        double[] seasonalComponent = initializeSeasonality(trainPoints);
+        double[] seasonalComponent = initializeSeasonality(trainPoints, context.seasonalComponent(seasonalPeriod));
 
         for (int i = startPoint + 1; i < endPoint + 1; i++) {
             index = (i - startPoint) % seasonalPeriod;
             forecast = seasonalComponent[index];
             if (i> startPoint+validationPoints+1 && i < endPoint) {
-                trainMatrix[i - startPoint][0] = actual[i];
-                trainMatrix[i - startPoint][1] = forecast;
+                trainActual[i - startPoint] = actual[i];
+                trainForecast[i - startPoint] = forecast;
             }
-            seasonalComponent[index] = (gamma * actual[i]) + ((1 - gamma) * seasonalComponent[index]);
-
             if (i == endPoint) {
                 actualValue = actual[i];
                 forecastValue = forecast;
             }
+            seasonalComponent[index] = (gamma * actual[i]) + ((1 - gamma) * seasonalComponent[index]);
         }
 
-        train_error = ModelUtil.computeMSE(trainMatrix);
+        train_error = ModelUtil.computeMSE(trainActual, trainForecast, trainPoints);
         if (min_mse_error > train_error) {
             min_mse_error = train_error;
             optGamma = gamma;
-            valMatrix[startPoint][0] = actualValue;
-            valMatrix[startPoint][1] = forecastValue;
-            errorBound = ErrorBoundsHandler.computeErrorBoundInterval(trainMatrix);
-            ModelUtil.computeAccuracyIndicators(accuracyIndicators,trainMatrix,null,dof);
+            row[0] = actualValue;
+            row[1] = forecastValue;
+            for (int k = 1; k < row.length - 1; k++) {
+                index = (endPoint + k - startPoint) % seasonalPeriod;
+                row[1 + k] = k % seasonalPeriod == 0 ? forecastValue : seasonalComponent[index];
+            }
+            errorBound = ErrorBoundsHandler.computeErrorBoundInterval(trainActual, trainForecast, trainPoints);
+            ModelUtil.computeAccuracyIndicators(accuracyIndicators, trainActual, trainForecast, trainPoints, dof);
         }
+        return train_error;
     }
 
     /**
@@ -130,17 +160,12 @@ public class SeasonalSingleExponentialSmoothingModel extends AbstractForecastMod
     @Override
     public void forecast(int numFuturePoints) {
 
-        int startPoint = 0, endPoint = actual.length, index;
-//        double[] seasonalComponent = new double[validationPoints];
-        double[] seasonalComponent = initializeSeasonality(trainPoints+validationPoints);
-
-        for (int i = startPoint + 1; i < endPoint; i++) {
-            index = (i - startPoint) % seasonalPeriod;
-            seasonalComponent[index] = (optGamma * actual[i]) + ((1 - optGamma) * seasonalComponent[index]);
-        }
+        if (state == null)
+            state = smooth();
+        double[] seasonalComponent = state.getSeasonalComponent();
 
         forecastDataSet = new DataSet();
-        startPoint = actual.length;
+        int startPoint = state.getPoints();
         Observation observation;
         double forecastValue, lowerBound, upperBound,adjustedValue;
 
@@ -169,15 +194,31 @@ public class SeasonalSingleExponentialSmoothingModel extends AbstractForecastMod
         }
     }
 
-    private double[] initializeSeasonality(int points) {
-        double[] seasonalComponent = new double[seasonalPeriod];
-        double[] cycle = new double[(points) / seasonalPeriod];
+    /**
+     * Smooths the whole series with the optimum decay constant
+     *
+     * @return
+     */
+    private SmoothingState smooth() {
+        SmoothingState state = new SmoothingState();
+        double[] seasonalComponent = initializeSeasonality(trainPoints + validationPoints, new double[seasonalPeriod]);
+        for (int i = 1; i < actual.length; i++) {
+            int index = i % seasonalPeriod;
+            seasonalComponent[index] = (optGamma * actual[i]) + ((1 - optGamma) * seasonalComponent[index]);
+        }
+        state.setSeasonalComponent(seasonalComponent);
+        state.setPoints(actual.length);
+        return state;
+    }
+
+    private double[] initializeSeasonality(int points, double[] seasonalComponent) {
+        int cycles = points / seasonalPeriod;
 
         for (int index = 0; index < seasonalPeriod; index++) {
-            Double value = 0d;
-            for (int iter = 0; iter < cycle.length; iter++)
+            double value = 0d;
+            for (int iter = 0; iter < cycles; iter++)
                 value += actual[index + iter * seasonalPeriod];
-            seasonalComponent[index] = value / cycle.length;
+            seasonalComponent[index] = value / cycles;
         }
         return seasonalComponent;
     }
@@ -22,9 +22,14 @@ import com.forecasting.models.dto.DataSet;
 import com.forecasting.models.dto.IndependentVariable;
 import com.forecasting.models.dto.Model;
 import com.forecasting.models.dto.Observation;
+import com.forecasting.models.models.OnlineForecastModel;
 import com.forecasting.models.postprocess.BiasnessHandler;
 import com.forecasting.models.postprocess.ErrorBoundsHandler;
 import com.forecasting.models.utils.ModelUtil;
+import com.forecasting.models.utils.TrainingContext;
+import com.forecasting.models.optimizer.GridSearchOptimizer;
+import com.forecasting.models.optimizer.ParameterObjective;
+import com.forecasting.models.optimizer.ParameterOptimizer;
 import com.forecasting.models.exception.ModelInitializationException;
 import lombok.Data;
 
@@ -32,13 +37,19 @@ import lombok.Data;
  * Substitute for Moving Average
  */
 @Data
-public class SingleExponentialSmoothingModel extends AbstractForecastModel {
+public class SingleExponentialSmoothingModel extends AbstractForecastModel implements OnlineForecastModel {
 
     private double min_mse_error;
     private double[] actual;
     private float optAlpha;
     private final int dof=1;
 
+    //Online state, smoothed up to the last observation once forecast
+    private SmoothingState state;
+    private int futurePoints;
+
+    private static final ParameterOptimizer DECAY_CONSTANTS_GRID = new GridSearchOptimizer(0.01f, 1f);
+
 
     public void init(DataSet observations) throws ModelInitializationException {
         super.init(observations);
@@ -56,15 +67,20 @@ public class SingleExponentialSmoothingModel extends AbstractForecastModel {
     @Override
     public void train() {
 
-        double[][] valMatrix = new double[validationPoints][2];
+        state = null;
         actual = observations.toArray();
-
-        for (int point = 0; point < validationPoints; point++)
-            populateForecastMatrix(point, valMatrix);
+        WalkForwardValidator validator = WalkForwardValidator.expanding(trainPoints, validationPoints).withHorizons(validationHorizons);
+        double[][] valMatrix = validator.validate(new WalkForwardValidator.Fold() {
+            public void validate(int point, int startPoint, int endPoint, double[] row) {
+                populateForecastMatrix(startPoint, endPoint, row);
+            }
+        });
 
         double biasness = BiasnessHandler.handle(valMatrix);
         accuracyIndicators.setBias(biasness);
         ModelUtil.computeAccuracyIndicators(accuracyIndicators,null,valMatrix,dof);
+        if (priorDegraded())
+            train();
 
 
     }
@@ -72,16 +88,18 @@ public class SingleExponentialSmoothingModel extends AbstractForecastModel {
     /**
      * Learns best decay coeffcient  on a specific point
      *
-     * @param point
-     * @param valMatrix
+     * @param startPoint
+     * @param endPoint
+     * @param row        actual value and forecast of the point
      */
-    private void populateForecastMatrix(int point, double[][] valMatrix) {
+    private void populateForecastMatrix(final int startPoint, final int endPoint, final double[] row) {
 
         min_mse_error = Double.MAX_VALUE;
-        int startPoint = 0;
-        int endPoint = trainPoints + point;
-        for (float alpha = 0f; alpha <= 1f; alpha += 0.01f)
-            initializeAndtrain(alpha, startPoint, endPoint, valMatrix);
+        optimizeParameters(new ParameterObjective() {
+            public double value(float[] parameters) {
+                return initializeAndtrain(parameters[0], startPoint, endPoint, row);
+            }
+        }, 1, DECAY_CONSTANTS_GRID);
     }
 
     /**
@@ -90,20 +108,28 @@ public class SingleExponentialSmoothingModel extends AbstractForecastModel {
      * @param alpha
      * @param startPoint
      * @param endPoint
-     * @param valMatrix
+     * @param row actual value and forecast at endPoint, repeated for the later horizons, set when the MSE is the
+     *            least so far
+     * @return MSE on the training points
      */
-    private void initializeAndtrain(float alpha, int startPoint, int endPoint, double[][] valMatrix) {
+    private double initializeAndtrain(float alpha, int startPoint, int endPoint, double[] row) {
 
         double forecast, train_error, forecastValue = 0, actualValue = 0;
         double lastValue = actual[startPoint];
-        double[][] trainMatrix = new double[endPoint - startPoint][2];
+        TrainingContext context = TrainingContext.get();
+        int length = endPoint - startPoint;
+        double[] trainActual = context.actuals(length);
+        double[] trainForecast = context.forecasts(length);
+        trainActual[0] = trainForecast[0] = 0d;
+        if (length > 1)
+            trainActual[1] = trainForecast[1] = 0d;
 
         for (int i = startPoint + 1; i < endPoint + 1; i++) {
             forecast = lastValue;
 
             if (i > startPoint + 1 && i < endPoint) {
-                trainMatrix[i - startPoint][0] = actual[i];
-                trainMatrix[i - startPoint][1] = forecast;
+                trainActual[i - startPoint] = actual[i];
+                trainForecast[i - startPoint] = forecast;
             }
             lastValue = (alpha * actual[i]) + ((1 - alpha) * lastValue);
             if (i == endPoint) {
@@ -112,15 +138,18 @@ public class SingleExponentialSmoothingModel extends AbstractForecastModel {
             }
         }
 
-        train_error = ModelUtil.computeMSE(trainMatrix);
+        train_error = ModelUtil.computeMSE(trainActual, trainForecast, length);
         if (min_mse_error > train_error) {
             min_mse_error = train_error;
             optAlpha = alpha;
-            valMatrix[startPoint][0] = actualValue;
-            valMatrix[startPoint][1] = forecastValue;
-            errorBound = ErrorBoundsHandler.computeErrorBoundInterval(trainMatrix);
-            ModelUtil.computeAccuracyIndicators(accuracyIndicators,trainMatrix,null,dof);
+            row[0] = actualValue;
+            row[1] = forecastValue;
+            for (int k = 2; k < row.length; k++)
+                row[k] = forecastValue;
+            errorBound = ErrorBoundsHandler.computeErrorBoundInterval(trainActual, trainForecast, length);
+            ModelUtil.computeAccuracyIndicators(accuracyIndicators, trainActual, trainForecast, length, dof);
         }
+        return train_error;
     }
 
     /**
@@ -130,15 +159,14 @@ public class SingleExponentialSmoothingModel extends AbstractForecastModel {
      */
     @Override
     public void forecast(int numFuturePoints) {
-        int startPoint = 0, endPoint = actual.length;
-        double lastValue=actual[startPoint];
+        if (state == null)
+            state = smooth();
+        futurePoints = numFuturePoints;
 
-        for (int i = startPoint + 1; i < endPoint; i++) {
-            lastValue = optAlpha * actual[i] + (1 - optAlpha) * lastValue;
-        }
+        double lastValue = state.getPermanent();
 
         forecastDataSet = new DataSet();
-        startPoint = actual.length;
+        int startPoint = state.getPoints();
         Observation observation;
         double forecastValue, lowerBound, upperBound;
 
@@ -166,4 +194,36 @@ public class SingleExponentialSmoothingModel extends AbstractForecastModel {
 
         }
     }
+
+    public void update(double value) {
+        if (state == null)
+            state = smooth();
+        smooth(state, value);
+        forecast(futurePoints);
+    }
+
+    /**
+     * Smooths the whole series with the optimum decay constant
+     *
+     * @return
+     */
+    private SmoothingState smooth() {
+        SmoothingState state = new SmoothingState();
+        state.setPermanent(actual[0]);
+        state.setPoints(1);
+        for (int i = 1; i < actual.length; i++)
+            smooth(state, actual[i]);
+        return state;
+    }
+
+    /**
+     * Smooths the next observation into the state
+     *
+     * @param state
+     * @param value
+     */
+    private void smooth(SmoothingState state, double value) {
+        state.setPermanent(optAlpha * value + (1 - optAlpha) * state.getPermanent());
+        state.setPoints(state.getPoints() + 1);
+    }
 }
@@ -22,14 +22,20 @@ import com.forecasting.models.dto.DataSet;
 import com.forecasting.models.dto.IndependentVariable;
 import com.forecasting.models.dto.Model;
 import com.forecasting.models.dto.Observation;
+import com.forecasting.models.models.OnlineForecastModel;
+import com.forecasting.models.optimizer.GridSearchOptimizer;
+import com.forecasting.models.optimizer.ParameterObjective;
+import com.forecasting.models.optimizer.ParameterOptimizer;
+import com.forecasting.models.optimizer.WarmStartOptimizer;
 import com.forecasting.models.postprocess.BiasnessHandler;
 import com.forecasting.models.postprocess.ErrorBoundsHandler;
 import com.forecasting.models.utils.ModelUtil;
+import com.forecasting.models.utils.TrainingContext;
 import com.forecasting.models.exception.ModelInitializationException;
 import lombok.Data;
 
 @Data
-public class TripleExponentialSmoothingAdditiveModel extends AbstractForecastModel {
+public class TripleExponentialSmoothingAdditiveModel extends AbstractForecastModel implements OnlineForecastModel {
 
     //Data parameters
     double[] actual;
@@ -45,6 +51,12 @@ public class TripleExponentialSmoothingAdditiveModel extends AbstractForecastMod
     private double min_mse_error;
     private double train_error;
 
+    //Online state, smoothed up to the last observation once forecast
+    private SmoothingState state;
+    private int futurePoints;
+
+    private static final ParameterOptimizer DECAY_CONSTANTS_GRID = new GridSearchOptimizer(0.1f, 1.01f);
+
     /**
      * Constructor with  initializeCoefficients flag
      *
@@ -96,13 +108,26 @@ public class TripleExponentialSmoothingAdditiveModel extends AbstractForecastMod
      * compute accuracy indicator and find optimum decay constants
      */
     public void train() {
-        double[][] valMatrix = new double[validationPoints][2];
+        state = null;
         actual = observations.toArray();
-        for (int point = 0; point < validationPoints; point++)
-            populateForecastMatrix(point, valMatrix);
+        final WarmStartOptimizer warmStart = findDecayConstants ? warmStart(3, DECAY_CONSTANTS_GRID) : null;
+        HoltWintersKernel kernel = null, fullKernel = null;
+        if (findDecayConstants && parameterOptimizer == null) {
+            fullKernel = HoltWintersKernel.grid(seasonalPeriod, false);
+            kernel = warmStart == null ? fullKernel : HoltWintersKernel.of(warmStart.points(), seasonalPeriod, false);
+        }
+        final HoltWintersKernel searched = kernel, full = fullKernel;
+        WalkForwardValidator validator = WalkForwardValidator.expanding(trainPoints, validationPoints).withHorizons(validationHorizons);
+        double[][] valMatrix = validator.validate(new WalkForwardValidator.Fold() {
+            public void validate(int point, int startPoint, int endPoint, double[] row) {
+                populateForecastMatrix(point, startPoint, endPoint, row, searched, full, warmStart);
+            }
+        });
         double biasness= BiasnessHandler.handleOffset(valMatrix);
         accuracyIndicators.setBias(biasness);
         ModelUtil.computeAccuracyIndicators(accuracyIndicators,null,valMatrix,dof);
+        if (findDecayConstants && priorDegraded())
+            train();
 
     }
 
@@ -110,22 +135,62 @@ public class TripleExponentialSmoothingAdditiveModel extends AbstractForecastMod
      * Populate forecast matrix on validation points to be used for accuracy indicator computation
      *
      * @param point
-     * @param valMatrix
+     * @param startPoint
+     * @param endPoint
+     * @param row        actual value and forecast of the point
+     * @param kernel     smoothing state of the searched triples, carried over from the previous point. Null when a
+     *                   parameter optimizer is configured
+     * @param fullKernel smoothing state of every triple of the 0.1 grid, the same as kernel without a prior
+     * @param warmStart  neighbourhood of the prior, null without a prior
      */
-    void populateForecastMatrix(int point, double[][] valMatrix) {
+    void populateForecastMatrix(int point, final int startPoint, final int endPoint, final double[] row, HoltWintersKernel kernel,
+                                HoltWintersKernel fullKernel, WarmStartOptimizer warmStart) {
         min_mse_error = -1;
-        int startPoint = 0;
-        int endPoint = trainPoints + point;
-        if (findDecayConstants)
-            for (float alpha = 0f; alpha <= 1.01f; alpha += 0.1f)
-                for (float beta = 0f; beta <= 1.01f; beta += 0.1f)
-                    for (float gamma = 0f; gamma <= 1.01f; gamma += 0.1f)
-                        initializeAndTrainModel(alpha, beta, gamma, startPoint, endPoint, valMatrix);
+        if (findDecayConstants && budgetExhausted(point > 0))
+            initializeAndTrainModel(optAlpha, optBeta, optGamma, startPoint, endPoint, row);
+        else if (findDecayConstants && kernel != null) {
+            int best = searchDecayConstants(kernel, startPoint, endPoint);
+            parameterEvaluations += kernel.size();
+            if (kernel != fullKernel && !warmStart.accepts(new float[]{kernel.getAlpha(best), kernel.getBeta(best), kernel.getGamma(best)}, kernel.error(best))) {
+                int fullBest = searchDecayConstants(fullKernel, startPoint, endPoint);
+                parameterEvaluations += fullKernel.size();
+                if (fullKernel.error(fullBest) < kernel.error(best)) {
+                    kernel = fullKernel;
+                    best = fullBest;
+                }
+            }
+            initializeAndTrainModel(kernel.getAlpha(best), kernel.getBeta(best), kernel.getGamma(best), startPoint, endPoint, row);
+        } else if (findDecayConstants)
+            optimizeParameters(new ParameterObjective() {
+                public double value(float[] parameters) {
+                    initializeAndTrainModel(parameters[0], parameters[1], parameters[2], startPoint, endPoint, row);
+                    return train_error;
+                }
+            }, 3, DECAY_CONSTANTS_GRID);
         else
-            initializeAndTrainModel(optAlpha, optBeta, optGamma, startPoint, endPoint, valMatrix);
+            initializeAndTrainModel(optAlpha, optBeta, optGamma, startPoint, endPoint, row);
 
     }
 
+    /**
+     * Extends the smoothing state of every decay constant triple up to endPoint and returns the one with least MSE.
+     * The kernel is restarted when endPoint is in a later seasonal cycle than the last point it smoothed, as that
+     * changes the initial seasonality
+     *
+     * @param kernel
+     * @param startPoint
+     * @param endPoint
+     * @return index of the best triple in the kernel
+     */
+    private int searchDecayConstants(HoltWintersKernel kernel, int startPoint, int endPoint) {
+        boolean restart = !kernel.started() || (endPoint - startPoint) / seasonalPeriod != (kernel.points() - startPoint) / seasonalPeriod;
+        if (restart)
+            kernel.reset(actual, initializePermanentComponent(startPoint), initializeTrend(startPoint),
+                    initializeSeasonality(startPoint, endPoint, TrainingContext.get().seasonalComponent(seasonalPeriod)));
+        kernel.extend(actual, endPoint);
+        return kernel.best();
+    }
+
     /**
      * Compute MSE error and evaluate the given decay constants
      *
@@ -134,23 +199,28 @@ public class TripleExponentialSmoothingAdditiveModel extends AbstractForecastMod
      * @param gamma
      * @param startPoint
      * @param endPoint
-     * @param valMatrix
+     * @param row actual value and forecast at endPoint followed by the forecasts of the later horizons, set when
+     *            the MSE is the least so far
      */
-    public void initializeAndTrainModel(float alpha, float beta, float gamma, int startPoint, int endPoint, double[][] valMatrix) {
+    public void initializeAndTrainModel(float alpha, float beta, float gamma, int startPoint, int endPoint, double[] row) {
 
-        double[][] trainMatrix = new double[endPoint-startPoint][2];
+        TrainingContext context = TrainingContext.get();
+        int length = endPoint - startPoint;
+        double[] trainActual = context.actuals(length);
+        double[] trainForecast = context.forecasts(length);
 
         double trend = initializeTrend(startPoint);
         double permanent = initializePermanentComponent(startPoint);
-        double[] seasonalComponent = initializeSeasonality(startPoint, endPoint);
+        double[] seasonalComponent = initializeSeasonality(startPoint, endPoint, context.seasonalComponent(seasonalPeriod));
         double lastPermanent;
         double forecast;
 
-        trainMatrix[0][0] = actual[startPoint];
-        trainMatrix[0][1] = permanent;
+        trainActual[0] = actual[startPoint];
+        trainForecast[0] = permanent;
         int index;
 
         double actualValue = 0d, forecastValue = 0d;
+        double originPermanent = 0d, originTrend = 0d, originSeasonal = 0d;     // State endPoint is forecast from
 
         for (int i = startPoint + 1; i < endPoint + 1; i++) {
             index = (i - startPoint) % seasonalPeriod;
@@ -158,54 +228,52 @@ public class TripleExponentialSmoothingAdditiveModel extends AbstractForecastMod
             forecast = seasonalComponent[index] + permanent + trend;
 
             if (i < endPoint) {
-                trainMatrix[i - startPoint][0] = actual[i];
-                trainMatrix[i - startPoint][1] = forecast;
+                trainActual[i - startPoint] = actual[i];
+                trainForecast[i - startPoint] = forecast;
+            } else {
+                actualValue = actual[i];
+                forecastValue = forecast;
+                originPermanent = permanent;
+                originTrend = trend;
+                originSeasonal = seasonalComponent[index];
             }
 
             lastPermanent = permanent;
             permanent = (alpha * (actual[i] - seasonalComponent[index])) + (1 - alpha) * (lastPermanent + trend);
             trend = (beta * (permanent - lastPermanent)) + ((1 - beta) * trend);
             seasonalComponent[index] = (gamma * (actual[i] - permanent)) + ((1 - gamma) * seasonalComponent[index]);
-
-            if (i == endPoint) {
-                actualValue = actual[i];
-                forecastValue = forecast;
-            }
         }
 
-        train_error = ModelUtil.computeMSE(trainMatrix);
+        train_error = ModelUtil.computeMSE(trainActual, trainForecast, length);
         if (min_mse_error > train_error || min_mse_error == -1) {
             min_mse_error = train_error;
             optAlpha = alpha;
             optBeta = beta;
             optGamma = gamma;
-            valMatrix[endPoint-trainPoints][0] = actualValue;
-            valMatrix[endPoint-trainPoints][1] = forecastValue;
-            errorBound = ErrorBoundsHandler.computeErrorBoundInterval(trainMatrix);
-            ModelUtil.computeAccuracyIndicators(accuracyIndicators,trainMatrix,null,dof);
+            row[0] = actualValue;
+            row[1] = forecastValue;
+            for (int k = 1; k < row.length - 1; k++) {
+                index = (endPoint + k - startPoint) % seasonalPeriod;
+                row[1 + k] = (k % seasonalPeriod == 0 ? originSeasonal : seasonalComponent[index]) + originPermanent + (k + 1) * originTrend;
+            }
+            errorBound = ErrorBoundsHandler.computeErrorBoundInterval(trainActual, trainForecast, length);
+            ModelUtil.computeAccuracyIndicators(accuracyIndicators, trainActual, trainForecast, length, dof);
         }
     }
 
 
     public void forecast(int numFuturePoints) {
 
-        int startPoint = 0, endPoint = actual.length, index;
-        double trend = initializeTrend(startPoint);
-        double permanent = initializePermanentComponent(startPoint);
-        double[] seasonalComponent = initializeSeasonality(startPoint, endPoint);
-        double lastPermanent;
-
-        for (int i = startPoint + 1; i < endPoint; i++) {
+        if (state == null)
+            state = smooth();
+        futurePoints = numFuturePoints;
 
-            index = (i - startPoint) % seasonalPeriod;
-            lastPermanent = permanent;
-            permanent = (optAlpha * (actual[i] - seasonalComponent[index])) + (1 - optAlpha) * (lastPermanent + trend);
-            trend = (optBeta * (permanent - lastPermanent)) + ((1 - optBeta) * trend);
-            seasonalComponent[index] = (optGamma * (actual[i] - permanent)) + ((1 - optGamma) * seasonalComponent[index]);
-        }
+        double trend = state.getTrend();
+        double permanent = state.getPermanent();
+        double[] seasonalComponent = state.getSeasonalComponent();
 
         forecastDataSet = new DataSet();
-        startPoint = actual.length;
+        int startPoint = state.getPoints();
         double seasonalElement;
         Observation observation;
         double forecastValue, lowerBound, upperBound,adjustedValue;
@@ -237,28 +305,74 @@ public class TripleExponentialSmoothingAdditiveModel extends AbstractForecastMod
         }
     }
 
+    public void update(double value) {
+        if (state == null)
+            state = smooth();
+        smooth(state, value);
+        forecast(futurePoints);
+    }
+
     /**
-     * Initialize seasonalities
+     * Smooths the whole series with the optimum decay constants
+     *
+     * @return
+     */
+    private SmoothingState smooth() {
+        SmoothingState state = new SmoothingState();
+        state.setTrend(initializeTrend(0));
+        state.setPermanent(initializePermanentComponent(0));
+        state.setSeasonalComponent(initializeSeasonality(0, actual.length, new double[seasonalPeriod]));
+        state.setPoints(1);
+        for (int i = 1; i < actual.length; i++)
+            smooth(state, actual[i]);
+        return state;
+    }
+
+    /**
+     * Smooths the next observation into the state
+     *
+     * @param state
+     * @param value
+     */
+    private void smooth(SmoothingState state, double value) {
+        int index = state.getPoints() % seasonalPeriod;
+        double[] seasonalComponent = state.getSeasonalComponent();
+        double lastPermanent = state.getPermanent();
+        double trend = state.getTrend();
+        double permanent;
+
+        permanent = (optAlpha * (value - seasonalComponent[index])) + (1 - optAlpha) * (lastPermanent + trend);
+        trend = (optBeta * (permanent - lastPermanent)) + ((1 - optBeta) * trend);
+        seasonalComponent[index] = (optGamma * (value - permanent)) + ((1 - optGamma) * seasonalComponent[index]);
+
+        state.setPermanent(permanent);
+        state.setTrend(trend);
+        state.setPoints(state.getPoints() + 1);
+    }
+
+    /**
+     * Initialize seasonalities into the given array
      *
      * @param startPoint
      * @param endPoint
+     * @param seasonalComponent
      * @return
      */
-    private double[] initializeSeasonality(int startPoint, int endPoint) {
-
-        double[] seasonalComponent = new double[seasonalPeriod];
-            double[] cycle = new double[(endPoint - startPoint) / seasonalPeriod];
-            for (int i = 0; i < cycle.length; i++) {
-                for (int j = 0; j < seasonalPeriod; j++)
-                    cycle[i] += actual[i * seasonalPeriod + j];
-                cycle[i] = cycle[i] / seasonalPeriod;
-            }
-            for (int index = 0; index < seasonalPeriod; index++) {
-                Double value = 0d;
-                for (int iter = 0; iter < cycle.length; iter++)
-                    value += actual[startPoint + index + iter * seasonalPeriod] - cycle[iter];
-                seasonalComponent[index] = value / ((endPoint-startPoint) / seasonalPeriod);
-            }
+    private double[] initializeSeasonality(int startPoint, int endPoint, double[] seasonalComponent) {
+        int cycles = (endPoint - startPoint) / seasonalPeriod;
+        double[] cycle = TrainingContext.get().cycles(cycles);
+        for (int i = 0; i < cycles; i++) {
+            cycle[i] = 0d;
+            for (int j = 0; j < seasonalPeriod; j++)
+                cycle[i] += actual[i * seasonalPeriod + j];
+            cycle[i] = cycle[i] / seasonalPeriod;
+        }
+        for (int index = 0; index < seasonalPeriod; index++) {
+            double value = 0d;
+            for (int iter = 0; iter < cycles; iter++)
+                value += actual[startPoint + index + iter * seasonalPeriod] - cycle[iter];
+            seasonalComponent[index] = value / cycles;
+        }
         return seasonalComponent;
     }
 
@@ -269,7 +383,7 @@ public class TripleExponentialSmoothingAdditiveModel extends AbstractForecastMod
      * @return
      */
     private double initializeTrend(int startPoint) {
-            Double sum = 0d;
+            double sum = 0d;
             for (int i = startPoint; i < startPoint + seasonalPeriod; i++)
                 sum = sum + ((actual[seasonalPeriod + i] - actual[i]) / seasonalPeriod);
             return sum / seasonalPeriod;
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.models.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Walk-forward validation over one series. Validation point p is forecast at origin endPoint = trainPoints + p
+ * from the points [startPoint, endPoint), startPoint being 0 for expanding origins or endPoint - window for
+ * rolling ones, and fills row p of the actual/forecast matrix read by ModelUtil.computeAccuracyIndicators.
+ * With more than one horizon the row also carries the forecasts of endPoint + 1 .. endPoint + horizons - 1 made
+ * from the same origin state, so origins x horizons errors come out of the one pass over each origin.
+ */
+public class WalkForwardValidator {
+
+    private final int trainPoints;
+    private final int validationPoints;
+    private final int window;           // Points before each origin, 0 when the origins expand from the start
+    private final int horizons;         // Steps forecast from each origin, 1 for one-step-ahead validation
+
+    private WalkForwardValidator(int trainPoints, int validationPoints, int window, int horizons) {
+        if (trainPoints < 0 || validationPoints <= 0 || window < 0 || window > trainPoints || horizons <= 0)
+            throw new IllegalArgumentException("Invalid walk-forward validation of " + validationPoints + " points after "
+                    + trainPoints + " with window " + window + " over " + horizons + " horizons");
+        this.trainPoints = trainPoints;
+        this.validationPoints = validationPoints;
+        this.window = window;
+        this.horizons = horizons;
+    }
+
+    /**
+     * Origins fitted from the first point of the series
+     *
+     * @param trainPoints      origin of the first validation point
+     * @param validationPoints
+     * @return
+     */
+    public static WalkForwardValidator expanding(int trainPoints, int validationPoints) {
+        return new WalkForwardValidator(trainPoints, validationPoints, 0, 1);
+    }
+
+    /**
+     * Origins fitted from the last window points before them
+     *
+     * @param trainPoints      origin of the first validation point
+     * @param validationPoints
+     * @param window
+     * @return
+     */
+    public static WalkForwardValidator rolling(int trainPoints, int validationPoints, int window) {
+        if (window <= 0)
+            throw new IllegalArgumentException("Invalid rolling window " + window);
+        return new WalkForwardValidator(trainPoints, validationPoints, window, 1);
+    }
+
+    /**
+     * Same origins, each forecasting the given number of steps ahead. Steps past the last validation point
+     * have no actual value and are left out of the horizon errors
+     *
+     * @param horizons
+     * @return
+     */
+    public WalkForwardValidator withHorizons(int horizons) {
+        return new WalkForwardValidator(trainPoints, validationPoints, window, horizons);
+    }
+
+    /**
+     * Validation point forecast from the points before it
+     */
+    public interface Fold {
+
+        /**
+         * Fills row with the actual value and the forecast at endPoint
+         *
+         * @param point      validation point
+         * @param startPoint first point of the window
+         * @param endPoint   origin, the point forecast
+         * @param row        actual value at 0, forecast of endPoint + k at 1 + k for each horizon k
+         */
+        void validate(int point, int startPoint, int endPoint, double[] row);
+    }
+
+    public int startPoint(int point) {
+        return window == 0 ? 0 : endPoint(point) - window;
+    }
+
+    public int endPoint(int point) {
+        return trainPoints + point;
+    }
+
+    /**
+     * Validates the points in order, for folds carrying state from one origin to the next
+     *
+     * @param fold
+     * @return actual/forecast matrix
+     */
+    public double[][] validate(Fold fold) {
+        double[][] valMatrix = new double[validationPoints][1 + horizons];
+        for (int point = 0; point < validationPoints; point++)
+            fold.validate(point, startPoint(point), endPoint(point), valMatrix[point]);
+        return valMatrix;
+    }
+
+    /**
+     * Validates the points concurrently on the pool, in order when it is null. The fold must not share state
+     * between origins
+     *
+     * @param fold
+     * @param pool
+     * @return actual/forecast matrix
+     */
+    public double[][] validate(final Fold fold, ForkJoinPool pool) {
+        if (pool == null || validationPoints == 1)
+            return validate(fold);
+        final double[][] valMatrix = new double[validationPoints][1 + horizons];
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                List<RecursiveAction> origins = new ArrayList<RecursiveAction>(validationPoints);
+                for (int point = 0; point < validationPoints; point++) {
+                    final int origin = point;
+                    origins.add(new RecursiveAction() {
+                        @Override
+                        protected void compute() {
+                            fold.validate(origin, startPoint(origin), endPoint(origin), valMatrix[origin]);
+                        }
+                    });
+                }
+                ForkJoinTask.invokeAll(origins);
+            }
+        });
+        return valMatrix;
+    }
+
+    public int getTrainPoints() {
+        return trainPoints;
+    }
+
+    public int getValidationPoints() {
+        return validationPoints;
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    public int getHorizons() {
+        return horizons;
+    }
+}
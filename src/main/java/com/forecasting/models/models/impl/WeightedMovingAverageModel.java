@@ -22,6 +22,7 @@ import com.forecasting.models.dto.DataSet;
 import com.forecasting.models.dto.IndependentVariable;
 import com.forecasting.models.dto.Model;
 import com.forecasting.models.dto.Observation;
+import com.forecasting.models.models.OnlineForecastModel;
 import com.forecasting.models.postprocess.BiasnessHandler;
 import com.forecasting.models.postprocess.ErrorBoundsHandler;
 import com.forecasting.models.utils.ModelUtil;
@@ -29,7 +30,7 @@ import com.forecasting.models.exception.ModelInitializationException;
 import lombok.Data;
 
 @Data
-public class WeightedMovingAverageModel extends AbstractForecastModel {
+public class WeightedMovingAverageModel extends AbstractForecastModel implements OnlineForecastModel {
 
     //Model Parameters
     private int dof;
@@ -40,6 +41,11 @@ public class WeightedMovingAverageModel extends AbstractForecastModel {
     private double[] actual;
     private double errorBound;
 
+    //Online state, the last step * slices observations with observation i at i % (step * slices)
+    private double[] window;
+    private int points;
+    private int futurePoints;
+
 
     /**
      * Constructor, by default step is taken as one
@@ -110,8 +116,8 @@ public class WeightedMovingAverageModel extends AbstractForecastModel {
         double sum = 0, avg;
         double forecast;
         double[][] trainMatrix = new double[trainPoints][2];
-        double[][] valMatrix = new double[validationPoints][2];
         actual = observations.toArray();
+        window = null;
 
         for (int i = 0; i < step * slices; i++)
             sum += actual[i];
@@ -132,16 +138,21 @@ public class WeightedMovingAverageModel extends AbstractForecastModel {
             trainMatrix[pos][1] = forecast;
         }
 
-        for (int pos = actual.length - validationPoints, j = 0; pos < actual.length; pos++) {
-            sum = 0;
-            w = 0;
-            for (int k = pos - step * slices; k < pos; k += step)
-                sum += actual[k] * weights[w++];
-            forecast = sum / slices;
-            valMatrix[j][0] = actual[pos];
-            valMatrix[j][1] = forecast;
-            j++;
-        }
+        WalkForwardValidator validator = WalkForwardValidator.rolling(actual.length - validationPoints, validationPoints,
+                step * slices).withHorizons(validationHorizons);
+        double[][] valMatrix = validator.validate(new WalkForwardValidator.Fold() {
+            public void validate(int point, int startPoint, int endPoint, double[] row) {
+                row[0] = actual[endPoint];
+                // Later horizons average the forecasts of the earlier ones past the origin, as forecast does
+                for (int h = 0; h < row.length - 1; h++) {
+                    double sum = 0;
+                    int w = 0;
+                    for (int k = startPoint + h; k < endPoint + h; k += step)
+                        sum += (k < endPoint ? actual[k] : row[1 + k - endPoint]) * weights[w++];
+                    row[1 + h] = sum / slices;
+                }
+            }
+        }, validationPool);
         double biasness = BiasnessHandler.handleOffset(valMatrix);
         accuracyIndicators.setBias(biasness);
         ModelUtil.computeAccuracyIndicators(accuracyIndicators, trainMatrix, valMatrix, dof);
@@ -156,14 +167,18 @@ public class WeightedMovingAverageModel extends AbstractForecastModel {
     public void forecast(int numFuturePoints) {
         double sum, adjustedValue, forecastValue, upperBound, lowerBound;
         int w = 0;
+        if (window == null)
+            fillWindow();
+        futurePoints = numFuturePoints;
+
         double[] forecast = new double[numFuturePoints];
-        for (int i = actual.length; i < actual.length + numFuturePoints; i++) {
+        for (int i = points; i < points + numFuturePoints; i++) {
             sum = 0;
             w = 0;
             for (int j = i - step * slices; j < i; j += step) {
-                sum += weights[w] * (j < actual.length ? actual[j] : forecast[j - actual.length]);
+                sum += weights[w] * (j < points ? window[j % window.length] : forecast[j - points]);
             }
-            forecast[i - actual.length] = sum / slices;
+            forecast[i - points] = sum / slices;
         }
 
         BiasnessHandler.adjustBiasness(forecast, accuracyIndicators.getBias());
@@ -197,6 +212,24 @@ public class WeightedMovingAverageModel extends AbstractForecastModel {
         }
     }
 
+    public void update(double value) {
+        if (window == null)
+            fillWindow();
+        window[points % window.length] = value;
+        points++;
+        forecast(futurePoints);
+    }
+
+    /**
+     * Copies the observations the next forecast depends on into the window
+     */
+    private void fillWindow() {
+        window = new double[step * slices];
+        points = actual.length;
+        for (int i = Math.max(0, points - window.length); i < points; i++)
+            window[i % window.length] = actual[i];
+    }
+
     public DataSet getForecastDataSet() {
         return forecastDataSet;
     }
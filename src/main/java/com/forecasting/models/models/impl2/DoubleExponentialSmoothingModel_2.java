@@ -24,6 +24,9 @@ import com.forecasting.models.dto.Model;
 import com.forecasting.models.dto.Observation;
 import com.forecasting.models.exception.ModelInitializationException;
 import com.forecasting.models.models.impl.AbstractForecastModel;
+import com.forecasting.models.optimizer.GridSearchOptimizer;
+import com.forecasting.models.optimizer.ParameterObjective;
+import com.forecasting.models.optimizer.ParameterOptimizer;
 import com.forecasting.models.postprocess.BiasnessHandler;
 import com.forecasting.models.postprocess.ErrorBoundsHandler;
 import com.forecasting.models.utils.AccuracyIndicators;
@@ -46,6 +49,8 @@ public class DoubleExponentialSmoothingModel_2 extends AbstractForecastModel {
     //Accuracy parameters
     private double min_val_error;
 
+    private static final ParameterOptimizer DECAY_CONSTANTS_GRID = new GridSearchOptimizer(0.1f, 1f);
+
     private double errorBound;
 
 
@@ -99,9 +104,11 @@ public class DoubleExponentialSmoothingModel_2 extends AbstractForecastModel {
         actual = observations.toArray();
         min_val_error = Double.MAX_VALUE;
         if (findDecayConstants)
-            for (float alpha = 0f; alpha <= 1f; alpha += 0.1f)
-                for (float beta = 0f; beta <= 1f; beta += 0.1f)
-                    initializeAndTrainModel(alpha, beta);
+            optimizeParameters(new ParameterObjective() {
+                public double value(float[] parameters) {
+                    return initializeAndTrainModel(parameters[0], parameters[1]);
+                }
+            }, 2, DECAY_CONSTANTS_GRID);
         else
             initializeAndTrainModel(optAlpha, optBeta);
     }
@@ -111,8 +118,9 @@ public class DoubleExponentialSmoothingModel_2 extends AbstractForecastModel {
      *
      * @param alpha
      * @param beta
+     * @return MAPE on the validation points
      */
-    public void initializeAndTrainModel(float alpha, float beta) {
+    public double initializeAndTrainModel(float alpha, float beta) {
 
         double[][] trainMatrix = new double[trainPoints][2];
         double[][] valMatrix = new double[validationPoints][2];
@@ -147,6 +155,7 @@ public class DoubleExponentialSmoothingModel_2 extends AbstractForecastModel {
             optBeta = beta;
             accuracyIndicators = AI;
         }
+        return AI.getMAPE();
     }
 
     /**
@@ -27,11 +27,15 @@ import com.forecasting.models.models.DataPoint;
 import com.forecasting.models.models.impl.AbstractForecastModel;
 import com.forecasting.models.postprocess.BiasnessHandler;
 import com.forecasting.models.postprocess.ErrorBoundsHandler;
+import com.forecasting.models.utils.FFTPlanCache;
 import com.forecasting.models.utils.ModelConstants;
 import com.forecasting.models.utils.ModelUtil;
+import com.forecasting.models.utils.SortUtil;
 import edu.emory.mathcs.jtransforms.fft.DoubleFFT_1D;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * FFT  model implementation
@@ -41,6 +45,7 @@ public class FFTModel_2 extends AbstractForecastModel {
 
     //Model Attributes
     private Integer threshold;
+    private double[] series;
 
     //post processing attributes
     private double mean;
@@ -83,6 +88,7 @@ public class FFTModel_2 extends AbstractForecastModel {
             throw new ModelInitializationException("FFT:Invalid model arugments");
         if (offsetDecayFactor == -1)
             offsetDecayFactor = ModelConstants.DEFAULT_FFT_OFFSET_DECAY_FACTOR;
+        series = observations.toArray();
     }
 
     // Accuracy Indicators are computed on validation points only, could be extend to train points too later
@@ -92,38 +98,45 @@ public class FFTModel_2 extends AbstractForecastModel {
         double[][] trainMatrix = new double[trainPoints][2];
         double[][] valMatrix = new double[validationPoints][2];
 
-        double[] ts = observations.toArray();
-
-        for (int j = 0; j < trainPoints; j++)
-
-            ts = Arrays.copyOf(ts, ts.length + validationPoints);
+        // The spectrum is taken over the series zero padded by trainPoints * validationPoints points, with its
+        // validation points replaced by the validationPoints before them. Long series get past
+        // FFTPlanCache.MAX_CACHED_SIZE here, their buffer and plan are then local to this call
+        int length = series.length + trainPoints * validationPoints;
+        double[] ts = FFTPlanCache.workArray(2 * length);
+        System.arraycopy(series, 0, ts, 0, series.length);
+        Arrays.fill(ts, series.length, 2 * length, 0d);
 
         for (int j = trainPoints; j < trainPoints + validationPoints; j++)
             ts[j] = ts[j - validationPoints];
 
-        double[] approxSignal = getApproximatedSignal(ts);
-
-        for (int i = 0; i < trainPoints; i++) {
+        for (int i = 0; i < trainPoints; i++)
             trainMatrix[i][0] = ts[i];
-            trainMatrix[i][1] = approxSignal[i];
-        }
-
-        for (int i = trainPoints; i < trainPoints + validationPoints; i++) {
+        for (int i = trainPoints; i < trainPoints + validationPoints; i++)
             valMatrix[i - trainPoints][0] = ts[i];
-            valMatrix[i - trainPoints][1] = approxSignal[i];
-        }
+
+        approximateSignal(ts, length);
+
+        for (int i = 0; i < trainPoints; i++)
+            trainMatrix[i][1] = ts[i];
+        for (int i = trainPoints; i < trainPoints + validationPoints; i++)
+            valMatrix[i - trainPoints][1] = ts[i];
 
         double biasness = BiasnessHandler.handle(valMatrix);
         accuracyIndicators.setBias(biasness);
         ModelUtil.computeAccuracyIndicators(accuracyIndicators, trainMatrix, valMatrix, dof);
     }
 
-    private double[] getApproximatedSignal(double[] timeSeries) {
-
-        double[] tsArray = transform(timeSeries);
-        double[] outputArray = doFFTanalysis(tsArray);
-        reverseTransform(outputArray);
-        return outputArray;
+    /**
+     * Replaces the first length points of the buffer with their approximated signal, the buffer holds 2 * length
+     * points with zeros after the series
+     *
+     * @param points
+     * @param length
+     */
+    private void approximateSignal(double[] points, int length) {
+        transform(points, length);
+        doFFTanalysis(points, length);
+        reverseTransform(points, length);
     }
 
     /**
@@ -134,26 +147,29 @@ public class FFTModel_2 extends AbstractForecastModel {
         DataPoint observation;
         double forecastValue, lowerbound, upperbound;
         forecastDataSet = new DataSet();
-        double[] ts = observations.toArray();
-        double[][] trainMatrix = new double[trainPoints+validationPoints][2];
-
-        ts = Arrays.copyOf(ts, ts.length + futurePoints);
-
-        for (int i = observations.size(); i < observations.size() + futurePoints; i++)
+        double[][] trainMatrix = new double[trainPoints + validationPoints][2];
+
+        // The last futurePoints are repeated after the series
+        int length = series.length + futurePoints;
+        double[] ts = FFTPlanCache.workArray(2 * length);
+        System.arraycopy(series, 0, ts, 0, series.length);
+        Arrays.fill(ts, series.length, 2 * length, 0d);
+        for (int i = series.length; i < length; i++)
             ts[i] = ts[i - futurePoints];
 
-        double[] approximatedSignal = getApproximatedSignal(ts);
-
-        for (int i = 0; i < trainPoints + validationPoints; i++) {
+        for (int i = 0; i < trainPoints + validationPoints; i++)
             trainMatrix[i][0] = ts[i];
-            trainMatrix[i][1] = approximatedSignal[i];
-        }
+
+        approximateSignal(ts, length);
+
+        for (int i = 0; i < trainPoints + validationPoints; i++)
+            trainMatrix[i][1] = ts[i];
 
         errorBound = ErrorBoundsHandler.computeErrorBoundInterval(trainMatrix);
 
         for (int i = 0; i < futurePoints; i++) {
 
-            forecastValue = approximatedSignal[approximatedSignal.length - futurePoints + i];
+            forecastValue = ts[length - futurePoints + i];
             forecastValue = BiasnessHandler.adjustBiasness(forecastValue, accuracyIndicators.getBias());
             lowerbound = forecastValue - errorBound;
             upperbound = forecastValue + errorBound;
@@ -167,25 +183,26 @@ public class FFTModel_2 extends AbstractForecastModel {
     }
 
     /**
+     * Mean centers the first length points of data in place
+     *
      * @param data
-     * @return
+     * @param length
      */
-    private double[] transform(double[] data) {
-        double[] meanCenteredTS = new double[data.length * 2];
+    private void transform(double[] data, int length) {
         double sum = 0l;
-        for (int i = 0; i < data.length; i++)
+        for (int i = 0; i < length; i++)
             sum += data[i];
-        mean = sum / data.length;
-        for (int i = 0; i < data.length; i++)
-            meanCenteredTS[i] = data[i] - mean;
-        return meanCenteredTS;
+        mean = sum / length;
+        for (int i = 0; i < length; i++)
+            data[i] = data[i] - mean;
     }
 
     /**
      * @param data
+     * @param length
      */
-    private void reverseTransform(double[] data) {
-        for (int i = 0; i < data.length; i++)
+    private void reverseTransform(double[] data, int length) {
+        for (int i = 0; i < length; i++)
             data[i] = data[i] + mean;
     }
 
@@ -194,36 +211,33 @@ public class FFTModel_2 extends AbstractForecastModel {
      * @return
      */
     public double[] doFFTanalysis(double[] points) {
+        int n = points.length / 2;
+        doFFTanalysis(points, n);
+        return Arrays.copyOf(points, n);
+    }
+
+    /**
+     * Keeps the strongest frequencies of the series, the filtered signal replaces the first n points
+     *
+     * @param points input of size 2 * n, may be longer
+     * @param n      number of points in the series
+     */
+    private void doFFTanalysis(double[] points, int n) {
 
-        DoubleFFT_1D fft = new DoubleFFT_1D(points.length / 2);
+        DoubleFFT_1D fft = FFTPlanCache.plan(n);
         fft.realForwardFull(points);
-        List<MagnitudeObj> magnitudeList = new ArrayList<MagnitudeObj>();
-        MagnitudeObj magnitude;
-
-        for (int i = 0; i < points.length / 2; i++) {
-            if (i == 0) {
-                magnitude = new MagnitudeObj();
-                magnitude.setIndex(i);
-                magnitude.setRealIndex(i);
-                magnitude.setImgIndex(i);
-                magnitude.setValue(points[i]);
-            } else {
-                magnitude = new MagnitudeObj();
-                magnitude.setIndex(i);
-                magnitude.setRealIndex(2 * i + 1);
-                magnitude.setImgIndex(2 * i);
-                magnitude.setValue(Math.sqrt(Math.pow(points[2 * i + 1], 2) + Math.pow(points[2 * i], 2)));
-            }
-            magnitudeList.add(magnitude);
-        }
-        insertionSort(magnitudeList);
+        double[] magnitudes = new double[n];
+        magnitudes[0] = points[0];
+        for (int i = 1; i < n; i++)
+            magnitudes[i] = Math.sqrt(Math.pow(points[2 * i + 1], 2) + Math.pow(points[2 * i], 2));
+        int[] order = SortUtil.descendingOrder(magnitudes, n);
 
         int index = -1;
         double maxDiff = -1;
         double diff;
 
-        for (int i = 0; i < magnitudeList.size() - 1; i++) {
-            diff = magnitudeList.get(i).getValue() - magnitudeList.get(i + 1).getValue();
+        for (int i = 0; i < n - 1; i++) {
+            diff = magnitudes[order[i]] - magnitudes[order[i + 1]];
             if (diff > maxDiff) {
                 maxDiff = diff;
                 index = i;
@@ -234,34 +248,41 @@ public class FFTModel_2 extends AbstractForecastModel {
             if (index < 5)
                 index = 5;
         } else index = threshold;
-        magnitudeList = magnitudeList.subList(index + 1, magnitudeList.size());
-
-        for (int i = 0; i < magnitudeList.size(); i++) {
-            magnitude = magnitudeList.get(i);
 
-            points[magnitude.getRealIndex()] = 0;
-            points[magnitude.getImgIndex()] = 0;
+        // zero the frequencies below the cutoff, frequency k > 0 is stored at 2k (real) and 2k + 1 (imaginary)
+        for (int i = index + 1; i < n; i++) {
+            int frequency = order[i];
+            if (frequency == 0) {
+                points[0] = 0;
+            } else {
+                points[2 * frequency + 1] = 0;
+                points[2 * frequency] = 0;
+            }
         }
         fft.realInverse(points, true);
-        double[] outputArray = new double[points.length / 2];
-        for (int i = 0; i < points.length / 2; i++) {
-            outputArray[i] = points[i];
-        }
-        return outputArray;
     }
 
+    /**
+     * Sorts the magnitudes by descending value, equal values keep their order
+     *
+     * @param objList
+     * @deprecated the model sorts an index array with {@link SortUtil#descendingOrder(double[], int)}
+     */
+    @Deprecated
     public void insertionSort(List<MagnitudeObj> objList) {
-        for (int i = 0; i < objList.size(); i++) {
-            int j = i;
-            MagnitudeObj B = objList.get(i);
-            while ((j > 0) && (objList.get(j - 1).getValue() < B.getValue())) {
-                objList.set(j, objList.get(j - 1));
-                j--;
-            }
-            objList.set(j, B);
-        }
+        double[] values = new double[objList.size()];
+        for (int i = 0; i < values.length; i++)
+            values[i] = objList.get(i).getValue();
+        int[] order = SortUtil.descendingOrder(values, values.length);
+        List<MagnitudeObj> copy = new ArrayList<MagnitudeObj>(objList);
+        for (int i = 0; i < order.length; i++)
+            objList.set(i, copy.get(order[i]));
     }
 
+    /**
+     * @deprecated the model keeps the magnitudes in a double[]
+     */
+    @Deprecated
     public class MagnitudeObj {
         int index;
         int realIndex;
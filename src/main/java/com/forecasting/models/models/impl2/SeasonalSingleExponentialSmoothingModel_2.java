@@ -23,6 +23,9 @@ import com.forecasting.models.dto.IndependentVariable;
 import com.forecasting.models.dto.Model;
 import com.forecasting.models.dto.Observation;
 import com.forecasting.models.models.impl.AbstractForecastModel;
+import com.forecasting.models.optimizer.GridSearchOptimizer;
+import com.forecasting.models.optimizer.ParameterObjective;
+import com.forecasting.models.optimizer.ParameterOptimizer;
 import com.forecasting.models.postprocess.BiasnessHandler;
 import com.forecasting.models.postprocess.ErrorBoundsHandler;
 import com.forecasting.models.utils.AccuracyIndicators;
@@ -40,6 +43,8 @@ public class SeasonalSingleExponentialSmoothingModel_2 extends AbstractForecastM
     private double[] actual;
     private float optGamma;
     private final int dof = 1;
+
+    private static final ParameterOptimizer DECAY_CONSTANTS_GRID = new GridSearchOptimizer(0.01f, 1f);
     private boolean findDecayConstants;
 
 
@@ -67,8 +72,11 @@ public class SeasonalSingleExponentialSmoothingModel_2 extends AbstractForecastM
         actual = observations.toArray();
         min_val_error = Double.MAX_VALUE;
         if (findDecayConstants)
-            for (float gamma = 0f; gamma <= 1f; gamma += 0.01f)
-                initializeAndTrainModel(gamma);
+            optimizeParameters(new ParameterObjective() {
+                public double value(float[] parameters) {
+                    return initializeAndTrainModel(parameters[0]);
+                }
+            }, 1, DECAY_CONSTANTS_GRID);
         else
             initializeAndTrainModel(optGamma);
     }
@@ -77,8 +85,9 @@ public class SeasonalSingleExponentialSmoothingModel_2 extends AbstractForecastM
      * Curve fitting on provided gamma by minimizing MSE
      *
      * @param gamma
+     * @return MAPE on the validation points
      */
-    private void initializeAndTrainModel(float gamma) {
+    private double initializeAndTrainModel(float gamma) {
         int index;
         double forecast;
         double[][] trainMatrix = new double[trainPoints][2];
@@ -110,6 +119,7 @@ public class SeasonalSingleExponentialSmoothingModel_2 extends AbstractForecastM
             optGamma = gamma;
             accuracyIndicators = AI;
         }
+        return AI.getMAPE();
     }
 
     /**
@@ -24,6 +24,9 @@ import com.forecasting.models.dto.Model;
 import com.forecasting.models.dto.Observation;
 import com.forecasting.models.exception.ModelInitializationException;
 import com.forecasting.models.models.impl.AbstractForecastModel;
+import com.forecasting.models.optimizer.GridSearchOptimizer;
+import com.forecasting.models.optimizer.ParameterObjective;
+import com.forecasting.models.optimizer.ParameterOptimizer;
 import com.forecasting.models.postprocess.BiasnessHandler;
 import com.forecasting.models.postprocess.ErrorBoundsHandler;
 import com.forecasting.models.utils.AccuracyIndicators;
@@ -37,6 +40,8 @@ import lombok.Data;
 public class SingleExponentialSmoothingModel_2 extends AbstractForecastModel {
 
     private double min_val_error;
+
+    private static final ParameterOptimizer DECAY_CONSTANTS_GRID = new GridSearchOptimizer(0.01f, 1f);
     private double[] actual;
     private float optAlpha;
     private final int dof = 1;
@@ -68,8 +73,11 @@ public class SingleExponentialSmoothingModel_2 extends AbstractForecastModel {
         actual = observations.toArray();
         min_val_error = Double.MAX_VALUE;
         if (findDecayConstant)
-            for (float alpha = 0f; alpha <= 1f; alpha += 0.01f)
-                initializeAndTrainModel(alpha);
+            optimizeParameters(new ParameterObjective() {
+                public double value(float[] parameters) {
+                    return initializeAndTrainModel(parameters[0]);
+                }
+            }, 1, DECAY_CONSTANTS_GRID);
         else
             initializeAndTrainModel(optAlpha);
     }
@@ -79,8 +87,9 @@ public class SingleExponentialSmoothingModel_2 extends AbstractForecastModel {
      * Curve fitting on provided alpha by minimizing MSE
      *
      * @param alpha
+     * @return MAPE on the validation points
      */
-    private void initializeAndTrainModel(float alpha) {
+    private double initializeAndTrainModel(float alpha) {
 
         double forecast;
         double lastValue = actual[0];
@@ -110,6 +119,7 @@ public class SingleExponentialSmoothingModel_2 extends AbstractForecastModel {
             optAlpha = alpha;
             accuracyIndicators = AI;
         }
+        return AI.getMAPE();
     }
 
     /**
@@ -23,6 +23,9 @@ import com.forecasting.models.dto.IndependentVariable;
 import com.forecasting.models.dto.Model;
 import com.forecasting.models.dto.Observation;
 import com.forecasting.models.models.impl.AbstractForecastModel;
+import com.forecasting.models.optimizer.GridSearchOptimizer;
+import com.forecasting.models.optimizer.ParameterObjective;
+import com.forecasting.models.optimizer.ParameterOptimizer;
 import com.forecasting.models.postprocess.BiasnessHandler;
 import com.forecasting.models.postprocess.ErrorBoundsHandler;
 import com.forecasting.models.utils.AccuracyIndicators;
@@ -46,6 +49,8 @@ public class TripleExponentialSmoothingMultiplicativeModel_2 extends AbstractFor
     //Accuracy parameters
     private double min_val_error;
 
+    private static final ParameterOptimizer DECAY_CONSTANTS_GRID = new GridSearchOptimizer(0.1f, 1f);
+
     /**
      * Constructor with  initializeCoefficients flag
      *
@@ -102,10 +107,11 @@ public class TripleExponentialSmoothingMultiplicativeModel_2 extends AbstractFor
         actual = observations.toArray();
         min_val_error = Double.MAX_VALUE;
         if (findDecayConstants)
-            for (float alpha = 0f; alpha <= 1f; alpha += 0.1f)
-                for (float beta = 0f; beta <= 1f; beta += 0.1f)
-                    for (float gamma = 0f; gamma <= 1f; gamma += 0.1f)
-                        initializeAndTrainModel(alpha, beta, gamma);
+            optimizeParameters(new ParameterObjective() {
+                public double value(float[] parameters) {
+                    return initializeAndTrainModel(parameters[0], parameters[1], parameters[2]);
+                }
+            }, 3, DECAY_CONSTANTS_GRID);
         else
             initializeAndTrainModel(optAlpha, optBeta, optGamma);
     }
@@ -117,8 +123,9 @@ public class TripleExponentialSmoothingMultiplicativeModel_2 extends AbstractFor
      * @param alpha
      * @param beta
      * @param gamma
+     * @return MAPE on the validation points
      */
-    public void initializeAndTrainModel(float alpha, float beta, float gamma) {
+    public double initializeAndTrainModel(float alpha, float beta, float gamma) {
 
         double[][] trainMatrix = new double[trainPoints][2];
         double[][] valMatrix = new double[validationPoints][2];
@@ -166,6 +173,7 @@ public class TripleExponentialSmoothingMultiplicativeModel_2 extends AbstractFor
             optGamma = gamma;
             accuracyIndicators = AI;
         }
+        return AI.getMAPE();
     }
 
     /**
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.optimizer;
+
+public abstract class AbstractParameterOptimizer implements ParameterOptimizer {
+
+    public OptimizationResult optimize(ParameterObjective objective, int dimension) {
+        if (dimension <= 0)
+            throw new IllegalArgumentException("Invalid number of parameters " + dimension);
+        Evaluation evaluation = new Evaluation(objective, dimension);
+        search(evaluation, dimension);
+        return new OptimizationResult(evaluation.bestParameters, evaluation.bestValue, evaluation.count);
+    }
+
+    /**
+     * Searches the parameters through evaluation, which keeps the best point seen
+     *
+     * @param evaluation
+     * @param dimension
+     */
+    protected abstract void search(Evaluation evaluation, int dimension);
+
+    /**
+     * Counts the evaluations of an objective and keeps the first point with the least error, a point with NaN error
+     * is replaced by any later point.
+     */
+    protected static class Evaluation {
+
+        private final ParameterObjective objective;
+        private final float[] parameters;
+        private float[] bestParameters;
+        private double bestValue = -1;
+        private int count;
+
+        Evaluation(ParameterObjective objective, int dimension) {
+            this.objective = objective;
+            this.parameters = new float[dimension];
+        }
+
+        /**
+         * Evaluates a grid point as is, accumulated grid values may exceed 1 by a float rounding error
+         *
+         * @param point
+         * @return
+         */
+        public double value(float[] point) {
+            System.arraycopy(point, 0, parameters, 0, parameters.length);
+            return evaluate();
+        }
+
+        /**
+         * Evaluates a point of a continuous search, clamped into [0,1]
+         *
+         * @param point
+         * @return
+         */
+
+        public double value(double[] point) {
+            for (int i = 0; i < parameters.length; i++)
+                parameters[i] = (float) Math.min(1d, Math.max(0d, point[i]));
+            return evaluate();
+        }
+
+        private double evaluate() {
+            double value = objective.value(parameters);
+            if (count++ == 0 || bestValue > value || Double.isNaN(bestValue)) {
+                bestValue = value;
+                bestParameters = parameters.clone();
+            }
+            return value;
+        }
+
+        public float[] getBestParameters() {
+            return bestParameters;
+        }
+
+        public double getBestValue() {
+            return bestValue;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+}
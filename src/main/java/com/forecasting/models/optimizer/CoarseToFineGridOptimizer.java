@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.optimizer;
+
+/**
+ * Searches a coarse grid, then repeatedly halves the step and searches the neighbours of the best point
+ * (best +/- step in every dimension). With 5 coarse points and 4 refinements a 3 parameter model takes
+ * 125 + 4*26 evaluations and reaches a resolution of 1/64, against 1331 evaluations for the 0.1 grid.
+ */
+public class CoarseToFineGridOptimizer extends AbstractParameterOptimizer {
+
+    private final int coarsePoints;
+    private final int refinements;
+
+    public CoarseToFineGridOptimizer() {
+        this(5, 4);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param coarsePoints grid points per dimension in the first pass, at least 2
+     * @param refinements  number of times the step is halved
+     */
+    public CoarseToFineGridOptimizer(int coarsePoints, int refinements) {
+        if (coarsePoints < 2 || refinements < 0)
+            throw new IllegalArgumentException("Invalid coarse points " + coarsePoints + " or refinements " + refinements);
+        this.coarsePoints = coarsePoints;
+        this.refinements = refinements;
+    }
+
+    @Override
+    protected void search(Evaluation evaluation, int dimension) {
+        float step = 1f / (coarsePoints - 1);
+        int[] position = new int[dimension];
+        float[] point = new float[dimension];
+        int i;
+        do {
+            for (i = 0; i < dimension; i++)
+                point[i] = position[i] == coarsePoints - 1 ? 1f : position[i] * step;
+            evaluation.value(point);
+            for (i = dimension - 1; i >= 0 && ++position[i] == coarsePoints; i--)
+                position[i] = 0;
+        } while (i >= 0);
+
+        float[] center;
+        for (int level = 0; level < refinements; level++) {
+            step /= 2;
+            center = evaluation.getBestParameters().clone();
+            for (i = 0; i < dimension; i++)
+                position[i] = -1;
+            do {
+                boolean inside = true, moved = false;
+                for (i = 0; i < dimension; i++) {
+                    point[i] = center[i] + position[i] * step;
+                    inside &= point[i] >= 0f && point[i] <= 1f;
+                    moved |= position[i] != 0;
+                }
+                if (inside && moved)
+                    evaluation.value(point);
+                for (i = dimension - 1; i >= 0 && ++position[i] == 2; i--)
+                    position[i] = -1;
+            } while (i >= 0);
+        }
+    }
+}
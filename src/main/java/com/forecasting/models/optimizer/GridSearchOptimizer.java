@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.optimizer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exhaustive search over a grid, the first parameter varies slowest. Grid values are accumulated in float
+ * (0, step, step+step, ... while <= limit) exactly as the nested loops of the models did.
+ */
+public class GridSearchOptimizer extends AbstractParameterOptimizer {
+
+    private final float step;
+    private final float[] values;
+
+    /**
+     * Constructor
+     *
+     * @param step
+     * @param limit last grid value is the largest accumulated value not above limit
+     */
+    public GridSearchOptimizer(float step, float limit) {
+        if (step <= 0 || limit < 0)
+            throw new IllegalArgumentException("Invalid grid step " + step + " or limit " + limit);
+        this.step = step;
+        List<Float> grid = new ArrayList<Float>();
+        for (float value = 0f; value <= limit; value += step)
+            grid.add(value);
+        values = new float[grid.size()];
+        for (int i = 0; i < values.length; i++)
+            values[i] = grid.get(i);
+    }
+
+    public float getStep() {
+        return step;
+    }
+
+    /**
+     * Values of each parameter in search order
+     *
+     * @return
+     */
+    public float[] getValues() {
+        return values.clone();
+    }
+
+    @Override
+    protected void search(Evaluation evaluation, int dimension) {
+        int[] position = new int[dimension];
+        float[] point = new float[dimension];
+        int i;
+        while (true) {
+            for (i = 0; i < dimension; i++)
+                point[i] = values[position[i]];
+            evaluation.value(point);
+
+            for (i = dimension - 1; i >= 0 && ++position[i] == values.length; i--)
+                position[i] = 0;
+            if (i < 0)
+                return;
+        }
+    }
+}
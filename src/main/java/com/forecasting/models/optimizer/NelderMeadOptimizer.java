@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.optimizer;
+
+import org.apache.commons.math3.analysis.MultivariateFunction;
+import org.apache.commons.math3.exception.MathIllegalStateException;
+import org.apache.commons.math3.optim.InitialGuess;
+import org.apache.commons.math3.optim.MaxEval;
+import org.apache.commons.math3.optim.nonlinear.scalar.GoalType;
+import org.apache.commons.math3.optim.nonlinear.scalar.ObjectiveFunction;
+import org.apache.commons.math3.optim.nonlinear.scalar.noderiv.NelderMeadSimplex;
+import org.apache.commons.math3.optim.nonlinear.scalar.noderiv.SimplexOptimizer;
+
+import java.util.Arrays;
+
+/**
+ * Nelder-Mead simplex search (commons-math3), started from the centre of the unit box. The simplex itself is
+ * unbounded, points outside [0,1] are clamped before the objective is evaluated.
+ */
+public class NelderMeadOptimizer extends AbstractParameterOptimizer {
+
+    private final int maxEvaluations;
+    private final double tolerance;
+
+    public NelderMeadOptimizer() {
+        this(200, 1e-6);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param maxEvaluations evaluations per parameter
+     * @param tolerance      relative tolerance on the error for convergence
+     */
+    public NelderMeadOptimizer(int maxEvaluations, double tolerance) {
+        this.maxEvaluations = maxEvaluations;
+        this.tolerance = tolerance;
+    }
+
+    @Override
+    protected void search(final Evaluation evaluation, int dimension) {
+        double[] start = new double[dimension];
+        Arrays.fill(start, 0.5d);
+        SimplexOptimizer optimizer = new SimplexOptimizer(tolerance, tolerance * 1e-3);
+        try {
+            optimizer.optimize(new MaxEval(maxEvaluations * dimension),
+                    new ObjectiveFunction(new MultivariateFunction() {
+                        public double value(double[] point) {
+                            double value = evaluation.value(point);
+                            return Double.isNaN(value) ? Double.MAX_VALUE : value;
+                        }
+                    }),
+                    GoalType.MINIMIZE, new InitialGuess(start), new NelderMeadSimplex(dimension, 0.25d));
+        } catch (MathIllegalStateException e) {
+            // Evaluation budget exhausted, the best point seen so far is kept
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.optimizer;
+
+import org.apache.commons.math3.analysis.MultivariateFunction;
+import org.apache.commons.math3.analysis.UnivariateFunction;
+import org.apache.commons.math3.exception.MathIllegalStateException;
+import org.apache.commons.math3.optim.InitialGuess;
+import org.apache.commons.math3.optim.MaxEval;
+import org.apache.commons.math3.optim.SimpleBounds;
+import org.apache.commons.math3.optim.nonlinear.scalar.GoalType;
+import org.apache.commons.math3.optim.nonlinear.scalar.ObjectiveFunction;
+import org.apache.commons.math3.optim.nonlinear.scalar.noderiv.BOBYQAOptimizer;
+import org.apache.commons.math3.optim.univariate.BrentOptimizer;
+import org.apache.commons.math3.optim.univariate.SearchInterval;
+import org.apache.commons.math3.optim.univariate.UnivariateObjectiveFunction;
+
+import java.util.Arrays;
+
+/**
+ * Bound constrained search on [0,1]: BOBYQA (commons-math3) builds quadratic models of the error inside a trust
+ * region, so it needs no derivatives and never leaves the box. BOBYQA needs at least two parameters, single
+ * parameter models are searched with Brent's method.
+ */
+public class TrustRegionOptimizer extends AbstractParameterOptimizer {
+
+    private final int maxEvaluations;
+    private final double stoppingRadius;
+
+    public TrustRegionOptimizer() {
+        this(200, 1e-3);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param maxEvaluations evaluations per parameter
+     * @param stoppingRadius trust region radius (or interval width for one parameter) at which the search stops
+     */
+    public TrustRegionOptimizer(int maxEvaluations, double stoppingRadius) {
+        this.maxEvaluations = maxEvaluations;
+        this.stoppingRadius = stoppingRadius;
+    }
+
+    @Override
+    protected void search(final Evaluation evaluation, int dimension) {
+        try {
+            if (dimension == 1)
+                new BrentOptimizer(1e-6, stoppingRadius).optimize(new MaxEval(maxEvaluations),
+                        new UnivariateObjectiveFunction(new UnivariateFunction() {
+                            public double value(double x) {
+                                return finite(evaluation.value(new double[]{x}));
+                            }
+                        }),
+                        GoalType.MINIMIZE, new SearchInterval(0d, 1d, 0.5d));
+            else {
+                double[] lower = new double[dimension], upper = new double[dimension], start = new double[dimension];
+                Arrays.fill(upper, 1d);
+                Arrays.fill(start, 0.5d);
+                new BOBYQAOptimizer(2 * dimension + 1, 0.25d, stoppingRadius).optimize(new MaxEval(maxEvaluations * dimension),
+                        new ObjectiveFunction(new MultivariateFunction() {
+                            public double value(double[] point) {
+                                return finite(evaluation.value(point));
+                            }
+                        }),
+                        GoalType.MINIMIZE, new InitialGuess(start), new SimpleBounds(lower, upper));
+            }
+        } catch (MathIllegalStateException e) {
+            // Evaluation budget exhausted, the best point seen so far is kept
+        }
+    }
+
+    private static double finite(double value) {
+        return Double.isNaN(value) || Double.isInfinite(value) ? Double.MAX_VALUE : value;
+    }
+}
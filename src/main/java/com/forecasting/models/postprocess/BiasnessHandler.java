@@ -21,7 +21,8 @@ package com.forecasting.models.postprocess;
 public class BiasnessHandler {
 
     /**
-     * Checks the biasness in data and adjusts the forecast
+     * Checks the biasness in data and adjusts the forecast, every horizon of a multi-horizon validation matrix
+     * by the factor found on the one-step forecasts
      *
      * @param input
      */
@@ -54,13 +55,20 @@ public class BiasnessHandler {
 
         if (adjustmentFactor != 1) {
             for (int i = 0; i < input.length; i++)
-                input[i][1] = input[i][1] * adjustmentFactor;
+                for (int k = 1; k < input[i].length; k++)
+                    input[i][k] = input[i][k] * adjustmentFactor;
         }
 
         return adjustmentFactor;
     }
 
 
+    /**
+     * Checks the biasness in data and offsets the forecast, every horizon of a multi-horizon validation matrix
+     * by the offset found on the one-step forecasts
+     *
+     * @param input
+     */
     public static double handleOffset(double[][] input) {
 
         double avgDiff, sum = 0, offset = 0;
@@ -87,7 +95,8 @@ public class BiasnessHandler {
 
         if (offset != 0) {
             for (int i = 0; i < input.length; i++)
-                input[i][1] = input[i][1] + offset;
+                for (int k = 1; k < input[i].length; k++)
+                    input[i][k] = input[i][k] + offset;
         }
         return offset;
     }
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.postprocess;
+
+import lombok.Getter;
+
+/**
+ * Page-Hinkley test on the absolute one step forecast errors. The cumulative excess of the errors over their running
+ * mean, less an allowed slack, is tracked against its minimum; drift is signalled when it rises more than the
+ * threshold above that minimum. Slack and threshold are multiples of the running mean error, so the test does not
+ * depend on the scale of the series.
+ */
+@Getter
+public class DriftDetector {
+
+    public static final double DEFAULT_DELTA = 0.25;
+    public static final double DEFAULT_THRESHOLD = 15;
+    public static final int DEFAULT_MIN_OBSERVATIONS = 10;
+
+    private final double delta;
+    private final double threshold;
+    private final int minObservations;
+
+    private int observations;
+    private double meanError;
+    private double cumulative;
+    private double minimum;
+
+    public DriftDetector() {
+        this(DEFAULT_DELTA, DEFAULT_THRESHOLD, DEFAULT_MIN_OBSERVATIONS);
+    }
+
+    /**
+     * @param delta           slack per observation, as a multiple of the mean error
+     * @param threshold       rise of the cumulative excess that signals drift, as a multiple of the mean error
+     * @param minObservations observations before drift can be signalled
+     */
+    public DriftDetector(double delta, double threshold, int minObservations) {
+        if (delta < 0 || threshold <= 0 || minObservations < 1)
+            throw new IllegalArgumentException("Invalid drift detector arguments");
+        this.delta = delta;
+        this.threshold = threshold;
+        this.minObservations = minObservations;
+    }
+
+    /**
+     * Adds the error of the latest one step forecast
+     *
+     * @param error
+     * @return true if the errors have drifted
+     */
+    public boolean add(double error) {
+        if (Double.isNaN(error) || Double.isInfinite(error))
+            return false;
+        double absoluteError = Math.abs(error);
+        observations++;
+        meanError += (absoluteError - meanError) / observations;
+        cumulative += absoluteError - meanError - delta * meanError;
+        minimum = Math.min(minimum, cumulative);
+        return observations >= minObservations && cumulative - minimum > threshold * meanError;
+    }
+
+    public void reset() {
+        observations = 0;
+        meanError = 0;
+        cumulative = 0;
+        minimum = 0;
+    }
+}
@@ -37,4 +37,22 @@ public class ErrorBoundsHandler {
             delta= ModelConstants.DEFAULT_CONFIDENCE_INTERVAL_COEFFICIENT*Math.sqrt(SE/inputMatrix.length);
         return delta;
     }
+
+    /**
+     * Computes the delta/error bound from the first length expected and forecasted values
+     * @param actual
+     * @param forecast
+     * @param length
+     * @return
+     */
+    public static double computeErrorBoundInterval(double[] actual, double[] forecast, int length) {
+
+        double SE = 0d, error;
+
+        for (int i = 0; i < length; i++) {
+            error = actual[i] - forecast[i];
+            SE += error * error;
+        }
+        return ModelConstants.DEFAULT_CONFIDENCE_INTERVAL_COEFFICIENT * Math.sqrt(SE / length);
+    }
 }
@@ -21,6 +21,7 @@ package com.forecasting.models.postprocess;
 import com.forecasting.models.dto.DataSet;
 import com.forecasting.models.models.DataPoint;
 import com.forecasting.models.models.ForecastModel;
+import com.forecasting.models.utils.AccuracyIndicators;
 import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
 
 import java.util.List;
@@ -74,6 +75,48 @@ public class Evaluator {
 
     }
 
+    /**
+     * Weights of the models at each validated horizon, computed as evaluate does the one-step weights from the
+     * origins best at the horizon and the MAPE of the horizon. Call after evaluate, a horizon whose weights all
+     * vanish keeps the one-step weights
+     *
+     * @return weight of each model (rows) at each horizon, null unless every model was validated over the same
+     * horizons
+     */
+    public double[][] evaluateHorizons() {
+
+        double[] horizonMAPE = models.get(0).getAccuracyIndicators().getHorizonMAPE();
+        if (horizonMAPE == null)
+            return null;
+        int horizons = horizonMAPE.length;
+        for (ForecastModel model : models) {
+            horizonMAPE = model.getAccuracyIndicators().getHorizonMAPE();
+            if (horizonMAPE == null || horizonMAPE.length != horizons)
+                return null;
+        }
+
+        double[][] weights = new double[models.size()][horizons];
+        for (int k = 0; k < horizons; k++) {
+            // Origins whose horizon falls past the validation points have no error at it
+            int origins = models.get(0).getAccuracyIndicators().getHorizonErrors().length - k;
+            for (int point = 0; point < origins; point++)
+                weights[getBestModel(point, k)][k] += 1.0 / origins;
+
+            double weight_sum = 0;
+            for (int m = 0; m < models.size() && origins > 0; m++) {
+                AccuracyIndicators accuracyIndicators = models.get(m).getAccuracyIndicators();
+                if (validationPoints > 1)
+                    weights[m][k] *= 1 - accuracyIndicators.getDirectionalError() / 100;
+                weights[m][k] *= Math.pow(Math.E, -1 * accuracyIndicators.getHorizonMAPE()[k]);
+                weight_sum += weights[m][k];
+            }
+
+            for (int m = 0; m < models.size(); m++)
+                weights[m][k] = weight_sum != 0 ? weights[m][k] / weight_sum : models.get(m).getWeight();
+        }
+        return weights;
+    }
+
     private double getStandardDeviation(DataSet ts) {
         SummaryStatistics stats = new SummaryStatistics();
 
@@ -97,4 +140,25 @@ public class Evaluator {
         }
         return selectedModel;
     }
+
+    /**
+     * Index of the model with the least error at a horizon of an origin
+     *
+     * @param point
+     * @param horizon
+     * @return
+     */
+    private int getBestModel(int point, int horizon) {
+
+        double min_error = Double.MAX_VALUE;
+        int selectedModel = 0;
+        for (int m = 0; m < models.size(); m++) {
+            double error = models.get(m).getAccuracyIndicators().getHorizonErrors()[point][horizon];
+            if (error < min_error) {
+                min_error = error;
+                selectedModel = m;
+            }
+        }
+        return selectedModel;
+    }
 }
@@ -22,6 +22,7 @@ import com.forecasting.models.dto.DataSet;
 import com.forecasting.models.dto.IndependentVariable;
 import com.forecasting.models.dto.Observation;
 import com.forecasting.models.models.DataPoint;
+import com.forecasting.models.preprocess.impl.RollingOutlierFilter;
 
 import java.util.logging.Logger;
 
@@ -29,27 +30,16 @@ public class OutlierDetector {
 
     private static Logger logger = Logger.getLogger(OutlierDetector.class.getName());
 
-    double threshold;
+    double threshold;       // Percent above or below the mean of the previous cycle
 
     public OutlierDetector(double threshold) {
-        this.threshold = (1 + threshold / 100);
+        this.threshold = threshold;
     }
 
     public DataSet removeOutlier(DataSet dataSet, int cycle) {
         double[] points = dataSet.toArray();
-        double sum, avg;
-        int j;
-
-        for (int i = cycle; i < points.length; i++) {
-            sum = 0;
-            for (j = i-cycle; j < i; j++)
-                sum += points[j];
-            avg = sum / cycle;
-            if (avg * threshold < points[i] || avg >threshold*points[i]) {
-//                logger.info(" Outlier Detected :  Average = " + avg + " and Observation  = " + points[j]);
-                points[i] = (long)avg;
-            }
-        }
+        if (cycle > 0)
+            new RollingOutlierFilter(threshold, cycle).filter(points);
 
         DataSet output = new DataSet();
         for (int i = 0; i < points.length; i++) {
@@ -21,6 +21,7 @@ package com.forecasting.models.preprocess;
 import com.forecasting.models.dto.DataSet;
 import com.forecasting.models.models.DataPoint;
 import com.forecasting.models.preprocess.impl.DifferencingTransformation;
+import com.forecasting.models.utils.FFTPlanCache;
 import edu.emory.mathcs.jtransforms.fft.DoubleFFT_1D;
 import org.apache.commons.math3.complex.Complex;
 
@@ -58,7 +59,7 @@ public class SeasonalityCalculator {
 
         double max = -1d;
         Double seasonality = -1d;
-        DoubleFFT_1D fft = new DoubleFFT_1D(ts.length);
+        DoubleFFT_1D fft = FFTPlanCache.plan(ts.length);
         int index = -1;
         fft.realForward(ts);
 
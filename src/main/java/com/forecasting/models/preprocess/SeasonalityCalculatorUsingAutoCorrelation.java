@@ -20,6 +20,8 @@ package com.forecasting.models.preprocess;
 
 import com.forecasting.models.dto.DataSet;
 import com.forecasting.models.preprocess.impl.DifferencingTransformation;
+import com.forecasting.models.utils.AutoCorrelation;
+import com.forecasting.models.utils.SortUtil;
 
 public class SeasonalityCalculatorUsingAutoCorrelation {
 
@@ -74,42 +76,19 @@ public class SeasonalityCalculatorUsingAutoCorrelation {
     }
 
     public void insertionSort(double array[][]) {
-        int size = array.length;
-        for (int i = 1; i < size; i++) {
-            int j = i;
-            double index = array[i][0];
-            double B = array[i][1];
-            while ((j > 0) && (array[j - 1][1] < B)) {
-                array[j][0] = array[j - 1][0];
-                array[j][1] = array[j - 1][1];
-                j--;
-            }
-            array[j][0] = index;
-            array[j][1] = B;
-        }
+        SortUtil.sortRowsDescending(array, 1);
     }
 
+    /**
+     * Distance between the two shifts with the highest autocorrelation, ties go to the smaller shift
+     *
+     * @param ts
+     * @return cycle period, 1 if the series is too short to have two shifts
+     */
     public int findCyclePeriod(double[] ts) {
-
-        double[][] correlation = new double[ts.length/2][2];
-        double product = 0;
-
-        for (int shift = 0; shift < ts.length / 2; shift++) {
-            product = 0;
-            for (int index = 0; index < ts.length - shift; index++)
-                product += ts[index + shift] * ts[index];
-            correlation[shift][0] = shift;
-            correlation[shift][1] = product / (ts.length - shift);
-        }
-        insertionSort(correlation);
-//
-        if(correlation[1][0] - correlation[0][0]==0)
-        for (int i = 0; i < correlation.length; i++)
-            System.out.println("correlation = " + correlation[i][0] + " second = " + correlation[i][1]);
-//
-//        System.out.println("(correlation[1][0] - correlation[0][0]) = " + (correlation[1][0] - correlation[0][0]));
-
-        int period = new Double(Math.abs(correlation[1][0] - correlation[0][0])).intValue();
-        return period;
+        int[] peaks = new AutoCorrelation(ts).topLags(2);
+        if (peaks.length < 2)
+            return 1;
+        return Math.abs(peaks[1] - peaks[0]);
     }
 }
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.preprocess.impl;
+
+import com.forecasting.models.dto.ColumnarDataSet;
+import com.forecasting.models.dto.DataSet;
+
+/**
+ * Outlier filter over a trailing window. Points are cleaned one at a time as they arrive, a primitive series in
+ * place, or a DataSet as a PreprocessModel stage. Outliers are replaced, so reverseTransform returns the forecast.
+ */
+public abstract class AbstractOutlierFilter extends AbstractPreprocessModel {
+
+    protected int outliers;
+
+    /**
+     * Cleans the next point of the stream
+     *
+     * @param value
+     * @return the point, or its replacement if it is an outlier
+     */
+    public abstract double accept(double value);
+
+    /**
+     * Cleans the points in place, continuing the current stream
+     *
+     * @param points
+     * @return number of points replaced
+     */
+    public int filter(double[] points) {
+        int before = outliers;
+        for (int i = 0; i < points.length; i++)
+            points[i] = accept(points[i]);
+        return outliers - before;
+    }
+
+    /**
+     * Starts a new stream
+     */
+    public void reset() {
+        outliers = 0;
+    }
+
+    /**
+     * New DataSet of the cleaned observations, slices and bounds are kept
+     *
+     * @return
+     */
+    @Override
+    public DataSet transform() {
+        ColumnarDataSet columns = ColumnarDataSet.fromDataSet(observations);
+        reset();
+        filter(columns.getValues());
+        return columns.toDataSet();
+    }
+
+    /**
+     * Points replaced since the stream started
+     *
+     * @return
+     */
+    public int getOutliers() {
+        return outliers;
+    }
+}
@@ -23,6 +23,7 @@ import com.forecasting.models.dto.IndependentVariable;
 import com.forecasting.models.dto.Model;
 import com.forecasting.models.dto.Observation;
 import com.forecasting.models.models.DataPoint;
+import com.forecasting.models.utils.SortUtil;
 import org.apache.commons.math3.distribution.NormalDistribution;
 import org.apache.commons.math3.stat.regression.SimpleRegression;
 
@@ -125,17 +126,7 @@ public class BoxCoxTransformation extends AbstractPreprocessModel {
     }
 
     private void sort(double[] points) {
-
-        for (int i = 0; i < points.length; i++) {
-            int j = i;
-            double temp = points[i];
-
-            while ((j > 0) && (points[j - 1] < temp)) {
-                points[j] = points[j - 1];
-                j--;
-            }
-            points[j] = temp;
-        }
+        SortUtil.sortDescending(points);
     }
 
     /**
@@ -23,6 +23,7 @@ import com.forecasting.models.dto.IndependentVariable;
 import com.forecasting.models.dto.Model;
 import com.forecasting.models.dto.Observation;
 import com.forecasting.models.models.DataPoint;
+import com.forecasting.models.utils.FFTPlanCache;
 import com.forecasting.models.utils.ModelConstants;
 import edu.emory.mathcs.jtransforms.fft.DoubleFFT_1D;
 import org.apache.commons.math3.complex.Complex;
@@ -82,7 +83,7 @@ public class FFTlowPassFilter extends AbstractPreprocessModel {
      */
     private double[] FFTfilter(double[] ts) {
         double[] meanCentricTS = getMeanCentricSeries(ts);
-        DoubleFFT_1D fft = new DoubleFFT_1D(meanCentricTS.length);
+        DoubleFFT_1D fft = FFTPlanCache.plan(meanCentricTS.length);
         fft.realForward(meanCentricTS);
         double energyRatio = filterAndComputeEnergyRatio(meanCentricTS);
 
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.preprocess.impl;
+
+import com.forecasting.models.utils.OrderStatisticWindow;
+
+/**
+ * Hampel filter over the previous points: a point more than sigmas standard deviations from their median is
+ * replaced by the median, the deviation being estimated by the scaled median absolute deviation. Points of a
+ * window with no deviation are kept. O(log window) per point to update, O(log^2 window) for the deviation.
+ */
+public class HampelFilter extends AbstractOutlierFilter {
+
+    /**
+     * Standard deviation per median absolute deviation of a normal distribution
+     */
+    public static final double MAD_SCALE = 1.4826;
+
+    private final double sigmas;
+    private final OrderStatisticWindow window;     // Previous points as observed
+
+    /**
+     * Constructor
+     *
+     * @param window number of previous points
+     * @param sigmas usually 3
+     */
+    public HampelFilter(int window, double sigmas) {
+        this.sigmas = sigmas;
+        this.window = new OrderStatisticWindow(window);
+    }
+
+    @Override
+    public double accept(double value) {
+        if (Double.isNaN(value))
+            return value;
+        double cleaned = value;
+        if (window.isFull()) {
+            double median = window.median();
+            double deviation = MAD_SCALE * window.medianAbsoluteDeviation();
+            if (deviation > 0 && Math.abs(value - median) > sigmas * deviation) {
+                cleaned = median;
+                outliers++;
+            }
+        }
+        window.add(value);
+        return cleaned;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        window.clear();
+    }
+}
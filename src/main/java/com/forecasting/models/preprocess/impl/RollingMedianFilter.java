@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.preprocess.impl;
+
+import com.forecasting.models.utils.OrderStatisticWindow;
+
+/**
+ * OutlierDetector rule against the median of the previous points instead of their mean: a point more than
+ * threshold% above or below the median is replaced by it. A spike does not pull the median the way it pulls the
+ * mean, so the points after a spike are not clipped. O(log window) per point, sorting a copy of the window is
+ * still faster for windows of a week or two of days but several times slower for a week of hours, see
+ * OutlierBenchmark.
+ */
+public class RollingMedianFilter extends AbstractOutlierFilter {
+
+    private final double threshold;
+    private final OrderStatisticWindow window;     // Previous points as observed
+
+    /**
+     * Constructor
+     *
+     * @param threshold percent above or below the median
+     * @param window    number of previous points the median is taken over
+     */
+    public RollingMedianFilter(double threshold, int window) {
+        this.threshold = 1 + threshold / 100;
+        this.window = new OrderStatisticWindow(window);
+    }
+
+    @Override
+    public double accept(double value) {
+        if (Double.isNaN(value))
+            return value;
+        double cleaned = value;
+        if (window.isFull()) {
+            double median = window.median();
+            if (median * threshold < value || median > threshold * value) {
+                cleaned = median;
+                outliers++;
+            }
+        }
+        window.add(value);
+        return cleaned;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        window.clear();
+    }
+}
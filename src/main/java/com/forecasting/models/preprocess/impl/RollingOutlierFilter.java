@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.preprocess.impl;
+
+/**
+ * Streaming form of the OutlierDetector rule: a point more than threshold% above or below the mean of the previous
+ * cycle (cleaned) points is replaced by that mean. The mean is kept as a rolling sum over a ring buffer, so every
+ * point costs O(1) instead of O(cycle). The sum is recomputed from the ring once per cycle, oldest point first,
+ * so it does not drift on long streams.
+ */
+public class RollingOutlierFilter extends AbstractOutlierFilter {
+
+    private final double threshold;
+    private final double[] window;      // Last cycle cleaned points, head is the oldest
+    private int head;
+    private int count;
+    private double sum;
+
+    /**
+     * Constructor
+     *
+     * @param threshold percent above or below the mean, as in OutlierDetector
+     * @param cycle     number of previous points the mean is taken over
+     */
+    public RollingOutlierFilter(double threshold, int cycle) {
+        if (cycle < 1)
+            throw new IllegalArgumentException("Invalid outlier cycle " + cycle);
+        this.threshold = 1 + threshold / 100;
+        this.window = new double[cycle];
+    }
+
+    @Override
+    public double accept(double value) {
+        int cycle = window.length;
+        if (count == cycle) {
+            double avg = sum / cycle;
+            if (avg * threshold < value || avg > threshold * value) {
+                value = (long) avg;
+                outliers++;
+            }
+            sum += value - window[head];
+        } else {
+            sum += value;
+            count++;
+        }
+        window[head] = value;
+        if (++head == cycle) {
+            head = 0;
+            if (count == cycle) {
+                sum = 0;
+                for (int i = 0; i < cycle; i++)
+                    sum += window[i];
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        head = 0;
+        count = 0;
+        sum = 0;
+    }
+
+    public int getCycle() {
+        return window.length;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.preprocess.impl;
+
+import com.forecasting.models.utils.OrderStatisticWindow;
+
+/**
+ * Hampel rule per season phase: a point is compared with the points at the same phase of the previous cycles,
+ * so a regular weekly peak is not mistaken for an outlier while a spike on an ordinary day is. The first point
+ * of the stream is phase 0. O(log cycles) per point to update, O(log^2 cycles) for the deviation.
+ */
+public class SeasonalMedianFilter extends AbstractOutlierFilter {
+
+    private final double sigmas;
+    private final OrderStatisticWindow[] phases;   // Previous points of each phase as observed
+    private int phase;
+
+    /**
+     * Constructor
+     *
+     * @param seasonPeriod
+     * @param cycles       number of previous points of the same phase
+     * @param sigmas       usually 3
+     */
+    public SeasonalMedianFilter(int seasonPeriod, int cycles, double sigmas) {
+        if (seasonPeriod < 1)
+            throw new IllegalArgumentException("Invalid season period " + seasonPeriod);
+        this.sigmas = sigmas;
+        this.phases = new OrderStatisticWindow[seasonPeriod];
+        for (int i = 0; i < seasonPeriod; i++)
+            phases[i] = new OrderStatisticWindow(cycles);
+    }
+
+    @Override
+    public double accept(double value) {
+        OrderStatisticWindow window = phases[phase];
+        phase = phase + 1 == phases.length ? 0 : phase + 1;
+        if (Double.isNaN(value))
+            return value;
+        double cleaned = value;
+        if (window.isFull()) {
+            double median = window.median();
+            double deviation = HampelFilter.MAD_SCALE * window.medianAbsoluteDeviation();
+            if (deviation > 0 && Math.abs(value - median) > sigmas * deviation) {
+                cleaned = median;
+                outliers++;
+            }
+        }
+        window.add(value);
+        return cleaned;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        for (OrderStatisticWindow window : phases)
+            window.clear();
+        phase = 0;
+    }
+}
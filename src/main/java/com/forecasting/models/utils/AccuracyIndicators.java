@@ -93,6 +93,17 @@ public class AccuracyIndicators {
      */
     private double[] directionalErrorMatrix;
 
+    /**
+     * absolute percent errors of the validation origins (rows) at each horizon (columns), NaN past the
+     * validation points, null when only one step ahead was validated
+     */
+    private double[][] horizonErrors;
+
+    /**
+     * MAPE at each horizon, null when only one step ahead was validated
+     */
+    private double[] horizonMAPE;
+
     /**
      * Default constructor. Initializes all accuracy indicators to their
      * "worst" possible values - generally this means some large number,
@@ -102,6 +113,33 @@ public class AccuracyIndicators {
         aic = bias = mad = mape = mse = sae = Double.MAX_VALUE;
     }
 
+    /**
+     * Independent copy, arrays included
+     *
+     * @return
+     */
+    public AccuracyIndicators copy() {
+        AccuracyIndicators copy = new AccuracyIndicators();
+        copy.klic = klic;
+        copy.bic = bic;
+        copy.aic = aic;
+        copy.bias = bias;
+        copy.mad = mad;
+        copy.mape = mape;
+        copy.mse = mse;
+        copy.sae = sae;
+        copy.validationErrors = validationErrors == null ? null : validationErrors.clone();
+        copy.directionalError = directionalError;
+        copy.directionalErrorMatrix = directionalErrorMatrix == null ? null : directionalErrorMatrix.clone();
+        if (horizonErrors != null) {
+            copy.horizonErrors = new double[horizonErrors.length][];
+            for (int i = 0; i < horizonErrors.length; i++)
+                copy.horizonErrors[i] = horizonErrors[i].clone();
+        }
+        copy.horizonMAPE = horizonMAPE == null ? null : horizonMAPE.clone();
+        return copy;
+    }
+
     /**
      * Returns the AIC for the associated forecasting model.
      *
@@ -277,4 +315,20 @@ public class AccuracyIndicators {
     public void setBic(double bic) {
         this.bic = bic;
     }
-}
\ No newline at end of file
+
+    public double[][] getHorizonErrors() {
+        return horizonErrors;
+    }
+
+    public void setHorizonErrors(double[][] horizonErrors) {
+        this.horizonErrors = horizonErrors;
+    }
+
+    public double[] getHorizonMAPE() {
+        return horizonMAPE;
+    }
+
+    public void setHorizonMAPE(double[] horizonMAPE) {
+        this.horizonMAPE = horizonMAPE;
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.utils;
+
+import edu.emory.mathcs.jtransforms.fft.DoubleFFT_1D;
+
+import java.util.Arrays;
+
+/**
+ * Autocorrelation of one series. The lag products sum(x[i + lag] * x[i]) of all lags are computed together in
+ * O(n log n) as the inverse transform of the power spectrum of the zero padded series, instead of one O(n) loop per
+ * lag. Results are cached on the instance, so build one per series and query it as often as needed.
+ *
+ * FFT products differ from the direct sums in the last bits. {@link #topLags(int)} only uses them to shortlist the
+ * lags that can make the top k and recomputes those directly, so it returns exactly the lags a stable sort of the
+ * direct correlations returns. Short series are computed directly.
+ */
+public class AutoCorrelation {
+
+    static final int DIRECT_LENGTH = 64;
+
+    private final double[] series;
+    private final int length;
+    private final int maxLag;
+
+    // FFT estimates of the lag products and the bound on their distance from the direct sums
+    private double[] lagProducts;
+    private double error;
+
+    private final double[] exactProducts;
+    private final boolean[] exact;
+
+    /**
+     * Lags 0 to series.length / 2 - 1
+     *
+     * @param series
+     */
+    public AutoCorrelation(double[] series) {
+        this(series, series.length / 2);
+    }
+
+    /**
+     * @param series
+     * @param maxLag number of lags, lags 0 to maxLag - 1 are available
+     */
+    public AutoCorrelation(double[] series, int maxLag) {
+        if (maxLag < 0 || maxLag > series.length)
+            throw new IllegalArgumentException("Invalid number of lags " + maxLag + " for series of length " + series.length);
+        this.series = series;
+        this.length = series.length;
+        this.maxLag = maxLag;
+        this.exactProducts = new double[maxLag];
+        this.exact = new boolean[maxLag];
+    }
+
+    public int getMaxLag() {
+        return maxLag;
+    }
+
+    /**
+     * sum(x[i + lag] * x[i]) summed in index order, as the nested loops computed it
+     *
+     * @param lag
+     * @return
+     */
+    public double lagProduct(int lag) {
+        if (!exact[lag]) {
+            double product = 0;
+            for (int index = 0; index < length - lag; index++)
+                product += series[index + lag] * series[index];
+            exactProducts[lag] = product;
+            exact[lag] = true;
+        }
+        return exactProducts[lag];
+    }
+
+    /**
+     * Lag product averaged over the number of overlapping points
+     *
+     * @param lag
+     * @return
+     */
+    public double correlation(int lag) {
+        return lagProduct(lag) / (length - lag);
+    }
+
+    /**
+     * Lag products of all lags, from the FFT for long series
+     *
+     * @return
+     */
+    public double[] lagProducts() {
+        estimate();
+        return lagProducts.clone();
+    }
+
+    /**
+     * The k lags with the highest correlation in descending order, ties in lag order
+     *
+     * @param k
+     * @return at most k lags, fewer if there are fewer lags
+     */
+    public int[] topLags(int k) {
+        k = Math.min(k, maxLag);
+        if (k <= 0)
+            return new int[0];
+        estimate();
+
+        // the k-th highest lower bound, a lag whose upper bound is below it has k lags strictly above it
+        double[] lower = new double[maxLag];
+        for (int lag = 0; lag < maxLag; lag++)
+            lower[lag] = (lagProducts[lag] - error) / (length - lag);
+        double bound = lower[SortUtil.descendingOrder(lower, maxLag)[k - 1]];
+
+        int[] candidates = new int[maxLag];
+        double[] correlations = new double[maxLag];
+        int count = 0;
+        for (int lag = 0; lag < maxLag; lag++) {
+            if ((lagProducts[lag] + error) / (length - lag) >= bound) {
+                candidates[count] = lag;
+                correlations[count++] = correlation(lag);
+            }
+        }
+
+        int[] order = SortUtil.descendingOrder(correlations, count);
+        int[] top = new int[k];
+        for (int i = 0; i < k; i++)
+            top[i] = candidates[order[i]];
+        return top;
+    }
+
+    private void estimate() {
+        if (lagProducts != null)
+            return;
+
+        double energy = 0;
+        for (int i = 0; i < length; i++)
+            energy += series[i] * series[i];
+
+        if (length < DIRECT_LENGTH || Double.isNaN(energy) || Double.isInfinite(energy)) {
+            lagProducts = new double[maxLag];
+            for (int lag = 0; lag < maxLag; lag++)
+                lagProducts[lag] = lagProduct(lag);
+            error = 0;
+            return;
+        }
+
+        // padding to length + maxLag keeps the circular correlation from wrapping into the lags we read
+        int size = Integer.highestOneBit(length + maxLag - 1) << 1;
+        double[] work = FFTPlanCache.workArray(size);
+        System.arraycopy(series, 0, work, 0, length);
+        Arrays.fill(work, length, size, 0d);
+
+        DoubleFFT_1D fft = FFTPlanCache.plan(size);
+        fft.realForward(work);
+        work[0] = work[0] * work[0];
+        work[1] = work[1] * work[1];
+        for (int i = 2; i < size; i += 2) {
+            work[i] = work[i] * work[i] + work[i + 1] * work[i + 1];
+            work[i + 1] = 0;
+        }
+        fft.realInverse(work, true);
+        lagProducts = Arrays.copyOf(work, maxLag);
+
+        // rounding of the direct sum grows with the length, of the transforms with log2 of the size, both relative
+        // to the energy of the series which bounds every lag product
+        int log2 = Integer.numberOfTrailingZeros(size);
+        error = 2 * (length + 10 * log2) * Math.ulp(1d) * energy;
+    }
+}
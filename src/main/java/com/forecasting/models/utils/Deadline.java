@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point in time by which a forecast should be done, on the System.nanoTime clock. Immutable and shared by the
+ * threads working on the same segment or batch.
+ */
+public class Deadline {
+
+    private final long nanoTime;
+
+    private Deadline(long nanoTime) {
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Deadline the given time from now
+     *
+     * @param duration
+     * @param unit
+     * @return
+     */
+    public static Deadline after(long duration, TimeUnit unit) {
+        return new Deadline(System.nanoTime() + unit.toNanos(duration));
+    }
+
+    /**
+     * The earlier of two deadlines, either may be null
+     *
+     * @param first
+     * @param second
+     * @return
+     */
+    public static Deadline earliest(Deadline first, Deadline second) {
+        if (first == null)
+            return second;
+        if (second == null)
+            return first;
+        return first.nanoTime - second.nanoTime <= 0 ? first : second;
+    }
+
+    public boolean expired() {
+        return remaining(TimeUnit.NANOSECONDS) <= 0;
+    }
+
+    /**
+     * Time left, negative once expired
+     *
+     * @param unit
+     * @return
+     */
+    public long remaining(TimeUnit unit) {
+        return unit.convert(nanoTime - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline in " + remaining(TimeUnit.MILLISECONDS) + " ms";
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.utils;
+
+import edu.emory.mathcs.jtransforms.fft.DoubleFFT_1D;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of JTransforms plans keyed by transform size. Building a DoubleFFT_1D computes the twiddle factors (and
+ * the Bluestein chirp for sizes that are not products of 2, 3, 4 and 5), which costs more than the transform itself
+ * for the short series we forecast. A plan only reads its tables once constructed, so one instance is shared by all
+ * threads. The least recently used plan is evicted once {@link #MAX_PLANS} sizes are cached.
+ *
+ * Work arrays are pooled per thread, see {@link #workArray(int)}. Sizes above {@link #MAX_CACHED_SIZE} are neither
+ * cached nor pooled, a one-off transform that large would otherwise stay reachable for the life of the thread.
+ */
+public final class FFTPlanCache {
+
+    public static final int MAX_PLANS = 64;
+
+    // transform size in points, work arrays hold up to twice as many values
+    public static final int MAX_CACHED_SIZE = 1 << 15;
+
+    private static final Map<Integer, DoubleFFT_1D> PLANS = new LinkedHashMap<Integer, DoubleFFT_1D>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, DoubleFFT_1D> eldest) {
+            return size() > MAX_PLANS;
+        }
+    };
+
+    private static final ThreadLocal<double[]> WORK_ARRAY = new ThreadLocal<double[]>() {
+        @Override
+        protected double[] initialValue() {
+            return new double[0];
+        }
+    };
+
+    private FFTPlanCache() {
+    }
+
+    /**
+     * Plan for transforms of size n
+     *
+     * @param n
+     * @return
+     */
+    public static DoubleFFT_1D plan(int n) {
+        if (n > MAX_CACHED_SIZE)
+            return new DoubleFFT_1D(n);
+
+        DoubleFFT_1D plan;
+        synchronized (PLANS) {
+            plan = PLANS.get(n);
+        }
+        if (plan != null)
+            return plan;
+
+        // built outside the lock, two threads racing on a new size both build it and the last one is kept
+        plan = new DoubleFFT_1D(n);
+        synchronized (PLANS) {
+            PLANS.put(n, plan);
+        }
+        return plan;
+    }
+
+    /**
+     * Number of plans currently cached
+     *
+     * @return
+     */
+    public static int size() {
+        synchronized (PLANS) {
+            return PLANS.size();
+        }
+    }
+
+    public static void clear() {
+        synchronized (PLANS) {
+            PLANS.clear();
+        }
+    }
+
+    /**
+     * Scratch array of the current thread with at least the given size. Contents are left over from the previous
+     * use and the array may be longer than requested, so callers pass the size to the transform explicitly.
+     * Sizes above twice {@link #MAX_CACHED_SIZE} get a new array that is not kept.
+     *
+     * @param size
+     * @return
+     */
+    public static double[] workArray(int size) {
+        if (size > 2 * MAX_CACHED_SIZE)
+            return new double[size];
+
+        double[] work = WORK_ARRAY.get();
+        if (work.length < size) {
+            work = new double[size];
+            WORK_ARRAY.set(work);
+        }
+        return work;
+    }
+}
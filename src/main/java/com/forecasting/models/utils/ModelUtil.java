@@ -42,6 +42,11 @@ public class ModelUtil {
             accuracyIndicators.setValidationErrors(calculateValidationErrors(valMatrix));
             accuracyIndicators.setDirectionalError(calculateDirectionalError(valMatrix));
             accuracyIndicators.setDirectionalErrorMatrix(calculateDirectionalErrorMatrix(valMatrix));
+            if (valMatrix.length > 0 && valMatrix[0].length > 2) {
+                double[][] horizonErrors = calculateHorizonErrors(valMatrix);
+                accuracyIndicators.setHorizonErrors(horizonErrors);
+                accuracyIndicators.setHorizonMAPE(calculateHorizonMAPE(horizonErrors));
+            }
         }
 
         if (trainMatrix != null) {
@@ -53,6 +58,24 @@ public class ModelUtil {
 //        logger.info("accuracyIndicators.toString() = " + accuracyIndicators.toString());
     }
 
+    /**
+     * Compute training accuracy indicators (KLIC, AIC, BIC and MSE) from expected and forecasted values kept in
+     * separate arrays, same as computeAccuracyIndicators with a train matrix of length rows
+     *
+     * @param accuracyIndicators
+     * @param actual
+     * @param forecast
+     * @param length
+     * @param dof
+     */
+    public static void computeAccuracyIndicators(AccuracyIndicators accuracyIndicators, double[] actual, double[] forecast, int length, int dof) {
+        double MSE = computeMSE(actual, forecast, length);
+        accuracyIndicators.setKlic(calculateKLIC(actual, forecast, length));
+        accuracyIndicators.setAIC(calculateAIC(MSE, dof, length));
+        accuracyIndicators.setBic(calculateBIC(MSE, dof, length));
+        accuracyIndicators.setMSE(MSE);
+    }
+
     private static double[] calculateValidationErrors(double[][] matrix) {
         double[] validationErrors = new double[matrix.length];
         for (int i = 0; i < matrix.length; i++)
@@ -61,6 +84,50 @@ public class ModelUtil {
         return validationErrors;
     }
 
+    /**
+     * Absolute percent errors of each origin at each horizon of a multi-horizon validation matrix, the actual
+     * value of origin i at horizon k being the one validated by origin i + k
+     *
+     * @param matrix actual value at 0, forecasts of the horizons from 1
+     * @return origins x horizons errors, NaN past the last validation point
+     */
+    public static double[][] calculateHorizonErrors(double[][] matrix) {
+        int horizons = matrix[0].length - 1;
+        double[][] horizonErrors = new double[matrix.length][horizons];
+        for (int i = 0; i < matrix.length; i++) {
+            for (int k = 0; k < horizons; k++) {
+                if (i + k < matrix.length) {
+                    double actual = matrix[i + k][0];
+                    horizonErrors[i][k] = Math.abs(actual - matrix[i][1 + k]) * 100 / actual;
+                } else horizonErrors[i][k] = Double.NaN;
+            }
+        }
+        return horizonErrors;
+    }
+
+    /**
+     * Mean of each horizon column over the origins that have an actual value for it
+     *
+     * @param horizonErrors
+     * @return
+     */
+    public static double[] calculateHorizonMAPE(double[][] horizonErrors) {
+        int horizons = horizonErrors[0].length;
+        double[] horizonMAPE = new double[horizons];
+        for (int k = 0; k < horizons; k++) {
+            double errorSum = 0;
+            int count = 0;
+            for (int i = 0; i < horizonErrors.length; i++) {
+                if (!Double.isNaN(horizonErrors[i][k])) {
+                    errorSum += horizonErrors[i][k];
+                    count++;
+                }
+            }
+            horizonMAPE[k] = count == 0 ? Double.NaN : errorSum / count;
+        }
+        return horizonMAPE;
+    }
+
     /**
      * Computes KLIC
      *
@@ -74,6 +141,21 @@ public class ModelUtil {
         return klic;
     }
 
+    /**
+     * Computes KLIC over the first length values
+     *
+     * @param actual
+     * @param forecast
+     * @param length
+     * @return
+     */
+    public static double calculateKLIC(double[] actual, double[] forecast, int length) {
+        double klic = 0d;
+        for (int i = 0; i < length; i++)
+            klic += Math.log(actual[i] / forecast[i]) * actual[i];
+        return klic;
+    }
+
     /**
      * Computes Mean absolute percent error
      *
@@ -95,12 +177,31 @@ public class ModelUtil {
      * @return
      */
     public static double computeMSE(double[][] matrix) {
-        double errorSum = 0d;
-        for (int i = 0; i < matrix.length; i++)
-            errorSum += Math.pow(matrix[i][0] - matrix[i][1], 2);
+        double errorSum = 0d, error;
+        for (int i = 0; i < matrix.length; i++) {
+            error = matrix[i][0] - matrix[i][1];
+            errorSum += error * error;
+        }
         return errorSum / matrix.length;
     }
 
+    /**
+     * Compute Mean squared error over the first length values
+     *
+     * @param actual
+     * @param forecast
+     * @param length
+     * @return
+     */
+    public static double computeMSE(double[] actual, double[] forecast, int length) {
+        double errorSum = 0d, error;
+        for (int i = 0; i < length; i++) {
+            error = actual[i] - forecast[i];
+            errorSum += error * error;
+        }
+        return errorSum / length;
+    }
+
     /**
      * Computes the directional error in the form of ratio of incorrect direction to all directions
      */
@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.utils;
+
+import java.util.Random;
+
+/**
+ * Sliding window of the last capacity values kept sorted in an indexable skip list, so adding a value (and
+ * dropping the oldest) and reading any rank cost O(log w). The median absolute deviation is selected from the two
+ * sorted halves around the median in O(log^2 w). Nodes are pooled, nothing is allocated once the window is built.
+ * Not thread safe.
+ */
+public final class OrderStatisticWindow {
+
+    private static final int NIL = -1;
+
+    private final double[] ring;        // Values in arrival order
+    private final double[] values;      // Node values, node capacity is the head
+    private final int[] levels;
+    private final int[] next;           // node * maxLevel + level
+    private final int[] width;          // Bottom level steps covered by the link
+    private final int[] free;           // Pooled nodes
+    private final int[] chain;
+    private final int[] steps;
+    private final int maxLevel;
+    private final int head;
+    private int freeCount;
+    private int oldest;
+    private int size;
+
+    public OrderStatisticWindow(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Invalid window capacity " + capacity);
+        int level = 1;
+        while ((1 << level) < capacity)
+            level++;
+        maxLevel = level + 1;
+        head = capacity;
+        ring = new double[capacity];
+        values = new double[capacity + 1];
+        levels = new int[capacity + 1];
+        next = new int[(capacity + 1) * maxLevel];
+        width = new int[(capacity + 1) * maxLevel];
+        free = new int[capacity];
+        chain = new int[maxLevel];
+        steps = new int[maxLevel];
+
+        Random random = new Random(capacity);
+        for (int node = 0; node < capacity; node++) {
+            level = 1;
+            while (level < maxLevel && random.nextBoolean())
+                level++;
+            levels[node] = level;
+        }
+        levels[head] = maxLevel;
+        clear();
+    }
+
+    /**
+     * Adds the value, dropping the oldest one when the window is full
+     *
+     * @param value not NaN
+     */
+    public void add(double value) {
+        if (Double.isNaN(value))
+            throw new IllegalArgumentException("NaN can not be ordered");
+        int capacity = ring.length;
+        if (size == capacity) {
+            remove(ring[oldest]);
+            ring[oldest] = value;
+            oldest = oldest + 1 == capacity ? 0 : oldest + 1;
+        } else
+            ring[(oldest + size) % capacity] = value;
+        insert(value);
+    }
+
+    /**
+     * Value of the given rank
+     *
+     * @param rank 0 is the smallest
+     * @return
+     */
+    public double get(int rank) {
+        if (rank < 0 || rank >= size)
+            throw new IndexOutOfBoundsException("Rank " + rank + " of window with " + size + " values");
+        int node = head, remaining = rank + 1;
+        for (int level = maxLevel - 1; level >= 0; level--) {
+            while (width[node * maxLevel + level] <= remaining) {
+                remaining -= width[node * maxLevel + level];
+                node = next[node * maxLevel + level];
+            }
+        }
+        return values[node];
+    }
+
+    /**
+     * Number of values less than or equal to the given one
+     *
+     * @param value
+     * @return
+     */
+    public int countAtMost(double value) {
+        int node = head, count = 0, link;
+        for (int level = maxLevel - 1; level >= 0; level--) {
+            while ((link = next[node * maxLevel + level]) != NIL && values[link] <= value) {
+                count += width[node * maxLevel + level];
+                node = link;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Median, the mean of the two middle values for an even size
+     *
+     * @return
+     */
+    public double median() {
+        if (size == 0)
+            throw new IllegalStateException("Empty window");
+        return size % 2 == 1 ? get(size / 2) : (get(size / 2 - 1) + get(size / 2)) / 2;
+    }
+
+    /**
+     * Median of the absolute deviations from the median
+     *
+     * @return
+     */
+    public double medianAbsoluteDeviation() {
+        double median = median();
+        int below = countAtMost(median);
+        return size % 2 == 1 ? deviation(median, below, size / 2)
+                : (deviation(median, below, size / 2 - 1) + deviation(median, below, size / 2)) / 2;
+    }
+
+    /**
+     * k-th smallest deviation, merging the deviations of the values up to the median (read downwards) with the
+     * deviations of the values above it (read upwards), both ascending
+     */
+    private double deviation(double median, int below, int k) {
+        int above = size - below;
+        int low = Math.max(0, k + 1 - above), high = Math.min(below, k + 1);
+        while (true) {
+            int i = (low + high) >>> 1, j = k + 1 - i;
+            double lastLower = i > 0 ? median - get(below - i) : Double.NEGATIVE_INFINITY;
+            double lastUpper = j > 0 ? get(below + j - 1) - median : Double.NEGATIVE_INFINITY;
+            if (i < below && j > 0 && lastUpper > median - get(below - 1 - i))
+                low = i + 1;
+            else if (i > 0 && j < above && lastLower > get(below + j) - median)
+                high = i - 1;
+            else
+                return Math.max(lastLower, lastUpper);
+        }
+    }
+
+    public void clear() {
+        for (int level = 0; level < maxLevel; level++) {
+            next[head * maxLevel + level] = NIL;
+            width[head * maxLevel + level] = 1;
+        }
+        for (int node = 0; node < ring.length; node++)
+            free[node] = ring.length - 1 - node;
+        freeCount = ring.length;
+        oldest = 0;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return ring.length;
+    }
+
+    public boolean isFull() {
+        return size == ring.length;
+    }
+
+    private void insert(double value) {
+        int node = head, link;
+        for (int level = maxLevel - 1; level >= 0; level--) {
+            steps[level] = 0;
+            while ((link = next[node * maxLevel + level]) != NIL && values[link] <= value) {
+                steps[level] += width[node * maxLevel + level];
+                node = link;
+            }
+            chain[level] = node;
+        }
+        int created = free[--freeCount], height = levels[created], covered = 0;
+        values[created] = value;
+        for (int level = 0; level < height; level++) {
+            int previous = chain[level] * maxLevel + level;
+            next[created * maxLevel + level] = next[previous];
+            next[previous] = created;
+            width[created * maxLevel + level] = width[previous] - covered;
+            width[previous] = covered + 1;
+            covered += steps[level];
+        }
+        for (int level = height; level < maxLevel; level++)
+            width[chain[level] * maxLevel + level]++;
+        size++;
+    }
+
+    private void remove(double value) {
+        int node = head, link;
+        for (int level = maxLevel - 1; level >= 0; level--) {
+            while ((link = next[node * maxLevel + level]) != NIL && values[link] < value)
+                node = link;
+            chain[level] = node;
+        }
+        int removed = next[chain[0] * maxLevel];
+        int height = levels[removed];
+        for (int level = 0; level < height; level++) {
+            int previous = chain[level] * maxLevel + level;
+            width[previous] += width[removed * maxLevel + level] - 1;
+            next[previous] = next[removed * maxLevel + level];
+        }
+        for (int level = height; level < maxLevel; level++)
+            width[chain[level] * maxLevel + level]--;
+        free[freeCount++] = removed;
+        size--;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.utils;
+
+/**
+ * Stable O(n log n) sorts over primitive arrays, replacing the insertion sorts of the spectral and seasonality code.
+ * Order is descending and, like the insertion sorts they replace, only moves an element ahead of another when the
+ * other compares strictly less, so equal values (including 0.0 and -0.0) keep their original order.
+ */
+public final class SortUtil {
+
+    private SortUtil() {
+    }
+
+    /**
+     * Indices of the first length values, ordered by descending value
+     *
+     * @param values
+     * @param length
+     * @return
+     */
+    public static int[] descendingOrder(double[] values, int length) {
+        int[] order = new int[length];
+        for (int i = 0; i < length; i++)
+            order[i] = i;
+        if (length < 2)
+            return order;
+
+        int[] buffer = new int[length];
+        int[] from = order, to = buffer, swap;
+        for (int width = 1; width < length; width *= 2) {
+            for (int low = 0; low < length; low += 2 * width) {
+                int mid = Math.min(low + width, length);
+                int high = Math.min(low + 2 * width, length);
+                int left = low, right = mid, k = low;
+                while (left < mid && right < high) {
+                    if (values[from[left]] < values[from[right]])
+                        to[k++] = from[right++];
+                    else
+                        to[k++] = from[left++];
+                }
+                while (left < mid)
+                    to[k++] = from[left++];
+                while (right < high)
+                    to[k++] = from[right++];
+            }
+            swap = from;
+            from = to;
+            to = swap;
+        }
+        return from;
+    }
+
+    /**
+     * Sorts the values in descending order
+     *
+     * @param values
+     */
+    public static void sortDescending(double[] values) {
+        int[] order = descendingOrder(values, values.length);
+        double[] copy = values.clone();
+        for (int i = 0; i < values.length; i++)
+            values[i] = copy[order[i]];
+    }
+
+    /**
+     * Sorts the rows of the matrix by descending value of the given column
+     *
+     * @param rows
+     * @param column
+     */
+    public static void sortRowsDescending(double[][] rows, int column) {
+        double[] keys = new double[rows.length];
+        for (int i = 0; i < rows.length; i++)
+            keys[i] = rows[i][column];
+        int[] order = descendingOrder(keys, keys.length);
+        double[][] copy = rows.clone();
+        for (int i = 0; i < rows.length; i++)
+            rows[i] = copy[order[i]];
+    }
+}
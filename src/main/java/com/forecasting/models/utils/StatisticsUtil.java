@@ -23,17 +23,12 @@ public class StatisticsUtil {
     /**
      * Find AutoCorrelation plot in a time series
      * Dropped - Was supposed to be used for seasonality calculation, but FFT method is better for that purpose.
-     * Not Tested
+     * Lag products of lags 0 to input.length / 2 - 1, computed with the FFT for long series, see {@link AutoCorrelation}
      *
      * @param input
      * @return
      */
     public static double[] autoCorrelation(double[] input) {
-        double[] output = new double[input.length / 2];
-        for (int shift = 0; shift < input.length / 2; shift++) {
-            for (int i = shift, j = 0; i < input.length; i++, j++)
-                output[shift] += input[i] * input[j];
-        }
-        return output;
+        return new AutoCorrelation(input).lagProducts();
     }
 }
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.utils;
+
+/**
+ * Scratch buffers for the training loops of the smoothing models, one context per thread. Buffers grow to the
+ * largest series seen on the thread and are then reused across parameter evaluations, validation points and
+ * series, so evaluating a set of decay constants does not allocate. Contents are overwritten by the next
+ * evaluation on the same thread and buffers may be longer than requested.
+ */
+public class TrainingContext {
+
+    private static final ThreadLocal<TrainingContext> CONTEXT = new ThreadLocal<TrainingContext>() {
+        @Override
+        protected TrainingContext initialValue() {
+            return new TrainingContext();
+        }
+    };
+
+    private double[] actuals = new double[0];
+    private double[] forecasts = new double[0];
+    private double[] seasonalComponent = new double[0];
+    private double[] secondSeasonalComponent = new double[0];
+    private double[] cycles = new double[0];
+
+    /**
+     * Context of the current thread
+     *
+     * @return
+     */
+    public static TrainingContext get() {
+        return CONTEXT.get();
+    }
+
+    /**
+     * Expected values of the training points, replaces column 0 of the train matrix
+     *
+     * @param size
+     * @return
+     */
+    public double[] actuals(int size) {
+        if (actuals.length < size)
+            actuals = new double[size];
+        return actuals;
+    }
+
+    /**
+     * Forecasted values of the training points, replaces column 1 of the train matrix
+     *
+     * @param size
+     * @return
+     */
+    public double[] forecasts(int size) {
+        if (forecasts.length < size)
+            forecasts = new double[size];
+        return forecasts;
+    }
+
+    public double[] seasonalComponent(int size) {
+        if (seasonalComponent.length < size)
+            seasonalComponent = new double[size];
+        return seasonalComponent;
+    }
+
+    public double[] secondSeasonalComponent(int size) {
+        if (secondSeasonalComponent.length < size)
+            secondSeasonalComponent = new double[size];
+        return secondSeasonalComponent;
+    }
+
+    /**
+     * Cycle averages used to initialize seasonality
+     *
+     * @param size
+     * @return
+     */
+    public double[] cycles(int size) {
+        if (cycles.length < size)
+            cycles = new double[size];
+        return cycles;
+    }
+}
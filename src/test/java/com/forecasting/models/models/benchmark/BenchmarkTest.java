@@ -18,7 +18,7 @@
  */
 package com.forecasting.models.models.benchmark;
 
-import com.forecasting.models.Forecaster;
+import com.forecasting.models.BatchForecaster;
 import com.forecasting.models.dto.DataSet;
 import com.forecasting.models.dto.IndependentVariable;
 import com.forecasting.models.dto.Model;
@@ -106,13 +106,9 @@ public class BenchmarkTest extends TestCase {
             models.add(Model.TESM);
             models.add(Model.ENSEMBLE);
 
-            Forecaster forecaster = new Forecaster();
-            for (String key : timeSeriesMap.keySet()) {
-                dataSet = timeSeriesMap.get(key);
-                forecaster.init(dataSet);
-                DataSet forecastTimeSeries = forecaster.forecast(trainPoints, validationPoints, futurePoints, seasonalPeriod);
-                forecastTimeSeriesMap.put(key, forecastTimeSeries);
-            }
+            BatchForecaster forecaster = new BatchForecaster(trainPoints, validationPoints, futurePoints, seasonalPeriod);
+            forecastTimeSeriesMap.putAll(forecaster.forecast(timeSeriesMap));
+            logger.info(String.format("Throughput : %.1f segments/s", forecaster.getThroughput()));
 
             logger.info("Forecast Complete, Writing to File now");
             writeToFile(forecastTimeSeriesMap);
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.models.tests;
+
+import com.forecasting.models.utils.AutoCorrelation;
+import com.forecasting.models.utils.SortUtil;
+import com.forecasting.models.utils.StatisticsUtil;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.Random;
+
+public class AutoCorrelationTest extends TestCase {
+
+    public AutoCorrelationTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(AutoCorrelationTest.class);
+    }
+
+    public void testLagProductsMatchDirectSums() {
+        Random random = new Random(3);
+        double[] series = new double[1000];
+        for (int i = 0; i < series.length; i++)
+            series[i] = 100 + 20 * Math.sin(2 * Math.PI * i / 24) + random.nextGaussian();
+
+        double[] products = StatisticsUtil.autoCorrelation(series);
+        assertEquals(series.length / 2, products.length);
+        for (int lag = 0; lag < products.length; lag++) {
+            double direct = 0;
+            for (int i = lag; i < series.length; i++)
+                direct += series[i] * series[i - lag];
+            assertEquals(direct, products[lag], 1e-9 * direct);
+        }
+    }
+
+    public void testTopLagsMatchStableSortOfDirectCorrelations() {
+        Random random = new Random(5);
+        for (int length = 2; length < 400; length += 7) {
+            // small integer series have many exactly tied correlations
+            double[] series = new double[length];
+            for (int i = 0; i < length; i++)
+                series[i] = (i % 12 < 6 ? 3 : 1) + random.nextInt(2);
+
+            int lags = length / 2;
+            double[] correlations = new double[lags];
+            for (int lag = 0; lag < lags; lag++) {
+                double product = 0;
+                for (int index = 0; index < length - lag; index++)
+                    product += series[index + lag] * series[index];
+                correlations[lag] = product / (length - lag);
+            }
+            int[] expected = SortUtil.descendingOrder(correlations, lags);
+
+            int[] top = new AutoCorrelation(series).topLags(5);
+            assertEquals(Math.min(5, lags), top.length);
+            for (int i = 0; i < top.length; i++)
+                assertEquals(expected[i], top[i]);
+        }
+    }
+
+    public void testTopLagsOfShortSeries() {
+        assertEquals(0, new AutoCorrelation(new double[]{1}).topLags(2).length);
+        assertEquals(0, new AutoCorrelation(new double[]{1, 2, 3}).topLags(2)[0]);
+    }
+}
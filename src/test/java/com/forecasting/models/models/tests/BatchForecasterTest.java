@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.models.tests;
+
+import com.forecasting.models.BatchForecaster;
+import com.forecasting.models.BatchProgressListener;
+import com.forecasting.models.Forecaster;
+import com.forecasting.models.dto.DataSet;
+import com.forecasting.models.models.DataPoint;
+import com.forecasting.models.models.util.SampleDataFactory;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+public class BatchForecasterTest extends TestCase {
+
+    public BatchForecasterTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(BatchForecasterTest.class);
+    }
+
+    public void testBatchForecaster() throws Exception {
+
+        Map<String, DataSet> timeSeriesMap = new HashMap<String, DataSet>();
+        for (int segment = 0; segment < 20; segment++)
+            timeSeriesMap.put("segment-" + segment, SampleDataFactory.getSeasonalDataSet(42, segment));
+        timeSeriesMap.put("too-short", SampleDataFactory.getSeasonalDataSet(10, 0));
+
+        final List<double[]> reports = Collections.synchronizedList(new ArrayList<double[]>());
+        BatchForecaster batchForecaster = new BatchForecaster(35, 7, 7, 7);
+        batchForecaster.setParallelism(4);
+        batchForecaster.setChunkSize(3);
+        batchForecaster.setProgressInterval(5);
+        batchForecaster.setProgressListener(new BatchProgressListener() {
+            @Override
+            public void onProgress(int completedSegments, int failedSegments, int totalSegments, double segmentsPerSecond) {
+                reports.add(new double[]{completedSegments, failedSegments, totalSegments, segmentsPerSecond});
+            }
+        });
+
+        Map<String, DataSet> forecastMap = batchForecaster.forecast(timeSeriesMap);
+
+        assertEquals(20, forecastMap.size());
+        assertTrue(batchForecaster.getFailedSegments().containsKey("too-short"));
+        // Every fifth segment and once at the end, after the failed segment was counted
+        assertEquals(5, reports.size());
+        List<Double> completed = new ArrayList<Double>();
+        for (double[] report : reports) {
+            assertEquals(21d, report[2]);
+            assertTrue(report[1] <= 1);
+            assertTrue(report[3] >= 0);
+            completed.add(report[0]);
+        }
+        assertTrue(completed.containsAll(Arrays.asList(5d, 10d, 15d, 20d)));
+        assertEquals(21d, reports.get(4)[0]);
+        assertEquals(1d, reports.get(4)[1]);
+
+        Forecaster forecaster = new Forecaster();
+        for (int segment = 0; segment < 20; segment++) {
+            forecaster.init(SampleDataFactory.getSeasonalDataSet(42, segment));
+            DataSet expected = forecaster.forecast(35, 7, 7, 7);
+            Iterator<DataPoint> actual = forecastMap.get("segment-" + segment).iterator();
+            for (DataPoint point : expected.getDataPoints())
+                assertEquals(point.getDependentValue(), actual.next().getDependentValue(), 1e-9);
+        }
+    }
+}
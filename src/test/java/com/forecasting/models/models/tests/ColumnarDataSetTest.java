@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.models.tests;
+
+import com.forecasting.models.dto.ColumnarDataSet;
+import com.forecasting.models.dto.DataSet;
+import com.forecasting.models.dto.IndependentVariable;
+import com.forecasting.models.dto.Observation;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.Arrays;
+
+public class ColumnarDataSetTest extends TestCase {
+
+    public ColumnarDataSetTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(ColumnarDataSetTest.class);
+    }
+
+    public void testDataSetRoundTrip() {
+        DataSet dataSet = new DataSet();
+        for (int i = 9; i >= 0; i--) {
+            Observation observation = new Observation();
+            observation.setIndependentValue(IndependentVariable.SLICE, i);
+            observation.setDependentValue(i * 1.5);
+            observation.setLowerDependentValue(i);
+            observation.setUpperDependentValue(i * 2);
+            dataSet.add(observation);
+        }
+
+        ColumnarDataSet series = ColumnarDataSet.fromDataSet(dataSet);
+        assertEquals(10, series.size());
+        assertTrue(Arrays.equals(dataSet.toArray(), series.toArray()));
+        assertEquals(3, series.getSlice(3));
+        assertEquals(6.0, series.getUpper(3));
+
+        DataSet copy = series.toDataSet();
+        assertTrue(Arrays.equals(dataSet.toArray(), copy.toArray()));
+        assertEquals(copy.size(), dataSet.size());
+    }
+
+    public void testSliceIsView() {
+        double[] values = {1, 2, 3, 4, 5, 6, 7, 8};
+        ColumnarDataSet series = new ColumnarDataSet(values);
+        ColumnarDataSet validation = series.slice(5, 8);
+
+        assertEquals(3, validation.size());
+        assertEquals(6.0, validation.get(0));
+        assertEquals(5, validation.getSlice(0));
+        assertEquals(5, validation.getOffset());
+
+        validation.set(1, 70);
+        assertEquals(70.0, series.get(6));
+        assertEquals(8.0, series.slice(2, 6).slice(1, 4).get(2) + 2.0);
+        try {
+            validation.get(3);
+            fail("Index past the end of the view should not be accessible");
+        } catch (IndexOutOfBoundsException e) {
+        }
+    }
+
+    public void testObservationWithoutSlice() {
+        Observation observation = new Observation();
+        observation.setDependentValue(1);
+        try {
+            observation.getIndependentValue(IndependentVariable.SLICE);
+            fail();
+        } catch (NullPointerException e) {
+            // expected
+        }
+
+        try {
+            new DataSet().add(observation);
+            fail();
+        } catch (NullPointerException e) {
+            // expected, points without a slice would otherwise compare as equal and only the first would be kept
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.models.tests;
+
+import com.forecasting.models.BatchForecaster;
+import com.forecasting.models.Forecaster;
+import com.forecasting.models.dto.DataSet;
+import com.forecasting.models.dto.Model;
+import com.forecasting.models.models.impl.DoubleExponentialSmoothingModel;
+import com.forecasting.models.models.impl.TripleExponentialSmoothingAdditiveModel;
+import com.forecasting.models.models.util.SampleDataFactory;
+import com.forecasting.models.optimizer.GridSearchOptimizer;
+import com.forecasting.models.utils.Deadline;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class DeadlineTest extends TestCase {
+
+    public DeadlineTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(DeadlineTest.class);
+    }
+
+    public void testDeadline() {
+        Deadline passed = Deadline.after(-1, TimeUnit.MILLISECONDS);
+        Deadline later = Deadline.after(1, TimeUnit.HOURS);
+        assertTrue(passed.expired());
+        assertFalse(later.expired());
+        assertTrue(later.remaining(TimeUnit.MINUTES) > 58);
+        assertSame(passed, Deadline.earliest(passed, later));
+        assertSame(passed, Deadline.earliest(later, passed));
+        assertSame(later, Deadline.earliest(null, later));
+    }
+
+    public void testKernelSearchStopsAfterFirstPoint() throws Exception {
+        TripleExponentialSmoothingAdditiveModel model = new TripleExponentialSmoothingAdditiveModel(35, 7, 7);
+        model.setDeadline(Deadline.after(-1, TimeUnit.MILLISECONDS));
+        model.init(SampleDataFactory.getSeasonalDataSet(42, 1));
+        model.train();
+        model.forecast(7);
+        assertTrue(model.isSearchStopped());
+        assertEquals(11 * 11 * 11, model.getParameterEvaluations());
+        assertEquals(7, model.getForecastDataSet().size());
+    }
+
+    public void testOptimizerSearchStopsAtBestSoFar() throws Exception {
+        DoubleExponentialSmoothingModel model = new DoubleExponentialSmoothingModel(35, 7);
+        model.setParameterOptimizer(new GridSearchOptimizer(0.1f, 1.01f));
+        model.setDeadline(Deadline.after(-1, TimeUnit.MILLISECONDS));
+        model.init(SampleDataFactory.getSeasonalDataSet(42, 1));
+        model.train();
+        assertTrue(model.isSearchStopped());
+        assertEquals(7, model.getParameterEvaluations());
+    }
+
+    public void testUnexpiredDeadlineKeepsResult() throws Exception {
+        TripleExponentialSmoothingAdditiveModel bounded = new TripleExponentialSmoothingAdditiveModel(35, 7, 7);
+        bounded.setDeadline(Deadline.after(1, TimeUnit.HOURS));
+        bounded.init(SampleDataFactory.getSeasonalDataSet(42, 2));
+        bounded.train();
+        bounded.forecast(7);
+
+        TripleExponentialSmoothingAdditiveModel unbounded = new TripleExponentialSmoothingAdditiveModel(35, 7, 7);
+        unbounded.init(SampleDataFactory.getSeasonalDataSet(42, 2));
+        unbounded.train();
+        unbounded.forecast(7);
+
+        assertFalse(bounded.isSearchStopped());
+        assertEquals(unbounded.getParameterEvaluations(), bounded.getParameterEvaluations());
+        assertTrue(Arrays.equals(unbounded.getForecastDataSet().toArray(), bounded.getForecastDataSet().toArray()));
+    }
+
+    public void testForecasterSkipsExpensiveModels() throws Exception {
+        Forecaster forecaster = new Forecaster(Arrays.asList(Model.TESA, Model.DES, Model.FFT, Model.MOV, Model.ENSEMBLE));
+        forecaster.setDeadline(Deadline.after(-1, TimeUnit.MILLISECONDS));
+        forecaster.init(SampleDataFactory.getSeasonalDataSet(42, 0));
+        DataSet forecast = forecaster.forecast(35, 7, 7, 7);
+
+        assertEquals(7, forecast.size());
+        assertTrue(forecaster.getFinalModel().getModelName().startsWith(Model.MOV.toString()));
+        assertEquals(Arrays.asList(Model.TESA.toString(), Model.DES.toString(), Model.FFT.toString()), forecaster.getSkippedModels());
+    }
+
+    public void testBatchTimeBudget() throws Exception {
+        Map<String, DataSet> timeSeriesMap = new HashMap<String, DataSet>();
+        for (int segment = 0; segment < 6; segment++)
+            timeSeriesMap.put("segment-" + segment, SampleDataFactory.getSeasonalDataSet(42, segment));
+
+        BatchForecaster batchForecaster = new BatchForecaster(35, 7, 7, 7);
+        batchForecaster.setParallelism(2);
+        batchForecaster.setSegmentTimeBudget(60000);
+        batchForecaster.setBatchTimeBudget(60000);
+        Map<String, DataSet> forecastMap = batchForecaster.forecast(timeSeriesMap);
+        assertEquals(6, forecastMap.size());
+        assertTrue(batchForecaster.getFailedSegments().isEmpty());
+    }
+}
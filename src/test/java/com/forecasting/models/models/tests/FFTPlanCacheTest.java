@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.models.tests;
+
+import com.forecasting.models.utils.FFTPlanCache;
+import edu.emory.mathcs.jtransforms.fft.DoubleFFT_1D;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.Arrays;
+
+public class FFTPlanCacheTest extends TestCase {
+
+    public FFTPlanCacheTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(FFTPlanCacheTest.class);
+    }
+
+    public void testPlanIsReused() {
+        FFTPlanCache.clear();
+        DoubleFFT_1D plan = FFTPlanCache.plan(42);
+        assertSame(plan, FFTPlanCache.plan(42));
+        assertNotSame(plan, FFTPlanCache.plan(43));
+        assertEquals(2, FFTPlanCache.size());
+    }
+
+    public void testCachedPlanMatchesFreshPlan() {
+        // 37 is prime, so this goes through the Bluestein path
+        for (int n : new int[]{32, 37, 42}) {
+            double[] cached = new double[2 * n];
+            double[] fresh = new double[2 * n];
+            for (int i = 0; i < n; i++)
+                cached[i] = fresh[i] = Math.sin(i * 0.7) + i % 7;
+
+            FFTPlanCache.plan(n).realForwardFull(cached);
+            FFTPlanCache.plan(n).realForwardFull(cached);
+            new DoubleFFT_1D(n).realForwardFull(fresh);
+            new DoubleFFT_1D(n).realForwardFull(fresh);
+            assertTrue(Arrays.equals(fresh, cached));
+        }
+    }
+
+    public void testEviction() {
+        FFTPlanCache.clear();
+        DoubleFFT_1D first = FFTPlanCache.plan(1);
+        for (int n = 2; n <= FFTPlanCache.MAX_PLANS + 10; n++)
+            FFTPlanCache.plan(n);
+        assertEquals(FFTPlanCache.MAX_PLANS, FFTPlanCache.size());
+        assertNotSame(first, FFTPlanCache.plan(1));
+    }
+
+    public void testWorkArrayIsPooled() {
+        double[] work = FFTPlanCache.workArray(16);
+        assertTrue(work.length >= 16);
+        assertSame(work, FFTPlanCache.workArray(8));
+        assertTrue(FFTPlanCache.workArray(work.length + 1).length > work.length);
+    }
+
+    public void testLargeSizesAreNotCached() {
+        FFTPlanCache.clear();
+        int n = FFTPlanCache.MAX_CACHED_SIZE + 1;
+        assertNotSame(FFTPlanCache.plan(n), FFTPlanCache.plan(n));
+        assertEquals(0, FFTPlanCache.size());
+
+        double[] pooled = FFTPlanCache.workArray(16);
+        double[] large = FFTPlanCache.workArray(2 * n);
+        assertEquals(2 * n, large.length);
+        assertNotSame(large, FFTPlanCache.workArray(2 * n));
+        assertSame(pooled, FFTPlanCache.workArray(16));
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.models.tests;
+
+import com.forecasting.models.BatchForecaster;
+import com.forecasting.models.Forecaster;
+import com.forecasting.models.dto.DataSet;
+import com.forecasting.models.dto.Model;
+import com.forecasting.models.metrics.ForecastMetricsListener;
+import com.forecasting.models.metrics.LatencyHistogram;
+import com.forecasting.models.metrics.MetricsAggregator;
+import com.forecasting.models.metrics.Stage;
+import com.forecasting.models.metrics.StageMetrics;
+import com.forecasting.models.models.util.SampleDataFactory;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ForecastMetricsTest extends TestCase {
+
+    public ForecastMetricsTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(ForecastMetricsTest.class);
+    }
+
+    public void testForecasterStages() throws Exception {
+        final List<StageMetrics> stages = new ArrayList<StageMetrics>();
+        Forecaster forecaster = new Forecaster();
+        forecaster.setMetricsListener(new ForecastMetricsListener() {
+            public void stageCompleted(StageMetrics metrics) {
+                stages.add(metrics);
+            }
+        });
+        forecaster.init(SampleDataFactory.getSeasonalDataSet(42, 0));
+        forecaster.forecast(35, 7, 7, 7);
+
+        assertEquals(Stage.OUTLIER_REMOVAL, stages.get(0).getStage());
+        assertEquals(Stage.COMPETITION, stages.get(stages.size() - 1).getStage());
+        int trained = 0;
+        for (StageMetrics metrics : stages) {
+            assertEquals(7, metrics.getSeasonPeriod());
+            assertTrue(metrics.getNanos() >= 0);
+            if (metrics.getStage() == Stage.TRAIN) {
+                trained++;
+                if (metrics.getName().equals(Model.TESA.toString()))
+                    assertTrue(metrics.getParameterEvaluations() > 0);
+            } else
+                assertEquals(0, metrics.getParameterEvaluations());
+        }
+        assertEquals(forecaster.getAllModels().size() - 1, trained);
+    }
+
+    public void testBatchAggregation() throws Exception {
+        Map<String, DataSet> timeSeriesMap = new HashMap<String, DataSet>();
+        for (int segment = 0; segment < 8; segment++)
+            timeSeriesMap.put("segment-" + segment, SampleDataFactory.getSeasonalDataSet(42, segment));
+
+        MetricsAggregator aggregator = new MetricsAggregator();
+        BatchForecaster batchForecaster = new BatchForecaster(35, 7, 7, 7);
+        batchForecaster.setParallelism(2);
+        batchForecaster.setChunkSize(3);
+        batchForecaster.setMetricsListener(aggregator);
+        batchForecaster.forecast(timeSeriesMap);
+
+        MetricsAggregator.StageStatistics outliers = aggregator.getStatistics(Stage.OUTLIER_REMOVAL, "OutlierDetector", 7);
+        assertEquals(8, outliers.getNanos().getCount());
+        MetricsAggregator.StageStatistics tesa = aggregator.getStatistics(Stage.TRAIN, Model.TESA.toString(), 7);
+        assertEquals(8, tesa.getNanos().getCount());
+        assertTrue(tesa.getParameterEvaluations() > 0);
+        assertTrue(tesa.getNanos().percentile(50) <= tesa.getNanos().getMax());
+
+        MetricsAggregator merged = new MetricsAggregator();
+        merged.merge(aggregator);
+        merged.merge(aggregator);
+        assertEquals(16, merged.getStatistics(Stage.TRAIN, Model.TESA.toString(), 7).getNanos().getCount());
+        assertEquals(2 * tesa.getParameterEvaluations(), merged.getStatistics(Stage.TRAIN, Model.TESA.toString(), 7).getParameterEvaluations());
+        System.out.println(aggregator);
+    }
+
+    public void testHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++)
+            histogram.record(i * 1000);
+        assertEquals(100, histogram.getCount());
+        assertEquals(5050000, histogram.getTotal());
+        assertEquals(100000, histogram.getMax());
+        long median = histogram.percentile(50);
+        assertTrue(median >= 50000 && median < 100000);
+        assertEquals(100000, histogram.percentile(100));
+
+        LatencyHistogram other = new LatencyHistogram();
+        other.record(0);
+        other.record(1L << 40);
+        histogram.merge(other);
+        assertEquals(102, histogram.getCount());
+        assertEquals(1L << 40, histogram.getMax());
+        assertEquals(0, histogram.percentile(0));
+    }
+}
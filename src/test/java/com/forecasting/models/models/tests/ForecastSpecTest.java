@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.models.tests;
+
+import com.forecasting.models.FittedModel;
+import com.forecasting.models.ForecastResult;
+import com.forecasting.models.ForecastSpec;
+import com.forecasting.models.Forecaster;
+import com.forecasting.models.ModelSpec;
+import com.forecasting.models.dto.DataSet;
+import com.forecasting.models.dto.IndependentVariable;
+import com.forecasting.models.dto.Model;
+import com.forecasting.models.dto.Observation;
+import com.forecasting.models.models.impl.TripleExponentialSmoothingAdditiveModel;
+import com.forecasting.models.models.util.SampleDataFactory;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ForecastSpecTest extends TestCase {
+
+    public ForecastSpecTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(ForecastSpecTest.class);
+    }
+
+    public void testSharedSpecMatchesForecaster() throws Exception {
+        final ForecastSpec spec = ForecastSpec.of(null, 35, 7, 7, 7);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<ForecastResult>> results = new ArrayList<Future<ForecastResult>>();
+            for (int segment = 0; segment < 8; segment++) {
+                final DataSet series = SampleDataFactory.getSeasonalDataSet(42, segment % 4);
+                results.add(executor.submit(new Callable<ForecastResult>() {
+                    @Override
+                    public ForecastResult call() throws Exception {
+                        return spec.forecast(series);
+                    }
+                }));
+            }
+            for (int segment = 0; segment < 8; segment++) {
+                Forecaster forecaster = new Forecaster();
+                forecaster.init(SampleDataFactory.getSeasonalDataSet(42, segment % 4));
+                DataSet expected = forecaster.forecast(35, 7, 7, 7);
+                ForecastResult result = results.get(segment).get();
+                assertTrue(Arrays.equals(expected.toArray(), result.getForecastDataSet().toArray()));
+                assertEquals(forecaster.getAllModels().size(), result.getAllModels().size());
+                assertEquals(forecaster.getFinalModel().getModelName(), result.getFinalModel().getModelName());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public void testFitMatchesModel() throws Exception {
+        ModelSpec spec = new ModelSpec(Model.TESA, 35, 7, 7);
+        DataSet series = SampleDataFactory.getSeasonalDataSet(42, 1);
+        FittedModel fitted = spec.fit(series, 7);
+        assertEquals(42, series.size());
+
+        TripleExponentialSmoothingAdditiveModel model = new TripleExponentialSmoothingAdditiveModel(35, 7, 7);
+        model.init(SampleDataFactory.getSeasonalDataSet(42, 1));
+        model.train();
+        model.forecast(7);
+        assertTrue(Arrays.equals(model.getForecastDataSet().toArray(), fitted.getForecastValues()));
+        assertEquals(model.getAccuracyIndicators().getMAPE(), fitted.getAccuracyIndicators().getMAPE());
+        assertEquals(model.getParameterEvaluations(), fitted.getParameterEvaluations());
+        assertEquals(3, fitted.getParameters().length);
+    }
+
+    public void testFittedModelIsImmutable() throws Exception {
+        FittedModel fitted = new ModelSpec(Model.TESA, 35, 7, 7).fit(SampleDataFactory.getSeasonalDataSet(42, 2), 7);
+        double first = fitted.getForecastValues()[0];
+        float alpha = fitted.getParameters()[0];
+        double mape = fitted.getAccuracyIndicators().getMAPE();
+
+        fitted.getForecastValues()[0] = -1;
+        fitted.getParameters()[0] = -1;
+        fitted.getAccuracyIndicators().setMAPE(-1);
+        Observation extra = new Observation();
+        extra.setIndependentValue(IndependentVariable.SLICE, 100);
+        fitted.getForecastDataSet().add(extra);
+
+        assertEquals(first, fitted.getForecastValues()[0]);
+        assertEquals(alpha, fitted.getParameters()[0]);
+        assertEquals(mape, fitted.getAccuracyIndicators().getMAPE());
+        assertEquals(7, fitted.getForecastDataSet().size());
+    }
+
+    public void testNoCompetitionModel() {
+        try {
+            ForecastSpec.of(Arrays.asList(Model.TESA), 35, 7, 7, 7);
+            fail();
+        } catch (Exception e) {
+            assertEquals("ModelNotFoundException", e.getClass().getSimpleName());
+        }
+    }
+}
@@ -20,14 +20,22 @@ package com.forecasting.models.models.tests;
 
 import com.forecasting.models.ModelExecutor;
 import com.forecasting.models.dto.DataSet;
+import com.forecasting.models.exception.ModelInitializationException;
 import com.forecasting.models.models.DataPoint;
 import com.forecasting.models.models.ForecastModel;
+import com.forecasting.models.models.impl.DoubleExponentialSmoothingModel;
+import com.forecasting.models.models.impl.EnsembleCompetitionModel;
+import com.forecasting.models.models.impl.TripleExponentialSmoothingAdditiveModel;
 import com.forecasting.models.models.impl.TripleExponentialSmoothingMultiplicativeModel;
 import com.forecasting.models.models.util.SampleDataFactory;
 import junit.framework.Test;
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
 
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 public class ModelExecutorTest extends TestCase {
 
     public ModelExecutorTest(String testName) {
@@ -66,4 +74,81 @@ public class ModelExecutorTest extends TestCase {
         for (DataPoint point : forecast.getDataPoints())
             System.out.println("point.getDependentValue() = " + point.getDependentValue());
     }
+
+    public void testConcurrentModelExecutor() throws Exception {
+
+        SampleDataFactory dataFactory = new SampleDataFactory();
+        DataSet timeSeries = dataFactory.getSeasonalDummyDataSet(42, 7);
+
+        ModelExecutor sequential = new ModelExecutor();
+        sequential.setTimeSeries(timeSeries);
+        sequential.setForecastPoints(7);
+        sequential.addModel(new TripleExponentialSmoothingAdditiveModel(35, 7, 7));
+        sequential.addModel(new DoubleExponentialSmoothingModel(35, 7));
+        sequential.setCompetitionModel(new EnsembleCompetitionModel(7, 7));
+        sequential.runModels();
+
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            ModelExecutor concurrent = new ModelExecutor(executorService);
+            concurrent.setTimeSeries(timeSeries);
+            concurrent.setForecastPoints(7);
+            concurrent.addModel(new TripleExponentialSmoothingAdditiveModel(35, 7, 7));
+            concurrent.addModel(new DoubleExponentialSmoothingModel(35, 7));
+            // Invalid season, fails in init and should not abort the other models
+            concurrent.addModel(new TripleExponentialSmoothingMultiplicativeModel(35, 7, 0));
+            concurrent.setCompetitionModel(new EnsembleCompetitionModel(7, 7));
+            concurrent.runModels();
+
+            assertEquals(1, concurrent.getFailedModels().size());
+            assertTrue(concurrent.getFailedModels().containsKey("TESM"));
+
+            Iterator<DataPoint> expected = sequential.getFinalModel().getForecastDataSet().iterator();
+            for (DataPoint point : concurrent.getFinalModel().getForecastDataSet().getDataPoints())
+                assertEquals(expected.next().getDependentValue(), point.getDependentValue(), 1e-9);
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    public void testSequentialModelExecutorIsolatesFailures() throws Exception {
+
+        SampleDataFactory dataFactory = new SampleDataFactory();
+        DataSet timeSeries = dataFactory.getSeasonalDummyDataSet(42, 7);
+
+        ModelExecutor healthy = new ModelExecutor();
+        healthy.setTimeSeries(timeSeries);
+        healthy.setForecastPoints(7);
+        healthy.addModel(new TripleExponentialSmoothingAdditiveModel(35, 7, 7));
+        healthy.addModel(new DoubleExponentialSmoothingModel(35, 7));
+        healthy.setCompetitionModel(new EnsembleCompetitionModel(7, 7));
+        healthy.runModels();
+
+        ModelExecutor executor = new ModelExecutor();
+        executor.setTimeSeries(timeSeries);
+        executor.setForecastPoints(7);
+        // Invalid season, fails in init and should not abort the models after it
+        executor.addModel(new TripleExponentialSmoothingMultiplicativeModel(35, 7, 0));
+        executor.addModel(new TripleExponentialSmoothingAdditiveModel(35, 7, 7));
+        executor.addModel(new DoubleExponentialSmoothingModel(35, 7));
+        executor.setCompetitionModel(new EnsembleCompetitionModel(7, 7));
+        executor.runModels();
+
+        assertEquals(1, executor.getFailedModels().size());
+        assertTrue(executor.getFailedModels().containsKey("TESM"));
+        Iterator<DataPoint> expected = healthy.getFinalModel().getForecastDataSet().iterator();
+        for (DataPoint point : executor.getFinalModel().getForecastDataSet().getDataPoints())
+            assertEquals(expected.next().getDependentValue(), point.getDependentValue(), 1e-9);
+
+        ModelExecutor failing = new ModelExecutor();
+        failing.setTimeSeries(timeSeries);
+        failing.setForecastPoints(7);
+        failing.addModel(new TripleExponentialSmoothingMultiplicativeModel(35, 7, 0));
+        try {
+            failing.runModels();
+            fail();
+        } catch (ModelInitializationException e) {
+            assertTrue(failing.getFailedModels().containsKey("TESM"));
+        }
+    }
 }
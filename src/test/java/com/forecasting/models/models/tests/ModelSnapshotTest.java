@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.models.tests;
+
+import com.forecasting.models.Forecaster;
+import com.forecasting.models.ModelExecutor;
+import com.forecasting.models.dto.DataSet;
+import com.forecasting.models.experimental.TESAMultipleSeasonalityModel;
+import com.forecasting.models.experimental.TESMMultipleSeasonalityModel;
+import com.forecasting.models.io.ModelSnapshotFile;
+import com.forecasting.models.models.DataPoint;
+import com.forecasting.models.models.ForecastModel;
+import com.forecasting.models.models.OnlineForecastModel;
+import com.forecasting.models.models.impl.CDGRModel;
+import com.forecasting.models.models.impl.EnsembleCompetitionModel;
+import com.forecasting.models.models.impl.SingleExponentialSmoothingModel;
+import com.forecasting.models.models.impl.TripleExponentialSmoothingAdditiveModel;
+import com.forecasting.models.models.util.SampleDataFactory;
+import com.forecasting.models.utils.AccuracyIndicators;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class ModelSnapshotTest extends TestCase {
+
+    private File file;
+
+    public ModelSnapshotTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(ModelSnapshotTest.class);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        file = File.createTempFile("models", ".snapshot");
+    }
+
+    @Override
+    protected void tearDown() {
+        file.delete();
+    }
+
+    public void testRestoredModelsForecastTheSame() throws Exception {
+        Forecaster forecaster = new Forecaster();
+        forecaster.init(series(84, 1));
+        forecaster.forecast(70, 14, 7, 7);
+
+        Map<String, ForecastModel> models = new LinkedHashMap<String, ForecastModel>();
+        for (ForecastModel model : forecaster.getAllModels())
+            models.put(model.getModelName(), model);
+        ModelSnapshotFile.write(file, models);
+
+        Map<String, ForecastModel> restored = ModelSnapshotFile.read(file);
+        assertEquals(models.keySet(), restored.keySet());
+        for (String name : models.keySet()) {
+            ForecastModel model = models.get(name);
+            ForecastModel copy = restored.get(name);
+            assertEquals(name, model.getWeight(), copy.getWeight());
+            assertEquals(name, model.getAccuracyIndicators().getMAPE(), copy.getAccuracyIndicators().getMAPE());
+            assertForecast(name, model.getForecastDataSet(), copy.getForecastDataSet());
+        }
+        assertEquals(forecaster.getFinalModel().getModelName(), "ENSEMBLE");
+    }
+
+    public void testRestoredHorizonWeightedEnsembleForecastsTheSame() throws Exception {
+        Forecaster forecaster = new Forecaster();
+        forecaster.setValidationHorizons(4);
+        forecaster.init(series(84, 3));
+        forecaster.forecast(70, 14, 14, 7);
+
+        ForecastModel ensemble = forecaster.getFinalModel();
+        assertEquals("ENSEMBLE", ensemble.getModelName());
+        Map<String, ForecastModel> models = new LinkedHashMap<String, ForecastModel>();
+        for (ForecastModel model : forecaster.getAllModels())
+            models.put(model.getModelName(), model);
+        ModelSnapshotFile.write(file, models);
+
+        Map<String, ForecastModel> restored = ModelSnapshotFile.read(file);
+        for (String name : models.keySet()) {
+            AccuracyIndicators indicators = models.get(name).getAccuracyIndicators();
+            AccuracyIndicators copy = restored.get(name).getAccuracyIndicators();
+            assertTrue(name, Arrays.equals(indicators.getHorizonMAPE(), copy.getHorizonMAPE()));
+            assertTrue(name, Arrays.deepEquals(indicators.getHorizonErrors(), copy.getHorizonErrors()));
+            assertForecast(name, models.get(name).getForecastDataSet(), restored.get(name).getForecastDataSet());
+        }
+        assertEquals(4, models.get("TESA").getAccuracyIndicators().getHorizonMAPE().length);
+    }
+
+    public void testRestoredMultiSeasonalEnsembleForecastsTheSame() throws Exception {
+        ModelExecutor executor = new ModelExecutor();
+        executor.setTimeSeries(series(104, 4));
+        executor.setForecastPoints(13);
+        executor.addModel(new TESAMultipleSeasonalityModel(91, 13, 4, 13));
+        executor.addModel(new TESMMultipleSeasonalityModel(91, 13, 4, 13));
+        executor.addModel(new CDGRModel(4, 13));
+        executor.setCompetitionModel(new EnsembleCompetitionModel(13, 13));
+        executor.runModels();
+        assertEquals("ENSEMBLE", executor.getFinalModel().getModelName());
+
+        Map<String, ForecastModel> models = new LinkedHashMap<String, ForecastModel>();
+        for (ForecastModel model : executor.getAllModels())
+            models.put(model.getModelName(), model);
+        ModelSnapshotFile.write(file, models);
+
+        Map<String, ForecastModel> restored = ModelSnapshotFile.read(file);
+        assertEquals(models.keySet(), restored.keySet());
+        for (String name : models.keySet())
+            assertForecast(name, models.get(name).getForecastDataSet(), restored.get(name).getForecastDataSet());
+    }
+
+    public void testRestoredModelsUpdateTheSame() throws Exception {
+        DataSet dataSet = series(56, 2);
+        TripleExponentialSmoothingAdditiveModel tesa = new TripleExponentialSmoothingAdditiveModel(49, 7, 7);
+        SingleExponentialSmoothingModel ses = new SingleExponentialSmoothingModel(49, 7);
+        Map<String, ForecastModel> models = new LinkedHashMap<String, ForecastModel>();
+        for (ForecastModel model : new ForecastModel[]{tesa, ses}) {
+            model.init(dataSet);
+            model.train();
+            model.forecast(7);
+            models.put(model.getModelName(), model);
+        }
+        ModelSnapshotFile.write(file, models);
+        Map<String, ForecastModel> restored = ModelSnapshotFile.read(file);
+
+        for (String name : models.keySet()) {
+            OnlineForecastModel model = (OnlineForecastModel) models.get(name);
+            OnlineForecastModel copy = (OnlineForecastModel) restored.get(name);
+            for (double value : new double[]{120, 95, 101}) {
+                model.update(value);
+                copy.update(value);
+            }
+            assertForecast(name, model.getForecastDataSet(), copy.getForecastDataSet());
+        }
+    }
+
+    public void testLongSeriesIds() throws Exception {
+        SingleExponentialSmoothingModel ses = new SingleExponentialSmoothingModel(49, 7);
+        ses.init(series(56, 5));
+        ses.train();
+        ses.forecast(7);
+
+        char[] chars = new char[40000];
+        Arrays.fill(chars, 'k');
+        String id = new String(chars);
+        Map<String, ForecastModel> models = new LinkedHashMap<String, ForecastModel>();
+        models.put(id, ses);
+        ModelSnapshotFile.write(file, models);
+        Map<String, ForecastModel> restored = ModelSnapshotFile.read(file);
+        assertEquals(models.keySet(), restored.keySet());
+        assertForecast(id, ses.getForecastDataSet(), restored.get(id).getForecastDataSet());
+
+        models.put(new String(new char[70000]), ses);
+        try {
+            ModelSnapshotFile.write(file, models);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected, the length would be truncated
+        }
+    }
+
+    public void testNewerVersionIsRejected() throws Exception {
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+        out.writeInt(ModelSnapshotFile.MAGIC);
+        out.writeShort(ModelSnapshotFile.VERSION + 1);
+        out.writeInt(0);
+        out.close();
+        try {
+            ModelSnapshotFile.read(file);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("Unsupported snapshot version"));
+        }
+    }
+
+    private static void assertForecast(String name, DataSet expected, DataSet actual) {
+        assertEquals(name, expected.size(), actual.size());
+        Iterator<DataPoint> iterator = actual.iterator();
+        for (DataPoint point : expected.getDataPoints()) {
+            DataPoint copy = iterator.next();
+            assertEquals(name, point.getDependentValue(), copy.getDependentValue());
+            assertEquals(name, point.getLowerDependentValue(), copy.getLowerDependentValue());
+            assertEquals(name, point.getUpperDependentValue(), copy.getUpperDependentValue());
+        }
+    }
+
+    private static DataSet series(int points, long seed) {
+        return SampleDataFactory.toDataSet(SampleDataFactory.getNoisyWeeklySeries(points, 100, 0, 20, 3, seed));
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.models.tests;
+
+import com.forecasting.models.dto.DataSet;
+import com.forecasting.models.dto.IndependentVariable;
+import com.forecasting.models.dto.Observation;
+import com.forecasting.models.models.ForecastModel;
+import com.forecasting.models.models.impl.AbstractForecastModel;
+import com.forecasting.models.models.impl.CDGRModel;
+import com.forecasting.models.models.impl.DoubleExponentialSmoothingModel;
+import com.forecasting.models.models.impl.EnsembleModel;
+import com.forecasting.models.models.impl.FFTModelImproved;
+import com.forecasting.models.models.impl.SeasonalSingleExponentialSmoothingModel;
+import com.forecasting.models.models.impl.SingleExponentialSmoothingModel;
+import com.forecasting.models.models.impl.TripleExponentialSmoothingAdditiveModel;
+import com.forecasting.models.models.impl.TripleExponentialSmoothingMultiplicativeModel;
+import com.forecasting.models.models.impl.WeightedMovingAverageModel;
+import com.forecasting.models.models.util.SampleDataFactory;
+import com.forecasting.models.utils.AccuracyIndicators;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class MultiHorizonValidationTest extends TestCase {
+
+    public MultiHorizonValidationTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(MultiHorizonValidationTest.class);
+    }
+
+    public void testFirstHorizonIsOneStepValidation() throws Exception {
+        AbstractForecastModel[][] models = {
+                {new TripleExponentialSmoothingAdditiveModel(35, 7, 7), new TripleExponentialSmoothingAdditiveModel(35, 7, 7)},
+                {new TripleExponentialSmoothingMultiplicativeModel(35, 7, 7), new TripleExponentialSmoothingMultiplicativeModel(35, 7, 7)},
+                {new DoubleExponentialSmoothingModel(35, 7), new DoubleExponentialSmoothingModel(35, 7)},
+                {new SingleExponentialSmoothingModel(35, 7), new SingleExponentialSmoothingModel(35, 7)},
+                {new SeasonalSingleExponentialSmoothingModel(35, 7, 7), new SeasonalSingleExponentialSmoothingModel(35, 7, 7)},
+                {new FFTModelImproved(35, 7, 7, 5), new FFTModelImproved(35, 7, 7, 5)},
+                {new WeightedMovingAverageModel(null, 7, 1, 35, 7), new WeightedMovingAverageModel(null, 7, 1, 35, 7)},
+                {new CDGRModel(7, 7), new CDGRModel(7, 7)}};
+        for (AbstractForecastModel[] pair : models) {
+            pair[1].setValidationHorizons(7);
+            for (AbstractForecastModel model : pair) {
+                model.init(SampleDataFactory.getSeasonalDataSet(42, 0, true));
+                model.train();
+                model.forecast(7);
+            }
+            AccuracyIndicators oneStep = pair[0].getAccuracyIndicators(), horizons = pair[1].getAccuracyIndicators();
+            assertNull(oneStep.getHorizonMAPE());
+            assertEquals(oneStep.toString(), horizons.toString());
+            assertTrue(Arrays.equals(pair[0].getForecastDataSet().toArray(), pair[1].getForecastDataSet().toArray()));
+
+            assertEquals(7, horizons.getHorizonMAPE().length);
+            assertEquals(horizons.getMAPE(), horizons.getHorizonMAPE()[0], 1e-9);
+            double[][] errors = horizons.getHorizonErrors();
+            assertEquals(7, errors.length);
+            for (int point = 0; point < 7; point++) {
+                assertEquals(horizons.getValidationErrors()[point], errors[point][0], 1e-9);
+                for (int k = 0; k < 7; k++)
+                    assertEquals(pair[1].getModelName() + " " + point + " " + k, point + k >= 7, Double.isNaN(errors[point][k]));
+            }
+        }
+    }
+
+    public void testHorizonsForecastFromOriginState() throws Exception {
+        DataSet series = SampleDataFactory.getSeasonalDataSet(42, 0, true);
+        double[] actual = series.toArray();
+        TripleExponentialSmoothingAdditiveModel model = new TripleExponentialSmoothingAdditiveModel(35, 7, 7, 0.3f, 0.1f, 0.2f);
+        model.setValidationHorizons(7);
+        model.init(series);
+        model.train();
+        double[][] errors = model.getAccuracyIndicators().getHorizonErrors();
+
+        // Each origin forecasts the same horizons as a model fitted on the points before it
+        for (int point = 0; point < 7; point++) {
+            int endPoint = 35 + point;
+            DataSet truncated = new DataSet();
+            for (int i = 0; i < endPoint; i++)
+                truncated.add(observation(i, actual[i]));
+            TripleExponentialSmoothingAdditiveModel origin = new TripleExponentialSmoothingAdditiveModel(endPoint - 7, 7, 7, 0.3f, 0.1f, 0.2f);
+            origin.init(truncated);
+            origin.train();
+            origin.forecast(7);
+            double[] forecast = origin.getForecastDataSet().toArray();
+            for (int k = 0; point + k < 7; k++) {
+                double expected = forecast[k] - origin.getAccuracyIndicators().getBias() + model.getAccuracyIndicators().getBias();
+                assertEquals(Math.abs(actual[endPoint + k] - expected) * 100 / actual[endPoint + k], errors[point][k], 1e-6);
+            }
+        }
+    }
+
+    public void testEnsembleWeightsByHorizon() throws Exception {
+        List<ForecastModel> models = new ArrayList<ForecastModel>();
+        models.add(new TripleExponentialSmoothingAdditiveModel(35, 7, 7));
+        models.add(new DoubleExponentialSmoothingModel(35, 7));
+        models.add(new FFTModelImproved(35, 7, 7, 5));
+        models.add(new WeightedMovingAverageModel(null, 7, 1, 35, 7));
+        for (ForecastModel model : models) {
+            ((AbstractForecastModel) model).setValidationHorizons(7);
+            model.init(SampleDataFactory.getSeasonalDataSet(42, 0, true));
+            model.train();
+            model.forecast(14);
+        }
+
+        EnsembleModel oneStep = new EnsembleModel(models, 7);
+        oneStep.init(SampleDataFactory.getSeasonalDataSet(42, 0, true));
+        oneStep.train();
+        oneStep.forecast(14);
+        for (ForecastModel model : models)
+            model.setWeight(0);
+        EnsembleModel byHorizon = new EnsembleModel(models, 7, true);
+        byHorizon.init(SampleDataFactory.getSeasonalDataSet(42, 0, true));
+        byHorizon.train();
+        byHorizon.forecast(14);
+
+        double[] oneStepForecast = oneStep.getForecastDataSet().toArray();
+        double[] horizonForecast = byHorizon.getForecastDataSet().toArray();
+        assertEquals(oneStepForecast[0], horizonForecast[0], 1e-6);
+        boolean reweighted = false;
+        for (int i = 0; i < 14; i++) {
+            double min = Double.MAX_VALUE, max = -Double.MAX_VALUE;
+            for (ForecastModel model : models) {
+                double value = model.getForecastDataSet().toArray()[i];
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            assertTrue(horizonForecast[i] >= min - 1e-6 && horizonForecast[i] <= max + 1e-6);
+            reweighted |= Math.abs(horizonForecast[i] - oneStepForecast[i]) > 1e-6;
+        }
+        assertTrue(reweighted);
+    }
+
+    private Observation observation(int slice, double value) {
+        Observation observation = new Observation();
+        observation.setIndependentValue(IndependentVariable.SLICE, slice);
+        observation.setDependentValue(value);
+        return observation;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.models.tests;
+
+import com.forecasting.models.OnlineForecaster;
+import com.forecasting.models.dto.DataSet;
+import com.forecasting.models.dto.Model;
+import com.forecasting.models.models.impl.DoubleExponentialSmoothingModel;
+import com.forecasting.models.models.impl.SmoothingState;
+import com.forecasting.models.models.impl.TripleExponentialSmoothingAdditiveModel;
+import com.forecasting.models.models.impl.TripleExponentialSmoothingMultiplicativeModel;
+import com.forecasting.models.models.impl.WeightedMovingAverageModel;
+import com.forecasting.models.models.util.SampleDataFactory;
+import com.forecasting.models.postprocess.DriftDetector;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class OnlineForecasterTest extends TestCase {
+
+    public OnlineForecasterTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(OnlineForecasterTest.class);
+    }
+
+    public void testUpdateMatchesSmoothingFromScratch() throws Exception {
+        double[] series = series(61);
+
+        // 60 and 61 points hold the same number of weekly cycles, so the initial seasonality is the same
+        TripleExponentialSmoothingAdditiveModel tesa = new TripleExponentialSmoothingAdditiveModel(53, 7, 7, 0.3f, 0.1f, 0.2f);
+        TripleExponentialSmoothingAdditiveModel tesaFull = new TripleExponentialSmoothingAdditiveModel(54, 7, 7, 0.3f, 0.1f, 0.2f);
+        run(tesa, series, 60);
+        tesa.update(series[60]);
+        run(tesaFull, series, 61);
+        assertState(tesaFull.getState(), tesa.getState());
+
+        TripleExponentialSmoothingMultiplicativeModel tesm = new TripleExponentialSmoothingMultiplicativeModel(53, 7, 7, 0.3f, 0.1f, 0.2f);
+        TripleExponentialSmoothingMultiplicativeModel tesmFull = new TripleExponentialSmoothingMultiplicativeModel(54, 7, 7, 0.3f, 0.1f, 0.2f);
+        run(tesm, series, 60);
+        tesm.update(series[60]);
+        run(tesmFull, series, 61);
+        assertState(tesmFull.getState(), tesm.getState());
+
+        DoubleExponentialSmoothingModel des = new DoubleExponentialSmoothingModel(53, 7, 0.4f, 0.2f);
+        DoubleExponentialSmoothingModel desFull = new DoubleExponentialSmoothingModel(54, 7, 0.4f, 0.2f);
+        run(des, series, 60);
+        des.update(series[60]);
+        run(desFull, series, 61);
+        assertState(desFull.getState(), des.getState());
+
+        WeightedMovingAverageModel mov = new WeightedMovingAverageModel(null, 7, 1, 53, 7);
+        WeightedMovingAverageModel movFull = new WeightedMovingAverageModel(null, 7, 1, 54, 7);
+        run(mov, series, 60);
+        mov.update(series[60]);
+        run(movFull, series, 61);
+        assertEquals(movFull.getPoints(), mov.getPoints());
+        assertTrue(Arrays.equals(movFull.getWindow(), mov.getWindow()));
+        assertEquals(10, mov.getForecastDataSet().size());
+    }
+
+    public void testOnlineForecaster() throws Exception {
+        double[] series = series(100);
+        OnlineForecaster forecaster = new OnlineForecaster(Arrays.asList(Model.TESA, Model.DES, Model.SES, Model.MOV, Model.FFT, Model.ENSEMBLE));
+        forecaster.init(SampleDataFactory.toDataSet(Arrays.copyOf(series, 84)));
+
+        DataSet forecast = forecaster.forecast(70, 14, 7, 7);
+        assertEquals(7, forecast.size());
+        assertEquals(5, forecaster.getAllModels().size());
+
+        for (int i = 84; i < 90; i++)
+            assertEquals(7, forecaster.update(series[i]).size());
+        assertEquals(0, forecaster.getRetrains());
+        assertEquals(90, forecaster.getHistory().size());
+
+        // six updates are pending, so the first update after setting the interval trains at 91 points, then at 96
+        forecaster.setRetrainInterval(5);
+        for (int i = 90; i < 100; i++)
+            forecaster.update(series[i]);
+        assertEquals(2, forecaster.getRetrains());
+        assertEquals(96 - 14, forecaster.getTrainPoints());
+        assertEquals(96, forecaster.getTimeSeries().size());
+        assertEquals(7, forecaster.getFinalModel().getForecastDataSet().size());
+    }
+
+    public void testUpdateRemovesOutliers() throws Exception {
+        double[] series = series(85);
+        OnlineForecaster spiked = new OnlineForecaster(Arrays.asList(Model.TESA, Model.SES, Model.ENSEMBLE));
+        OnlineForecaster replaced = new OnlineForecaster(Arrays.asList(Model.TESA, Model.SES, Model.ENSEMBLE));
+        for (OnlineForecaster forecaster : new OnlineForecaster[]{spiked, replaced}) {
+            forecaster.init(SampleDataFactory.toDataSet(Arrays.copyOf(series, 84)));
+            forecaster.forecast(70, 14, 7, 7);
+        }
+
+        // A spike is replaced by the mean of the previous seven points, as the history is cleaned before training
+        double sum = 0;
+        double[] cleaned = spiked.getTimeSeries().toArray();
+        for (int i = 77; i < 84; i++)
+            sum += cleaned[i];
+        double[] forecast = spiked.update(10 * series[84]).toArray();
+        assertTrue(Arrays.equals(replaced.update((long) (sum / 7)).toArray(), forecast));
+        assertEquals(10 * series[84], spiked.getHistory().toArray()[84]);
+        assertTrue(forecast[0] < 2 * series[84]);
+    }
+
+    public void testDriftDetector() {
+        DriftDetector detector = new DriftDetector();
+        Random random = new Random(1);
+        for (int i = 0; i < 500; i++)
+            assertFalse(detector.add(random.nextGaussian()));
+
+        boolean drift = false;
+        for (int i = 0; i < 30 && !drift; i++)
+            drift = detector.add(4 + random.nextGaussian());
+        assertTrue(drift);
+
+        detector.reset();
+        assertEquals(0, detector.getObservations());
+    }
+
+    private static void run(com.forecasting.models.models.ForecastModel model, double[] series, int points) throws Exception {
+        model.init(SampleDataFactory.toDataSet(Arrays.copyOf(series, points)));
+        model.train();
+        model.forecast(10);
+    }
+
+    private static void assertState(SmoothingState expected, SmoothingState actual) {
+        assertEquals(expected.getPoints(), actual.getPoints());
+        assertEquals(expected.getPermanent(), actual.getPermanent());
+        assertEquals(expected.getTrend(), actual.getTrend());
+        assertTrue(Arrays.equals(expected.getSeasonalComponent(), actual.getSeasonalComponent()));
+    }
+
+    private static double[] series(int points) {
+        return SampleDataFactory.getNoisyWeeklySeries(points, 100, 0.5, 20, 3, 42);
+    }
+}
@@ -20,13 +20,17 @@ package com.forecasting.models.models.tests;
 
 import com.forecasting.models.dto.DataSet;
 import com.forecasting.models.dto.IndependentVariable;
+import com.forecasting.models.dto.Observation;
 import com.forecasting.models.models.DataPoint;
 import com.forecasting.models.models.util.SampleDataFactory;
 import com.forecasting.models.preprocess.OutlierDetector;
+import com.forecasting.models.preprocess.impl.RollingOutlierFilter;
 import junit.framework.Test;
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
 
+import java.util.Arrays;
+
 public class OutlierDetectorTest extends TestCase {
 
     public OutlierDetectorTest(String testName) {
@@ -56,4 +60,44 @@ public class OutlierDetectorTest extends TestCase {
             System.out.println(String.format("Key = %s    forecast = %s", dp.getIndependentValue(IndependentVariable.SLICE), dp.getDependentValue()));
     }
 
+    public void testRollingFilterMatchesDetector() throws Exception {
+        DataSet dataSet = new SampleDataFactory().getDataSetFromFile();
+        double[] expected = new OutlierDetector(400).removeOutlier(dataSet, 7).toArray();
+        double[] points = dataSet.toArray();
+        double[] naive = points.clone();
+        for (int i = 7; i < naive.length; i++) {
+            double sum = 0;
+            for (int j = i - 7; j < i; j++)
+                sum += naive[j];
+            double avg = sum / 7;
+            if (avg * 5 < naive[i] || avg > 5 * naive[i])
+                naive[i] = (long) avg;
+        }
+        assertTrue(Arrays.equals(naive, expected));
+
+        RollingOutlierFilter filter = new RollingOutlierFilter(400, 7);
+        for (int i = 0; i < points.length; i++)
+            assertEquals(expected[i], filter.accept(points[i]));
+    }
+
+    public void testRollingFilterTransform() {
+        DataSet dataSet = new DataSet();
+        for (int i = 0; i < 30; i++) {
+            Observation observation = new Observation();
+            observation.setIndependentValue(IndependentVariable.SLICE, 100 + i);
+            observation.setDependentValue(i == 20 ? 5000 : 100 + i % 7);
+            dataSet.add(observation);
+        }
+        RollingOutlierFilter filter = new RollingOutlierFilter(400, 7);
+        filter.init(dataSet);
+        DataSet cleaned = filter.transform();
+        assertEquals(1, filter.getOutliers());
+        assertEquals(30, cleaned.size());
+        assertEquals(103.0, cleaned.toArray()[20]);
+        assertEquals(5000.0, dataSet.toArray()[20]);
+        assertEquals(100, cleaned.getDataPoints().iterator().next().getIndependentValue(IndependentVariable.SLICE));
+
+        filter.transform();
+        assertEquals(1, filter.getOutliers());
+    }
 }
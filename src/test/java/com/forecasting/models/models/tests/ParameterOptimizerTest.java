@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.models.tests;
+
+import com.forecasting.models.dto.DataSet;
+import com.forecasting.models.dto.IndependentVariable;
+import com.forecasting.models.dto.Observation;
+import com.forecasting.models.models.impl.DoubleExponentialSmoothingModel;
+import com.forecasting.models.optimizer.*;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+public class ParameterOptimizerTest extends TestCase {
+
+    private static final ParameterObjective BOWL = new ParameterObjective() {
+        public double value(float[] parameters) {
+            double value = 0d, target;
+            for (int i = 0; i < parameters.length; i++) {
+                target = i % 2 == 0 ? 0.3 : 0.7;
+                value += (parameters[i] - target) * (parameters[i] - target);
+            }
+            return value;
+        }
+    };
+
+    public ParameterOptimizerTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(ParameterOptimizerTest.class);
+    }
+
+    public void testGridSearch() {
+        OptimizationResult result = new GridSearchOptimizer(0.1f, 1.01f).optimize(BOWL, 3);
+        assertEquals(1331, result.getEvaluations());
+        assertEquals(0.3, result.getParameters()[0], 1e-5);
+        assertEquals(0.7, result.getParameters()[1], 1e-5);
+        assertEquals(0.3, result.getParameters()[2], 1e-5);
+    }
+
+    public void testContinuousOptimizers() {
+        ParameterOptimizer[] optimizers = {new CoarseToFineGridOptimizer(), new NelderMeadOptimizer(), new TrustRegionOptimizer()};
+        OptimizationResult result;
+        for (ParameterOptimizer optimizer : optimizers)
+            for (int dimension = 1; dimension <= 4; dimension++) {
+                result = optimizer.optimize(BOWL, dimension);
+                assertTrue(optimizer.getClass().getSimpleName(), result.getValue() < 1e-3);
+                assertTrue(optimizer.getClass().getSimpleName(), result.getEvaluations() < Math.pow(11, dimension) || dimension == 1);
+                for (float parameter : result.getParameters())
+                    assertTrue(parameter >= 0f && parameter <= 1f);
+            }
+    }
+
+    public void testModelEvaluations() throws Exception {
+        DataSet dataSet = new DataSet();
+        for (int i = 0; i < 42; i++) {
+            Observation observation = new Observation();
+            observation.setIndependentValue(IndependentVariable.SLICE, i);
+            observation.setDependentValue(100 + i + 10 * Math.sin(i));
+            dataSet.add(observation);
+        }
+
+        DoubleExponentialSmoothingModel grid = new DoubleExponentialSmoothingModel(28, 14);
+        grid.init(dataSet);
+        grid.train();
+        assertEquals(14 * 121, grid.getParameterEvaluations());
+
+        DoubleExponentialSmoothingModel simplex = new DoubleExponentialSmoothingModel(28, 14);
+        simplex.setParameterOptimizer(new NelderMeadOptimizer());
+        simplex.init(dataSet);
+        simplex.train();
+        assertTrue(simplex.getParameterEvaluations() < grid.getParameterEvaluations());
+        assertTrue(simplex.getMin_mse_error() <= grid.getMin_mse_error() * 1.01);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.models.tests;
+
+import com.forecasting.models.models.util.SampleDataFactory;
+import com.forecasting.models.preprocess.OutlierDetector;
+import com.forecasting.models.preprocess.impl.AbstractOutlierFilter;
+import com.forecasting.models.preprocess.impl.HampelFilter;
+import com.forecasting.models.preprocess.impl.RollingMedianFilter;
+import com.forecasting.models.preprocess.impl.SeasonalMedianFilter;
+import com.forecasting.models.utils.OrderStatisticWindow;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class RobustOutlierFilterTest extends TestCase {
+
+    public RobustOutlierFilterTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(RobustOutlierFilterTest.class);
+    }
+
+    public void testWindowMatchesSortedCopy() {
+        Random random = new Random(7);
+        OrderStatisticWindow window = new OrderStatisticWindow(13);
+        double[] values = new double[300];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(4) == 0 ? random.nextInt(5) : random.nextGaussian() * 10;
+            window.add(values[i]);
+
+            double[] sorted = Arrays.copyOfRange(values, Math.max(0, i - 12), i + 1);
+            Arrays.sort(sorted);
+            assertEquals(sorted.length, window.size());
+            for (int rank = 0; rank < sorted.length; rank++)
+                assertEquals(sorted[rank], window.get(rank));
+            double median = median(sorted);
+            assertEquals(median, window.median());
+
+            double[] deviations = new double[sorted.length];
+            for (int j = 0; j < sorted.length; j++)
+                deviations[j] = Math.abs(sorted[j] - median);
+            Arrays.sort(deviations);
+            assertEquals(median(deviations), window.medianAbsoluteDeviation());
+        }
+        window.clear();
+        assertEquals(0, window.size());
+    }
+
+    public void testMedianFilterDoesNotClipAfterSpike() {
+        double[] points = weeklySeries(35);
+        points[20] = 10000;
+        double[] mean = new OutlierDetector(400).removeOutlier(SampleDataFactory.toDataSet(points), 7).toArray();
+        double[] median = points.clone();
+        int outliers = new RollingMedianFilter(400, 7).filter(median);
+
+        assertEquals(1, outliers);
+        assertTrue(median[20] < 200);
+        for (int i = 21; i < points.length; i++)
+            assertEquals(points[i], median[i]);
+        assertTrue(mean[20] < 10000);
+    }
+
+    public void testHampelFilter() {
+        double[] points = weeklySeries(42);
+        points[30] = 500;
+        points[31] = 20;
+        double[] cleaned = points.clone();
+        HampelFilter filter = new HampelFilter(14, 3);
+        assertEquals(2, filter.filter(cleaned));
+        assertTrue(cleaned[30] < 200);
+        assertTrue(cleaned[31] > 50);
+        for (int i = 0; i < points.length; i++)
+            if (i != 30 && i != 31)
+                assertEquals(points[i], cleaned[i]);
+    }
+
+    public void testSeasonalMedianFilterKeepsWeeklyPeak() {
+        double[] points = weeklySeries(56);
+        for (int i = 6; i < points.length; i += 7)
+            points[i] *= 4;
+        points[45] = 400;
+        double[] cleaned = points.clone();
+
+        assertEquals(1, new SeasonalMedianFilter(7, 6, 3).filter(cleaned));
+        assertTrue(cleaned[45] < 200);
+        assertTrue(new HampelFilter(7, 3).filter(points.clone()) > 1);
+    }
+
+    public void testTransformMatchesStream() {
+        double[] points = weeklySeries(60);
+        points[25] = 900;
+        points[50] = 1;
+        AbstractOutlierFilter[] filters = {new RollingMedianFilter(200, 7), new HampelFilter(14, 3),
+                new SeasonalMedianFilter(7, 3, 3)};
+        for (AbstractOutlierFilter filter : filters) {
+            filter.init(SampleDataFactory.toDataSet(points));
+            double[] transformed = filter.transform().toArray();
+            filter.reset();
+            for (int i = 0; i < points.length; i++)
+                assertEquals(transformed[i], filter.accept(points[i]));
+            assertTrue(filter.getOutliers() > 0);
+        }
+    }
+
+    private static double median(double[] sorted) {
+        int n = sorted.length;
+        return n % 2 == 1 ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2;
+    }
+
+    private static double[] weeklySeries(int points) {
+        return SampleDataFactory.getNoisyWeeklySeries(points, 115, 0, 15, 3, points);
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.models.tests;
+
+import com.forecasting.models.BatchForecaster;
+import com.forecasting.models.dto.DataSet;
+import com.forecasting.models.dto.Model;
+import com.forecasting.models.io.SegmentCsvLoader;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+public class SegmentCsvLoaderTest extends TestCase {
+
+    public SegmentCsvLoaderTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(SegmentCsvLoaderTest.class);
+    }
+
+    public void testParseDoubleMatchesJdk() {
+        Random random = new Random(11);
+        List<String> values = new ArrayList<String>(Arrays.asList("0", "-0.0", "1.", ".5", "+2.5", "1e5", "2.0589463E7",
+                "1.7976931348623157E308", "4.9E-324", "123456789012345678", "0.1000000000000000055511", "1e-400",
+                "NaN", "-Infinity", " 42 ", "3.0d", "007.50", "1E22", "1E23", "9007199254740993"));
+        for (int i = 0; i < 20000; i++) {
+            double value = i % 2 == 0 ? random.nextDouble() * Math.pow(10, random.nextInt(40) - 20) : Math.rint(random.nextGaussian() * 1e6) / 100;
+            values.add(Double.toString(value));
+            values.add(String.format(Locale.ROOT, "%.6f", value));
+            values.add(Float.toString((float) value));
+        }
+        for (String value : values) {
+            ByteBuffer buffer = ByteBuffer.wrap(value.getBytes());
+            assertEquals(value, Double.doubleToRawLongBits(Double.parseDouble(value)),
+                    Double.doubleToRawLongBits(SegmentCsvLoader.parseDouble(buffer, 0, buffer.limit())));
+        }
+    }
+
+    public void testInvalidValues() {
+        for (String value : new String[]{"", "-", ".", "1e", "1,5", "abc"})
+            try {
+                SegmentCsvLoader.parseDouble(ByteBuffer.wrap(value.getBytes()), 0, value.length());
+                fail(value);
+            } catch (NumberFormatException e) {
+                // expected
+            }
+    }
+
+    public void testNonAsciiValues() throws Exception {
+        // bytes of multi-byte UTF-8 characters are not whitespace, Double.parseDouble rejects them too
+        for (String value : new String[]{"\u00e9", "1.5\u00a0", "\u00a02"}) {
+            byte[] bytes = value.getBytes("UTF-8");
+            try {
+                SegmentCsvLoader.parseDouble(ByteBuffer.wrap(bytes), 0, bytes.length);
+                fail(value);
+            } catch (NumberFormatException e) {
+                // expected
+            }
+        }
+
+        File file = File.createTempFile("segments", ".csv");
+        file.deleteOnExit();
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        writer.write("k1,1,2\nk2,3,\u00e9\n");
+        writer.close();
+        try {
+            new SegmentCsvLoader().load(file);
+            fail();
+        } catch (NumberFormatException e) {
+            // expected
+        }
+    }
+
+    public void testLoadMatchesLineParser() throws Exception {
+        File file = new File(getClass().getResource("/golden_dataset.csv").getPath());
+        Map<String, double[]> expected = readLines(file);
+
+        SegmentCsvLoader loader = new SegmentCsvLoader();
+        assertSeries(expected, loader.load(file));
+
+        loader.setChunkSize(1000);
+        loader.setParallelism(3);
+        assertSeries(expected, loader.load(file));
+    }
+
+    public void testLineEndings() throws Exception {
+        File file = File.createTempFile("segments", ".csv");
+        file.deleteOnExit();
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        writer.write("a,1,2.5,3,\r\nb\n\nc,-1e3, 4 ,,\na,7");
+        writer.close();
+
+        SegmentCsvLoader loader = new SegmentCsvLoader();
+        loader.setChunkSize(4);
+        Map<String, double[]> series = loader.load(file);
+        assertEquals(Arrays.asList("b", "c", "a"), new ArrayList<String>(series.keySet()));
+        assertEquals(0, series.get("b").length);
+        assertTrue(Arrays.equals(new double[]{-1000, 4}, series.get("c")));
+        assertTrue(Arrays.equals(new double[]{7}, series.get("a")));
+    }
+
+    public void testBatchForecastOfLoadedSeries() throws Exception {
+        File file = new File(getClass().getResource("/golden_dataset.csv").getPath());
+        Map<String, double[]> series = new LinkedHashMap<String, double[]>();
+        for (Map.Entry<String, double[]> entry : new SegmentCsvLoader().load(file).entrySet())
+            if (series.size() < 4)
+                series.put(entry.getKey(), Arrays.copyOf(entry.getValue(), 91));
+
+        BatchForecaster batch = new BatchForecaster(Arrays.asList(Model.DES, Model.SES, Model.ENSEMBLE), 63, 21, 7, 7);
+        batch.setParallelism(2);
+        Map<String, DataSet> forecasts = batch.forecastSeries(series);
+        assertEquals(series.keySet(), forecasts.keySet());
+        for (DataSet forecast : forecasts.values())
+            assertEquals(7, forecast.size());
+    }
+
+    private static Map<String, double[]> readLines(File file) throws IOException {
+        Map<String, double[]> series = new LinkedHashMap<String, double[]>();
+        BufferedReader reader = new BufferedReader(new FileReader(file));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String[] token = line.split(",");
+            double[] values = new double[token.length - 1];
+            for (int i = 1; i < token.length; i++)
+                values[i - 1] = Double.parseDouble(token[i]);
+            series.put(token[0], values);
+        }
+        reader.close();
+        return series;
+    }
+
+    private static void assertSeries(Map<String, double[]> expected, Map<String, double[]> actual) {
+        assertEquals(new ArrayList<String>(expected.keySet()), new ArrayList<String>(actual.keySet()));
+        for (String key : expected.keySet())
+            assertTrue(key, Arrays.equals(expected.get(key), actual.get(key)));
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.models.tests;
+
+import com.forecasting.models.dto.ColumnarDataSet;
+import com.forecasting.models.dto.DataSet;
+import com.forecasting.models.dto.IndependentVariable;
+import com.forecasting.models.dto.Observation;
+import com.forecasting.models.io.SegmentStore;
+import com.forecasting.models.utils.AccuracyIndicators;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+
+public class SegmentStoreTest extends TestCase {
+
+    private File file;
+
+    public SegmentStoreTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(SegmentStoreTest.class);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        file = File.createTempFile("segments", ".store");
+        file.delete();
+    }
+
+    @Override
+    protected void tearDown() {
+        file.delete();
+    }
+
+    public void testSeriesAndForecasts() throws Exception {
+        DataSet forecast = new DataSet();
+        for (int i = 0; i < 7; i++) {
+            Observation observation = new Observation();
+            observation.setIndependentValue(IndependentVariable.SLICE, 91 + i);
+            observation.setDependentValue(100 + i);
+            observation.setLowerDependentValue(90 + i);
+            observation.setUpperDependentValue(110 + i);
+            forecast.add(observation);
+        }
+        AccuracyIndicators indicators = new AccuracyIndicators();
+        indicators.setMAPE(4.5);
+        indicators.setMSE(12.25);
+        indicators.setBias(-0.5);
+
+        SegmentStore store = SegmentStore.open(file);
+        store.putSeries("TS-1", new double[]{1, 2, 3});
+        store.putSeries("TS-2", new double[]{Double.NaN, -4.25});
+        store.putForecast("TS-1", forecast, indicators);
+        assertEquals(3, store.getSeries("TS-1").remaining());
+        store.close();
+
+        store = SegmentStore.openReadOnly(file);
+        assertEquals(Arrays.asList("TS-1", "TS-2"), Arrays.asList(store.getSeriesKeys().toArray()));
+        assertTrue(Arrays.equals(new double[]{1, 2, 3}, toArray(store.getSeries("TS-1"))));
+        assertTrue(Arrays.equals(new double[]{Double.NaN, -4.25}, toArray(store.getSeries("TS-2"))));
+        assertNull(store.getSeries("TS-3"));
+        assertNull(store.getForecast("TS-2"));
+
+        ColumnarDataSet restored = store.getForecastDataSet("TS-1");
+        assertEquals(7, restored.size());
+        assertEquals(91, restored.getSlice(0));
+        assertEquals(97, restored.getSlice(6));
+        assertEquals(106d, restored.get(6));
+        assertEquals(96d, restored.getLower(6));
+        assertEquals(116d, restored.getUpper(6));
+        assertEquals(110d, store.getUpperBounds("TS-1").get(0));
+        assertEquals(12.25, store.getAccuracyIndicators("TS-1").getMSE());
+        assertEquals(-0.5, store.getAccuracyIndicators("TS-1").getBias());
+        try {
+            store.putSeries("TS-4", new double[]{1});
+            fail();
+        } catch (IllegalStateException e) {
+            // read only
+        }
+        store.close();
+    }
+
+    public void testAppendAndReplace() throws Exception {
+        SegmentStore store = SegmentStore.open(file);
+        store.putSeries("a", new double[]{1});
+        store.putSeries("b", new double[]{2, 2});
+        store.close();
+
+        store = SegmentStore.open(file);
+        store.putSeries("b", new double[]{3, 3, 3});
+        store.putSeries("c", new double[]{4});
+        assertEquals(3, store.getSeries("b").remaining());
+        store.close();
+
+        store = SegmentStore.openReadOnly(file);
+        assertEquals(3, store.getSeriesKeys().size());
+        assertTrue(Arrays.equals(new double[]{1}, toArray(store.getSeries("a"))));
+        assertTrue(Arrays.equals(new double[]{3, 3, 3}, toArray(store.getSeries("b"))));
+        store.close();
+    }
+
+    public void testUnflushedAppendKeepsPreviousIndex() throws Exception {
+        SegmentStore store = SegmentStore.open(file);
+        store.putSeries("a", new double[]{1, 2});
+        store.close();
+
+        // Simulates a writer that died before flushing: a block appended and no new index
+        RandomAccessFile raw = new RandomAccessFile(file, "rw");
+        raw.seek(raw.length());
+        raw.write(new byte[40]);
+        raw.close();
+
+        store = SegmentStore.openReadOnly(file);
+        assertEquals(1, store.getSeriesKeys().size());
+        assertTrue(Arrays.equals(new double[]{1, 2}, toArray(store.getSeries("a"))));
+        store.close();
+    }
+
+    public void testRejectsOtherFiles() throws Exception {
+        RandomAccessFile raw = new RandomAccessFile(file, "rw");
+        raw.write(new byte[64]);
+        raw.close();
+        try {
+            SegmentStore.openReadOnly(file);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("Not a segment store"));
+        }
+    }
+
+    private static double[] toArray(DoubleBuffer buffer) {
+        double[] values = new double[buffer.remaining()];
+        buffer.get(values);
+        return values;
+    }
+}
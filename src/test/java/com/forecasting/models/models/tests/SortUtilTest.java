@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.models.tests;
+
+import com.forecasting.models.models.impl.FFTModelImproved;
+import com.forecasting.models.preprocess.SeasonalityCalculatorUsingAutoCorrelation;
+import com.forecasting.models.utils.SortUtil;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class SortUtilTest extends TestCase {
+
+    public SortUtilTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(SortUtilTest.class);
+    }
+
+    public void testMatchesStableInsertionSort() {
+        Random random = new Random(7);
+        for (int length = 0; length < 70; length++) {
+            double[] values = new double[length];
+            for (int i = 0; i < length; i++)
+                values[i] = random.nextInt(5) - 2;
+            if (length > 2)
+                values[1] = -0.0;
+
+            double[][] rows = new double[length][2];
+            for (int i = 0; i < length; i++) {
+                rows[i][0] = i;
+                rows[i][1] = values[i];
+            }
+            insertionSort(rows);
+
+            int[] order = SortUtil.descendingOrder(values, length);
+            for (int i = 0; i < length; i++)
+                assertEquals(rows[i][0], (double) order[i]);
+        }
+    }
+
+    public void testSortRowsDescending() {
+        double[][] rows = {{0, 1.5}, {1, 3}, {2, 1.5}, {3, -1}, {4, 3}};
+        SortUtil.sortRowsDescending(rows, 1);
+        double[] shifts = new double[rows.length];
+        for (int i = 0; i < rows.length; i++)
+            shifts[i] = rows[i][0];
+        assertTrue(Arrays.equals(new double[]{1, 4, 0, 2, 3}, shifts));
+    }
+
+    public void testSortDescending() {
+        double[] values = {2, 9, -3, 4, 4, 0};
+        SortUtil.sortDescending(values);
+        assertTrue(Arrays.equals(new double[]{9, 4, 4, 2, 0, -3}, values));
+    }
+
+    @SuppressWarnings("deprecation")
+    public void testDeprecatedMagnitudeSort() {
+        FFTModelImproved model = new FFTModelImproved(21, 7, 7, 5);
+        double[] values = {3, 1, 3, 0, 7, -0.0, 0.0};
+        List<FFTModelImproved.MagnitudeObj> magnitudes = new ArrayList<FFTModelImproved.MagnitudeObj>();
+        for (int i = 0; i < values.length; i++) {
+            FFTModelImproved.MagnitudeObj magnitude = model.new MagnitudeObj();
+            magnitude.setIndex(i);
+            magnitude.setValue(values[i]);
+            magnitudes.add(magnitude);
+        }
+        model.insertionSort(magnitudes);
+        int[] order = SortUtil.descendingOrder(values, values.length);
+        for (int i = 0; i < order.length; i++)
+            assertEquals(order[i], magnitudes.get(i).getIndex());
+        assertEquals(4, magnitudes.get(0).getIndex());
+    }
+
+    public void testCyclePeriodMatchesFullSort() {
+        Random random = new Random(11);
+        SeasonalityCalculatorUsingAutoCorrelation calculator = new SeasonalityCalculatorUsingAutoCorrelation();
+        for (int length = 4; length < 120; length++) {
+            double[] ts = new double[length];
+            for (int i = 0; i < length; i++)
+                ts[i] = Math.sin(2 * Math.PI * i / 7) + random.nextInt(3);
+
+            double[][] correlation = new double[length / 2][2];
+            for (int shift = 0; shift < length / 2; shift++) {
+                double product = 0;
+                for (int index = 0; index < length - shift; index++)
+                    product += ts[index + shift] * ts[index];
+                correlation[shift][0] = shift;
+                correlation[shift][1] = product / (length - shift);
+            }
+            insertionSort(correlation);
+
+            int expected = (int) Math.abs(correlation[1][0] - correlation[0][0]);
+            assertEquals(expected, calculator.findCyclePeriod(ts));
+        }
+        assertEquals(1, calculator.findCyclePeriod(new double[]{1, 2, 3}));
+    }
+
+    private static void insertionSort(double[][] array) {
+        for (int i = 1; i < array.length; i++) {
+            int j = i;
+            double index = array[i][0];
+            double value = array[i][1];
+            while ((j > 0) && (array[j - 1][1] < value)) {
+                array[j][0] = array[j - 1][0];
+                array[j][1] = array[j - 1][1];
+                j--;
+            }
+            array[j][0] = index;
+            array[j][1] = value;
+        }
+    }
+}
@@ -26,6 +26,7 @@ import com.forecasting.models.models.ForecastModel;
 import com.forecasting.models.exception.ModelInitializationException;
 import com.forecasting.models.experimental.TESMMultipleSeasonalityModel;
 import com.forecasting.models.models.util.ConfigManager;
+import com.forecasting.models.optimizer.GridSearchOptimizer;
 import junit.framework.Test;
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
@@ -33,6 +34,8 @@ import junit.framework.TestSuite;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 public class TESMwithMultipleSeasonalityTest extends TestCase {
 
@@ -100,4 +103,73 @@ public class TESMwithMultipleSeasonalityTest extends TestCase {
         }
     }
 
-}
\ No newline at end of file
+    public void testParallelSearchMatchesGridSearch() throws Exception {
+        String fileName = this.getClass().getResource(ConfigManager.get("input.weekly")).getPath();
+        BufferedReader br = new BufferedReader(new FileReader(fileName));
+        String[] dataPts = br.readLine().split(",");
+        br.close();
+
+        DataSet timeSeries = new DataSet();
+        for (int i = 1; i < dataPts.length; i++) {
+            DataPoint observation = new Observation();
+            observation.setIndependentValue(IndependentVariable.SLICE, timeSeries.size());
+            observation.setDependentValue(Double.parseDouble(dataPts[i]));
+            timeSeries.add(observation);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        TESMMultipleSeasonalityModel parallel = new TESMMultipleSeasonalityModel(65, 13, 4, 13);
+        parallel.setSearchPool(pool);
+        parallel.init(timeSeries);
+        parallel.train();
+        parallel.forecast(13);
+        pool.shutdown();
+
+        TESMMultipleSeasonalityModel sequential = new TESMMultipleSeasonalityModel(65, 13, 4, 13);
+        sequential.setParameterOptimizer(new GridSearchOptimizer(0.1f, 1f));
+        sequential.init(timeSeries);
+        sequential.train();
+        sequential.forecast(13);
+
+        assertEquals(0, sequential.getAbandonedEvaluations());
+        assertEquals(sequential.getParameterEvaluations(), parallel.getParameterEvaluations() + parallel.getAbandonedEvaluations());
+        assertTrue(parallel.getAbandonedEvaluations() > 0);
+        assertEquals(sequential.getOptAlpha(), parallel.getOptAlpha());
+        assertEquals(sequential.getOptBeta(), parallel.getOptBeta());
+        assertEquals(sequential.getOptGamma(), parallel.getOptGamma());
+        assertEquals(sequential.getOptDelta(), parallel.getOptDelta());
+        assertEquals(sequential.getMin_mse_error(), parallel.getMin_mse_error());
+        assertEquals(sequential.getAccuracyIndicators().getMSE(), parallel.getAccuracyIndicators().getMSE());
+        assertTrue(Arrays.equals(sequential.getForecastDataSet().toArray(), parallel.getForecastDataSet().toArray()));
+    }
+
+    public void testOverflowingSearchMatchesGridSearch() throws Exception {
+        // squared errors of values this large overflow, every completed pass ends with an infinite error
+        DataSet timeSeries = new DataSet();
+        for (int i = 0; i < 65; i++) {
+            DataPoint observation = new Observation();
+            observation.setIndependentValue(IndependentVariable.SLICE, i);
+            observation.setDependentValue(1e300 * (1 + i % 4 + i % 13));
+            timeSeries.add(observation);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        TESMMultipleSeasonalityModel parallel = new TESMMultipleSeasonalityModel(52, 13, 4, 13);
+        parallel.setSearchPool(pool);
+        parallel.init(timeSeries);
+        parallel.train();
+        pool.shutdown();
+
+        TESMMultipleSeasonalityModel sequential = new TESMMultipleSeasonalityModel(52, 13, 4, 13);
+        sequential.setParameterOptimizer(new GridSearchOptimizer(0.1f, 1f));
+        sequential.init(timeSeries);
+        sequential.train();
+
+        assertEquals(0, parallel.getAbandonedEvaluations());
+        assertEquals(sequential.getParameterEvaluations(), parallel.getParameterEvaluations());
+        assertEquals(sequential.getOptAlpha(), parallel.getOptAlpha());
+        assertEquals(sequential.getOptBeta(), parallel.getOptBeta());
+        assertEquals(sequential.getOptGamma(), parallel.getOptGamma());
+        assertEquals(sequential.getOptDelta(), parallel.getOptDelta());
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.models.tests;
+
+import com.forecasting.models.Forecaster;
+import com.forecasting.models.models.ForecastModel;
+import com.forecasting.models.models.impl.AbstractForecastModel;
+import com.forecasting.models.models.impl.CDGRModel;
+import com.forecasting.models.models.impl.EnsembleModel;
+import com.forecasting.models.models.impl.FFTModelImproved;
+import com.forecasting.models.models.impl.SingleExponentialSmoothingModel;
+import com.forecasting.models.models.impl.WalkForwardValidator;
+import com.forecasting.models.models.impl.WeightedMovingAverageModel;
+import com.forecasting.models.models.util.SampleDataFactory;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+public class WalkForwardValidatorTest extends TestCase {
+
+    public WalkForwardValidatorTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(WalkForwardValidatorTest.class);
+    }
+
+    public void testOrigins() {
+        WalkForwardValidator expanding = WalkForwardValidator.expanding(35, 7);
+        WalkForwardValidator rolling = WalkForwardValidator.rolling(35, 7, 14);
+        for (int point = 0; point < 7; point++) {
+            assertEquals(0, expanding.startPoint(point));
+            assertEquals(35 + point, expanding.endPoint(point));
+            assertEquals(21 + point, rolling.startPoint(point));
+            assertEquals(35 + point, rolling.endPoint(point));
+        }
+
+        try {
+            WalkForwardValidator.rolling(35, 7, 36);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // window longer than the points before the first origin
+        }
+    }
+
+    public void testConcurrentOriginsMatchSequential() throws Exception {
+        final double[] series = SampleDataFactory.getSeasonalDataSet(42, 0, true).toArray();
+        WalkForwardValidator.Fold fold = new WalkForwardValidator.Fold() {
+            public void validate(int point, int startPoint, int endPoint, double[] row) {
+                double sum = 0;
+                for (int i = startPoint; i < endPoint; i++)
+                    sum += series[i];
+                row[0] = series[endPoint];
+                row[1] = sum / (endPoint - startPoint);
+            }
+        };
+        WalkForwardValidator validator = WalkForwardValidator.rolling(35, 7, 7);
+        double[][] sequential = validator.validate(fold);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            double[][] concurrent = validator.validate(fold, pool);
+            assertTrue(Arrays.deepEquals(sequential, concurrent));
+
+            AbstractForecastModel[][] models = {
+                    {new FFTModelImproved(35, 7, 7, 5), new FFTModelImproved(35, 7, 7, 5)},
+                    {new WeightedMovingAverageModel(null, 7, 1, 35, 7), new WeightedMovingAverageModel(null, 7, 1, 35, 7)},
+                    {new CDGRModel(7, 7), new CDGRModel(7, 7)}};
+            for (AbstractForecastModel[] pair : models) {
+                pair[1].setValidationPool(pool);
+                for (AbstractForecastModel model : pair) {
+                    model.init(SampleDataFactory.getSeasonalDataSet(42, 0, true));
+                    model.train();
+                    model.forecast(7);
+                }
+                assertEquals(pair[0].getAccuracyIndicators().toString(), pair[1].getAccuracyIndicators().toString());
+                assertTrue(Arrays.equals(pair[0].getForecastDataSet().toArray(), pair[1].getForecastDataSet().toArray()));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public void testForecasterValidatesOnPool() throws Exception {
+        Forecaster sequential = new Forecaster();
+        sequential.init(SampleDataFactory.getSeasonalDataSet(42, 0, true));
+        double[] expected = sequential.forecast(35, 7, 7, 7).toArray();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Forecaster forecaster = new Forecaster();
+            forecaster.setValidationPool(pool);
+            forecaster.init(SampleDataFactory.getSeasonalDataSet(42, 0, true));
+            assertTrue(Arrays.equals(expected, forecaster.forecast(35, 7, 7, 7).toArray()));
+            for (ForecastModel model : forecaster.getAllModels())
+                if (model instanceof AbstractForecastModel && !(model instanceof EnsembleModel))
+                    assertSame(model.getModelName(), pool, ((AbstractForecastModel) model).getValidationPool());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public void testEveryOriginValidated() throws Exception {
+        SingleExponentialSmoothingModel model = new SingleExponentialSmoothingModel(35, 7);
+        model.init(SampleDataFactory.getSeasonalDataSet(42, 0, true));
+        model.train();
+        assertFalse(Double.isNaN(model.getAccuracyIndicators().getMAPE()));
+    }
+}
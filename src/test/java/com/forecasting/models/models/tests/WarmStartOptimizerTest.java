@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.forecasting.models.models.tests;
+
+import com.forecasting.models.BatchForecaster;
+import com.forecasting.models.dto.DataSet;
+import com.forecasting.models.dto.Model;
+import com.forecasting.models.models.impl.*;
+import com.forecasting.models.models.util.SampleDataFactory;
+import com.forecasting.models.optimizer.*;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class WarmStartOptimizerTest extends TestCase {
+
+    private static final ParameterOptimizer GRID = new GridSearchOptimizer(0.1f, 1.01f);
+
+    private static final ParameterObjective BOWL = new ParameterObjective() {
+        public double value(float[] parameters) {
+            double value = 1d, target;
+            for (int i = 0; i < parameters.length; i++) {
+                target = i % 2 == 0 ? 0.3 : 0.7;
+                value += (parameters[i] - target) * (parameters[i] - target);
+            }
+            return value;
+        }
+    };
+
+    public WarmStartOptimizerTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(WarmStartOptimizerTest.class);
+    }
+
+    public void testNeighbourhood() {
+        WarmStartOptimizer optimizer = new WarmStartOptimizer(new float[]{0.4f, 0.6f, 0.3f}, 1d, 0.1f, GRID);
+        OptimizationResult result = optimizer.optimize(BOWL, 3);
+        assertEquals(125, result.getEvaluations());
+        assertEquals(0.3, result.getParameters()[0], 1e-5);
+        assertEquals(0.7, result.getParameters()[1], 1e-5);
+        assertEquals(0.3, result.getParameters()[2], 1e-5);
+    }
+
+    public void testNeighbourhoodClippedAtLimits() {
+        WarmStartOptimizer optimizer = new WarmStartOptimizer(new float[]{0f, 1f}, Double.NaN, 0.1f, GRID);
+        assertEquals(9, optimizer.points().size());
+        for (float[] point : optimizer.points())
+            assertTrue(point[0] >= 0f && point[1] <= 1f);
+        // Optimum on the limits of [0,1] does not need a full search
+        assertTrue(optimizer.accepts(new float[]{0f, 1f}, 1d));
+        assertFalse(optimizer.accepts(new float[]{0.2f, 1f}, 1d));
+    }
+
+    public void testFallbackOnBoundary() {
+        WarmStartOptimizer optimizer = new WarmStartOptimizer(new float[]{0.9f, 0.1f, 0.9f}, Double.NaN, 0.1f, GRID);
+        OptimizationResult result = optimizer.optimize(BOWL, 3);
+        assertEquals(4 * 4 * 4 + 1331, result.getEvaluations());
+        assertEquals(GRID.optimize(BOWL, 3).getValue(), result.getValue());
+    }
+
+    public void testFallbackOnDegradedError() {
+        WarmStartOptimizer optimizer = new WarmStartOptimizer(new float[]{0.3f, 0.7f, 0.3f}, 0.5d, 0.1f, GRID);
+        assertEquals(125 + 1331, optimizer.optimize(BOWL, 3).getEvaluations());
+        optimizer = new WarmStartOptimizer(new float[]{0.3f, 0.7f, 0.3f}, 0.95d, 0.1f, GRID);
+        assertEquals(125, optimizer.optimize(BOWL, 3).getEvaluations());
+    }
+
+    public void testModelsSeededFromPreviousRun() throws Exception {
+        DataSet lastWeek = series(196, 0), today = series(196, 7);
+        List<AbstractForecastModel> fitted = models();
+        for (AbstractForecastModel model : fitted) {
+            model.init(lastWeek);
+            model.train();
+        }
+        ParameterPriors priors = ParameterPriors.of(fitted);
+
+        List<AbstractForecastModel> full = models(), warm = models();
+        long fullEvaluations = 0, warmEvaluations = 0;
+        for (int i = 0; i < full.size(); i++) {
+            full.get(i).init(today);
+            full.get(i).train();
+            priors.apply(warm.get(i));
+            assertNotNull(warm.get(i).getPriorParameters());
+            warm.get(i).init(today);
+            warm.get(i).train();
+            String name = warm.get(i).getModelName();
+            assertTrue(name, warm.get(i).getParameterEvaluations() < full.get(i).getParameterEvaluations());
+            assertTrue(name, warm.get(i).getAccuracyIndicators().getMSE() <= full.get(i).getAccuracyIndicators().getMSE() * 1.05);
+            fullEvaluations += full.get(i).getParameterEvaluations();
+            warmEvaluations += warm.get(i).getParameterEvaluations();
+        }
+        assertTrue(warmEvaluations * 10 < fullEvaluations);
+    }
+
+    public void testBatchForecasterUpdatesPriors() throws Exception {
+        Map<String, DataSet> segments = new HashMap<String, DataSet>();
+        segments.put("a", series(84, 0));
+        segments.put("b", series(91, 3));
+        BatchForecaster batch = new BatchForecaster(Arrays.asList(Model.TESA, Model.DES, Model.ENSEMBLE), 56, 14, 7, 7);
+        batch.setParallelism(2);
+        Map<String, ParameterPriors> priors = new ConcurrentHashMap<String, ParameterPriors>();
+        batch.setParameterPriors(priors);
+        batch.forecast(segments);
+        assertEquals(segments.keySet(), priors.keySet());
+        assertEquals(3, priors.get("a").getParameters(Model.TESA).length);
+        assertEquals(2, priors.get("b").getParameters(Model.DES).length);
+        assertFalse(Double.isNaN(priors.get("a").getError(Model.TESA)));
+        assertEquals(2, batch.forecast(segments).size());
+    }
+
+    private static List<AbstractForecastModel> models() {
+        return Arrays.<AbstractForecastModel>asList(new TripleExponentialSmoothingAdditiveModel(182, 14, 7),
+                new TripleExponentialSmoothingMultiplicativeModel(182, 14, 7), new DoubleExponentialSmoothingModel(182, 14),
+                new SingleExponentialSmoothingModel(182, 14), new SeasonalSingleExponentialSmoothingModel(182, 14, 7));
+    }
+
+    private static DataSet series(int size, int offset) {
+        double[] values = SampleDataFactory.getNoisyWeeklySeries(offset + size, 200, 0.5, 30, 5, 7);
+        return SampleDataFactory.toDataSet(Arrays.copyOfRange(values, offset, offset + size));
+    }
+}
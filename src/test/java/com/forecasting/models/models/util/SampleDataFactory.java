@@ -193,6 +193,73 @@ public class SampleDataFactory {
 
 
 
+    /**
+     * Weekly seasonal series with a trend, 1000 + 100 * segment + (i % 7) * 50 + 3 * i
+     *
+     * @param points
+     * @param segment shifts the level so that segments differ
+     * @return
+     */
+    public static DataSet getSeasonalDataSet(int points, int segment) {
+        return getSeasonalDataSet(points, segment, false);
+    }
+
+    /**
+     * Weekly seasonal series with a trend, optionally with a deterministic jitter of up to 10 so that the
+     * validation errors of the models differ
+     *
+     * @param points
+     * @param segment  shifts the level so that segments differ
+     * @param jittered
+     * @return
+     */
+    public static DataSet getSeasonalDataSet(int points, int segment, boolean jittered) {
+        DataSet dataSet = new DataSet();
+        for (int i = 0; i < points; i++) {
+            Observation observation = new Observation();
+            observation.setIndependentValue(IndependentVariable.SLICE, i);
+            observation.setDependentValue(1000 + 100 * segment + (i % 7) * 50 + i * 3 + (jittered ? i * 37 % 11 : 0));
+            dataSet.add(observation);
+        }
+        return dataSet;
+    }
+
+    /**
+     * Weekly sine with a trend and gaussian noise, level + trend * i + amplitude * sin(2 pi i / 7) + noise * N(0, 1)
+     *
+     * @param points
+     * @param level
+     * @param trend
+     * @param amplitude
+     * @param noise     standard deviation of the noise, drawn in order from new Random(seed)
+     * @param seed
+     * @return
+     */
+    public static double[] getNoisyWeeklySeries(int points, double level, double trend, double amplitude, double noise, long seed) {
+        Random random = new Random(seed);
+        double[] values = new double[points];
+        for (int i = 0; i < points; i++)
+            values[i] = level + trend * i + amplitude * Math.sin(2 * Math.PI * i / 7) + noise * random.nextGaussian();
+        return values;
+    }
+
+    /**
+     * DataSet of the values with slices from 0
+     *
+     * @param values
+     * @return
+     */
+    public static DataSet toDataSet(double[] values) {
+        DataSet dataSet = new DataSet();
+        for (int i = 0; i < values.length; i++) {
+            Observation observation = new Observation();
+            observation.setIndependentValue(IndependentVariable.SLICE, i);
+            observation.setDependentValue(values[i]);
+            dataSet.add(observation);
+        }
+        return dataSet;
+    }
+
     public double[] getDummyArray(int points) {
         double[] array = new double[points];
         for (int i = 0; i < array.length; i++)